@@ -61,9 +61,16 @@ def classfile(classname)
 end
 
 def translate(s)
+  # the text after a "//FLOAT//" marker already is the float version, keep
+  # it out of the translation below
+  overrides = []
+  s = s.gsub(/\/\/FLOAT\/\/(.*)$/) { overrides << $1; "//FLOAT//#{overrides.size - 1}" }
+
   s.gsub! /DoubleMatrix/, 'FloatMatrix'
   s.gsub! /DoubleBuffer/, 'FloatBuffer'
   s.gsub! /DoubleVector/, 'FloatVector'
+  s.gsub! /DoubleTensor/, 'FloatTensor'
+  s.gsub! /DoubleStatistics/, 'FloatStatistics'
   s.gsub! /ComplexDouble/, 'ComplexFloat'
   s.gsub! /([0-9]+\.[0-9]+(?:[eE]-?[0-9]+)?)/, '\1f'
   s.gsub! /double/, 'float'
@@ -90,7 +97,7 @@ def translate(s)
       i = line.index('//FLOAT//')
       if i
         discard_lines = 1
-        result <<= line[(i + "//FLOAT//".length)..-1]
+        result <<= overrides[line[(i + "//FLOAT//".length)..-1].to_i]
       else
         result <<= line
       end
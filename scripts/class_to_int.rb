@@ -0,0 +1,109 @@
+## --- BEGIN LICENSE BLOCK ---
+# Copyright (c) 2009, Mikio L. Braun
+# All rights reserved.
+# 
+# Redistribution and use in source and binary forms, with or without
+# modification, are permitted provided that the following conditions are
+# met:
+# 
+#     * Redistributions of source code must retain the above copyright
+#       notice, this list of conditions and the following disclaimer.
+# 
+#     * Redistributions in binary form must reproduce the above
+#       copyright notice, this list of conditions and the following
+#       disclaimer in the documentation and/or other materials provided
+#       with the distribution.
+# 
+#     * Neither the name of the Technische Universitaet Berlin nor the
+#       names of its contributors may be used to endorse or promote
+#       products derived from this software without specific prior
+#       written permission.
+# 
+# THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+# "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+# LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+# A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+# HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+# SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+# LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+# DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+# THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+# (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+# OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+## --- END LICENSE BLOCK ---
+
+$CRLF = false
+
+def readfile(fn)
+  f = open(fn)
+  s = f.read
+  f.close
+  if s.index("\r\n")
+    $CRLF = true
+    puts "#$0: Detected CRLF instead of LF"
+    s.gsub! /\r\n/, "\n"
+  end
+  s
+end
+
+def writefile(fn, s)
+  if $CRLF
+    puts "#$0: Translating LF back to CRLF"
+    s.gsub! /\n/, "\r\n"
+  end
+  f = open(fn, 'w')
+  f.write s
+  f.close
+end
+
+def classfile(classname)
+  classname.tr('.', File::SEPARATOR) + '.java'
+end
+
+def translate(s)
+  # go through lines. If a line contains "//INT//" replace the next line by
+  # the rest of that line, only renaming the class. This keeps 64 bit
+  # accumulators and serialVersionUID as long.
+  discard_lines = 0
+  result = []
+  s.split("\n").each do |line|
+    if discard_lines > 0
+      discard_lines -= 1
+    else
+      i = line.index('//INT//')
+      if i
+        discard_lines = 1
+        result <<= line[(i + "//INT//".length)..-1].gsub(/LongMatrix/, 'IntMatrix')
+      else
+        line = line.gsub(/LongMatrix/, 'IntMatrix')
+        line.gsub! /LongBuffer/, 'IntBuffer'
+        line.gsub! /\blong\b/, 'int'
+        line.gsub! /Long\./, 'Integer.'
+        line.gsub! /readLong/, 'readInt'
+        line.gsub! /writeLong/, 'writeInt'
+        result <<= line
+      end
+    end
+  end
+
+  result.join("\n")
+end
+
+if ARGV.size < 2
+  puts "Usage: ruby class_to_int.rb srcprefix classname"
+  exit
+end
+
+prefix = ARGV[0]
+source = ARGV[1]
+target = source.gsub(/Long/, 'Int')
+
+sourcefn = File.join(prefix, classfile(source))
+targetfn = File.join(prefix, classfile(target))
+
+if File.exist? sourcefn
+  s = readfile(sourcefn)
+  writefile(targetfn, translate(s))
+else
+  puts "Could not read file #{sourcefn}"
+end
@@ -77,6 +77,14 @@ public class <%= classname %> {
     NativeBlasLibraryLoader.loadLibraryAndCheckErrors();
   }
 
+  /**
+   * Returns true if the native library could be loaded. Classes with pure Java
+   * fallbacks use this to decide whether to call the native routines.
+   */
+  public static boolean isLoaded() {
+    return NativeBlasLibraryLoader.isLoaded();
+  }
+
   private static int[] intDummy = new int[1];
   private static double[] doubleDummy = new double[1];
   private static float[] floatDummy = new float[1];
@@ -110,7 +110,7 @@ static void throwIllegalArgumentException(JNIEnv *env, const char *message)
 /**********************************************************************/
 
 static char *routine_names[] = {
- "CAXPY",  "CCOPY",  "CDOTC",  "CDOTU",  "CGEEV",  "CGEMM",  "CGEMV",  "CGERC",  "CGERU",  "CGESVD",  "CSCAL",  "CSSCAL",  "CSWAP",  "DASUM",  "DAXPY",  "DCOPY",  "DDOT",  "DGEEV",  "DGELSD",  "DGEMM",  "DGEMV",  "DGEQRF",  "DGER",  "DGESV",  "DGESVD",  "DGETRF",  "DNRM2",  "DORGQR",  "DORMQR",  "DPOSV",  "DPOTRF",  "DSCAL",  "DSWAP",  "DSYEV",  "DSYEVD",  "DSYEVR",  "DSYEVX",  "DSYGVD",  "DSYGVX",  "DSYSV",  "DZASUM",  "DZNRM2",  "ICAMAX",  "IDAMAX",  "ILAENV",  "ISAMAX",  "IZAMAX",  "SASUM",  "SAXPY",  "SCASUM",  "SCNRM2",  "SCOPY",  "SDOT",  "SGEEV",  "SGELSD",  "SGEMM",  "SGEMV",  "SGEQRF",  "SGER",  "SGESV",  "SGESVD",  "SGETRF",  "SNRM2",  "SORGQR",  "SORMQR",  "SPOSV",  "SPOTRF",  "SSCAL",  "SSWAP",  "SSYEV",  "SSYEVD",  "SSYEVR",  "SSYEVX",  "SSYGVD",  "SSYGVX",  "SSYSV",  "ZAXPY",  "ZCOPY",  "ZDOTC",  "ZDOTU",  "ZDSCAL",  "ZGEEV",  "ZGEMM",  "ZGEMV",  "ZGERC",  "ZGERU",  "ZGESVD",  "ZSCAL",  "ZSWAP", 	0
+ "CAXPY",  "CCOPY",  "CDOTC",  "CDOTU",  "CGEEV",  "CGEMM",  "CGEMV",  "CGERC",  "CGERU",  "CGESVD",  "CSCAL",  "CSSCAL",  "CSWAP",  "DASUM",  "DAXPY",  "DCOPY",  "DDOT",  "DGBMV",  "DGBSV",  "DGEEV",  "DGELSD",  "DGEMM",  "DGEMV",  "DGEQRF",  "DGER",  "DGESV",  "DGESVD",  "DGETRF",  "DGTSV",  "DNRM2",  "DORGQR",  "DORMQR",  "DPOSV",  "DPOTRF",  "DPPTRF",  "DPPTRS",  "DPTSV",  "DSBMV",  "DSCAL",  "DSPMV",  "DSPTRF",  "DSPTRS",  "DSWAP",  "DSYEV",  "DSYEVD",  "DSYEVR",  "DSYEVX",  "DSYGVD",  "DSYGVX",  "DSYSV",  "DTPMV",  "DTPSV",  "DZASUM",  "DZNRM2",  "ICAMAX",  "IDAMAX",  "ILAENV",  "ISAMAX",  "IZAMAX",  "SASUM",  "SAXPY",  "SCASUM",  "SCNRM2",  "SCOPY",  "SDOT",  "SGBMV",  "SGBSV",  "SGEEV",  "SGELSD",  "SGEMM",  "SGEMV",  "SGEQRF",  "SGER",  "SGESV",  "SGESVD",  "SGETRF",  "SGTSV",  "SNRM2",  "SORGQR",  "SORMQR",  "SPOSV",  "SPOTRF",  "SPPTRF",  "SPPTRS",  "SPTSV",  "SSBMV",  "SSCAL",  "SSPMV",  "SSPTRF",  "SSPTRS",  "SSWAP",  "SSYEV",  "SSYEVD",  "SSYEVR",  "SSYEVX",  "SSYGVD",  "SSYGVX",  "SSYSV",  "STPMV",  "STPSV",  "ZAXPY",  "ZCOPY",  "ZDOTC",  "ZDOTU",  "ZDSCAL",  "ZGEEV",  "ZGEMM",  "ZGEMV",  "ZGERC",  "ZGERU",  "ZGESVD",  "ZSCAL",  "ZSWAP", 	0
 };
 
 static char *routine_arguments[][23] = {
@@ -131,6 +131,8 @@ static char *routine_arguments[][23] = {
    { "N", "DA", "DX", "INCX", "DY", "INCY" }, 
    { "N", "DX", "INCX", "DY", "INCY" }, 
    { "N", "DX", "INCX", "DY", "INCY" }, 
+   { "TRANS", "M", "N", "KL", "KU", "ALPHA", "A", "LDA", "X", "INCX", "BETA", "Y", "INCY" }, 
+   { "N", "KL", "KU", "NRHS", "AB", "LDAB", "IPIV", "B", "LDB", "INFO" }, 
    { "JOBVL", "JOBVR", "N", "A", "LDA", "WR", "WI", "VL", "LDVL", "VR", "LDVR", "WORK", "LWORK", "INFO" }, 
    { "M", "N", "NRHS", "A", "LDA", "B", "LDB", "S", "RCOND", "RANK", "WORK", "LWORK", "IWORK", "INFO" }, 
    { "TRANSA", "TRANSB", "M", "N", "K", "ALPHA", "A", "LDA", "B", "LDB", "BETA", "C", "LDC" }, 
@@ -140,12 +142,20 @@ static char *routine_arguments[][23] = {
    { "N", "NRHS", "A", "LDA", "IPIV", "B", "LDB", "INFO" }, 
    { "JOBU", "JOBVT", "M", "N", "A", "LDA", "S", "U", "LDU", "VT", "LDVT", "WORK", "LWORK", "INFO" }, 
    { "M", "N", "A", "LDA", "IPIV", "INFO" }, 
+   { "N", "NRHS", "DL", "D", "DU", "B", "LDB", "INFO" }, 
    { "N", "X", "INCX" }, 
    { "M", "N", "K", "A", "LDA", "TAU", "WORK", "LWORK", "INFO" }, 
    { "SIDE", "TRANS", "M", "N", "K", "A", "LDA", "TAU", "C", "LDC", "WORK", "LWORK", "INFO" }, 
    { "UPLO", "N", "NRHS", "A", "LDA", "B", "LDB", "INFO" }, 
    { "UPLO", "N", "A", "LDA", "INFO" }, 
+   { "UPLO", "N", "AP", "INFO" }, 
+   { "UPLO", "N", "NRHS", "AP", "B", "LDB", "INFO" }, 
+   { "N", "NRHS", "D", "E", "B", "LDB", "INFO" }, 
+   { "UPLO", "N", "K", "ALPHA", "A", "LDA", "X", "INCX", "BETA", "Y", "INCY" }, 
    { "N", "DA", "DX", "INCX" }, 
+   { "UPLO", "N", "ALPHA", "AP", "X", "INCX", "BETA", "Y", "INCY" }, 
+   { "UPLO", "N", "AP", "IPIV", "INFO" }, 
+   { "UPLO", "N", "NRHS", "AP", "IPIV", "B", "LDB", "INFO" }, 
    { "N", "DX", "INCX", "DY", "INCY" }, 
    { "JOBZ", "UPLO", "N", "A", "LDA", "W", "WORK", "LWORK", "INFO" }, 
    { "JOBZ", "UPLO", "N", "A", "LDA", "W", "WORK", "LWORK", "IWORK", "LIWORK", "INFO" }, 
@@ -154,6 +164,8 @@ static char *routine_arguments[][23] = {
    { "ITYPE", "JOBZ", "UPLO", "N", "A", "LDA", "B", "LDB", "W", "WORK", "LWORK", "IWORK", "LIWORK", "INFO" }, 
    { "ITYPE", "JOBZ", "RANGE", "UPLO", "N", "A", "LDA", "B", "LDB", "VL", "VU", "IL", "IU", "ABSTOL", "M", "W", "Z", "LDZ", "WORK", "LWORK", "IWORK", "IFAIL", "INFO" }, 
    { "UPLO", "N", "NRHS", "A", "LDA", "IPIV", "B", "LDB", "WORK", "LWORK", "INFO" }, 
+   { "UPLO", "TRANS", "DIAG", "N", "AP", "X", "INCX" }, 
+   { "UPLO", "TRANS", "DIAG", "N", "AP", "X", "INCX" }, 
    { "N", "ZX", "INCX" }, 
    { "N", "X", "INCX" }, 
    { "N", "CX", "INCX" }, 
@@ -167,6 +179,8 @@ static char *routine_arguments[][23] = {
    { "N", "X", "INCX" }, 
    { "N", "SX", "INCX", "SY", "INCY" }, 
    { "N", "SX", "INCX", "SY", "INCY" }, 
+   { "TRANS", "M", "N", "KL", "KU", "ALPHA", "A", "LDA", "X", "INCX", "BETA", "Y", "INCY" }, 
+   { "N", "KL", "KU", "NRHS", "AB", "LDAB", "IPIV", "B", "LDB", "INFO" }, 
    { "JOBVL", "JOBVR", "N", "A", "LDA", "WR", "WI", "VL", "LDVL", "VR", "LDVR", "WORK", "LWORK", "INFO" }, 
    { "M", "N", "NRHS", "A", "LDA", "B", "LDB", "S", "RCOND", "RANK", "WORK", "LWORK", "IWORK", "INFO" }, 
    { "TRANSA", "TRANSB", "M", "N", "K", "ALPHA", "A", "LDA", "B", "LDB", "BETA", "C", "LDC" }, 
@@ -176,12 +190,20 @@ static char *routine_arguments[][23] = {
    { "N", "NRHS", "A", "LDA", "IPIV", "B", "LDB", "INFO" }, 
    { "JOBU", "JOBVT", "M", "N", "A", "LDA", "S", "U", "LDU", "VT", "LDVT", "WORK", "LWORK", "INFO" }, 
    { "M", "N", "A", "LDA", "IPIV", "INFO" }, 
+   { "N", "NRHS", "DL", "D", "DU", "B", "LDB", "INFO" }, 
    { "N", "X", "INCX" }, 
    { "M", "N", "K", "A", "LDA", "TAU", "WORK", "LWORK", "INFO" }, 
    { "SIDE", "TRANS", "M", "N", "K", "A", "LDA", "TAU", "C", "LDC", "WORK", "LWORK", "INFO" }, 
    { "UPLO", "N", "NRHS", "A", "LDA", "B", "LDB", "INFO" }, 
    { "UPLO", "N", "A", "LDA", "INFO" }, 
+   { "UPLO", "N", "AP", "INFO" }, 
+   { "UPLO", "N", "NRHS", "AP", "B", "LDB", "INFO" }, 
+   { "N", "NRHS", "D", "E", "B", "LDB", "INFO" }, 
+   { "UPLO", "N", "K", "ALPHA", "A", "LDA", "X", "INCX", "BETA", "Y", "INCY" }, 
    { "N", "SA", "SX", "INCX" }, 
+   { "UPLO", "N", "ALPHA", "AP", "X", "INCX", "BETA", "Y", "INCY" }, 
+   { "UPLO", "N", "AP", "IPIV", "INFO" }, 
+   { "UPLO", "N", "NRHS", "AP", "IPIV", "B", "LDB", "INFO" }, 
    { "N", "SX", "INCX", "SY", "INCY" }, 
    { "JOBZ", "UPLO", "N", "A", "LDA", "W", "WORK", "LWORK", "INFO" }, 
    { "JOBZ", "UPLO", "N", "A", "LDA", "W", "WORK", "LWORK", "IWORK", "LIWORK", "INFO" }, 
@@ -190,6 +212,8 @@ static char *routine_arguments[][23] = {
    { "ITYPE", "JOBZ", "UPLO", "N", "A", "LDA", "B", "LDB", "W", "WORK", "LWORK", "IWORK", "LIWORK", "INFO" }, 
    { "ITYPE", "JOBZ", "RANGE", "UPLO", "N", "A", "LDA", "B", "LDB", "VL", "VU", "IL", "IU", "ABSTOL", "M", "W", "Z", "LDZ", "WORK", "LWORK", "IWORK", "IFAIL", "INFO" }, 
    { "UPLO", "N", "NRHS", "A", "LDA", "IPIV", "B", "LDB", "WORK", "LWORK", "INFO" }, 
+   { "UPLO", "TRANS", "DIAG", "N", "AP", "X", "INCX" }, 
+   { "UPLO", "TRANS", "DIAG", "N", "AP", "X", "INCX" }, 
    { "N", "ZA", "ZX", "INCX", "ZY", "INCY" }, 
    { "N", "ZX", "INCX", "ZY", "INCY" }, 
    { "N", "ZX", "INCX", "ZY", "INCY" }, 
@@ -5251,3 +5275,1085 @@ JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssygvx(JNIEnv *env, jclass this
   return info;
 }
 
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dspmv(JNIEnv *env, jclass this, jchar uplo, jint n, jdouble alpha, jdoubleArray ap, jint apIdx, jdoubleArray x, jint xIdx, jint incx, jdouble beta, jdoubleArray y, jint yIdx, jint incy)
+{
+  extern void dspmv_(char *, jint *, jdouble *, jdouble *, jdouble *, jint *, jdouble *, jdouble *, jint *);
+  
+  char uploChr = (char) uplo;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jdouble *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetDoubleArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jdouble *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, ap) == JNI_TRUE)
+      yPtrBase = apPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetDoubleArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  dspmv_(&uploChr, &n, &alpha, apPtr, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == apPtrBase)
+      apPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_sspmv(JNIEnv *env, jclass this, jchar uplo, jint n, jfloat alpha, jfloatArray ap, jint apIdx, jfloatArray x, jint xIdx, jint incx, jfloat beta, jfloatArray y, jint yIdx, jint incy)
+{
+  extern void sspmv_(char *, jint *, jfloat *, jfloat *, jfloat *, jint *, jfloat *, jfloat *, jint *);
+  
+  char uploChr = (char) uplo;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jfloat *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetFloatArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jfloat *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, ap) == JNI_TRUE)
+      yPtrBase = apPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetFloatArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  sspmv_(&uploChr, &n, &alpha, apPtr, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == apPtrBase)
+      apPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dtpmv(JNIEnv *env, jclass this, jchar uplo, jchar trans, jchar diag, jint n, jdoubleArray ap, jint apIdx, jdoubleArray x, jint xIdx, jint incx)
+{
+  extern void dtpmv_(char *, char *, char *, jint *, jdouble *, jdouble *, jint *);
+  
+  char uploChr = (char) uplo;
+  char transChr = (char) trans;
+  char diagChr = (char) diag;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jdouble *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetDoubleArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+
+  savedEnv = env;
+  dtpmv_(&uploChr, &transChr, &diagChr, &n, apPtr, xPtr, &incx);
+  if(xPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, x, xPtrBase, 0);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_stpmv(JNIEnv *env, jclass this, jchar uplo, jchar trans, jchar diag, jint n, jfloatArray ap, jint apIdx, jfloatArray x, jint xIdx, jint incx)
+{
+  extern void stpmv_(char *, char *, char *, jint *, jfloat *, jfloat *, jint *);
+  
+  char uploChr = (char) uplo;
+  char transChr = (char) trans;
+  char diagChr = (char) diag;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jfloat *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetFloatArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+
+  savedEnv = env;
+  stpmv_(&uploChr, &transChr, &diagChr, &n, apPtr, xPtr, &incx);
+  if(xPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, x, xPtrBase, 0);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dtpsv(JNIEnv *env, jclass this, jchar uplo, jchar trans, jchar diag, jint n, jdoubleArray ap, jint apIdx, jdoubleArray x, jint xIdx, jint incx)
+{
+  extern void dtpsv_(char *, char *, char *, jint *, jdouble *, jdouble *, jint *);
+  
+  char uploChr = (char) uplo;
+  char transChr = (char) trans;
+  char diagChr = (char) diag;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jdouble *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetDoubleArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+
+  savedEnv = env;
+  dtpsv_(&uploChr, &transChr, &diagChr, &n, apPtr, xPtr, &incx);
+  if(xPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, x, xPtrBase, 0);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_stpsv(JNIEnv *env, jclass this, jchar uplo, jchar trans, jchar diag, jint n, jfloatArray ap, jint apIdx, jfloatArray x, jint xIdx, jint incx)
+{
+  extern void stpsv_(char *, char *, char *, jint *, jfloat *, jfloat *, jint *);
+  
+  char uploChr = (char) uplo;
+  char transChr = (char) trans;
+  char diagChr = (char) diag;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jfloat *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, ap) == JNI_TRUE)
+      xPtrBase = apPtrBase;
+    else
+      xPtrBase = (*env)->GetFloatArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+
+  savedEnv = env;
+  stpsv_(&uploChr, &transChr, &diagChr, &n, apPtr, xPtr, &incx);
+  if(xPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, x, xPtrBase, 0);
+    if (xPtrBase == apPtrBase)
+      apPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dpptrf(JNIEnv *env, jclass this, jchar uplo, jint n, jdoubleArray ap, jint apIdx)
+{
+  extern void dpptrf_(char *, jint *, jdouble *, int *);
+  
+  char uploChr = (char) uplo;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dpptrf_(&uploChr, &n, apPtr, &info);
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, 0);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dpptrs(JNIEnv *env, jclass this, jchar uplo, jint n, jint nrhs, jdoubleArray ap, jint apIdx, jdoubleArray b, jint bIdx, jint ldb)
+{
+  extern void dpptrs_(char *, jint *, jint *, jdouble *, jdouble *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jdouble *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ap) == JNI_TRUE)
+      bPtrBase = apPtrBase;
+    else
+      bPtrBase = (*env)->GetDoubleArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dpptrs_(&uploChr, &n, &nrhs, apPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == apPtrBase)
+      apPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_spptrf(JNIEnv *env, jclass this, jchar uplo, jint n, jfloatArray ap, jint apIdx)
+{
+  extern void spptrf_(char *, jint *, jfloat *, int *);
+  
+  char uploChr = (char) uplo;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  spptrf_(&uploChr, &n, apPtr, &info);
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, 0);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_spptrs(JNIEnv *env, jclass this, jchar uplo, jint n, jint nrhs, jfloatArray ap, jint apIdx, jfloatArray b, jint bIdx, jint ldb)
+{
+  extern void spptrs_(char *, jint *, jint *, jfloat *, jfloat *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jfloat *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ap) == JNI_TRUE)
+      bPtrBase = apPtrBase;
+    else
+      bPtrBase = (*env)->GetFloatArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  spptrs_(&uploChr, &n, &nrhs, apPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == apPtrBase)
+      apPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dsptrf(JNIEnv *env, jclass this, jchar uplo, jint n, jdoubleArray ap, jint apIdx, jintArray ipiv, jint ipivIdx)
+{
+  extern void dsptrf_(char *, jint *, jdouble *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dsptrf_(&uploChr, &n, apPtr, ipivPtr, &info);
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, 0);
+    ipivPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, 0);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dsptrs(JNIEnv *env, jclass this, jchar uplo, jint n, jint nrhs, jdoubleArray ap, jint apIdx, jintArray ipiv, jint ipivIdx, jdoubleArray b, jint bIdx, jint ldb)
+{
+  extern void dsptrs_(char *, jint *, jint *, jdouble *, jint *, jdouble *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jdouble *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetDoubleArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  jdouble *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ap) == JNI_TRUE)
+      bPtrBase = apPtrBase;
+    else
+      bPtrBase = (*env)->GetDoubleArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dsptrs_(&uploChr, &n, &nrhs, apPtr, ipivPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == apPtrBase)
+      apPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, JNI_ABORT);
+    ipivPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssptrf(JNIEnv *env, jclass this, jchar uplo, jint n, jfloatArray ap, jint apIdx, jintArray ipiv, jint ipivIdx)
+{
+  extern void ssptrf_(char *, jint *, jfloat *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  ssptrf_(&uploChr, &n, apPtr, ipivPtr, &info);
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, 0);
+    ipivPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, 0);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssptrs(JNIEnv *env, jclass this, jchar uplo, jint n, jint nrhs, jfloatArray ap, jint apIdx, jintArray ipiv, jint ipivIdx, jfloatArray b, jint bIdx, jint ldb)
+{
+  extern void ssptrs_(char *, jint *, jint *, jfloat *, jint *, jfloat *, jint *, int *);
+  
+  char uploChr = (char) uplo;
+  jfloat *apPtrBase = 0, *apPtr = 0;
+  if (ap) {
+    apPtrBase = (*env)->GetFloatArrayElements(env, ap, NULL);
+    apPtr = apPtrBase + apIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  jfloat *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ap) == JNI_TRUE)
+      bPtrBase = apPtrBase;
+    else
+      bPtrBase = (*env)->GetFloatArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  ssptrs_(&uploChr, &n, &nrhs, apPtr, ipivPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == apPtrBase)
+      apPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, JNI_ABORT);
+    ipivPtrBase = 0;
+  }
+  if(apPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ap, apPtrBase, JNI_ABORT);
+    apPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dgbmv(JNIEnv *env, jclass this, jchar trans, jint m, jint n, jint kl, jint ku, jdouble alpha, jdoubleArray a, jint aIdx, jint lda, jdoubleArray x, jint xIdx, jint incx, jdouble beta, jdoubleArray y, jint yIdx, jint incy)
+{
+  extern void dgbmv_(char *, jint *, jint *, jint *, jint *, jdouble *, jdouble *, jint *, jdouble *, jint *, jdouble *, jdouble *, jint *);
+  
+  char transChr = (char) trans;
+  jdouble *aPtrBase = 0, *aPtr = 0;
+  if (a) {
+    aPtrBase = (*env)->GetDoubleArrayElements(env, a, NULL);
+    aPtr = aPtrBase + aIdx;
+  }
+  jdouble *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, a) == JNI_TRUE)
+      xPtrBase = aPtrBase;
+    else
+      xPtrBase = (*env)->GetDoubleArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jdouble *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, a) == JNI_TRUE)
+      yPtrBase = aPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetDoubleArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  dgbmv_(&transChr, &m, &n, &kl, &ku, &alpha, aPtr, &lda, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == aPtrBase)
+      aPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == aPtrBase)
+      aPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(aPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, a, aPtrBase, JNI_ABORT);
+    aPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_sgbmv(JNIEnv *env, jclass this, jchar trans, jint m, jint n, jint kl, jint ku, jfloat alpha, jfloatArray a, jint aIdx, jint lda, jfloatArray x, jint xIdx, jint incx, jfloat beta, jfloatArray y, jint yIdx, jint incy)
+{
+  extern void sgbmv_(char *, jint *, jint *, jint *, jint *, jfloat *, jfloat *, jint *, jfloat *, jint *, jfloat *, jfloat *, jint *);
+  
+  char transChr = (char) trans;
+  jfloat *aPtrBase = 0, *aPtr = 0;
+  if (a) {
+    aPtrBase = (*env)->GetFloatArrayElements(env, a, NULL);
+    aPtr = aPtrBase + aIdx;
+  }
+  jfloat *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, a) == JNI_TRUE)
+      xPtrBase = aPtrBase;
+    else
+      xPtrBase = (*env)->GetFloatArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jfloat *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, a) == JNI_TRUE)
+      yPtrBase = aPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetFloatArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  sgbmv_(&transChr, &m, &n, &kl, &ku, &alpha, aPtr, &lda, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == aPtrBase)
+      aPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == aPtrBase)
+      aPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(aPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, a, aPtrBase, JNI_ABORT);
+    aPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dsbmv(JNIEnv *env, jclass this, jchar uplo, jint n, jint k, jdouble alpha, jdoubleArray a, jint aIdx, jint lda, jdoubleArray x, jint xIdx, jint incx, jdouble beta, jdoubleArray y, jint yIdx, jint incy)
+{
+  extern void dsbmv_(char *, jint *, jint *, jdouble *, jdouble *, jint *, jdouble *, jint *, jdouble *, jdouble *, jint *);
+  
+  char uploChr = (char) uplo;
+  jdouble *aPtrBase = 0, *aPtr = 0;
+  if (a) {
+    aPtrBase = (*env)->GetDoubleArrayElements(env, a, NULL);
+    aPtr = aPtrBase + aIdx;
+  }
+  jdouble *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, a) == JNI_TRUE)
+      xPtrBase = aPtrBase;
+    else
+      xPtrBase = (*env)->GetDoubleArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jdouble *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, a) == JNI_TRUE)
+      yPtrBase = aPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetDoubleArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  dsbmv_(&uploChr, &n, &k, &alpha, aPtr, &lda, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == aPtrBase)
+      aPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == aPtrBase)
+      aPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(aPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, a, aPtrBase, JNI_ABORT);
+    aPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_ssbmv(JNIEnv *env, jclass this, jchar uplo, jint n, jint k, jfloat alpha, jfloatArray a, jint aIdx, jint lda, jfloatArray x, jint xIdx, jint incx, jfloat beta, jfloatArray y, jint yIdx, jint incy)
+{
+  extern void ssbmv_(char *, jint *, jint *, jfloat *, jfloat *, jint *, jfloat *, jint *, jfloat *, jfloat *, jint *);
+  
+  char uploChr = (char) uplo;
+  jfloat *aPtrBase = 0, *aPtr = 0;
+  if (a) {
+    aPtrBase = (*env)->GetFloatArrayElements(env, a, NULL);
+    aPtr = aPtrBase + aIdx;
+  }
+  jfloat *xPtrBase = 0, *xPtr = 0;
+  if (x) {
+    if((*env)->IsSameObject(env, x, a) == JNI_TRUE)
+      xPtrBase = aPtrBase;
+    else
+      xPtrBase = (*env)->GetFloatArrayElements(env, x, NULL);
+    xPtr = xPtrBase + xIdx;
+  }
+  jfloat *yPtrBase = 0, *yPtr = 0;
+  if (y) {
+    if((*env)->IsSameObject(env, y, a) == JNI_TRUE)
+      yPtrBase = aPtrBase;
+    else
+      if((*env)->IsSameObject(env, y, x) == JNI_TRUE)
+      yPtrBase = xPtrBase;
+    else
+      yPtrBase = (*env)->GetFloatArrayElements(env, y, NULL);
+    yPtr = yPtrBase + yIdx;
+  }
+
+  savedEnv = env;
+  ssbmv_(&uploChr, &n, &k, &alpha, aPtr, &lda, xPtr, &incx, &beta, yPtr, &incy);
+  if(yPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, y, yPtrBase, 0);
+    if (yPtrBase == aPtrBase)
+      aPtrBase = 0;
+    if (yPtrBase == xPtrBase)
+      xPtrBase = 0;
+    yPtrBase = 0;
+  }
+  if(xPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, x, xPtrBase, JNI_ABORT);
+    if (xPtrBase == aPtrBase)
+      aPtrBase = 0;
+    xPtrBase = 0;
+  }
+  if(aPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, a, aPtrBase, JNI_ABORT);
+    aPtrBase = 0;
+  }
+
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dgbsv(JNIEnv *env, jclass this, jint n, jint kl, jint ku, jint nrhs, jdoubleArray ab, jint abIdx, jint ldab, jintArray ipiv, jint ipivIdx, jdoubleArray b, jint bIdx, jint ldb)
+{
+  extern void dgbsv_(jint *, jint *, jint *, jint *, jdouble *, jint *, jint *, jdouble *, jint *, int *);
+  
+  jdouble *abPtrBase = 0, *abPtr = 0;
+  if (ab) {
+    abPtrBase = (*env)->GetDoubleArrayElements(env, ab, NULL);
+    abPtr = abPtrBase + abIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  jdouble *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ab) == JNI_TRUE)
+      bPtrBase = abPtrBase;
+    else
+      bPtrBase = (*env)->GetDoubleArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dgbsv_(&n, &kl, &ku, &nrhs, abPtr, &ldab, ipivPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == abPtrBase)
+      abPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, 0);
+    ipivPtrBase = 0;
+  }
+  if(abPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, ab, abPtrBase, 0);
+    abPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sgbsv(JNIEnv *env, jclass this, jint n, jint kl, jint ku, jint nrhs, jfloatArray ab, jint abIdx, jint ldab, jintArray ipiv, jint ipivIdx, jfloatArray b, jint bIdx, jint ldb)
+{
+  extern void sgbsv_(jint *, jint *, jint *, jint *, jfloat *, jint *, jint *, jfloat *, jint *, int *);
+  
+  jfloat *abPtrBase = 0, *abPtr = 0;
+  if (ab) {
+    abPtrBase = (*env)->GetFloatArrayElements(env, ab, NULL);
+    abPtr = abPtrBase + abIdx;
+  }
+  jint *ipivPtrBase = 0, *ipivPtr = 0;
+  if (ipiv) {
+    ipivPtrBase = (*env)->GetIntArrayElements(env, ipiv, NULL);
+    ipivPtr = ipivPtrBase + ipivIdx;
+  }
+  jfloat *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, ab) == JNI_TRUE)
+      bPtrBase = abPtrBase;
+    else
+      bPtrBase = (*env)->GetFloatArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  sgbsv_(&n, &kl, &ku, &nrhs, abPtr, &ldab, ipivPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == abPtrBase)
+      abPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ipivPtrBase) {
+    (*env)->ReleaseIntArrayElements(env, ipiv, ipivPtrBase, 0);
+    ipivPtrBase = 0;
+  }
+  if(abPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, ab, abPtrBase, 0);
+    abPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dgtsv(JNIEnv *env, jclass this, jint n, jint nrhs, jdoubleArray dl, jint dlIdx, jdoubleArray d, jint dIdx, jdoubleArray du, jint duIdx, jdoubleArray b, jint bIdx, jint ldb)
+{
+  extern void dgtsv_(jint *, jint *, jdouble *, jdouble *, jdouble *, jdouble *, jint *, int *);
+  
+  jdouble *dlPtrBase = 0, *dlPtr = 0;
+  if (dl) {
+    dlPtrBase = (*env)->GetDoubleArrayElements(env, dl, NULL);
+    dlPtr = dlPtrBase + dlIdx;
+  }
+  jdouble *dPtrBase = 0, *dPtr = 0;
+  if (d) {
+    if((*env)->IsSameObject(env, d, dl) == JNI_TRUE)
+      dPtrBase = dlPtrBase;
+    else
+      dPtrBase = (*env)->GetDoubleArrayElements(env, d, NULL);
+    dPtr = dPtrBase + dIdx;
+  }
+  jdouble *duPtrBase = 0, *duPtr = 0;
+  if (du) {
+    if((*env)->IsSameObject(env, du, dl) == JNI_TRUE)
+      duPtrBase = dlPtrBase;
+    else
+      if((*env)->IsSameObject(env, du, d) == JNI_TRUE)
+      duPtrBase = dPtrBase;
+    else
+      duPtrBase = (*env)->GetDoubleArrayElements(env, du, NULL);
+    duPtr = duPtrBase + duIdx;
+  }
+  jdouble *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, dl) == JNI_TRUE)
+      bPtrBase = dlPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, d) == JNI_TRUE)
+      bPtrBase = dPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, du) == JNI_TRUE)
+      bPtrBase = duPtrBase;
+    else
+      bPtrBase = (*env)->GetDoubleArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dgtsv_(&n, &nrhs, dlPtr, dPtr, duPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    if (bPtrBase == dPtrBase)
+      dPtrBase = 0;
+    if (bPtrBase == duPtrBase)
+      duPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(duPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, du, duPtrBase, 0);
+    if (duPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    if (duPtrBase == dPtrBase)
+      dPtrBase = 0;
+    duPtrBase = 0;
+  }
+  if(dPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, d, dPtrBase, 0);
+    if (dPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    dPtrBase = 0;
+  }
+  if(dlPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, dl, dlPtrBase, 0);
+    dlPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sgtsv(JNIEnv *env, jclass this, jint n, jint nrhs, jfloatArray dl, jint dlIdx, jfloatArray d, jint dIdx, jfloatArray du, jint duIdx, jfloatArray b, jint bIdx, jint ldb)
+{
+  extern void sgtsv_(jint *, jint *, jfloat *, jfloat *, jfloat *, jfloat *, jint *, int *);
+  
+  jfloat *dlPtrBase = 0, *dlPtr = 0;
+  if (dl) {
+    dlPtrBase = (*env)->GetFloatArrayElements(env, dl, NULL);
+    dlPtr = dlPtrBase + dlIdx;
+  }
+  jfloat *dPtrBase = 0, *dPtr = 0;
+  if (d) {
+    if((*env)->IsSameObject(env, d, dl) == JNI_TRUE)
+      dPtrBase = dlPtrBase;
+    else
+      dPtrBase = (*env)->GetFloatArrayElements(env, d, NULL);
+    dPtr = dPtrBase + dIdx;
+  }
+  jfloat *duPtrBase = 0, *duPtr = 0;
+  if (du) {
+    if((*env)->IsSameObject(env, du, dl) == JNI_TRUE)
+      duPtrBase = dlPtrBase;
+    else
+      if((*env)->IsSameObject(env, du, d) == JNI_TRUE)
+      duPtrBase = dPtrBase;
+    else
+      duPtrBase = (*env)->GetFloatArrayElements(env, du, NULL);
+    duPtr = duPtrBase + duIdx;
+  }
+  jfloat *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, dl) == JNI_TRUE)
+      bPtrBase = dlPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, d) == JNI_TRUE)
+      bPtrBase = dPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, du) == JNI_TRUE)
+      bPtrBase = duPtrBase;
+    else
+      bPtrBase = (*env)->GetFloatArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  sgtsv_(&n, &nrhs, dlPtr, dPtr, duPtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    if (bPtrBase == dPtrBase)
+      dPtrBase = 0;
+    if (bPtrBase == duPtrBase)
+      duPtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(duPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, du, duPtrBase, 0);
+    if (duPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    if (duPtrBase == dPtrBase)
+      dPtrBase = 0;
+    duPtrBase = 0;
+  }
+  if(dPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, d, dPtrBase, 0);
+    if (dPtrBase == dlPtrBase)
+      dlPtrBase = 0;
+    dPtrBase = 0;
+  }
+  if(dlPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, dl, dlPtrBase, 0);
+    dlPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dptsv(JNIEnv *env, jclass this, jint n, jint nrhs, jdoubleArray d, jint dIdx, jdoubleArray e, jint eIdx, jdoubleArray b, jint bIdx, jint ldb)
+{
+  extern void dptsv_(jint *, jint *, jdouble *, jdouble *, jdouble *, jint *, int *);
+  
+  jdouble *dPtrBase = 0, *dPtr = 0;
+  if (d) {
+    dPtrBase = (*env)->GetDoubleArrayElements(env, d, NULL);
+    dPtr = dPtrBase + dIdx;
+  }
+  jdouble *ePtrBase = 0, *ePtr = 0;
+  if (e) {
+    if((*env)->IsSameObject(env, e, d) == JNI_TRUE)
+      ePtrBase = dPtrBase;
+    else
+      ePtrBase = (*env)->GetDoubleArrayElements(env, e, NULL);
+    ePtr = ePtrBase + eIdx;
+  }
+  jdouble *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, d) == JNI_TRUE)
+      bPtrBase = dPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, e) == JNI_TRUE)
+      bPtrBase = ePtrBase;
+    else
+      bPtrBase = (*env)->GetDoubleArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  dptsv_(&n, &nrhs, dPtr, ePtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == dPtrBase)
+      dPtrBase = 0;
+    if (bPtrBase == ePtrBase)
+      ePtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ePtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, e, ePtrBase, 0);
+    if (ePtrBase == dPtrBase)
+      dPtrBase = 0;
+    ePtrBase = 0;
+  }
+  if(dPtrBase) {
+    (*env)->ReleaseDoubleArrayElements(env, d, dPtrBase, 0);
+    dPtrBase = 0;
+  }
+
+  return info;
+}
+
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sptsv(JNIEnv *env, jclass this, jint n, jint nrhs, jfloatArray d, jint dIdx, jfloatArray e, jint eIdx, jfloatArray b, jint bIdx, jint ldb)
+{
+  extern void sptsv_(jint *, jint *, jfloat *, jfloat *, jfloat *, jint *, int *);
+  
+  jfloat *dPtrBase = 0, *dPtr = 0;
+  if (d) {
+    dPtrBase = (*env)->GetFloatArrayElements(env, d, NULL);
+    dPtr = dPtrBase + dIdx;
+  }
+  jfloat *ePtrBase = 0, *ePtr = 0;
+  if (e) {
+    if((*env)->IsSameObject(env, e, d) == JNI_TRUE)
+      ePtrBase = dPtrBase;
+    else
+      ePtrBase = (*env)->GetFloatArrayElements(env, e, NULL);
+    ePtr = ePtrBase + eIdx;
+  }
+  jfloat *bPtrBase = 0, *bPtr = 0;
+  if (b) {
+    if((*env)->IsSameObject(env, b, d) == JNI_TRUE)
+      bPtrBase = dPtrBase;
+    else
+      if((*env)->IsSameObject(env, b, e) == JNI_TRUE)
+      bPtrBase = ePtrBase;
+    else
+      bPtrBase = (*env)->GetFloatArrayElements(env, b, NULL);
+    bPtr = bPtrBase + bIdx;
+  }
+  int info;
+
+  savedEnv = env;
+  sptsv_(&n, &nrhs, dPtr, ePtr, bPtr, &ldb, &info);
+  if(bPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, b, bPtrBase, 0);
+    if (bPtrBase == dPtrBase)
+      dPtrBase = 0;
+    if (bPtrBase == ePtrBase)
+      ePtrBase = 0;
+    bPtrBase = 0;
+  }
+  if(ePtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, e, ePtrBase, 0);
+    if (ePtrBase == dPtrBase)
+      dPtrBase = 0;
+    ePtrBase = 0;
+  }
+  if(dPtrBase) {
+    (*env)->ReleaseFloatArrayElements(env, d, dPtrBase, 0);
+    dPtrBase = 0;
+  }
+
+  return info;
+}
+
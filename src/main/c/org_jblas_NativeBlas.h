@@ -719,6 +719,198 @@ JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dsygvx
 JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssygvx
   (JNIEnv *, jclass, jint, jchar, jchar, jchar, jint, jfloatArray, jint, jint, jfloatArray, jint, jint, jfloat, jfloat, jint, jint, jfloat, jintArray, jint, jfloatArray, jint, jfloatArray, jint, jint, jfloatArray, jint, jint, jintArray, jint, jintArray, jint);
 
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dspmv
+ * Signature: (CID[DI[DIID[DII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dspmv
+  (JNIEnv *, jclass, jchar, jint, jdouble, jdoubleArray, jint, jdoubleArray, jint, jint, jdouble, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    sspmv
+ * Signature: (CIF[FI[FIIF[FII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_sspmv
+  (JNIEnv *, jclass, jchar, jint, jfloat, jfloatArray, jint, jfloatArray, jint, jint, jfloat, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dtpmv
+ * Signature: (CCCI[DI[DII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dtpmv
+  (JNIEnv *, jclass, jchar, jchar, jchar, jint, jdoubleArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    stpmv
+ * Signature: (CCCI[FI[FII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_stpmv
+  (JNIEnv *, jclass, jchar, jchar, jchar, jint, jfloatArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dtpsv
+ * Signature: (CCCI[DI[DII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dtpsv
+  (JNIEnv *, jclass, jchar, jchar, jchar, jint, jdoubleArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    stpsv
+ * Signature: (CCCI[FI[FII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_stpsv
+  (JNIEnv *, jclass, jchar, jchar, jchar, jint, jfloatArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dpptrf
+ * Signature: (CI[DI)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dpptrf
+  (JNIEnv *, jclass, jchar, jint, jdoubleArray, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dpptrs
+ * Signature: (CII[DI[DII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dpptrs
+  (JNIEnv *, jclass, jchar, jint, jint, jdoubleArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    spptrf
+ * Signature: (CI[FI)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_spptrf
+  (JNIEnv *, jclass, jchar, jint, jfloatArray, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    spptrs
+ * Signature: (CII[FI[FII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_spptrs
+  (JNIEnv *, jclass, jchar, jint, jint, jfloatArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dsptrf
+ * Signature: (CI[DI[II)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dsptrf
+  (JNIEnv *, jclass, jchar, jint, jdoubleArray, jint, jintArray, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dsptrs
+ * Signature: (CII[DI[II[DII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dsptrs
+  (JNIEnv *, jclass, jchar, jint, jint, jdoubleArray, jint, jintArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    ssptrf
+ * Signature: (CI[FI[II)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssptrf
+  (JNIEnv *, jclass, jchar, jint, jfloatArray, jint, jintArray, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    ssptrs
+ * Signature: (CII[FI[II[FII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_ssptrs
+  (JNIEnv *, jclass, jchar, jint, jint, jfloatArray, jint, jintArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dgbmv
+ * Signature: (CIIIID[DII[DIID[DII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dgbmv
+  (JNIEnv *, jclass, jchar, jint, jint, jint, jint, jdouble, jdoubleArray, jint, jint, jdoubleArray, jint, jint, jdouble, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    sgbmv
+ * Signature: (CIIIIF[FII[FIIF[FII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_sgbmv
+  (JNIEnv *, jclass, jchar, jint, jint, jint, jint, jfloat, jfloatArray, jint, jint, jfloatArray, jint, jint, jfloat, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dsbmv
+ * Signature: (CIID[DII[DIID[DII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_dsbmv
+  (JNIEnv *, jclass, jchar, jint, jint, jdouble, jdoubleArray, jint, jint, jdoubleArray, jint, jint, jdouble, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    ssbmv
+ * Signature: (CIIF[FII[FIIF[FII)V
+ */
+JNIEXPORT void JNICALL Java_org_jblas_NativeBlas_ssbmv
+  (JNIEnv *, jclass, jchar, jint, jint, jfloat, jfloatArray, jint, jint, jfloatArray, jint, jint, jfloat, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dgbsv
+ * Signature: (IIII[DII[II[DII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dgbsv
+  (JNIEnv *, jclass, jint, jint, jint, jint, jdoubleArray, jint, jint, jintArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    sgbsv
+ * Signature: (IIII[FII[II[FII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sgbsv
+  (JNIEnv *, jclass, jint, jint, jint, jint, jfloatArray, jint, jint, jintArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dgtsv
+ * Signature: (II[DI[DI[DI[DII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dgtsv
+  (JNIEnv *, jclass, jint, jint, jdoubleArray, jint, jdoubleArray, jint, jdoubleArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    sgtsv
+ * Signature: (II[FI[FI[FI[FII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sgtsv
+  (JNIEnv *, jclass, jint, jint, jfloatArray, jint, jfloatArray, jint, jfloatArray, jint, jfloatArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    dptsv
+ * Signature: (II[DI[DI[DII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_dptsv
+  (JNIEnv *, jclass, jint, jint, jdoubleArray, jint, jdoubleArray, jint, jdoubleArray, jint, jint);
+
+/*
+ * Class:     org_jblas_NativeBlas
+ * Method:    sptsv
+ * Signature: (II[FI[FI[FII)I
+ */
+JNIEXPORT jint JNICALL Java_org_jblas_NativeBlas_sptsv
+  (JNIEnv *, jclass, jint, jint, jfloatArray, jint, jfloatArray, jint, jfloatArray, jint, jint);
+
 #ifdef __cplusplus
 }
 #endif
@@ -0,0 +1,411 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackArgumentException;
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A band matrix of <tt>float</tt> values.
+ *
+ * <p>Only the kl sub-diagonals, the diagonal and the ku super-diagonals are
+ * stored, in the LAPACK band format: the entry (i, j) is stored at
+ * <tt>data[ku + i - j + j * (kl + ku + 1)]</tt>. Products take
+ * O(n * (kl + ku)) time, and linear equations are solved in
+ * O(n * kl * (kl + ku)) time instead of O(n^3).</p>
+ *
+ * <p>Products are computed in Java. Linear equations are solved with GBSV if
+ * the native library is available, and with a Java implementation of the same
+ * algorithm otherwise.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new BandFloatMatrix(a, kl, ku)<td>Band of the FloatMatrix a.
+ * <tr><td>b.mmul(x)<td>Product with a vector or matrix (GBMV).
+ * <tr><td>b.solve(x)<td>Solve b * y = x (GBSV).
+ * <tr><td>b.toDense()<td>Convert to a FloatMatrix.
+ * <caption>Band matrix operations.</caption>
+ * </table>
+ */
+public class BandFloatMatrix implements ConvertsToFloatMatrix, Serializable {
+    /** Number of rows. */
+    public int rows;
+    /** Number of columns. */
+    public int columns;
+    /** Number of sub-diagonals. */
+    public int kl;
+    /** Number of super-diagonals. */
+    public int ku;
+    /** The diagonals, stored by columns with leading dimension kl + ku + 1. */
+    public float[] data;
+
+    static final long serialVersionUID = 2052717419526573619L;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 4;
+
+    /*
+     * Set once the native library turns out not to export a routine. The band
+     * routines are missing from older builds of the library, and then the Java
+     * implementations are used instead.
+     */
+    private static volatile boolean gbmvMissing;
+    private static volatile boolean gbsvMissing;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create a band matrix from data in band format. The array is not copied. */
+    public BandFloatMatrix(int rows, int columns, int kl, int ku, float[] data) {
+        if (kl < 0 || ku < 0) {
+            throw new IllegalArgumentException("Number of sub- and super-diagonals must not be negative.");
+        }
+        if (data.length != (long) (kl + ku + 1) * columns) {
+            throw new IllegalArgumentException("Band data must have (kl + ku + 1) * columns entries.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.kl = kl;
+        this.ku = ku;
+        this.data = data;
+    }
+
+    /** Create an all-zero band matrix. */
+    public BandFloatMatrix(int rows, int columns, int kl, int ku) {
+        this(rows, columns, kl, ku, new float[(kl + ku + 1) * columns]);
+    }
+
+    /** Copy the band of a. Entries outside the band are ignored. */
+    public BandFloatMatrix(FloatMatrix a, int kl, int ku) {
+        this(a.rows, a.columns, kl, ku);
+        for (int j = 0; j < columns; j++) {
+            for (int i = Math.max(0, j - ku); i < Math.min(rows, j + kl + 1); i++) {
+                data[index(i, j)] = a.get(i, j);
+            }
+        }
+    }
+
+    /**
+     * Create a square band matrix from its diagonals. diagonals[d] is the
+     * diagonal with offset d - kl, that is, diagonals[0] is the lowest
+     * sub-diagonal and diagonals[kl] the main diagonal.
+     */
+    public static BandFloatMatrix fromDiagonals(int kl, int ku, float[]... diagonals) {
+        if (diagonals.length != kl + ku + 1) {
+            throw new IllegalArgumentException("Need kl + ku + 1 diagonals.");
+        }
+        int n = diagonals[kl].length;
+        BandFloatMatrix result = new BandFloatMatrix(n, n, kl, ku);
+        for (int d = 0; d < diagonals.length; d++) {
+            int offset = d - kl;
+            if (diagonals[d].length != n - Math.abs(offset)) {
+                throw new SizeException("Diagonal " + offset + " must have " + (n - Math.abs(offset)) + " entries.");
+            }
+            for (int k = 0; k < diagonals[d].length; k++) {
+                int i = offset < 0 ? k - offset : k;
+                result.put(i, i + offset, diagonals[d][k]);
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Leading dimension of data. */
+    public int getLeadingDimension() {
+        return kl + ku + 1;
+    }
+
+    /** Whether (i, j) lies within the band. */
+    public boolean inBand(int i, int j) {
+        return j - ku <= i && i <= j + kl;
+    }
+
+    /** Index of the entry (i, j), which must lie within the band, in data. */
+    public int index(int i, int j) {
+        return ku + i - j + j * (kl + ku + 1);
+    }
+
+    private void checkIndex(int i, int j) {
+        if (i < 0 || i >= rows || j < 0 || j >= columns) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") out of bounds for " + rows + " x " + columns + " matrix.");
+        }
+    }
+
+    /** Get the entry (i, j). Entries outside the band are zero. */
+    public float get(int i, int j) {
+        checkIndex(i, j);
+        return inBand(i, j) ? data[index(i, j)] : 0.0f;
+    }
+
+    /** Set the entry (i, j), which must lie within the band. */
+    public BandFloatMatrix put(int i, int j, float v) {
+        checkIndex(i, j);
+        if (!inBand(i, j)) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") lies outside the band.");
+        }
+        data[index(i, j)] = v;
+        return this;
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    /** Convert to a FloatMatrix. */
+    public FloatMatrix toDense() {
+        FloatMatrix result = new FloatMatrix(rows, columns);
+        for (int j = 0; j < columns; j++) {
+            for (int i = Math.max(0, j - ku); i < Math.min(rows, j + kl + 1); i++) {
+                result.data[i + j * rows] = data[index(i, j)];
+            }
+        }
+        return result;
+    }
+
+    public FloatMatrix convertToFloatMatrix() {
+        return toDense();
+    }
+
+    /** Return a copy of this matrix. */
+    public BandFloatMatrix dup() {
+        return new BandFloatMatrix(rows, columns, kl, ku, Arrays.copyOf(data, data.length));
+    }
+
+    /** Return the transposed matrix, which has ku sub- and kl super-diagonals. */
+    public BandFloatMatrix transpose() {
+        BandFloatMatrix result = new BandFloatMatrix(columns, rows, ku, kl);
+        for (int j = 0; j < columns; j++) {
+            for (int i = Math.max(0, j - ku); i < Math.min(rows, j + kl + 1); i++) {
+                result.data[result.index(j, i)] = data[index(i, j)];
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic and linear equations
+     *
+     **************************************************************************/
+
+    /** Multiply all entries with v (in-place). */
+    public BandFloatMatrix muli(float v) {
+        for (int k = 0; k < data.length; k++) {
+            data[k] *= v;
+        }
+        return this;
+    }
+
+    /** Multiply all entries with v. */
+    public BandFloatMatrix mul(float v) {
+        return dup().muli(v);
+    }
+
+    /**
+     * Compute y = alpha * op(this) * x + beta * y (GBMV) for each column of x
+     * and y, where op is the identity for trans = 'N' and the transpose for
+     * trans = 'T'.
+     */
+    public FloatMatrix mmuli(final char trans, final float alpha, final FloatMatrix x, final float beta, final FloatMatrix y) {
+        boolean transposed = trans == 'T' || trans == 't';
+        int xrows = transposed ? rows : columns;
+        int yrows = transposed ? columns : rows;
+        if (x.rows != xrows || y.rows != yrows || x.columns != y.columns) {
+            throw new SizeException("Matrices must be " + xrows + " x k and " + yrows + " x k (are " + x.rows + " x " + x.columns + " and " + y.rows + " x " + y.columns + ").");
+        }
+        if (x == y) {
+            throw new IllegalArgumentException("x and y must be different matrices.");
+        }
+        if (NativeBlas.isLoaded() && !gbmvMissing) {
+            // one column after the other, as every call copies all of x and y
+            try {
+                for (int j = 0; j < x.columns; j++) {
+                    NativeBlas.sgbmv(trans, rows, columns, kl, ku, alpha, data, 0, kl + ku + 1, x.data, j * x.rows, 1, beta, y.data, j * y.rows, 1);
+                }
+                return y;
+            } catch (UnsatisfiedLinkError e) {
+                gbmvMissing = true;
+            }
+        }
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    JavaBlas.rgbmv(trans, rows, columns, kl, ku, alpha, data, 0, kl + ku + 1, x.data, j * x.rows, 1, beta, y.data, j * y.rows, 1);
+                }
+            }
+        });
+        return y;
+    }
+
+    /** Matrix product with a vector or matrix. */
+    public FloatMatrix mmul(FloatMatrix x) {
+        return mmuli('N', 1.0f, x, 0.0f, new FloatMatrix(rows, x.columns));
+    }
+
+    /**
+     * Solve this * x = b using the LU factorization with partial pivoting
+     * (GBSV, or in Java GBTRF followed by GBTRS on blocks of columns of b in
+     * parallel). b is not changed.
+     *
+     * @throws LapackSingularityException if the matrix is singular.
+     */
+    public FloatMatrix solve(FloatMatrix b) {
+        if (rows != columns) {
+            throw new SizeException("Matrix must be square for solve.");
+        }
+        if (b.rows != rows) {
+            throw new SizeException("Right hand side must have " + rows + " rows (has " + b.rows + ").");
+        }
+        int n = rows;
+        int ldab = 2 * kl + ku + 1;
+
+        // copy to the factorization format, which has kl extra rows on top
+        float[] ab = new float[ldab * n];
+        for (int j = 0; j < n; j++) {
+            System.arraycopy(data, j * (kl + ku + 1), ab, kl + j * ldab, kl + ku + 1);
+        }
+        int[] ipiv = new int[n];
+        FloatMatrix x = b.dup();
+
+        int info;
+        if (NativeBlas.isLoaded() && !gbsvMissing) {
+            // a single call for all right hand sides
+            try {
+                info = NativeBlas.sgbsv(n, kl, ku, x.columns, ab, 0, ldab, ipiv, 0, x.data, 0, n);
+            } catch (UnsatisfiedLinkError e) {
+                gbsvMissing = true;
+                info = solveJava(ab, ldab, ipiv, x);
+            }
+        } else {
+            info = solveJava(ab, ldab, ipiv, x);
+        }
+        if (info < 0) {
+            throw new LapackArgumentException("DGBSV", -info);
+        } else if (info > 0) {
+            throw new LapackSingularityException("DGBSV", "Linear equation cannot be solved because the matrix was singular.");
+        }
+        return x;
+    }
+
+    /** Factorize ab once, then solve for blocks of columns of x in parallel. */
+    private int solveJava(final float[] ab, final int ldab, final int[] ipiv, final FloatMatrix x) {
+        final int n = rows;
+        int info = JavaBlas.rgbtrf(n, n, kl, ku, ab, 0, ldab, ipiv, 0);
+        if (info == 0) {
+            Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+                @Override
+                public void run(int from, int to) {
+                    JavaBlas.rgbtrs('N', n, kl, ku, to - from, ab, 0, ldab, ipiv, 0, x.data, from * n, n);
+                }
+            });
+        }
+        return info;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BandFloatMatrix)) {
+            return false;
+        }
+        BandFloatMatrix other = (BandFloatMatrix) o;
+        if (rows != other.rows || columns != other.columns) {
+            return false;
+        }
+        int l = Math.max(kl, other.kl);
+        int u = Math.max(ku, other.ku);
+        for (int j = 0; j < columns; j++) {
+            for (int i = Math.max(0, j - u); i < Math.min(rows, j + l + 1); i++) {
+                if (get(i, j) != other.get(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + rows;
+        hash = 83 * hash + columns;
+        for (int j = 0; j < columns; j++) {
+            for (int i = Math.max(0, j - ku); i < Math.min(rows, j + kl + 1); i++) {
+                float v = data[index(i, j)];
+                if (v != 0.0f) {
+                    hash = 83 * hash + (i - j);
+                    hash = 83 * hash + Float.valueOf(v).hashCode();
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
\ No newline at end of file
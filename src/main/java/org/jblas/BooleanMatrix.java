@@ -0,0 +1,460 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A matrix of boolean flags, packed into 64 flags per <tt>long</tt>.
+ *
+ * <p>Used as the result of comparisons like {@link DoubleMatrix#ltMask(double)}
+ * and as a mask for {@link DoubleMatrix#get(BooleanMatrix)},
+ * {@link DoubleMatrix#put(BooleanMatrix, double)} and
+ * {@link DoubleMatrix#selecti(BooleanMatrix)}. Compared to a 0.0/1.0
+ * DoubleMatrix it needs 64 times less memory, logical operations work on
+ * whole words, and counting uses {@link Long#bitCount(long)}.</p>
+ *
+ * <p>Elements are stored in column-major order like in DoubleMatrix: element i
+ * (in linear indexing) is bit i % 64 of words[i / 64]. Bits beyond
+ * <tt>length</tt> are always zero.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>m.and(o), m.or(o), m.xor(o), m.andNot(o), m.not()<td>Logical operations (and in-place versions).
+ * <tr><td>m.count(), m.any(), m.all()<td>Number of true elements, whether any or all are true.
+ * <tr><td>m.findIndices()<td>Linear indices of the true elements.
+ * <tr><td>m.toDoubleMatrix()<td>Convert to a 0.0/1.0 DoubleMatrix.
+ * <caption>BooleanMatrix operations.</caption>
+ * </table>
+ */
+public class BooleanMatrix implements Serializable {
+    /** Number of rows. */
+    public int rows;
+    /** Number of columns. */
+    public int columns;
+    /** Total number of elements (for convenience). */
+    public int length;
+    /** The packed flags. */
+    public long[] words;
+
+    static final long serialVersionUID = 2297212405474620184L;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create an all-false matrix. */
+    public BooleanMatrix(int rows, int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Cannot allocate matrix of size " + rows + " x " + columns + ".");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.length = rows * columns;
+        this.words = new long[numWords(length)];
+    }
+
+    /** Create an all-false column vector. */
+    public BooleanMatrix(int length) {
+        this(length, 1);
+    }
+
+    /** Create a matrix which is true where a is non-zero. */
+    public BooleanMatrix(final DoubleMatrix a) {
+        this(a.rows, a.columns);
+        fill(new IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return a.data[i] != 0.0;
+            }
+        });
+    }
+
+    /** Create a matrix which is true where a is non-zero. */
+    public BooleanMatrix(final FloatMatrix a) {
+        this(a.rows, a.columns);
+        fill(new IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return a.data[i] != 0.0f;
+            }
+        });
+    }
+
+    /** Create a column vector from an array of booleans. */
+    public BooleanMatrix(final boolean... values) {
+        this(values.length);
+        fill(new IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return values[i];
+            }
+        });
+    }
+
+    /** Create an all-true matrix. */
+    public static BooleanMatrix trues(int rows, int columns) {
+        return new BooleanMatrix(rows, columns).noti();
+    }
+
+    /** Number of longs needed to store length flags. */
+    static int numWords(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /** The word with bit i % 64 set if b is true, for building masks without branches. */
+    static long bit(boolean b, int i) {
+        return (b ? 1L : 0L) << i;
+    }
+
+    /** Condition on the element with a given linear index, see {@link #fromPredicate}. */
+    static abstract class IndexPredicate {
+        /** Whether the element with linear index i is true. */
+        public abstract boolean test(int i);
+    }
+
+    /** Create a matrix which is true for the linear indices where p holds. */
+    static BooleanMatrix fromPredicate(int rows, int columns, IndexPredicate p) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        result.fill(p);
+        return result;
+    }
+
+    /** Set every element to p.test(i), one word at a time. */
+    private void fill(IndexPredicate p) {
+        for (int w = 0; w < words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= bit(p.test(i), i);
+            }
+            words[w] = word;
+        }
+    }
+
+    /** Clear the unused bits in the last word. */
+    private void clearTail() {
+        if ((length & 63) != 0) {
+            words[words.length - 1] &= (1L << length) - 1;
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /** Get element i in linear indexing. */
+    public boolean get(int i) {
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** Get element (i, j). */
+    public boolean get(int i, int j) {
+        return get(i + j * rows);
+    }
+
+    /** Set element i in linear indexing. */
+    public BooleanMatrix put(int i, boolean v) {
+        if (v) {
+            words[i >>> 6] |= 1L << i;
+        } else {
+            words[i >>> 6] &= ~(1L << i);
+        }
+        return this;
+    }
+
+    /** Set element (i, j). */
+    public BooleanMatrix put(int i, int j, boolean v) {
+        return put(i + j * rows, v);
+    }
+
+    /**
+     * The index of the first true element at or after <tt>from</tt> in linear
+     * indexing, or -1 if there is none. Iterate over all true elements with
+     * <tt>for (int i = m.nextSetBit(0); i &gt;= 0; i = m.nextSetBit(i + 1))</tt>.
+     */
+    public int nextSetBit(int from) {
+        if (from >= length) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**************************************************************************
+     *
+     * Reductions
+     *
+     **************************************************************************/
+
+    /** Number of true elements. */
+    public int count() {
+        int result = 0;
+        for (long w : words) {
+            result += Long.bitCount(w);
+        }
+        return result;
+    }
+
+    /** Whether any element is true. */
+    public boolean any() {
+        for (long w : words) {
+            if (w != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether all elements are true. */
+    public boolean all() {
+        return count() == length;
+    }
+
+    /** Linear indices of all true elements, in increasing order. */
+    public int[] findIndices() {
+        int[] result = new int[count()];
+        int k = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                result[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Logical operations
+     *
+     **************************************************************************/
+
+    private void assertSameSize(BooleanMatrix other) {
+        if (rows != other.rows || columns != other.columns) {
+            throw new SizeException("Matrices must have the same size (is " + rows + "x" + columns + " and " + other.rows + "x" + other.columns + ").");
+        }
+    }
+
+    /** Logical and (in-place). */
+    public BooleanMatrix andi(BooleanMatrix other) {
+        assertSameSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+        return this;
+    }
+
+    /** Logical and. */
+    public BooleanMatrix and(BooleanMatrix other) {
+        return dup().andi(other);
+    }
+
+    /** Logical or (in-place). */
+    public BooleanMatrix ori(BooleanMatrix other) {
+        assertSameSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /** Logical or. */
+    public BooleanMatrix or(BooleanMatrix other) {
+        return dup().ori(other);
+    }
+
+    /** Logical xor (in-place). */
+    public BooleanMatrix xori(BooleanMatrix other) {
+        assertSameSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] ^= other.words[i];
+        }
+        return this;
+    }
+
+    /** Logical xor. */
+    public BooleanMatrix xor(BooleanMatrix other) {
+        return dup().xori(other);
+    }
+
+    /** Computes this and not other (in-place). */
+    public BooleanMatrix andNoti(BooleanMatrix other) {
+        assertSameSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+        return this;
+    }
+
+    /** Computes this and not other. */
+    public BooleanMatrix andNot(BooleanMatrix other) {
+        return dup().andNoti(other);
+    }
+
+    /** Logical not (in-place). */
+    public BooleanMatrix noti() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ~words[i];
+        }
+        clearTail();
+        return this;
+    }
+
+    /** Logical not. */
+    public BooleanMatrix not() {
+        return dup().noti();
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    public BooleanMatrix dup() {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        System.arraycopy(words, 0, result.words, 0, words.length);
+        return result;
+    }
+
+    /** Reshape in-place, keeping the linear order of the elements. */
+    public BooleanMatrix reshape(int newRows, int newColumns) {
+        if (newRows * newColumns != length) {
+            throw new IllegalArgumentException("Number of elements must not change.");
+        }
+        rows = newRows;
+        columns = newColumns;
+        return this;
+    }
+
+    /** Convert to a DoubleMatrix with 1.0 for true and 0.0 for false. */
+    public DoubleMatrix toDoubleMatrix() {
+        DoubleMatrix result = new DoubleMatrix(rows, columns);
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            result.data[i] = 1.0;
+        }
+        return result;
+    }
+
+    /** Convert to a FloatMatrix with 1.0f for true and 0.0f for false. */
+    public FloatMatrix toFloatMatrix() {
+        FloatMatrix result = new FloatMatrix(rows, columns);
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            result.data[i] = 1.0f;
+        }
+        return result;
+    }
+
+    /** Convert to a boolean array in linear order. */
+    public boolean[] toArray() {
+        boolean[] result = new boolean[length];
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BooleanMatrix)) {
+            return false;
+        }
+        BooleanMatrix other = (BooleanMatrix) o;
+        return rows == other.rows && columns == other.columns && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + rows;
+        hash = 83 * hash + columns;
+        hash = 83 * hash + Arrays.hashCode(words);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("[");
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                s.append(get(i, j) ? "true" : "false");
+                if (j < columns - 1) {
+                    s.append(", ");
+                }
+            }
+            if (i < rows - 1) {
+                s.append("; ");
+            }
+        }
+        s.append("]");
+        return s.toString();
+    }
+}
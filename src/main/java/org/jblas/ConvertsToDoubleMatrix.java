@@ -6,8 +6,9 @@
 package org.jblas;
 
 /**
- * EXPERIMENTAL, not yet used for anything usefull... .
- * 
+ * Implemented by objects which can be converted to a DoubleMatrix, for
+ * example sparse matrices.
+ *
  * @author Mikio L. Braun
  */
 public interface ConvertsToDoubleMatrix {
@@ -6,6 +6,8 @@
 package org.jblas;
 
 /**
+ * Implemented by objects which can be converted to a FloatMatrix, for
+ * example sparse matrices.
  *
  * @author mikio
  */
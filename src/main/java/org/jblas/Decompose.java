@@ -6,7 +6,6 @@ package org.jblas;
 
 import org.jblas.exceptions.LapackArgumentException;
 import org.jblas.exceptions.LapackPositivityException;
-import org.jblas.util.Permutations;
 import static org.jblas.util.Functions.min;
 
 /**
@@ -17,14 +16,21 @@ public class Decompose {
      * Class to hold an LU decomposition result.
      *
      * Contains a lower matrix L, and upper matrix U, and a permutation matrix
-     * P such that P*L*U is the original matrix.
+     * P such that P*L*U is the original matrix. The permutation is also
+     * available as a {@link PermutationMatrix}, which can be applied in time
+     * linear in the size of the other matrix. Results of
+     * {@link Decompose#luPermutation(DoubleMatrix)} only hold the
+     * PermutationMatrix, and {@link #getP()} builds P on request.
      * @param <T>
      */
     public static class LUDecomposition<T> {
 
         public T l;
         public T u;
+        /** The dense permutation matrix, null until {@link #getP()} is called for results of luPermutation. */
         public T p;
+        public PermutationMatrix permutation;
+        private DensePermutation<T> dense;
 
         public LUDecomposition(T l, T u, T p) {
             this.l = l;
@@ -32,23 +38,76 @@ public class Decompose {
             this.p = p;
         }
 
+        public LUDecomposition(T l, T u, T p, PermutationMatrix permutation) {
+            this(l, u, p);
+            this.permutation = permutation;
+        }
+
+        private LUDecomposition(T l, T u, PermutationMatrix permutation, DensePermutation<T> dense) {
+            this(l, u, null, permutation);
+            this.dense = dense;
+        }
+
+        /** The dense permutation matrix P, built from the permutation when needed. */
+        public T getP() {
+            if (p == null && permutation != null && dense != null) {
+                p = dense.convert(permutation);
+            }
+            return p;
+        }
+
         @Override
         public String toString() {
-          return String.format("<LUDecomposition L=%s U=%s P=%s>", l, u, p);
+          return String.format("<LUDecomposition L=%s U=%s P=%s>", l, u, p != null ? p : permutation);
         }
     }
 
+    /** Converts a PermutationMatrix to the dense matrix type of an LUDecomposition. */
+    private interface DensePermutation<T> {
+        T convert(PermutationMatrix permutation);
+    }
+
+    private static final DensePermutation<DoubleMatrix> DOUBLE_PERMUTATION = new DensePermutation<DoubleMatrix>() {
+        public DoubleMatrix convert(PermutationMatrix permutation) {
+            return permutation.toDoubleMatrix();
+        }
+    };
+
+    private static final DensePermutation<FloatMatrix> FLOAT_PERMUTATION = new DensePermutation<FloatMatrix>() {
+        public FloatMatrix convert(PermutationMatrix permutation) {
+            return permutation.toFloatMatrix();
+        }
+    };
+
     /**
      * Compute LU Decomposition of a general matrix.
      *
      * Computes the LU decomposition using GETRF. Returns three matrices L, U, P,
      * where L is lower diagonal, U is upper diagonal, and P is a permutation
-     * matrix such that A = P * L * U.
+     * matrix such that A = P * L * U. P is returned both as dense matrix and
+     * as PermutationMatrix.
      *
      * @param A general matrix
      * @return An LUDecomposition object.
      */
     public static LUDecomposition<DoubleMatrix> lu(DoubleMatrix A) {
+        LUDecomposition<DoubleMatrix> lu = luPermutation(A);
+        lu.getP();
+        return lu;
+    }
+
+    /**
+     * Compute LU Decomposition of a general matrix without building the
+     * dense permutation matrix.
+     *
+     * Like {@link #lu(DoubleMatrix)}, but P is only returned as
+     * PermutationMatrix, which takes O(n) instead of O(n^2) memory. The dense
+     * matrix is built by {@link LUDecomposition#getP()} when needed.
+     *
+     * @param A general matrix
+     * @return An LUDecomposition object.
+     */
+    public static LUDecomposition<DoubleMatrix> luPermutation(DoubleMatrix A) {
         int[] ipiv = new int[min(A.rows, A.columns)];
         DoubleMatrix result = A.dup();
         NativeBlas.dgetrf(A.rows, A.columns, result.data, 0, A.rows, ipiv, 0);
@@ -57,8 +116,8 @@ public class Decompose {
         DoubleMatrix l = new DoubleMatrix(A.rows, min(A.rows, A.columns));
         DoubleMatrix u = new DoubleMatrix(min(A.columns, A.rows), A.columns);
         decomposeLowerUpper(result, l, u);
-        DoubleMatrix p = Permutations.permutationDoubleMatrixFromPivotIndices(A.rows, ipiv);
-        return new LUDecomposition<DoubleMatrix>(l, u, p);
+        PermutationMatrix permutation = PermutationMatrix.fromPivotIndices(A.rows, ipiv);
+        return new LUDecomposition<DoubleMatrix>(l, u, permutation, DOUBLE_PERMUTATION);
     }
 
     private static void decomposeLowerUpper(DoubleMatrix A, DoubleMatrix L, DoubleMatrix U) {
@@ -106,12 +165,30 @@ public class Decompose {
    *
    * Computes the LU decomposition using GETRF. Returns three matrices L, U, P,
    * where L is lower diagonal, U is upper diagonal, and P is a permutation
-   * matrix such that A = P * L * U.
+   * matrix such that A = P * L * U. P is returned both as dense matrix and
+   * as PermutationMatrix.
    *
    * @param A general matrix
    * @return An LUDecomposition object.
    */
   public static LUDecomposition<FloatMatrix> lu(FloatMatrix A) {
+      LUDecomposition<FloatMatrix> lu = luPermutation(A);
+      lu.getP();
+      return lu;
+  }
+
+  /**
+   * Compute LU Decomposition of a general matrix without building the
+   * dense permutation matrix.
+   *
+   * Like {@link #lu(FloatMatrix)}, but P is only returned as
+   * PermutationMatrix, which takes O(n) instead of O(n^2) memory. The dense
+   * matrix is built by {@link LUDecomposition#getP()} when needed.
+   *
+   * @param A general matrix
+   * @return An LUDecomposition object.
+   */
+  public static LUDecomposition<FloatMatrix> luPermutation(FloatMatrix A) {
       int[] ipiv = new int[min(A.rows, A.columns)];
       FloatMatrix result = A.dup();
       NativeBlas.sgetrf(A.rows, A.columns, result.data, 0, A.rows, ipiv, 0);
@@ -120,8 +197,8 @@ public class Decompose {
       FloatMatrix l = new FloatMatrix(A.rows, min(A.rows, A.columns));
       FloatMatrix u = new FloatMatrix(min(A.columns, A.rows), A.columns);
       decomposeLowerUpper(result, l, u);
-      FloatMatrix p = Permutations.permutationFloatMatrixFromPivotIndices(A.rows, ipiv);
-      return new LUDecomposition<FloatMatrix>(l, u, p);
+      PermutationMatrix permutation = PermutationMatrix.fromPivotIndices(A.rows, ipiv);
+      return new LUDecomposition<FloatMatrix>(l, u, permutation, FLOAT_PERMUTATION);
   }
 
   private static void decomposeLowerUpper(FloatMatrix A, FloatMatrix L, FloatMatrix U) {
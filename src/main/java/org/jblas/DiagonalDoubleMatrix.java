@@ -0,0 +1,286 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A square diagonal matrix of <tt>double</tt> values.
+ *
+ * <p>Only the n diagonal entries are stored. Multiplying with a diagonal matrix
+ * scales the rows (from the left) or columns (from the right) of the other
+ * matrix, which takes time linear in its size instead of the O(n^3) of a dense
+ * matrix product, and the inverse is computed element-wise.</p>
+ *
+ * <p>Zero diagonal entries are not checked for: as with {@link DoubleMatrix#rdiv},
+ * inverse and solve then lead to infinities.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>d.mmul(a)<td>d * a, scales the rows of a.
+ * <tr><td>d.rmmul(a)<td>a * d, scales the columns of a.
+ * <tr><td>d.mmuli(a), d.rmmuli(a)<td>The same, in-place.
+ * <tr><td>d.inverse()<td>Element-wise inverse of the diagonal.
+ * <tr><td>d.solve(b)<td>Solve d * x = b.
+ * <tr><td>d.toDense()<td>Convert to a DoubleMatrix.
+ * <caption>Diagonal matrix operations.</caption>
+ * </table>
+ */
+public class DiagonalDoubleMatrix implements ConvertsToDoubleMatrix, Serializable {
+    /** Number of rows and columns. */
+    public int n;
+    /** The n diagonal entries. */
+    public double[] diag;
+
+    static final long serialVersionUID = 6105394327516081942L;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create a diagonal matrix with the given diagonal. The array is not copied. */
+    public DiagonalDoubleMatrix(double... diag) {
+        this.n = diag.length;
+        this.diag = diag;
+    }
+
+    /** Create a diagonal matrix with the entries of a vector on the diagonal. */
+    public DiagonalDoubleMatrix(DoubleMatrix diag) {
+        this(diag.toArray());
+    }
+
+    /** Create an all-zero n x n diagonal matrix. */
+    public DiagonalDoubleMatrix(int n) {
+        this(new double[n]);
+    }
+
+    /** Create an n x n identity matrix. */
+    public static DiagonalDoubleMatrix eye(int n) {
+        DiagonalDoubleMatrix result = new DiagonalDoubleMatrix(n);
+        Arrays.fill(result.diag, 1.0);
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return n;
+    }
+
+    public int getColumns() {
+        return n;
+    }
+
+    /** Get the entry (i, j). */
+    public double get(int i, int j) {
+        return i == j ? diag[i] : 0.0;
+    }
+
+    /** Get the i-th diagonal entry. */
+    public double get(int i) {
+        return diag[i];
+    }
+
+    /** Set the i-th diagonal entry. */
+    public DiagonalDoubleMatrix put(int i, double v) {
+        diag[i] = v;
+        return this;
+    }
+
+    /** The diagonal as a column vector. */
+    public DoubleMatrix diag() {
+        return new DoubleMatrix(diag.clone());
+    }
+
+    /** The determinant, that is, the product of the diagonal entries. */
+    public double determinant() {
+        double result = 1.0;
+        for (int i = 0; i < n; i++) {
+            result *= diag[i];
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    /** Convert to a dense matrix. */
+    public DoubleMatrix toDense() {
+        DoubleMatrix result = new DoubleMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            result.data[i * n + i] = diag[i];
+        }
+        return result;
+    }
+
+    public DoubleMatrix convertToDoubleMatrix() {
+        return toDense();
+    }
+
+    public DiagonalDoubleMatrix dup() {
+        return new DiagonalDoubleMatrix(diag.clone());
+    }
+
+    /** A diagonal matrix is symmetric, so this returns a copy. */
+    public DiagonalDoubleMatrix transpose() {
+        return dup();
+    }
+
+    /** The inverse, computed element-wise. */
+    public DiagonalDoubleMatrix inverse() {
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = 1.0 / diag[i];
+        }
+        return new DiagonalDoubleMatrix(result);
+    }
+
+    /**************************************************************************
+     *
+     * Products
+     *
+     **************************************************************************/
+
+    private void assertSize(int size) {
+        if (size != n) {
+            throw new SizeException("Size must be " + n + " (is " + size + ").");
+        }
+    }
+
+    /** Compute this * a and store the result in result. a and result may be the same. */
+    public DoubleMatrix mmuli(DoubleMatrix a, DoubleMatrix result) {
+        assertSize(a.rows);
+        a.assertSameSize(result);
+        for (int j = 0; j < a.columns; j++) {
+            int c = j * n;
+            for (int i = 0; i < n; i++) {
+                result.data[c + i] = diag[i] * a.data[c + i];
+            }
+        }
+        return result;
+    }
+
+    /** Compute a = this * a in-place. */
+    public DoubleMatrix mmuli(DoubleMatrix a) {
+        return mmuli(a, a);
+    }
+
+    /** Compute this * a. */
+    public DoubleMatrix mmul(DoubleMatrix a) {
+        return mmuli(a, new DoubleMatrix(a.rows, a.columns));
+    }
+
+    /** Compute a * this and store the result in result. a and result may be the same. */
+    public DoubleMatrix rmmuli(DoubleMatrix a, DoubleMatrix result) {
+        assertSize(a.columns);
+        a.assertSameSize(result);
+        for (int j = 0; j < n; j++) {
+            int c = j * a.rows;
+            double d = diag[j];
+            for (int i = 0; i < a.rows; i++) {
+                result.data[c + i] = d * a.data[c + i];
+            }
+        }
+        return result;
+    }
+
+    /** Compute a = a * this in-place. */
+    public DoubleMatrix rmmuli(DoubleMatrix a) {
+        return rmmuli(a, a);
+    }
+
+    /** Compute a * this. */
+    public DoubleMatrix rmmul(DoubleMatrix a) {
+        return rmmuli(a, new DoubleMatrix(a.rows, a.columns));
+    }
+
+    /** Compute this * other. */
+    public DiagonalDoubleMatrix mmul(DiagonalDoubleMatrix other) {
+        assertSize(other.n);
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = diag[i] * other.diag[i];
+        }
+        return new DiagonalDoubleMatrix(result);
+    }
+
+    /** Solve this * x = b. b is not changed. */
+    public DoubleMatrix solve(DoubleMatrix b) {
+        assertSize(b.rows);
+        DoubleMatrix x = new DoubleMatrix(b.rows, b.columns);
+        for (int j = 0; j < b.columns; j++) {
+            int c = j * n;
+            for (int i = 0; i < n; i++) {
+                x.data[c + i] = b.data[c + i] / diag[i];
+            }
+        }
+        return x;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DiagonalDoubleMatrix && Arrays.equals(diag, ((DiagonalDoubleMatrix) o).diag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(diag);
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
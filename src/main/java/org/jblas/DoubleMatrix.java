@@ -39,25 +39,31 @@ package org.jblas;
 
 import org.jblas.exceptions.SizeException;
 import org.jblas.ranges.Range;
+import org.jblas.util.BinaryIO;
+import org.jblas.util.DelimitedParser;
+import org.jblas.util.Parallel;
 import org.jblas.util.Random;
+import org.jblas.util.Sorting;
+import org.jblas.util.Summation;
 
-import java.io.BufferedReader;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -228,8 +234,9 @@ import java.util.regex.Pattern;
  * <tr><th>Operation <th>Method <th>Comment
  * <tr><td>x + y <td>x.add(y)			<td>
  * <tr><td>x - y <td>x.sub(y), y.rsub(x) <td>rsub subtracts left from right hand side
- * <tr><td rowspan=3>x * y 	<td>x.mul(y) <td>element-wise multiplication 
+ * <tr><td rowspan=4>x * y 	<td>x.mul(y) <td>element-wise multiplication 
  * <tr>                     <td>x.mmul(y)<td>matrix-matrix multiplication
+ * <tr>                     <td>DoubleMatrix.mmulChain(x, y, z)<td>product of several matrices in the cheapest order
  * <tr>                     <td>x.dot(y) <td>scalar-product
  * <tr><td>x / y <td>x.div(y), y.rdiv(x) <td>rdiv divides right hand side by left hand side.
  * <tr><td>- x	 <td>x.neg()				<td>
@@ -250,6 +257,7 @@ import java.util.regex.Pattern;
  * <tr><td>x.divColumnVector</td><td>Divide each column by a vector (elementwise)</td></tr>
  * <tr><td>x.mulRow</td>         <td>Multiplies a row by a scalar</td></tr>
  * <tr><td>x.mulColumn</td>      <td>Multiplies a column by a scalar</td></tr>
+ * <tr><td>x.broadcast(op, y)</td><td>Applies a BinaryOp, repeating single rows or columns of x and y</td></tr>
  * <caption>Row and column arithmetics.</caption>
  * </table>
  * 
@@ -299,7 +307,7 @@ import java.util.regex.Pattern;
  * 
  * @author Mikio Braun, Johannes Schaback
  */
-public class DoubleMatrix implements Serializable {
+public class DoubleMatrix implements ConvertsToDoubleMatrix, Serializable {
 
     /** Number of rows. */
     public int rows;
@@ -315,7 +323,6 @@ public class DoubleMatrix implements Serializable {
     // Precompile regex patterns
     private static final Pattern SEMICOLON = Pattern.compile(";");
     private static final Pattern WHITESPACES = Pattern.compile("\\s+");
-    private static final Pattern COMMA = Pattern.compile(",");
 
     /**************************************************************************
      *
@@ -762,6 +769,11 @@ public class DoubleMatrix implements Serializable {
         return get(indices.findIndices());
     }
 
+    /** Get all elements at the linear indices given by an IntMatrix. */
+    public DoubleMatrix get(IntMatrix indices) {
+        return get(indices.data);
+    }
+
     /**
      * Get elements from a row and columns as specified by the non-zero entries of
      * a matrix.
@@ -1094,6 +1106,16 @@ public class DoubleMatrix implements Serializable {
         return put(indices.findIndices(), v);
     }
 
+    /** Put a sub-matrix into the linear indices given by an IntMatrix. */
+    public DoubleMatrix put(IntMatrix indices, DoubleMatrix v) {
+        return put(indices.data, v);
+    }
+
+    /** Put a single value into the linear indices given by an IntMatrix. */
+    public DoubleMatrix put(IntMatrix indices, double v) {
+        return put(indices.data, v);
+    }
+
     /**
      * Put a single value into the specified columns (non-zero entries of
      * <tt>indices</tt>) of a row.
@@ -1495,6 +1517,16 @@ public class DoubleMatrix implements Serializable {
         return array;
     }
 
+    /** Converts the matrix to an IntMatrix, rounding to the nearest integer. */
+    public IntMatrix toIntMatrix() {
+        return new IntMatrix(this);
+    }
+
+    /** Converts the matrix to a LongMatrix, rounding to the nearest integer. */
+    public LongMatrix toLongMatrix() {
+        return new LongMatrix(this);
+    }
+
     /** Convert the matrix to a two-dimensional array of integers. */
     public int[][] toIntArray2() {
         int[][] array = new int[rows][columns];
@@ -1532,6 +1564,11 @@ public class DoubleMatrix implements Serializable {
         return array;
     }
 
+    /** Returns this matrix. */
+    public DoubleMatrix convertToDoubleMatrix() {
+        return this;
+    }
+
     public FloatMatrix toFloat() {
          FloatMatrix result = new FloatMatrix(rows, columns);
          for (int i = 0; i < length; i++) {
@@ -1668,12 +1705,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Add a scalar to a matrix (in-place). */
     public DoubleMatrix addi(double v, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) + v);
-        }
-        return result;
+        return broadcasti(BinaryOp.ADD, v, result);
     }
 
     /** Subtract two matrices (in-place). */
@@ -1702,12 +1734,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Subtract a scalar from a matrix (in-place). */
     public DoubleMatrix subi(double v, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) - v);
-        }
-        return result;
+        return broadcasti(BinaryOp.SUB, v, result);
     }
 
     /**
@@ -1720,12 +1747,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Subtract a matrix from a scalar (in-place). */
     public DoubleMatrix rsubi(double a, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, a - get(i));
-        }
-        return result;
+        return relementwisei(BinaryOp.SUB, a, result);
     }
 
     /** Elementwise multiplication (in-place). */
@@ -1737,23 +1759,12 @@ public class DoubleMatrix implements Serializable {
             return other.muli(scalar(), result);
         }
 
-        assertSameLength(other);
-        ensureResultLength(other, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) * other.get(i));
-        }
-        return result;
+        return elementwisei(BinaryOp.MUL, other, result);
     }
 
     /** Elementwise multiplication with a scalar (in-place). */
     public DoubleMatrix muli(double v, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) * v);
-        }
-        return result;
+        return broadcasti(BinaryOp.MUL, v, result);
     }
 
     /** Matrix-matrix multiplication (in-place). */
@@ -1803,6 +1814,137 @@ public class DoubleMatrix implements Serializable {
         return muli(v, result);
     }
 
+    /**
+     * Multiply a chain of matrices, choosing the order of the multiplications
+     * which needs the least number of floating point operations.
+     *
+     * <p>Matrix multiplication is associative, but the cost of evaluating a
+     * product like <tt>A.mmul(B).mmul(C).mmul(v)</tt> from left to right can
+     * be much larger than evaluating it from right to left, in particular if
+     * v is a vector. The parenthesisation is found with the classical
+     * dynamic program in O(n<sup>3</sup>) for n matrices. Intermediate results
+     * share a small pool of buffers, and products with a vector are computed
+     * with a matrix-vector multiplication.</p>
+     *
+     * <p>Unlike {@link #mmul(DoubleMatrix)}, 1 x 1 matrices are not treated as
+     * scalars.</p>
+     *
+     * @param matrices the factors, which must have matching dimensions
+     * @return a new matrix holding the product
+     */
+    public static DoubleMatrix mmulChain(DoubleMatrix... matrices) {
+        int n = matrices.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Need at least one matrix to multiply.");
+        }
+        int[] dims = new int[n + 1];
+        dims[0] = matrices[0].rows;
+        for (int i = 0; i < n; i++) {
+            if (matrices[i].rows != dims[i]) {
+                throw new SizeException("Matrix " + i + " has " + matrices[i].rows + " rows, but the previous factor has "
+                        + dims[i] + " columns.");
+            }
+            dims[i + 1] = matrices[i].columns;
+        }
+        if (n == 1) {
+            return matrices[0].dup();
+        }
+
+        /* cost[i][j] is the minimal cost of the product of matrices i..j, which is
+         * computed as (i..split[i][j]) * (split[i][j]+1..j). FloatMatrix uses
+         * the same 64 bit costs, as floats would round them. */
+        //FLOAT//        double[][] cost = new double[n][n];
+        double[][] cost = new double[n][n];
+        int[][] split = new int[n][n];
+        for (int len = 1; len < n; len++) {
+            for (int i = 0; i + len < n; i++) {
+                int j = i + len;
+                //FLOAT//                cost[i][j] = Double.POSITIVE_INFINITY;
+                cost[i][j] = Double.POSITIVE_INFINITY;
+                for (int k = i; k < j; k++) {
+                    //FLOAT//                    double c = cost[i][k] + cost[k + 1][j] + (double) dims[i] * dims[k + 1] * dims[j + 1];
+                    double c = cost[i][k] + cost[k + 1][j] + (double) dims[i] * dims[k + 1] * dims[j + 1];
+                    if (c < cost[i][j]) {
+                        cost[i][j] = c;
+                        split[i][j] = k;
+                    }
+                }
+            }
+        }
+
+        DoubleMatrix result = new DoubleMatrix(dims[0], dims[n]);
+        ChainEvaluation chain = new ChainEvaluation(matrices, dims, split);
+        chain.evaluate(0, n - 1, result.data);
+        return result;
+    }
+
+    /** Evaluates a matrix chain in the order found by mmulChain. */
+    private static class ChainEvaluation {
+        private final DoubleMatrix[] matrices;
+        private final int[] dims;
+        private final int[][] split;
+        private final List<double[]> pool = new LinkedList<double[]>();
+
+        ChainEvaluation(DoubleMatrix[] matrices, int[] dims, int[][] split) {
+            this.matrices = matrices;
+            this.dims = dims;
+            this.split = split;
+        }
+
+        /** Take the smallest free buffer with at least the given length. */
+        private double[] acquire(int length) {
+            double[] best = null;
+            for (double[] b : pool) {
+                if (b.length >= length && (best == null || b.length < best.length)) {
+                    best = b;
+                }
+            }
+            if (best == null) {
+                return new double[length];
+            }
+            pool.remove(best);
+            return best;
+        }
+
+        /** Compute the product of matrices i..j into c, or return the factor if i == j. */
+        double[] evaluate(int i, int j, double[] c) {
+            if (i == j) {
+                return matrices[i].data;
+            }
+            int k = split[i][j];
+            double[] a = evaluate(i, k, k == i ? null : acquire(dims[i] * dims[k + 1]));
+            double[] b = evaluate(k + 1, j, k + 1 == j ? null : acquire(dims[k + 1] * dims[j + 1]));
+            multiply(dims[i], dims[j + 1], dims[k + 1], a, b, c);
+            if (k != i) {
+                pool.add(a);
+            }
+            if (k + 1 != j) {
+                pool.add(b);
+            }
+            return c;
+        }
+
+        /** c = a * b for an m x l matrix a and an l x n matrix b. */
+        private static void multiply(int m, int n, int l, double[] a, double[] b, double[] c) {
+            if (m == 0 || n == 0) {
+                return;
+            }
+            if (l == 0) {
+                Arrays.fill(c, 0, m * n, 0.0);
+                return;
+            }
+            if (!NativeBlas.isLoaded()) {
+                JavaBlas.rgemm('N', 'N', m, n, l, 1.0, a, 0, m, b, 0, l, 0.0, c, 0, m);
+            } else if (n == 1) {
+                NativeBlas.dgemv('N', m, l, 1.0, a, 0, m, b, 0, 1, 0.0, c, 0, 1);
+            } else if (m == 1) {
+                NativeBlas.dgemv('T', l, n, 1.0, b, 0, l, a, 0, 1, 0.0, c, 0, 1);
+            } else {
+                NativeBlas.dgemm('N', 'N', m, n, l, 1.0, a, 0, m, b, 0, l, 0.0, c, 0, m);
+            }
+        }
+    }
+
     /** Elementwise division (in-place). */
     public DoubleMatrix divi(DoubleMatrix other, DoubleMatrix result) {
         if (other.isScalar()) {
@@ -1812,23 +1954,12 @@ public class DoubleMatrix implements Serializable {
             return other.rdivi(scalar(), result);
         }
 
-        assertSameLength(other);
-        ensureResultLength(other, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) / other.get(i));
-        }
-        return result;
+        return elementwisei(BinaryOp.DIV, other, result);
     }
 
     /** Elementwise division with a scalar (in-place). */
     public DoubleMatrix divi(double a, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, get(i) / a);
-        }
-        return result;
+        return broadcasti(BinaryOp.DIV, a, result);
     }
 
     /**
@@ -1841,12 +1972,7 @@ public class DoubleMatrix implements Serializable {
     /** (Elementwise) division with a scalar, with operands switched. Computes
      * <code>result = a / this</code> (in-place). */
     public DoubleMatrix rdivi(double a, DoubleMatrix result) {
-        ensureResultLength(null, result);
-
-        for (int i = 0; i < length; i++) {
-            result.put(i, a / get(i));
-        }
-        return result;
+        return relementwisei(BinaryOp.DIV, a, result);
     }
 
     /** Negate each element (in-place). */
@@ -1912,9 +2038,10 @@ public class DoubleMatrix implements Serializable {
 
     /** Checks whether all entries (i, j) with i &gt;= j are zero. */
     public boolean isLowerTriangular() {
-      for (int i = 0; i < rows; i++)
-        for (int j = i+1; j < columns; j++) {
-          if (get(i, j) != 0.0)
+      // walk down the columns to access data sequentially
+      for (int j = 1; j < columns; j++)
+        for (int i = 0, k = j * rows; i < j && i < rows; i++, k++) {
+          if (data[k] != 0.0)
             return false;
         }
 
@@ -1925,9 +2052,9 @@ public class DoubleMatrix implements Serializable {
    * Checks whether all entries (i, j) with i &lt;= j are zero.
    */
     public boolean isUpperTriangular() {
-      for (int i = 0; i < rows; i++)
-        for (int j = 0; j < i && j < columns; j++) {
-          if (get(i, j) != 0.0)
+      for (int j = 0; j < columns; j++)
+        for (int i = j + 1, k = j * rows + j + 1; i < rows; i++, k++) {
+          if (data[k] != 0.0)
             return false;
         }
 
@@ -1948,6 +2075,276 @@ public class DoubleMatrix implements Serializable {
         return dup().selecti(where);
     }
 
+    /**
+     * Apply a function to each element and store the result in result, which
+     * may be this matrix. Matrices with more than MatrixFunctions.MAP_GRAIN
+     * elements are processed in parallel, so f may be called from several
+     * threads at once.
+     */
+    public DoubleMatrix mapi(final DoubleFunction f, final DoubleMatrix result) {
+        ensureResultLength(null, result);
+        Parallel.forRange(0, length, MatrixFunctions.MAP_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    result.data[i] = f.compute(data[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /** Apply a function to each element (in-place). */
+    public DoubleMatrix mapi(DoubleFunction f) {
+        return mapi(f, this);
+    }
+
+    /** Apply a function to each element. */
+    public DoubleMatrix map(DoubleFunction f) {
+        return mapi(f, new DoubleMatrix(rows, columns));
+    }
+
+    /**
+     * Start a lazily evaluated element-wise expression, see {@link LazyDoubleMatrix}.
+     * For example, <tt>a.lazy().mul(b).add(c).exp().evaluate()</tt> runs as a
+     * single pass without intermediate matrices.
+     */
+    public LazyDoubleMatrix lazy() {
+        return new LazyDoubleMatrix(this);
+    }
+
+    /****************************************************************
+     * Bit-packed masks
+     */
+
+    /** Keep the elements where <tt>where</tt> is true, set all others to zero (in-place). */
+    public DoubleMatrix selecti(BooleanMatrix where) {
+        checkLength(where.length);
+        for (int w = 0; w < where.words.length; w++) {
+            long word = ~where.words[w];
+            while (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (i >= length) {
+                    break;
+                }
+                data[i] = 0.0;
+                word &= word - 1;
+            }
+        }
+        return this;
+    }
+
+    /** Keep the elements where <tt>where</tt> is true, set all others to zero. */
+    public DoubleMatrix select(BooleanMatrix where) {
+        return dup().selecti(where);
+    }
+
+    /** Get the elements where <tt>where</tt> is true as a column vector (linear adressing). */
+    public DoubleMatrix get(BooleanMatrix where) {
+        checkLength(where.length);
+        DoubleMatrix result = new DoubleMatrix(where.count());
+        int k = 0;
+        for (int i = where.nextSetBit(0); i >= 0; i = where.nextSetBit(i + 1)) {
+            result.data[k++] = data[i];
+        }
+        return result;
+    }
+
+    /** Put a single value into the elements where <tt>where</tt> is true (linear adressing). */
+    public DoubleMatrix put(BooleanMatrix where, double v) {
+        checkLength(where.length);
+        for (int i = where.nextSetBit(0); i >= 0; i = where.nextSetBit(i + 1)) {
+            data[i] = v;
+        }
+        return this;
+    }
+
+    /**
+     * Put the elements of <tt>v</tt> in order into the elements where <tt>where</tt>
+     * is true (linear adressing).
+     */
+    public DoubleMatrix put(BooleanMatrix where, DoubleMatrix v) {
+        if (v.isScalar()) {
+            return put(where, v.scalar());
+        }
+        checkLength(where.length);
+        v.checkLength(where.count());
+        int k = 0;
+        for (int i = where.nextSetBit(0); i >= 0; i = where.nextSetBit(i + 1)) {
+            data[i] = v.data[k++];
+        }
+        return this;
+    }
+
+    /** Mask which is true for non-zero elements. */
+    public BooleanMatrix truthMask() {
+        return new BooleanMatrix(this);
+    }
+
+    /** Mask which is true for NaN elements. */
+    public BooleanMatrix isNaNMask() {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return Double.isNaN(data[i]);
+            }
+        });
+    }
+
+    /** Mask which is true for infinite elements. */
+    public BooleanMatrix isInfiniteMask() {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return Double.isInfinite(data[i]);
+            }
+        });
+    }
+
+    /** Test for "less than", returning a bit-packed mask. */
+    public BooleanMatrix ltMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return ltMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] < other.data[i];
+            }
+        });
+    }
+
+    /** Test for "less than" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix ltMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] < value;
+            }
+        });
+    }
+
+    /** Test for "greater than", returning a bit-packed mask. */
+    public BooleanMatrix gtMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return gtMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] > other.data[i];
+            }
+        });
+    }
+
+    /** Test for "greater than" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix gtMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] > value;
+            }
+        });
+    }
+
+    /** Test for "less than or equal", returning a bit-packed mask. */
+    public BooleanMatrix leMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return leMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] <= other.data[i];
+            }
+        });
+    }
+
+    /** Test for "less than or equal" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix leMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] <= value;
+            }
+        });
+    }
+
+    /** Test for "greater than or equal", returning a bit-packed mask. */
+    public BooleanMatrix geMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return geMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] >= other.data[i];
+            }
+        });
+    }
+
+    /** Test for "greater than or equal" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix geMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] >= value;
+            }
+        });
+    }
+
+    /** Test for "equality", returning a bit-packed mask. */
+    public BooleanMatrix eqMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return eqMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] == other.data[i];
+            }
+        });
+    }
+
+    /** Test for "equality" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix eqMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] == value;
+            }
+        });
+    }
+
+    /** Test for "inequality", returning a bit-packed mask. */
+    public BooleanMatrix neMask(final DoubleMatrix other) {
+        if (other.isScalar()) {
+            return neMask(other.scalar());
+        }
+        assertSameLength(other);
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] != other.data[i];
+            }
+        });
+    }
+
+    /** Test for "inequality" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix neMask(final double value) {
+        return BooleanMatrix.fromPredicate(rows, columns, new BooleanMatrix.IndexPredicate() {
+            @Override
+            public boolean test(int i) {
+                return data[i] != value;
+            }
+        });
+    }
+
     /****************************************************************
      * Rank one-updates
      */
@@ -2022,22 +2419,10 @@ public class DoubleMatrix implements Serializable {
      * corresponding elements in the matrix (in-place).
      */
     public DoubleMatrix mini(DoubleMatrix other, DoubleMatrix result) {
-        if (result == this) {
-            for (int i = 0; i < length; i++) {
-                if (get(i) > other.get(i)) {
-                    put(i, other.get(i));
-                }
-            }
-        } else {
-            for (int i = 0; i < length; i++) {
-                if (get(i) > other.get(i)) {
-                    result.put(i, other.get(i));
-                } else {
-                    result.put(i, get(i));
-                }
-            }
+        if (other.isScalar()) {
+            return mini(other.scalar(), result);
         }
-        return result;
+        return elementwisei(BinaryOp.MIN, other, result);
     }
 
     /**
@@ -2057,23 +2442,7 @@ public class DoubleMatrix implements Serializable {
     }
 
     public DoubleMatrix mini(double v, DoubleMatrix result) {
-        if (result == this) {
-            for (int i = 0; i < length; i++) {
-                if (get(i) > v) {
-                    result.put(i, v);
-                }
-            }
-        } else {
-            for (int i = 0; i < length; i++) {
-                if (get(i) > v) {
-                    result.put(i, v);
-                } else {
-                    result.put(i, get(i));
-                }
-            }
-
-        }
-        return result;
+        return broadcasti(BinaryOp.MIN, v, result);
     }
 
     public DoubleMatrix mini(double v) {
@@ -2124,22 +2493,10 @@ public class DoubleMatrix implements Serializable {
      * corresponding elements in the matrix (in-place).
      */
     public DoubleMatrix maxi(DoubleMatrix other, DoubleMatrix result) {
-        if (result == this) {
-            for (int i = 0; i < length; i++) {
-                if (get(i) < other.get(i)) {
-                    put(i, other.get(i));
-                }
-            }
-        } else {
-            for (int i = 0; i < length; i++) {
-                if (get(i) < other.get(i)) {
-                    result.put(i, other.get(i));
-                } else {
-                    result.put(i, get(i));
-                }
-            }
+        if (other.isScalar()) {
+            return maxi(other.scalar(), result);
         }
-        return result;
+        return elementwisei(BinaryOp.MAX, other, result);
     }
 
     /**
@@ -2159,23 +2516,7 @@ public class DoubleMatrix implements Serializable {
     }
 
     public DoubleMatrix maxi(double v, DoubleMatrix result) {
-        if (result == this) {
-            for (int i = 0; i < length; i++) {
-                if (get(i) < v) {
-                    result.put(i, v);
-                }
-            }
-        } else {
-            for (int i = 0; i < length; i++) {
-                if (get(i) < v) {
-                    result.put(i, v);
-                } else {
-                    result.put(i, get(i));
-                }
-            }
-
-        }
-        return result;
+        return broadcasti(BinaryOp.MAX, v, result);
     }
 
     public DoubleMatrix maxi(double v) {
@@ -2188,11 +2529,12 @@ public class DoubleMatrix implements Serializable {
 
     /** Computes the sum of all elements of the matrix. */
     public double sum() {
-        double s = 0.0;
-        for (int i = 0; i < length; i++) {
-            s += get(i);
-        }
-        return s;
+        return Summation.sum(data, 0, 1, length);
+    }
+
+    /** Computes the sum of all elements with the given summation mode, see {@link Summation}. */
+    public double sum(Summation.Mode mode) {
+        return Summation.sum(data, 0, 1, length, mode);
     }
 
     /** Computes the product of all elements of the matrix */
@@ -2212,17 +2554,17 @@ public class DoubleMatrix implements Serializable {
         return sum() / length;
     }
 
+    /** Computes the mean value of all elements with the given summation mode. */
+    public double mean(Summation.Mode mode) {
+        return sum(mode) / length;
+    }
+
     /**
      * Computes the cumulative sum, that is, the sum of all elements
      * of the matrix up to a given index in linear addressing (in-place).
      */
     public DoubleMatrix cumulativeSumi() {
-        double s = 0.0;
-        for (int i = 0; i < length; i++) {
-            s += get(i);
-            put(i, s);
-        }
-        return this;
+        return cumulativei(Scan.SUM);
     }
 
     /**
@@ -2233,6 +2575,195 @@ public class DoubleMatrix implements Serializable {
         return dup().cumulativeSumi();
     }
 
+    /**
+     * Associative operations for cumulative scans, see
+     * {@link #cumulativei(Scan)}. MIN and MAX propagate NaNs like
+     * {@link Math#min(double, double)}, and LOG_SUM_EXP computes
+     * log(exp(a) + exp(b)) without overflow.
+     */
+    public enum Scan {
+        SUM, PROD, MIN, MAX, LOG_SUM_EXP;
+
+        /** The neutral element of the operation. */
+        double identity() {
+            switch (this) {
+                case SUM:
+                    return 0.0;
+                case PROD:
+                    return 1.0;
+                case MIN:
+                    return Double.POSITIVE_INFINITY;
+                default:
+                    return Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        /** Combine the result up to some element with the following value. */
+        double combine(double a, double b) {
+            switch (this) {
+                case SUM:
+                    return a + b;
+                case PROD:
+                    return a * b;
+                case MIN:
+                    return Math.min(a, b);
+                case MAX:
+                    return Math.max(a, b);
+                default:
+                    return logAddExp(a, b);
+            }
+        }
+    }
+
+    private static double logAddExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        if (b == Double.NEGATIVE_INFINITY) {
+            return a;
+        }
+        double m = Math.max(a, b);
+        return m + (double) Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+
+    /** Vectors with more elements are scanned in parallel blocks of this size. */
+    private static final int SCAN_BLOCK = 16384;
+
+    /**
+     * Computes the cumulative result of an operation over all elements in
+     * linear addressing (in-place): element i is replaced by the combination of
+     * the elements 0 to i. Long vectors are scanned in parallel with a blocked
+     * two-pass algorithm: blocks are reduced in parallel, the block results
+     * are scanned, and then every block is scanned starting from the result
+     * of the previous blocks. For SUM and PROD, this may round differently
+     * than a sequential scan.
+     */
+    public DoubleMatrix cumulativei(Scan op) {
+        scan(op, data, 0, length);
+        return this;
+    }
+
+    /** Computes the cumulative result of an operation in linear addressing, see {@link #cumulativei(Scan)}. */
+    public DoubleMatrix cumulative(Scan op) {
+        return dup().cumulativei(op);
+    }
+
+    /** Computes the cumulative result of an operation down each column (in-place). Columns are scanned in parallel. */
+    public DoubleMatrix columnCumulativei(final Scan op) {
+        Parallel.forRange(0, columns, Math.max(1, SCAN_BLOCK / Math.max(1, rows)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    scan(op, data, c * rows, rows);
+                }
+            }
+        });
+        return this;
+    }
+
+    /** Computes the cumulative result of an operation down each column. */
+    public DoubleMatrix columnCumulative(Scan op) {
+        return dup().columnCumulativei(op);
+    }
+
+    /**
+     * Computes the cumulative result of an operation along each row
+     * (in-place). Each column is combined with the previous one, and blocks
+     * of rows are processed in parallel.
+     */
+    public DoubleMatrix rowCumulativei(final Scan op) {
+        Parallel.forRange(0, rows, Math.max(ROW_BLOCK, SCAN_BLOCK / Math.max(1, columns)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = 1; c < columns; c++) {
+                    combine(op, data, c * rows + from, data, (c - 1) * rows + from, to - from);
+                }
+            }
+        });
+        return this;
+    }
+
+    /** Computes the cumulative result of an operation along each row. */
+    public DoubleMatrix rowCumulative(Scan op) {
+        return dup().rowCumulativei(op);
+    }
+
+    /** Inclusive scan of a[offset, offset + n), in parallel blocks for long ranges. */
+    private static void scan(final Scan op, final double[] a, final int offset, final int n) {
+        if (!Parallel.worthSplitting(n, 2 * SCAN_BLOCK)) {
+            scanRange(op, a, offset, n, op.identity());
+            return;
+        }
+        final int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        final double[] carry = new double[blocks];
+        // pass 1: reduce all blocks but the last one
+        Parallel.forRange(0, blocks - 1, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int b = from; b < to; b++) {
+                    double s = op.identity();
+                    for (int i = offset + b * SCAN_BLOCK, end = i + SCAN_BLOCK; i < end; i++) {
+                        s = op.combine(s, a[i]);
+                    }
+                    carry[b + 1] = s;
+                }
+            }
+        });
+        carry[0] = op.identity();
+        for (int b = 1; b < blocks; b++) {
+            carry[b] = op.combine(carry[b - 1], carry[b]);
+        }
+        // pass 2: scan all blocks starting from the result of the previous ones
+        Parallel.forRange(0, blocks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int b = from; b < to; b++) {
+                    int start = b * SCAN_BLOCK;
+                    scanRange(op, a, offset + start, Math.min(SCAN_BLOCK, n - start), carry[b]);
+                }
+            }
+        });
+    }
+
+    /** Sequential inclusive scan of a[offset, offset + n), starting from s. */
+    private static void scanRange(Scan op, double[] a, int offset, int n, double s) {
+        int end = offset + n;
+        switch (op) {
+            case SUM:
+                for (int i = offset; i < end; i++)
+                    a[i] = s = s + a[i];
+                break;
+            case PROD:
+                for (int i = offset; i < end; i++)
+                    a[i] = s = s * a[i];
+                break;
+            default:
+                for (int i = offset; i < end; i++)
+                    a[i] = s = op.combine(s, a[i]);
+        }
+    }
+
+    /** r[ro + i] = op(a[ao + i], r[ro + i]) for i &lt; n. */
+    private static void combine(Scan op, double[] r, int ro, double[] a, int ao, int n) {
+        switch (op) {
+            case SUM:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] += a[ao + i];
+                break;
+            case PROD:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] *= a[ao + i];
+                break;
+            case MIN:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = Math.min(a[ao + i], r[ro + i]);
+                break;
+            case MAX:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = Math.max(a[ao + i], r[ro + i]);
+                break;
+            default:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = logAddExp(a[ao + i], r[ro + i]);
+        }
+    }
+
     /** The scalar product of this with other. */
     public double dot(DoubleMatrix other) {
         return SimpleBlas.dot(this, other);
@@ -2328,265 +2859,1727 @@ public class DoubleMatrix implements Serializable {
      * Return a new matrix with all elements sorted.
      */
     public DoubleMatrix sort() {
-        double array[] = toArray();
-        java.util.Arrays.sort(array);
-        return new DoubleMatrix(rows, columns, array);
+        return dup().sorti();
     }
 
     /**
-     * Sort elements in-place.
+     * Sort elements in-place. Large matrices are sorted in parallel.
      */
     public DoubleMatrix sorti() {
-        Arrays.sort(data);
+        Sorting.sort(data, 0, length);
         return this;
     }
 
     /**
-     * Get the sorting permutation.
+     * Get the sorting permutation. The sort is stable, and orders elements
+     * like {@link #sort()}, that is, -0.0 before 0.0 and NaNs last.
      *
      * @return an int[] array such that which indexes the elements in sorted
      * order.
      */
     public int[] sortingPermutation() {
-        Integer[] indices = new Integer[length];
+        return Sorting.sortingPermutation(data, 0, 1, length);
+    }
 
-        for (int i = 0; i < length; i++) {
-            indices[i] = i;
+    /** Number of elements below which sorting columns or rows is not split among threads. */
+    private static final int SORT_GRAIN = 16384;
+
+    /** Number of columns or rows of the given length which are sorted in one task. */
+    private static int sortGrain(int n) {
+        return Math.max(1, SORT_GRAIN / Math.max(1, n));
+    }
+
+    /**
+     * Sort columns (in-place). Columns are sorted in parallel.
+     */
+    public DoubleMatrix sortColumnsi() {
+        if (columns == 1) {
+            return sorti();
         }
+        Parallel.forRange(0, columns, sortGrain(rows), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    Arrays.sort(data, c * rows, (c + 1) * rows);
+                }
+            }
+        });
+        return this;
+    }
 
-        final double[] array = data;
+    /** Sort columns. */
+    public DoubleMatrix sortColumns() {
+        return dup().sortColumnsi();
+    }
 
-        Arrays.sort(indices, new Comparator() {
+    /** Return matrix of indices which sort all columns. */
+    public int[][] columnSortingPermutations() {
+        final int[][] result = new int[columns][];
 
-            public int compare(Object o1, Object o2) {
-                int i = (Integer) o1;
-                int j = (Integer) o2;
-                if (array[i] < array[j]) {
-                    return -1;
-                } else if (array[i] == array[j]) {
-                    return 0;
-                } else {
-                    return 1;
+        Parallel.forRange(0, columns, sortGrain(rows), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    result[c] = Sorting.sortingPermutation(data, c * rows, 1, rows);
                 }
             }
         });
 
-        int[] result = new int[length];
+        return result;
+    }
 
-        for (int i = 0; i < length; i++) {
-            result[i] = indices[i];
+    /** Sort rows (in-place). Rows are sorted in parallel. */
+    public DoubleMatrix sortRowsi() {
+        if (rows == 1) {
+            return sorti();
+        }
+        // rows are not consecutive in memory, so each one is sorted in a buffer
+        Parallel.forRange(0, rows, sortGrain(columns), new Parallel.Loop() {
+            public void run(int from, int to) {
+                double[] temp = new double[columns];
+                for (int r = from; r < to; r++) {
+                    for (int c = 0, i = r; c < columns; c++, i += rows) {
+                        temp[c] = data[i];
+                    }
+                    Arrays.sort(temp);
+                    for (int c = 0, i = r; c < columns; c++, i += rows) {
+                        data[i] = temp[c];
+                    }
+                }
+            }
+        });
+        return this;
+    }
+
+    /** Sort rows. */
+    public DoubleMatrix sortRows() {
+        return dup().sortRowsi();
+    }
+
+    /** Return matrix of indices which sort all rows. */
+    public int[][] rowSortingPermutations() {
+        final int[][] result = new int[rows][];
+
+        Parallel.forRange(0, rows, sortGrain(columns), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int r = from; r < to; r++) {
+                    result[r] = Sorting.sortingPermutation(data, r, rows, columns);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * The k-th smallest element (counting from 0) in the order of
+     * {@link #sort()}, found without sorting all elements.
+     */
+    public double select(int k) {
+        return Sorting.select(toArray(), 0, length, k);
+    }
+
+    /** Row vector with the k-th smallest element of each column. */
+    public DoubleMatrix columnSelect(int k) {
+        return columnQuantiles(new int[]{k}, null);
+    }
+
+    /** Column vector with the k-th smallest element of each row. */
+    public DoubleMatrix rowSelect(int k) {
+        return rowQuantiles(new int[]{k}, null);
+    }
+
+    /** The median of all elements (the mean of the two middle ones for an even number). */
+    public double median() {
+        return quantiles(0.5).get(0);
+    }
+
+    /** Row vector with the median of each column. */
+    public DoubleMatrix columnMedians() {
+        return columnQuantiles(0.5);
+    }
+
+    /** Column vector with the median of each row. */
+    public DoubleMatrix rowMedians() {
+        return rowQuantiles(0.5);
+    }
+
+    /**
+     * Quantiles of all elements for the probabilities p, which must lie
+     * between 0 and 1. The quantile for p interpolates linearly between the
+     * sorted elements at positions floor(h) and ceil(h) for h = (length - 1) * p,
+     * which is also the default of R and NumPy. The quantiles of an empty
+     * matrix are NaN.
+     *
+     * @return a column vector with one quantile per probability
+     */
+    public DoubleMatrix quantiles(double... p) {
+        DoubleMatrix result = new DoubleMatrix(p.length);
+        int[] orders = quantileOrders(length, p);
+        quantiles(toArray(), length, orders, p, result.data, 0, 1);
+        return result;
+    }
+
+    /** Quantiles of each column, see {@link #quantiles(double...)}, as a p.length x columns matrix. */
+    public DoubleMatrix columnQuantiles(double... p) {
+        return columnQuantiles(quantileOrders(rows, p), p);
+    }
+
+    /** Quantiles of each row, see {@link #quantiles(double...)}, as a rows x p.length matrix. */
+    public DoubleMatrix rowQuantiles(double... p) {
+        return rowQuantiles(quantileOrders(columns, p), p);
+    }
+
+    /** Linear indices of the k largest elements, the largest one first (in the order of {@link #sort()}). */
+    public int[] topK(int k) {
+        return Sorting.top(data, 0, 1, length, k, true);
+    }
+
+    /** Linear indices of the k smallest elements, the smallest one first (in the order of {@link #sort()}). */
+    public int[] bottomK(int k) {
+        return Sorting.top(data, 0, 1, length, k, false);
+    }
+
+    /** Row indices of the k largest elements of each column, see {@link #topK(int)}. */
+    public int[][] columnTopK(int k) {
+        return columnTop(k, true);
+    }
+
+    /** Row indices of the k smallest elements of each column, see {@link #bottomK(int)}. */
+    public int[][] columnBottomK(int k) {
+        return columnTop(k, false);
+    }
+
+    /** Column indices of the k largest elements of each row, see {@link #topK(int)}. */
+    public int[][] rowTopK(int k) {
+        return rowTop(k, true);
+    }
+
+    /** Column indices of the k smallest elements of each row, see {@link #bottomK(int)}. */
+    public int[][] rowBottomK(int k) {
+        return rowTop(k, false);
+    }
+
+    private int[][] columnTop(final int k, final boolean largest) {
+        final int[][] result = new int[columns][];
+        Parallel.forRange(0, columns, sortGrain(rows), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    result[c] = Sorting.top(data, c * rows, 1, rows, k, largest);
+                }
+            }
+        });
+        return result;
+    }
+
+    private int[][] rowTop(final int k, final boolean largest) {
+        final int[][] result = new int[rows][];
+        Parallel.forRange(0, rows, sortGrain(columns), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int r = from; r < to; r++) {
+                    result[r] = Sorting.top(data, r, rows, columns, k, largest);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The orders of the sorted elements which are needed for the quantiles of
+     * n elements: for each probability, the positions floor(h) and ceil(h).
+     */
+    private static int[] quantileOrders(int n, double[] p) {
+        int[] orders = new int[2 * p.length];
+        for (int i = 0; i < p.length; i++) {
+            if (!(p[i] >= 0.0 && p[i] <= 1.0)) {
+                throw new IllegalArgumentException("Probability " + p[i] + " is not between 0 and 1.");
+            }
+            double h = (n - 1) * p[i];
+            orders[2 * i] = Math.max(0, (int) Math.floor(h));
+            orders[2 * i + 1] = Math.max(0, Math.min(n - 1, (int) Math.ceil(h)));
+        }
+        return orders;
+    }
+
+    /**
+     * Compute quantiles of the first n elements of buffer (which is reordered)
+     * into result[resultIdx], result[resultIdx + resultStride], .... The
+     * orders come in pairs as computed by quantileOrders. If p is null, there
+     * is one order per result, which is selected directly.
+     */
+    private static void quantiles(double[] buffer, int n, int[] orders, double[] p,
+                                  double[] result, int resultIdx, int resultStride) {
+        int count = p == null ? orders.length : p.length;
+        if (n == 0) {
+            if (p == null) {
+                throw new IllegalArgumentException("Cannot select from an empty vector.");
+            }
+            for (int i = 0; i < count; i++) {
+                result[resultIdx + i * resultStride] = Double.NaN;
+            }
+            return;
+        }
+        int[] sorted = orders.clone();
+        Arrays.sort(sorted);
+        Sorting.select(buffer, 0, n, sorted);
+        for (int i = 0; i < count; i++) {
+            double q;
+            if (p == null) {
+                q = buffer[orders[i]];
+            } else {
+                double lo = buffer[orders[2 * i]];
+                double hi = buffer[orders[2 * i + 1]];
+                double t = (n - 1) * p[i] - orders[2 * i];
+                q = t == 0.0 || lo == hi ? lo : lo + t * (hi - lo);
+            }
+            result[resultIdx + i * resultStride] = q;
         }
+    }
+
+    private DoubleMatrix columnQuantiles(final int[] orders, final double[] p) {
+        final int count = p == null ? orders.length : p.length;
+        final DoubleMatrix result = new DoubleMatrix(count, columns);
+        Parallel.forRange(0, columns, sortGrain(rows), new Parallel.Loop() {
+            public void run(int from, int to) {
+                double[] buffer = new double[rows];
+                for (int c = from; c < to; c++) {
+                    System.arraycopy(data, c * rows, buffer, 0, rows);
+                    quantiles(buffer, rows, orders, p, result.data, c * count, 1);
+                }
+            }
+        });
+        return result;
+    }
 
+    private DoubleMatrix rowQuantiles(final int[] orders, final double[] p) {
+        final int count = p == null ? orders.length : p.length;
+        final DoubleMatrix result = new DoubleMatrix(rows, count);
+        Parallel.forRange(0, rows, sortGrain(columns), new Parallel.Loop() {
+            public void run(int from, int to) {
+                double[] buffer = new double[columns];
+                for (int r = from; r < to; r++) {
+                    for (int c = 0, i = r; c < columns; c++, i += rows) {
+                        buffer[c] = data[i];
+                    }
+                    quantiles(buffer, columns, orders, p, result.data, r, rows);
+                }
+            }
+        });
         return result;
     }
 
+    /** Return a vector containing the sums of the columns (having number of columns many entries) */
+    public DoubleMatrix columnSums() {
+        return columnSums(Summation.getMode());
+    }
+
     /**
-     * Sort columns (in-place).
+     * Return a vector containing the sums of the columns, computed with the
+     * given summation mode. Columns are summed in parallel.
      */
-    public DoubleMatrix sortColumnsi() {
-        for (int i = 0; i < length; i += rows) {
-            Arrays.sort(data, i, i + rows);
+    public DoubleMatrix columnSums(final Summation.Mode mode) {
+        if (rows == 1) {
+            return dup();
+        } else {
+            final DoubleMatrix v = new DoubleMatrix(1, columns);
+
+            Parallel.forRange(0, columns, Math.max(1, Summation.BLOCK / Math.max(1, rows)), new Parallel.Loop() {
+                public void run(int from, int to) {
+                    for (int c = from; c < to; c++) {
+                        v.data[c] = Summation.sum(data, c * rows, 1, rows, mode);
+                    }
+                }
+            });
+
+            return v;
         }
-        return this;
     }
 
-    /** Sort columns. */
-    public DoubleMatrix sortColumns() {
-        return dup().sortColumnsi();
+    /** Return a vector containing the means of all columns. */
+    public DoubleMatrix columnMeans() {
+        return columnSums().divi(rows);
     }
 
-    /** Return matrix of indices which sort all columns. */
-    public int[][] columnSortingPermutations() {
-        int[][] result = new int[columns][];
+    /**
+     * Compute count, mean, variance, minimum, maximum and their positions of
+     * all elements in a single pass, see {@link DoubleStatistics}.
+     */
+    public DoubleStatistics statistics() {
+        return DoubleStatistics.of(this);
+    }
 
-        DoubleMatrix temp = new DoubleMatrix(rows);
-        for (int c = 0; c < columns; c++) {
-            result[c] = getColumn(c, temp).sortingPermutation();
+    /** Compute the statistics of each column in a single pass, see {@link #statistics()}. */
+    public DoubleStatistics[] columnStatistics() {
+        return DoubleStatistics.columns(this);
+    }
+
+    /** Compute the statistics of each row in a single pass, see {@link #statistics()}. */
+    public DoubleStatistics[] rowStatistics() {
+        return DoubleStatistics.rows(this);
+    }
+
+    /** Return a vector containing the sum of the rows. */
+    public DoubleMatrix rowSums() {
+        return rowSums(Summation.getMode());
+    }
+
+    /**
+     * Return a vector containing the sums of the rows, computed with the
+     * given summation mode. The matrix is read column by column, and blocks
+     * of rows are summed in parallel.
+     */
+    public DoubleMatrix rowSums(final Summation.Mode mode) {
+        if (columns == 1) {
+            return dup();
+        } else {
+            final DoubleMatrix v = new DoubleMatrix(rows);
+
+            Parallel.forRange(0, rows, Math.max(ROW_BLOCK, Summation.BLOCK / Math.max(1, columns)), new Parallel.Loop() {
+                public void run(int from, int to) {
+                    for (int r = from; r < to; r += ROW_BLOCK) {
+                        int n = Math.min(ROW_BLOCK, to - r);
+                        Summation.rowSums(data, r, rows, n, columns, v.data, r, mode);
+                    }
+                }
+            });
+
+            return v;
         }
+    }
+
+    /** Number of rows which are reduced together by row-wise reductions, such that they stay in cache. */
+    private static final int ROW_BLOCK = 512;
+
+    /** Return a vector containing the means of the rows. */
+    public DoubleMatrix rowMeans() {
+        return rowSums().divi(columns);
+    }
+
+    /************************************************************************
+     * Column and rows access.
+     */
+
+    /** Get a copy of a column. */
+    public DoubleMatrix getColumn(int c) {
+        return getColumn(c, new DoubleMatrix(rows, 1));
+    }
+
+    /** Copy a column to the given vector. */
+    public DoubleMatrix getColumn(int c, DoubleMatrix result) {
+        result.checkLength(rows);
+        JavaBlas.rcopy(rows, data, index(0, c), 1, result.data, 0, 1);
+        return result;
+    }
+
+    /** Copy a column back into the matrix. */
+    public void putColumn(int c, DoubleMatrix v) {
+        JavaBlas.rcopy(rows, v.data, 0, 1, data, index(0, c), 1);
+    }
+
+    /** Get a copy of a row. */
+    public DoubleMatrix getRow(int r) {
+        return getRow(r, new DoubleMatrix(1, columns));
+    }
 
+    /** Copy a row to a given vector. */
+    public DoubleMatrix getRow(int r, DoubleMatrix result) {
+        result.checkLength(columns);
+        JavaBlas.rcopy(columns, data, index(r, 0), rows, result.data, 0, 1);
         return result;
     }
 
-    /** Sort rows (in-place). */
-    public DoubleMatrix sortRowsi() {
-        // actually, this is much harder because the data is not consecutive
-        // in memory...
-        DoubleMatrix temp = new DoubleMatrix(columns);
-        for (int r = 0; r < rows; r++) {
-            putRow(r, getRow(r, temp).sorti());
-        }
-        return this;
-    }
+    /** Copy a row back into the matrix. */
+    public void putRow(int r, DoubleMatrix v) {
+        JavaBlas.rcopy(columns, v.data, 0, 1, data, index(r, 0), rows);
+    }
+
+    /** Return column-wise minimums. */
+    public DoubleMatrix columnMins() {
+        DoubleMatrix mins = new DoubleMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            mins.put(c, getColumn(c).min());
+        }
+        return mins;
+    }
+
+    /** Return index of minimal element per column. */
+    public int[] columnArgmins() {
+        int[] argmins = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            argmins[c] = getColumn(c).argmin();
+        }
+        return argmins;
+    }
+
+    /** Return column-wise maximums. */
+    public DoubleMatrix columnMaxs() {
+        DoubleMatrix maxs = new DoubleMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            maxs.put(c, getColumn(c).max());
+        }
+        return maxs;
+    }
+
+    /** Return index of minimal element per column. */
+    public int[] columnArgmaxs() {
+        int[] argmaxs = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            argmaxs[c] = getColumn(c).argmax();
+        }
+        return argmaxs;
+    }
+
+    /** Return row-wise minimums. */
+    public DoubleMatrix rowMins() {
+        DoubleMatrix mins = new DoubleMatrix(rows);
+        rowExtrema(false, mins.data, null);
+        return mins;
+    }
+
+    /** Return index of minimal element per row. */
+    public int[] rowArgmins() {
+        int[] argmins = new int[rows];
+        rowExtrema(false, new double[rows], argmins);
+        return argmins;
+    }
+
+    /** Return row-wise maximums. */
+    public DoubleMatrix rowMaxs() {
+        DoubleMatrix maxs = new DoubleMatrix(rows);
+        rowExtrema(true, maxs.data, null);
+        return maxs;
+    }
+
+    /** Return index of maximum element per row. */
+    public int[] rowArgmaxs() {
+        int[] argmaxs = new int[rows];
+        rowExtrema(true, new double[rows], argmaxs);
+        return argmaxs;
+    }
+
+    /**
+     * Row-wise minimums or maximums, and optionally their column indices,
+     * with the same semantics as {@link #min()} and {@link #argmin()}: NaNs
+     * are skipped, and the first extremal element is taken. The matrix is
+     * read column by column into blocks of rows, which are processed in
+     * parallel.
+     */
+    private void rowExtrema(final boolean max, final double[] values, final int[] indices) {
+        Parallel.forRange(0, rows, Math.max(ROW_BLOCK, Summation.BLOCK / Math.max(1, columns)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int r = from; r < to; r += ROW_BLOCK) {
+                    int end = Math.min(to, r + ROW_BLOCK);
+                    Arrays.fill(values, r, end, max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+                    if (indices != null) {
+                        Arrays.fill(indices, r, end, -1);
+                    }
+                    for (int c = 0; c < columns; c++) {
+                        int offset = c * rows;
+                        if (indices == null) {
+                            // comparisons with NaN are false, so NaNs are skipped
+                            if (max) {
+                                for (int i = r; i < end; i++) {
+                                    double x = data[offset + i];
+                                    values[i] = x > values[i] ? x : values[i];
+                                }
+                            } else {
+                                for (int i = r; i < end; i++) {
+                                    double x = data[offset + i];
+                                    values[i] = x < values[i] ? x : values[i];
+                                }
+                            }
+                        } else {
+                            for (int i = r; i < end; i++) {
+                                double x = data[offset + i];
+                                if (max ? x > values[i] : x < values[i]) {
+                                    values[i] = x;
+                                    indices[i] = c;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**************************************************************************
+     * Grouped reductions
+     */
+
+    private static final int GROUP_SUM = 0;
+    private static final int GROUP_MIN = 1;
+    private static final int GROUP_MAX = 2;
+    private static final int GROUP_MEAN = 3;
+
+    /** Number of rows in one chunk of a grouped reduction over rows, at least. */
+    private static final int GROUP_GRAIN = 16384;
+
+    /** Maximal number of partial results in a grouped reduction over rows. */
+    private static final int GROUP_MAX_CHUNKS = 64;
+
+    /**
+     * Number of elements with each label, where labels must lie between 0
+     * (inclusive) and numGroups (exclusive).
+     */
+    public static int[] groupCounts(int[] labels, int numGroups) {
+        checkLabels(labels, numGroups);
+        int[] counts = new int[numGroups];
+        for (int l : labels) {
+            counts[l]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Sum the rows with the same label. Row r belongs to group labels[r], and
+     * row g of the numGroups x columns result is the sum of the rows in group g.
+     * For example, with the cluster assignment of every row as labels, the
+     * centroids of a k-means step are <tt>x.rowGroupMeans(labels, k)</tt>.
+     */
+    public DoubleMatrix rowGroupSums(int[] labels, int numGroups) {
+        return rowGroups(GROUP_SUM, labels, numGroups);
+    }
+
+    /** Means of the rows with the same label, see {@link #rowGroupSums(int[], int)}. Empty groups are NaN. */
+    public DoubleMatrix rowGroupMeans(int[] labels, int numGroups) {
+        return rowGroups(GROUP_MEAN, labels, numGroups);
+    }
+
+    /** Elementwise minimums of the rows with the same label, see {@link #rowGroupSums(int[], int)}. */
+    public DoubleMatrix rowGroupMins(int[] labels, int numGroups) {
+        return rowGroups(GROUP_MIN, labels, numGroups);
+    }
+
+    /** Elementwise maximums of the rows with the same label, see {@link #rowGroupSums(int[], int)}. */
+    public DoubleMatrix rowGroupMaxs(int[] labels, int numGroups) {
+        return rowGroups(GROUP_MAX, labels, numGroups);
+    }
+
+    /**
+     * Sum the columns with the same label. Column c belongs to group
+     * labels[c], and column g of the rows x numGroups result is the sum of
+     * the columns in group g.
+     */
+    public DoubleMatrix columnGroupSums(int[] labels, int numGroups) {
+        return columnGroups(GROUP_SUM, labels, numGroups);
+    }
+
+    /** Means of the columns with the same label, see {@link #columnGroupSums(int[], int)}. Empty groups are NaN. */
+    public DoubleMatrix columnGroupMeans(int[] labels, int numGroups) {
+        return columnGroups(GROUP_MEAN, labels, numGroups);
+    }
+
+    /** Elementwise minimums of the columns with the same label, see {@link #columnGroupSums(int[], int)}. */
+    public DoubleMatrix columnGroupMins(int[] labels, int numGroups) {
+        return columnGroups(GROUP_MIN, labels, numGroups);
+    }
+
+    /** Elementwise maximums of the columns with the same label, see {@link #columnGroupSums(int[], int)}. */
+    public DoubleMatrix columnGroupMaxs(int[] labels, int numGroups) {
+        return columnGroups(GROUP_MAX, labels, numGroups);
+    }
+
+    /**
+     * Sum runs of rows with the same segment id. The ids must be sorted in
+     * non-decreasing order, such that every segment is a contiguous block of
+     * rows. Row g of the result is the sum of the rows with id g, for g up to
+     * the largest id; segments without rows are zero.
+     */
+    public DoubleMatrix rowSegmentSums(int[] sortedIds) {
+        return rowSegments(GROUP_SUM, sortedIds);
+    }
+
+    /** Means of runs of rows with the same segment id, see {@link #rowSegmentSums(int[])}. */
+    public DoubleMatrix rowSegmentMeans(int[] sortedIds) {
+        return rowSegments(GROUP_MEAN, sortedIds);
+    }
+
+    /** Elementwise minimums of runs of rows with the same segment id, see {@link #rowSegmentSums(int[])}. */
+    public DoubleMatrix rowSegmentMins(int[] sortedIds) {
+        return rowSegments(GROUP_MIN, sortedIds);
+    }
+
+    /** Elementwise maximums of runs of rows with the same segment id, see {@link #rowSegmentSums(int[])}. */
+    public DoubleMatrix rowSegmentMaxs(int[] sortedIds) {
+        return rowSegments(GROUP_MAX, sortedIds);
+    }
+
+    /**
+     * Sum runs of columns with the same segment id, which must be sorted in
+     * non-decreasing order. Column g of the result is the sum of the columns
+     * with id g.
+     */
+    public DoubleMatrix columnSegmentSums(int[] sortedIds) {
+        return columnSegments(GROUP_SUM, sortedIds);
+    }
+
+    /** Means of runs of columns with the same segment id, see {@link #columnSegmentSums(int[])}. */
+    public DoubleMatrix columnSegmentMeans(int[] sortedIds) {
+        return columnSegments(GROUP_MEAN, sortedIds);
+    }
+
+    /** Elementwise minimums of runs of columns with the same segment id, see {@link #columnSegmentSums(int[])}. */
+    public DoubleMatrix columnSegmentMins(int[] sortedIds) {
+        return columnSegments(GROUP_MIN, sortedIds);
+    }
+
+    /** Elementwise maximums of runs of columns with the same segment id, see {@link #columnSegmentSums(int[])}. */
+    public DoubleMatrix columnSegmentMaxs(int[] sortedIds) {
+        return columnSegments(GROUP_MAX, sortedIds);
+    }
+
+    private static void checkLabels(int[] labels, int numGroups) {
+        if (numGroups < 0) {
+            throw new IllegalArgumentException("Number of groups must not be negative.");
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] < 0 || labels[i] >= numGroups) {
+                throw new IllegalArgumentException("Label " + labels[i] + " at position " + i + " is not between 0 and " + (numGroups - 1) + ".");
+            }
+        }
+    }
+
+    /** Initial value of a grouped reduction. */
+    private static double groupIdentity(int op) {
+        return op == GROUP_MIN ? Double.POSITIVE_INFINITY : op == GROUP_MAX ? Double.NEGATIVE_INFINITY : 0.0;
+    }
+
+    /** r[ro + i] = op(r[ro + i], a[ao + i]) for i &lt; n. NaNs are skipped by min and max. */
+    private static void groupCombine(int op, double[] r, int ro, double[] a, int ao, int n) {
+        switch (op) {
+            case GROUP_MIN:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] < r[ro + i] ? a[ao + i] : r[ro + i];
+                break;
+            case GROUP_MAX:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] > r[ro + i] ? a[ao + i] : r[ro + i];
+                break;
+            default:
+                for (int i = 0; i < n; i++)
+                    r[ro + i] += a[ao + i];
+        }
+    }
+
+    /** Divide column or row g of a matrix with numGroups columns or rows by counts[g]. */
+    private static void divideByCounts(DoubleMatrix m, int[] counts, boolean groupsAreRows) {
+        for (int i = 0; i < m.length; i++) {
+            m.data[i] /= counts[groupsAreRows ? i % m.rows : i / m.rows];
+        }
+    }
+
+    private DoubleMatrix rowGroups(final int op, final int[] labels, final int numGroups) {
+        if (labels.length != rows) {
+            throw new SizeException("Need one label per row, got " + labels.length + " labels for " + rows + " rows.");
+        }
+        checkLabels(labels, numGroups);
+        final int reduce = op == GROUP_MEAN ? GROUP_SUM : op;
+        final DoubleMatrix result = new DoubleMatrix(numGroups, columns);
+        Arrays.fill(result.data, groupIdentity(reduce));
+
+        if (columns >= GROUP_MAX_CHUNKS || !Parallel.worthSplitting(rows, 2 * GROUP_GRAIN)) {
+            // every column is scattered into its own result column
+            Parallel.forRange(0, columns, Math.max(1, GROUP_GRAIN / Math.max(1, rows)), new Parallel.Loop() {
+                public void run(int from, int to) {
+                    for (int c = from; c < to; c++) {
+                        scatterRows(reduce, data, c * rows, labels, 0, rows, result.data, c * numGroups);
+                    }
+                }
+            });
+        } else {
+            // few columns: reduce chunks of rows into partial results, merged in order
+            final int chunk = Math.max(GROUP_GRAIN, (rows + GROUP_MAX_CHUNKS - 1) / GROUP_MAX_CHUNKS);
+            final int chunks = (rows + chunk - 1) / chunk;
+            final double[][] partial = new double[chunks][];
+            Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+                public void run(int from, int to) {
+                    for (int k = from; k < to; k++) {
+                        double[] p = new double[numGroups * columns];
+                        Arrays.fill(p, groupIdentity(reduce));
+                        int r0 = k * chunk;
+                        int n = Math.min(chunk, rows - r0);
+                        for (int c = 0; c < columns; c++) {
+                            scatterRows(reduce, data, c * rows, labels, r0, n, p, c * numGroups);
+                        }
+                        partial[k] = p;
+                    }
+                }
+            });
+            for (double[] p : partial) {
+                groupCombine(reduce, result.data, 0, p, 0, p.length);
+            }
+        }
+
+        if (op == GROUP_MEAN) {
+            divideByCounts(result, groupCounts(labels, numGroups), true);
+        }
+        return result;
+    }
+
+    /** r[ro + labels[i]] = op(r[ro + labels[i]], a[ao + i]) for i in [from, from + n). */
+    private static void scatterRows(int op, double[] a, int ao, int[] labels, int from, int n, double[] r, int ro) {
+        int end = from + n;
+        switch (op) {
+            case GROUP_MIN:
+                for (int i = from; i < end; i++) {
+                    double x = a[ao + i];
+                    int g = ro + labels[i];
+                    r[g] = x < r[g] ? x : r[g];
+                }
+                break;
+            case GROUP_MAX:
+                for (int i = from; i < end; i++) {
+                    double x = a[ao + i];
+                    int g = ro + labels[i];
+                    r[g] = x > r[g] ? x : r[g];
+                }
+                break;
+            default:
+                for (int i = from; i < end; i++)
+                    r[ro + labels[i]] += a[ao + i];
+        }
+    }
+
+    private DoubleMatrix columnGroups(final int op, final int[] labels, final int numGroups) {
+        if (labels.length != columns) {
+            throw new SizeException("Need one label per column, got " + labels.length + " labels for " + columns + " columns.");
+        }
+        checkLabels(labels, numGroups);
+        final int reduce = op == GROUP_MEAN ? GROUP_SUM : op;
+        final DoubleMatrix result = new DoubleMatrix(rows, numGroups);
+        Arrays.fill(result.data, groupIdentity(reduce));
+
+        // blocks of rows are independent, and every column is added to its group's column
+        Parallel.forRange(0, rows, Math.max(ROW_BLOCK, GROUP_GRAIN / Math.max(1, columns)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = 0; c < columns; c++) {
+                    groupCombine(reduce, result.data, labels[c] * rows + from, data, c * rows + from, to - from);
+                }
+            }
+        });
+
+        if (op == GROUP_MEAN) {
+            divideByCounts(result, groupCounts(labels, numGroups), false);
+        }
+        return result;
+    }
+
+    /**
+     * Start of every segment in a non-decreasing id vector: segment g covers
+     * the positions starts[g] to starts[g + 1].
+     */
+    private static int[] segmentStarts(int[] sortedIds) {
+        int n = sortedIds.length;
+        if (n > 0 && sortedIds[0] < 0) {
+            throw new IllegalArgumentException("Segment ids must not be negative.");
+        }
+        int numSegments = n == 0 ? 0 : sortedIds[n - 1] + 1;
+        int[] starts = new int[numSegments + 1];
+        for (int i = 1; i < n; i++) {
+            if (sortedIds[i] < sortedIds[i - 1]) {
+                throw new IllegalArgumentException("Segment ids must be sorted, but " + sortedIds[i] + " follows " + sortedIds[i - 1] + ".");
+            }
+        }
+        for (int g = 0, i = 0; g <= numSegments; g++) {
+            while (i < n && sortedIds[i] < g) {
+                i++;
+            }
+            starts[g] = i;
+        }
+        return starts;
+    }
+
+    /** Number of segments processed by one task, such that each task reduces about GROUP_GRAIN elements. */
+    private static int segmentGrain(int length, int numSegments) {
+        return Math.max(1, GROUP_GRAIN / Math.max(1, length / Math.max(1, numSegments)));
+    }
+
+    private DoubleMatrix rowSegments(final int op, int[] sortedIds) {
+        if (sortedIds.length != rows) {
+            throw new SizeException("Need one segment id per row, got " + sortedIds.length + " ids for " + rows + " rows.");
+        }
+        final int[] starts = segmentStarts(sortedIds);
+        final int numSegments = starts.length - 1;
+        final DoubleMatrix result = new DoubleMatrix(numSegments, columns);
+
+        // every segment is a contiguous run within each column
+        Parallel.forRange(0, numSegments, segmentGrain(length, numSegments), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int g = from; g < to; g++) {
+                    int n = starts[g + 1] - starts[g];
+                    for (int c = 0; c < columns; c++) {
+                        int offset = c * rows + starts[g];
+                        double v;
+                        if (op == GROUP_MIN) {
+                            v = Double.POSITIVE_INFINITY;
+                            for (int i = 0; i < n; i++)
+                                v = data[offset + i] < v ? data[offset + i] : v;
+                        } else if (op == GROUP_MAX) {
+                            v = Double.NEGATIVE_INFINITY;
+                            for (int i = 0; i < n; i++)
+                                v = data[offset + i] > v ? data[offset + i] : v;
+                        } else {
+                            v = Summation.sum(data, offset, 1, n);
+                            if (op == GROUP_MEAN) {
+                                v /= n;
+                            }
+                        }
+                        result.data[c * numSegments + g] = v;
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    private DoubleMatrix columnSegments(final int op, int[] sortedIds) {
+        if (sortedIds.length != columns) {
+            throw new SizeException("Need one segment id per column, got " + sortedIds.length + " ids for " + columns + " columns.");
+        }
+        final int[] starts = segmentStarts(sortedIds);
+        final int numSegments = starts.length - 1;
+        final DoubleMatrix result = new DoubleMatrix(rows, numSegments);
+
+        // every segment is a contiguous block of columns, reduced like rowSums
+        Parallel.forRange(0, numSegments, segmentGrain(length, numSegments), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int g = from; g < to; g++) {
+                    int first = starts[g];
+                    int n = starts[g + 1] - first;
+                    if (op == GROUP_SUM || op == GROUP_MEAN) {
+                        Summation.rowSums(data, first * rows, rows, rows, n, result.data, g * rows, Summation.getMode());
+                        if (op == GROUP_MEAN) {
+                            for (int i = 0; i < rows; i++)
+                                result.data[g * rows + i] /= n;
+                        }
+                    } else {
+                        Arrays.fill(result.data, g * rows, (g + 1) * rows, groupIdentity(op));
+                        for (int c = first; c < first + n; c++) {
+                            groupCombine(op, result.data, g * rows, data, c * rows, rows);
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**************************************************************************
+     * Histograms and counting
+     */
+
+    /**
+     * Bins for histograms, given either by the number of bins of equal width
+     * between min and max, or by increasing edges.
+     */
+    private static class Bins {
+        final int count;
+        final double[] edges;
+        final double min;
+        final double max;
+        final double scale;
+
+        Bins(int count, double min, double max) {
+            if (count < 1 || !(min < max)) {
+                throw new IllegalArgumentException("Need at least one bin and min < max.");
+            }
+            this.count = count;
+            this.edges = null;
+            this.min = min;
+            this.max = max;
+            this.scale = count / (max - min);
+        }
+
+        Bins(double[] edges) {
+            if (edges.length < 2) {
+                throw new IllegalArgumentException("Need at least two edges.");
+            }
+            for (int i = 1; i < edges.length; i++) {
+                if (!(edges[i - 1] < edges[i])) {
+                    throw new IllegalArgumentException("Edges must be strictly increasing.");
+                }
+            }
+            this.count = edges.length - 1;
+            this.edges = edges.clone();
+            this.min = edges[0];
+            this.max = edges[count];
+            this.scale = 0.0;
+        }
+
+        /** Index of the bin containing x, or -1 if x is outside of all bins or NaN. */
+        int index(double x) {
+            if (!(x >= min && x <= max)) {
+                return -1;
+            }
+            if (edges == null) {
+                int i = (int) ((x - min) * scale);
+                return i < count ? i : count - 1;
+            }
+            int i = Arrays.binarySearch(edges, x);
+            if (i < 0) {
+                return -i - 2;
+            }
+            return i < count ? i : count - 1;
+        }
+    }
+
+    /**
+     * Histogram of all elements with bins of equal width between min and
+     * max. Bin i contains the elements x with edge(i) &lt;= x &lt; edge(i+1),
+     * and the last bin also contains max. Elements outside of [min, max] and
+     * NaNs are not counted.
+     *
+     * @return a column vector with the number of elements per bin
+     */
+    public DoubleMatrix histogram(int bins, double min, double max) {
+        return histogram(new Bins(bins, min, max), null);
+    }
+
+    /** Weighted histogram with bins of equal width: each element adds its weight to its bin. */
+    public DoubleMatrix histogram(int bins, double min, double max, DoubleMatrix weights) {
+        return histogram(new Bins(bins, min, max), weights);
+    }
+
+    /**
+     * Histogram of all elements with the bins between the given strictly
+     * increasing edges, see {@link #histogram(int, double, double)}.
+     */
+    public DoubleMatrix histogram(double[] edges) {
+        return histogram(new Bins(edges), null);
+    }
+
+    /** Weighted histogram with the bins between the given edges. */
+    public DoubleMatrix histogram(double[] edges, DoubleMatrix weights) {
+        return histogram(new Bins(edges), weights);
+    }
+
+    /** Histograms of all columns with bins of equal width, as a bins x columns matrix. */
+    public DoubleMatrix columnHistograms(int bins, double min, double max) {
+        return columnHistograms(new Bins(bins, min, max));
+    }
+
+    /** Histograms of all columns with the bins between the given edges, as a matrix with one column per column. */
+    public DoubleMatrix columnHistograms(double[] edges) {
+        return columnHistograms(new Bins(edges));
+    }
+
+    /**
+     * Index of the bin of equal width between min and max which contains
+     * each element, or -1 for elements outside of [min, max] and NaNs, see
+     * {@link #histogram(int, double, double)}.
+     */
+    public IntMatrix digitize(int bins, double min, double max) {
+        return digitize(new Bins(bins, min, max));
+    }
+
+    /** Index of the bin between the given edges which contains each element, or -1. */
+    public IntMatrix digitize(double[] edges) {
+        return digitize(new Bins(edges));
+    }
+
+    /**
+     * Count the occurrences of each non-negative value in indices (for
+     * example the result of {@link #digitize(double[])}). Negative values are
+     * ignored. The result has at least minLength entries.
+     */
+    public static DoubleMatrix bincount(IntMatrix indices, int minLength) {
+        return bincount(indices, null, minLength);
+    }
+
+    /** Sum the weights for each non-negative value in indices, see {@link #bincount(IntMatrix, int)}. */
+    public static DoubleMatrix bincount(IntMatrix indices, DoubleMatrix weights, int minLength) {
+        if (weights != null) {
+            weights.checkLength(indices.length);
+        }
+        int n = Math.max(0, minLength);
+        for (int i = 0; i < indices.length; i++) {
+            n = Math.max(n, indices.data[i] + 1);
+        }
+        DoubleMatrix result = new DoubleMatrix(n);
+        for (int i = 0; i < indices.length; i++) {
+            int b = indices.data[i];
+            if (b >= 0) {
+                result.data[b] += weights == null ? 1.0 : weights.data[i];
+            }
+        }
+        return result;
+    }
+
+    private DoubleMatrix histogram(final Bins bins, final DoubleMatrix weights) {
+        if (weights != null) {
+            weights.checkLength(length);
+        }
+        // fixed chunks with partial histograms which are added up in order
+        final int chunk = Math.max(GROUP_GRAIN, (length + GROUP_MAX_CHUNKS - 1) / GROUP_MAX_CHUNKS);
+        final int chunks = (length + chunk - 1) / chunk;
+        final double[][] partial = new double[chunks][];
+        Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int k = from; k < to; k++) {
+                    double[] h = new double[bins.count];
+                    for (int i = k * chunk, end = Math.min(length, i + chunk); i < end; i++) {
+                        int b = bins.index(data[i]);
+                        if (b >= 0) {
+                            h[b] += weights == null ? 1.0 : weights.data[i];
+                        }
+                    }
+                    partial[k] = h;
+                }
+            }
+        });
+        DoubleMatrix result = new DoubleMatrix(bins.count);
+        for (double[] h : partial) {
+            groupCombine(GROUP_SUM, result.data, 0, h, 0, bins.count);
+        }
+        return result;
+    }
+
+    private DoubleMatrix columnHistograms(final Bins bins) {
+        final DoubleMatrix result = new DoubleMatrix(bins.count, columns);
+        Parallel.forRange(0, columns, Math.max(1, GROUP_GRAIN / Math.max(1, rows)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    for (int i = c * rows, end = i + rows; i < end; i++) {
+                        int b = bins.index(data[i]);
+                        if (b >= 0) {
+                            result.data[c * bins.count + b] += 1.0;
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    private IntMatrix digitize(final Bins bins) {
+        final IntMatrix result = new IntMatrix(rows, columns);
+        Parallel.forRange(0, length, MatrixFunctions.MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    result.data[i] = bins.index(data[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The distinct values of all elements in ascending order (NaN last), as
+     * a column vector. -0.0 and 0.0 count as the same value. The values are
+     * counted in hash tables per chunk of elements, in parallel, so only the
+     * distinct values are sorted.
+     */
+    public DoubleMatrix unique() {
+        return new DoubleMatrix(uniqueCounts(true));
+    }
+
+    /** The number of occurrences of each value returned by {@link #unique()}, in the same order. */
+    public int[] uniqueCounts() {
+        double[] counts = uniqueCounts(false);
+        int[] result = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = (int) counts[i];
+        }
+        return result;
+    }
+
+    /** Either the sorted distinct values or their counts. */
+    private double[] uniqueCounts(boolean values) {
+        final int chunk = Math.max(GROUP_GRAIN, (length + GROUP_MAX_CHUNKS - 1) / GROUP_MAX_CHUNKS);
+        final int chunks = (length + chunk - 1) / chunk;
+        final CountTable[] partial = new CountTable[chunks];
+        Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int k = from; k < to; k++) {
+                    CountTable t = new CountTable();
+                    for (int i = k * chunk, end = Math.min(length, i + chunk); i < end; i++) {
+                        t.add(data[i], 1);
+                    }
+                    partial[k] = t;
+                }
+            }
+        });
+        CountTable table = chunks == 1 ? partial[0] : new CountTable();
+        if (chunks > 1) {
+            for (CountTable t : partial) {
+                table.addAll(t);
+            }
+        }
+
+        int distinct = table.size;
+        double[] keys = new double[distinct];
+        int[] counts = new int[distinct];
+        for (int i = 0, j = 0; j < distinct; i++) {
+            if (table.counts[i] != 0) {
+                keys[j] = table.keys[i];
+                counts[j++] = table.counts[i];
+            }
+        }
+        int[] order = Sorting.sortingPermutation(keys, 0, 1, distinct);
+        int nan = table.nan;
+        double[] result = new double[distinct + (nan > 0 ? 1 : 0)];
+        for (int j = 0; j < distinct; j++) {
+            result[j] = values ? keys[order[j]] : counts[order[j]];
+        }
+        if (nan > 0) {
+            result[distinct] = values ? Double.NaN : nan;
+        }
+        return result;
+    }
+
+    /** Open addressing hash table counting the occurrences of values. */
+    private static class CountTable {
+        double[] keys = new double[16];
+        int[] counts = new int[16];
+        int size;
+        int nan;
+
+        void add(double x, int n) {
+            if (x != x) {
+                nan += n;
+                return;
+            }
+            x += 0.0; // -0.0 becomes 0.0
+            int mask = keys.length - 1;
+            int i = hash(x) & mask;
+            while (counts[i] != 0 && keys[i] != x) {
+                i = (i + 1) & mask;
+            }
+            if (counts[i] == 0) {
+                keys[i] = x;
+                size++;
+            }
+            counts[i] += n;
+            if (2 * size > keys.length) {
+                grow();
+            }
+        }
+
+        void addAll(CountTable other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.keys[i], other.counts[i]);
+                }
+            }
+            nan += other.nan;
+        }
+
+        private void grow() {
+            double[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new double[2 * oldKeys.length];
+            counts = new int[2 * oldKeys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    add(oldKeys[i], oldCounts[i]);
+                }
+            }
+        }
+
+        private static int hash(double x) {
+            //FLOAT//            long bits = Float.floatToIntBits(x);
+            long bits = Double.doubleToLongBits(x);
+            return (int) ((bits * 0x9E3779B97F4A7C15L) >>> 40);
+        }
+    }
+
+    /**************************************************************************
+     * Broadcasting
+     */
+
+    /**
+     * A binary element-wise operation for {@link #broadcasti(BinaryOp, DoubleMatrix, DoubleMatrix)}.
+     *
+     * Subclasses only have to implement {@link #apply(double, double)}. The
+     * loops over contiguous strips of elements can be overridden with loops
+     * which do not go through a virtual call, as is done for the predefined
+     * operations, such that the JIT compiler can vectorize them.
+     */
+    public static abstract class BinaryOp {
+        /** Apply the operation to a pair of elements. */
+        public abstract double apply(double a, double b);
+
+        /** Compute r[ro + i] = apply(a[ao + i], b[bo + i]) for i &lt; n. */
+        public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+            for (int i = 0; i < n; i++)
+                r[ro + i] = apply(a[ao + i], b[bo + i]);
+        }
+
+        /** Compute r[ro + i] = apply(a[ao + i], b) for i &lt; n. */
+        public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+            for (int i = 0; i < n; i++)
+                r[ro + i] = apply(a[ao + i], b);
+        }
+
+        /** Compute r[ro + i] = apply(a, b[bo + i]) for i &lt; n. */
+        public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+            for (int i = 0; i < n; i++)
+                r[ro + i] = apply(a, b[bo + i]);
+        }
+
+        /** Addition. */
+        public static final BinaryOp ADD = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a + b;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] + b[bo + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] + b;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a + b[bo + i];
+            }
+        };
+
+        /** Subtraction. */
+        public static final BinaryOp SUB = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a - b;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] - b[bo + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] - b;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a - b[bo + i];
+            }
+        };
+
+        /** Multiplication. */
+        public static final BinaryOp MUL = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a * b;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] * b[bo + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] * b;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a * b[bo + i];
+            }
+        };
+
+        /** Division. */
+        public static final BinaryOp DIV = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a / b;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] / b[bo + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] / b;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a / b[bo + i];
+            }
+        };
+
+        /** Minimum. If one of the operands is NaN, the first one is returned. */
+        public static final BinaryOp MIN = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a > b ? b : a;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] > b[bo + i] ? b[bo + i] : a[ao + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] > b ? b : a[ao + i];
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a > b[bo + i] ? b[bo + i] : a;
+            }
+        };
+
+        /** Maximum. If one of the operands is NaN, the first one is returned. */
+        public static final BinaryOp MAX = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a < b ? b : a;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] < b[bo + i] ? b[bo + i] : a[ao + i];
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] < b ? b : a[ao + i];
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a < b[bo + i] ? b[bo + i] : a;
+            }
+        };
+
+        /** "Less than", 1.0 if true and 0.0 otherwise. */
+        public static final BinaryOp LT = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a < b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] < b[bo + i] ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] < b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a < b[bo + i] ? 1.0 : 0.0;
+            }
+        };
+
+        /** "Greater than". */
+        public static final BinaryOp GT = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a > b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] > b[bo + i] ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] > b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a > b[bo + i] ? 1.0 : 0.0;
+            }
+        };
+
+        /** "Less than or equal". */
+        public static final BinaryOp LE = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a <= b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] <= b[bo + i] ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] <= b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a <= b[bo + i] ? 1.0 : 0.0;
+            }
+        };
+
+        /** "Greater than or equal". */
+        public static final BinaryOp GE = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a >= b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] >= b[bo + i] ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] >= b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a >= b[bo + i] ? 1.0 : 0.0;
+            }
+        };
+
+        /** Equality. */
+        public static final BinaryOp EQ = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a == b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] == b[bo + i] ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] == b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a == b[bo + i] ? 1.0 : 0.0;
+            }
+        };
+
+        /** Inequality. */
+        public static final BinaryOp NE = new BinaryOp() {
+            public double apply(double a, double b) {
+                return a != b ? 1.0 : 0.0;
+            }
+
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] != b[bo + i] ? 1.0 : 0.0;
+            }
 
-    /** Sort rows. */
-    public DoubleMatrix sortRows() {
-        return dup().sortRowsi();
-    }
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a[ao + i] != b ? 1.0 : 0.0;
+            }
 
-    /** Return matrix of indices which sort all columns. */
-    public int[][] rowSortingPermutations() {
-        int[][] result = new int[rows][];
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = a != b[bo + i] ? 1.0 : 0.0;
+            }
+        };
 
-        DoubleMatrix temp = new DoubleMatrix(columns);
-        for (int r = 0; r < rows; r++) {
-            result[r] = getRow(r, temp).sortingPermutation();
-        }
+        /** Logical and, non-zero values count as true. */
+        public static final BinaryOp AND = new BinaryOp() {
+            public double apply(double a, double b) {
+                return (a != 0.0) & (b != 0.0) ? 1.0 : 0.0;
+            }
 
-        return result;
-    }
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) & (b[bo + i] != 0.0) ? 1.0 : 0.0;
+            }
 
-    /** Return a vector containing the sums of the columns (having number of columns many entries) */
-    public DoubleMatrix columnSums() {
-        if (rows == 1) {
-            return dup();
-        } else {
-            DoubleMatrix v = new DoubleMatrix(1, columns);
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) & (b != 0.0) ? 1.0 : 0.0;
+            }
 
-            for (int c = 0; c < columns; c++) {
-                for (int r = 0; r < rows; r++) {
-                    v.put(c, v.get(c) + get(r, c));
-                }
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a != 0.0) & (b[bo + i] != 0.0) ? 1.0 : 0.0;
             }
+        };
 
-            return v;
-        }
-    }
+        /** Logical or. */
+        public static final BinaryOp OR = new BinaryOp() {
+            public double apply(double a, double b) {
+                return (a != 0.0) | (b != 0.0) ? 1.0 : 0.0;
+            }
 
-    /** Return a vector containing the means of all columns. */
-    public DoubleMatrix columnMeans() {
-        return columnSums().divi(rows);
-    }
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) | (b[bo + i] != 0.0) ? 1.0 : 0.0;
+            }
 
-    /** Return a vector containing the sum of the rows. */
-    public DoubleMatrix rowSums() {
-        if (columns == 1) {
-            return dup();
-        } else {
-            DoubleMatrix v = new DoubleMatrix(rows);
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) | (b != 0.0) ? 1.0 : 0.0;
+            }
 
-            for (int c = 0; c < columns; c++) {
-                for (int r = 0; r < rows; r++) {
-                    v.put(r, v.get(r) + get(r, c));
-                }
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a != 0.0) | (b[bo + i] != 0.0) ? 1.0 : 0.0;
             }
+        };
 
-            return v;
-        }
-    }
+        /** Logical xor. */
+        public static final BinaryOp XOR = new BinaryOp() {
+            public double apply(double a, double b) {
+                return (a != 0.0) ^ (b != 0.0) ? 1.0 : 0.0;
+            }
 
-    /** Return a vector containing the means of the rows. */
-    public DoubleMatrix rowMeans() {
-        return rowSums().divi(columns);
-    }
+            public void apply(double[] r, int ro, double[] a, int ao, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) ^ (b[bo + i] != 0.0) ? 1.0 : 0.0;
+            }
 
-    /************************************************************************
-     * Column and rows access.
-     */
+            public void apply(double[] r, int ro, double[] a, int ao, double b, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a[ao + i] != 0.0) ^ (b != 0.0) ? 1.0 : 0.0;
+            }
 
-    /** Get a copy of a column. */
-    public DoubleMatrix getColumn(int c) {
-        return getColumn(c, new DoubleMatrix(rows, 1));
+            public void apply(double[] r, int ro, double a, double[] b, int bo, int n) {
+                for (int i = 0; i < n; i++)
+                    r[ro + i] = (a != 0.0) ^ (b[bo + i] != 0.0) ? 1.0 : 0.0;
+            }
+        };
     }
 
-    /** Copy a column to the given vector. */
-    public DoubleMatrix getColumn(int c, DoubleMatrix result) {
-        result.checkLength(rows);
-        JavaBlas.rcopy(rows, data, index(0, c), 1, result.data, 0, 1);
-        return result;
-    }
+    /** Number of rows of a column processed at once when broadcasting. */
+    private static final int BROADCAST_TILE = 4096;
 
-    /** Copy a column back into the matrix. */
-    public void putColumn(int c, DoubleMatrix v) {
-        JavaBlas.rcopy(rows, v.data, 0, 1, data, index(0, c), 1);
+    /**
+     * Returns the length of a dimension after broadcasting two dimensions
+     * against each other.
+     */
+    private static int broadcastDimension(int a, int b) {
+        if (a == b || b == 1) {
+            return a;
+        }
+        if (a == 1) {
+            return b;
+        }
+        throw new SizeException("Dimensions " + a + " and " + b + " cannot be broadcast against each other.");
     }
 
-    /** Get a copy of a row. */
-    public DoubleMatrix getRow(int r) {
-        return getRow(r, new DoubleMatrix(1, columns));
+    /**
+     * The broadcasting kernel. Both operands are either full matrices of
+     * the result size, or have a single row and/or column which is repeated.
+     * The result is processed in tiles of a column, such that each operand is
+     * either a contiguous strip or a single value within a tile. Tiles are
+     * distributed over threads for large results.
+     */
+    static void broadcast(final BinaryOp op,
+                          final double[] a, final int aRows, final int aColumns,
+                          final double[] b, final int bRows, final int bColumns,
+                          final double[] r, final int rows, final int columns) {
+        final int tile = Math.max(1, Math.min(rows, BROADCAST_TILE));
+        final int tilesPerColumn = (rows + tile - 1) / tile;
+        Parallel.forRange(0, columns * tilesPerColumn, Math.max(1, MatrixFunctions.MAP_GRAIN / tile), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int t = from; t < to; t++) {
+                    int j = t / tilesPerColumn;
+                    int i = (t - j * tilesPerColumn) * tile;
+                    int n = Math.min(tile, rows - i);
+                    int ro = j * rows + i;
+                    int ao = aColumns == 1 ? 0 : j * aRows;
+                    int bo = bColumns == 1 ? 0 : j * bRows;
+                    if (aRows == 1) {
+                        if (bRows == 1) {
+                            Arrays.fill(r, ro, ro + n, op.apply(a[ao], b[bo]));
+                        } else {
+                            op.apply(r, ro, a[ao], b, bo + i, n);
+                        }
+                    } else if (bRows == 1) {
+                        op.apply(r, ro, a, ao + i, b[bo], n);
+                    } else {
+                        op.apply(r, ro, a, ao + i, b, bo + i, n);
+                    }
+                }
+            }
+        });
     }
 
-    /** Copy a row to a given vector. */
-    public DoubleMatrix getRow(int r, DoubleMatrix result) {
-        result.checkLength(columns);
-        JavaBlas.rcopy(columns, data, index(r, 0), rows, result.data, 0, 1);
+    /**
+     * Apply a binary operation with broadcasting (in-place).
+     *
+     * The dimensions of the two matrices must either agree or be one, in
+     * which case the single row or column is repeated, as in NumPy. Scalars,
+     * row vectors and column vectors can therefore be combined with matrices
+     * and with each other, for example a column and a row vector give a full
+     * matrix. The result must have the broadcast size or be resizable to it.
+     */
+    public DoubleMatrix broadcasti(BinaryOp op, DoubleMatrix other, DoubleMatrix result) {
+        int r = broadcastDimension(rows, other.rows);
+        int c = broadcastDimension(columns, other.columns);
+        if (result.rows != r || result.columns != c) {
+            if (result == this || result == other) {
+                throw new SizeException("Cannot resize result matrix because it is used in-place.");
+            }
+            result.resize(r, c);
+        }
+        broadcast(op, data, rows, columns, other.data, other.rows, other.columns, result.data, r, c);
         return result;
     }
 
-    /** Copy a row back into the matrix. */
-    public void putRow(int r, DoubleMatrix v) {
-        JavaBlas.rcopy(columns, v.data, 0, 1, data, index(r, 0), rows);
+    /** Apply a binary operation with broadcasting (in-place). */
+    public DoubleMatrix broadcasti(BinaryOp op, DoubleMatrix other) {
+        return broadcasti(op, other, this);
     }
 
-    /** Return column-wise minimums. */
-    public DoubleMatrix columnMins() {
-        DoubleMatrix mins = new DoubleMatrix(1, columns);
-        for (int c = 0; c < columns; c++) {
-            mins.put(c, getColumn(c).min());
-        }
-        return mins;
+    /** Apply a binary operation with broadcasting. */
+    public DoubleMatrix broadcast(BinaryOp op, DoubleMatrix other) {
+        return broadcasti(op, other, new DoubleMatrix(broadcastDimension(rows, other.rows),
+                broadcastDimension(columns, other.columns)));
     }
 
-    /** Return index of minimal element per column. */
-    public int[] columnArgmins() {
-        int[] argmins = new int[columns];
-        for (int c = 0; c < columns; c++) {
-            argmins[c] = getColumn(c).argmin();
-        }
-        return argmins;
+    /** Apply a binary operation with a scalar as second operand (in-place). */
+    public DoubleMatrix broadcasti(BinaryOp op, double v, DoubleMatrix result) {
+        ensureResultLength(null, result);
+        broadcast(op, data, length, 1, new double[]{v}, 1, 1, result.data, length, 1);
+        return result;
     }
 
-    /** Return column-wise maximums. */
-    public DoubleMatrix columnMaxs() {
-        DoubleMatrix maxs = new DoubleMatrix(1, columns);
-        for (int c = 0; c < columns; c++) {
-            maxs.put(c, getColumn(c).max());
-        }
-        return maxs;
+    /** Apply a binary operation with a scalar as second operand (in-place). */
+    public DoubleMatrix broadcasti(BinaryOp op, double v) {
+        return broadcasti(op, v, this);
     }
 
-    /** Return index of minimal element per column. */
-    public int[] columnArgmaxs() {
-        int[] argmaxs = new int[columns];
-        for (int c = 0; c < columns; c++) {
-            argmaxs[c] = getColumn(c).argmax();
-        }
-        return argmaxs;
+    /** Apply a binary operation with a scalar as second operand. */
+    public DoubleMatrix broadcast(BinaryOp op, double v) {
+        return broadcasti(op, v, new DoubleMatrix(rows, columns));
     }
 
-    /** Return row-wise minimums. */
-    public DoubleMatrix rowMins() {
-        DoubleMatrix mins = new DoubleMatrix(rows);
-        for (int c = 0; c < rows; c++) {
-            mins.put(c, getRow(c).min());
-        }
-        return mins;
+    /** Element-wise operation on two matrices of the same length, ignoring their shapes. */
+    private DoubleMatrix elementwisei(BinaryOp op, DoubleMatrix other, DoubleMatrix result) {
+        assertSameLength(other);
+        ensureResultLength(other, result);
+        broadcast(op, data, length, 1, other.data, length, 1, result.data, length, 1);
+        return result;
     }
 
-    /** Return index of minimal element per row. */
-    public int[] rowArgmins() {
-        int[] argmins = new int[rows];
-        for (int c = 0; c < rows; c++) {
-            argmins[c] = getRow(c).argmin();
-        }
-        return argmins;
+    /** Element-wise operation with a scalar as first operand. */
+    private DoubleMatrix relementwisei(BinaryOp op, double v, DoubleMatrix result) {
+        ensureResultLength(null, result);
+        broadcast(op, new double[]{v}, 1, 1, data, length, 1, result.data, length, 1);
+        return result;
     }
 
-    /** Return row-wise maximums. */
-    public DoubleMatrix rowMaxs() {
-        DoubleMatrix maxs = new DoubleMatrix(rows);
-        for (int c = 0; c < rows; c++) {
-            maxs.put(c, getRow(c).max());
-        }
-        return maxs;
+    /** Apply an operation with a row vector to all rows (in-place). */
+    private DoubleMatrix rowVectori(BinaryOp op, DoubleMatrix x) {
+        x.checkLength(columns);
+        broadcast(op, data, rows, columns, x.data, 1, columns, data, rows, columns);
+        return this;
     }
 
-    /** Return index of maximum element per row. */
-    public int[] rowArgmaxs() {
-        int[] argmaxs = new int[rows];
-        for (int c = 0; c < rows; c++) {
-            argmaxs[c] = getRow(c).argmax();
-        }
-        return argmaxs;
+    /** Apply an operation with a column vector to all columns (in-place). */
+    private DoubleMatrix columnVectori(BinaryOp op, DoubleMatrix x) {
+        x.checkLength(rows);
+        broadcast(op, data, rows, columns, x.data, rows, 1, data, rows, columns);
+        return this;
     }
 
     /**************************************************************************
@@ -2594,13 +4587,7 @@ public class DoubleMatrix implements Serializable {
      */
     /** Add a row vector to all rows of the matrix (in place). */
     public DoubleMatrix addiRowVector(DoubleMatrix x) {
-        x.checkLength(columns);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) + x.get(c));
-            }
-        }
-        return this;
+        return rowVectori(BinaryOp.ADD, x);
     }
 
     /** Add a row to all rows of the matrix. */
@@ -2610,13 +4597,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Add a vector to all columns of the matrix (in-place). */
     public DoubleMatrix addiColumnVector(DoubleMatrix x) {
-        x.checkLength(rows);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) + x.get(r));
-            }
-        }
-        return this;
+        return columnVectori(BinaryOp.ADD, x);
     }
 
     /** Add a vector to all columns of the matrix. */
@@ -2626,14 +4607,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Subtract a row vector from all rows of the matrix (in-place). */
     public DoubleMatrix subiRowVector(DoubleMatrix x) {
-        // This is a bit crazy, but a row vector must have as length as the columns of the matrix.
-        x.checkLength(columns);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) - x.get(c));
-            }
-        }
-        return this;
+        return rowVectori(BinaryOp.SUB, x);
     }
 
     /** Subtract a row vector from all rows of the matrix. */
@@ -2643,13 +4617,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Subtract a column vector from all columns of the matrix (in-place). */
     public DoubleMatrix subiColumnVector(DoubleMatrix x) {
-        x.checkLength(rows);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) - x.get(r));
-            }
-        }
-        return this;
+        return columnVectori(BinaryOp.SUB, x);
     }
 
     /** Subtract a vector from all columns of the matrix. */
@@ -2671,13 +4639,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Multiply all columns with a column vector (in-place). */
     public DoubleMatrix muliColumnVector(DoubleMatrix x) {
-        x.checkLength(rows);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) * x.get(r));
-            }
-        }
-        return this;
+        return columnVectori(BinaryOp.MUL, x);
     }
 
     /** Multiply all columns with a column vector. */
@@ -2687,13 +4649,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Multiply all rows with a row vector (in-place). */
     public DoubleMatrix muliRowVector(DoubleMatrix x) {
-        x.checkLength(columns);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) * x.get(c));
-            }
-        }
-        return this;
+        return rowVectori(BinaryOp.MUL, x);
     }
 
     /** Multiply all rows with a row vector. */
@@ -2702,13 +4658,7 @@ public class DoubleMatrix implements Serializable {
     }
 
     public DoubleMatrix diviRowVector(DoubleMatrix x) {
-        x.checkLength(columns);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) / x.get(c));
-            }
-        }
-        return this;
+        return rowVectori(BinaryOp.DIV, x);
     }
 
     public DoubleMatrix divRowVector(DoubleMatrix x) {
@@ -2716,13 +4666,7 @@ public class DoubleMatrix implements Serializable {
     }
 
     public DoubleMatrix diviColumnVector(DoubleMatrix x) {
-        x.checkLength(rows);
-        for (int c = 0; c < columns; c++) {
-            for (int r = 0; r < rows; r++) {
-                put(r, c, get(r, c) / x.get(r));
-            }
-        }
-        return this;
+        return columnVectori(BinaryOp.DIV, x);
     }
 
     public DoubleMatrix divColumnVector(DoubleMatrix x) {
@@ -2740,9 +4684,7 @@ public class DoubleMatrix implements Serializable {
         dos.writeInt(rows);
 
         dos.writeInt(data.length);
-        for (int i = 0; i < data.length; i++) {
-            dos.writeDouble(data[i]);
-        }
+        BinaryIO.write(dos, data);
     }
 
     /**
@@ -2761,135 +4703,93 @@ public class DoubleMatrix implements Serializable {
 
         final int MAX = dis.readInt();
         data = new double[MAX];
-        for (int i = 0; i < MAX; i++) {
-            data[i] = dis.readDouble();
-        }
+        BinaryIO.read(dis, data);
+        this.length = MAX;
     }
 
     /**
-     * Saves this matrix to the specified file.
+     * Saves this matrix to the specified file, in the format of
+     * {@link #out(DataOutputStream)}. The elements are written in bulk through
+     * a file channel, for large matrices in parallel chunks (see {@link BinaryIO}).
      * @param filename the file to write the matrix in.
      * @throws IOException thrown on errors while writing the matrix to the file
      */
     public void save(String filename) throws IOException {
         FileOutputStream fos = new FileOutputStream(filename, false);
-        DataOutputStream dos = new DataOutputStream(fos);
         try {
-            this.out(dos);
+            FileChannel channel = fos.getChannel();
+            BinaryIO.writeHeader(channel, "double", rows, columns, data.length);
+            BinaryIO.write(channel, channel.position(), data);
         } finally {
-            dos.close();
             fos.close();
         }
     }
 
     /**
      * Loads a matrix from a file into this matrix. Note that the old data
-     * of this matrix will be discarded.
+     * of this matrix will be discarded. The elements are read in bulk through
+     * a file channel, see {@link #save(String)}.
      * @param filename the file to read the matrix from
      * @throws IOException thrown on errors while reading the matrix
      */
     public void load(String filename) throws IOException {
         FileInputStream fis = new FileInputStream(filename);
-        DataInputStream dis = new DataInputStream(fis);
         try {
-            this.in(dis);
-        }
-        finally {
-            dis.close();
+            FileChannel channel = fis.getChannel();
+            int[] shape = new int[3];
+            if (!BinaryIO.readHeader(channel, shape).equals("double")) {
+                throw new IllegalStateException("The matrix in the specified file is not of the correct type!");
+            }
+            double[] newData = new double[shape[2]];
+            BinaryIO.read(channel, channel.position(), newData);
+
+            this.rows = shape[0];
+            this.columns = shape[1];
+            this.length = newData.length;
+            this.data = newData;
+        } finally {
             fis.close();
         }
     }
 
+    /**
+     * Loads a matrix from a text file with one row per line and the values
+     * separated by whitespace.
+     */
     public static DoubleMatrix loadAsciiFile(String filename) throws IOException {
-        BufferedReader is = new BufferedReader(new InputStreamReader(new FileInputStream(filename)));
-
-        // Go through file and count columns and rows. What makes this endeavour a bit difficult is
-        // that files can have leading or trailing spaces leading to spurious fields
-        // after String.split().
-        String line;
-        int rows = 0;
-        int columns = -1;
-        while ((line = is.readLine()) != null) {
-            String[] elements = WHITESPACES.split(line);
-            int numElements = elements.length;
-            if (elements[0].length() == 0) {
-                numElements--;
-            }
-            if (elements[elements.length - 1].length() == 0) {
-                numElements--;
-            }
-
-            if (columns == -1) {
-                columns = numElements;
-            } else {
-                if (columns != numElements) {
-                    throw new IOException("Number of elements changes in line " + line + ".");
-                }
-            }
+        return loadDelimited(new File(filename).toPath(), new DelimitedParser());
+    }
 
-            rows++;
-        }
-        is.close();
+    /**
+     * Loads a matrix from a text file with one row per line and the values
+     * separated by commas. Empty fields become NaN.
+     */
+    public static DoubleMatrix loadCSVFile(String filename) throws IOException {
+        return loadDelimited(new File(filename).toPath(), new DelimitedParser().delimiter(','));
+    }
 
-        FileInputStream fis = new FileInputStream(filename);
+    /**
+     * Loads a matrix from a text file, parsed in a single pass and in parallel
+     * with the given settings (delimiter, header, missing values), see
+     * {@link DelimitedParser}.
+     */
+    public static DoubleMatrix loadDelimited(Path path, DelimitedParser parser) throws IOException {
+        InputStream in = Files.newInputStream(path);
         try {
-            // Go through file a second time process the actual data.
-            is = new BufferedReader(new InputStreamReader(fis));
-            DoubleMatrix result = new DoubleMatrix(rows, columns);
-            int r = 0;
-            while ((line = is.readLine()) != null) {
-                String[] elements = WHITESPACES.split(line);
-                int firstElement = (elements[0].length() == 0) ? 1 : 0;
-                for (int c = 0, cc = firstElement; c < columns; c++, cc++) {
-                    result.put(r, c, Double.valueOf(elements[cc]));
-                }
-                r++;
-            }
-            return result;
+            return loadDelimited(in, parser);
         } finally {
-            fis.close();
+            in.close();
         }
     }
 
-    public static DoubleMatrix loadCSVFile(String filename) throws IOException {
-        BufferedReader is = new BufferedReader(new InputStreamReader(new FileInputStream(filename)));
-
-        List<DoubleMatrix> rows = new LinkedList<DoubleMatrix>();
-        String line;
-        int columns = -1;
-        while ((line = is.readLine()) != null) {
-            String[] elements = COMMA.split(line);
-            int numElements = elements.length;
-            if (elements[0].length() == 0) {
-                numElements--;
-            }
-            if (elements[elements.length - 1].length() == 0) {
-                numElements--;
-            }
-
-            if (columns == -1) {
-                columns = numElements;
-            } else {
-                if (columns != numElements) {
-                    throw new IOException("Number of elements changes in line " + line + ".");
-                }
-            }
-
-            DoubleMatrix row = new DoubleMatrix(columns);
-            for (int c = 0; c < columns; c++) {
-                row.put(c, Double.valueOf(elements[c]));
-            }
-            rows.add(row);
-        }
-        is.close();
-
-        DoubleMatrix result = new DoubleMatrix(rows.size(), columns);
-        int r = 0;
-        Iterator<DoubleMatrix> ri = rows.iterator();
-        while (ri.hasNext()) {
-            result.putRow(r, ri.next());
-            r++;
-        }
+    /**
+     * Reads a matrix from text in the given stream, see
+     * {@link #loadDelimited(Path, DelimitedParser)}. The stream is not closed.
+     */
+    public static DoubleMatrix loadDelimited(InputStream in, DelimitedParser parser) throws IOException {
+        DelimitedParser.Table table = parser.parse(in);
+        DoubleMatrix result = new DoubleMatrix(table.rows(), table.columns());
+        table.copyTo(result.data);
         return result;
     }
 
@@ -2934,12 +4834,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return #{name}i(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) #{op} other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.#{name.upcase}, other, result);
     }
 
     #{doc 'Test for ' + cmp + ' (in-place).'}
@@ -2954,10 +4849,7 @@ public class DoubleMatrix implements Serializable {
 
     #{doc 'Test for ' + cmp + ' against a scalar (in-place).'}
     public DoubleMatrix #{name}i(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) #{op} value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.#{name.upcase}, value, result);
     }
 
     #{doc 'Test for ' + cmp + ' against a scalar (in-place).'}
@@ -2976,12 +4868,7 @@ public class DoubleMatrix implements Serializable {
     def gen_logical(name, op, cmp); <<-EOS
     #{doc 'Compute elementwise ' + cmp + ' (in-place).'}
     public DoubleMatrix #{name}i(DoubleMatrix other, DoubleMatrix result) {
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) #{op} (other.get(i) != 0.0) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.#{name.upcase}, other, result);
     }
 
     #{doc 'Compute elementwise ' + cmp + ' (in-place).'}
@@ -2996,11 +4883,7 @@ public class DoubleMatrix implements Serializable {
 
     #{doc 'Compute elementwise ' + cmp + ' against a scalar (in-place).'}
     public DoubleMatrix #{name}i(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      boolean val = (value != 0.0);
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) #{op} val ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.#{name.upcase}, value, result);
     }
 
     #{doc 'Compute elementwise ' + cmp + ' against a scalar (in-place).'}
@@ -3179,12 +5062,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return lti(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) < other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.LT, other, result);
     }
 
     /** Test for "less than" (in-place). */
@@ -3199,10 +5077,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for "less than" against a scalar (in-place). */
     public DoubleMatrix lti(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) < value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.LT, value, result);
     }
 
     /** Test for "less than" against a scalar (in-place). */
@@ -3220,12 +5095,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return gti(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) > other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.GT, other, result);
     }
 
     /** Test for "greater than" (in-place). */
@@ -3240,10 +5110,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for "greater than" against a scalar (in-place). */
     public DoubleMatrix gti(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) > value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.GT, value, result);
     }
 
     /** Test for "greater than" against a scalar (in-place). */
@@ -3261,12 +5128,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return lei(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) <= other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.LE, other, result);
     }
 
     /** Test for "less than or equal" (in-place). */
@@ -3281,10 +5143,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for "less than or equal" against a scalar (in-place). */
     public DoubleMatrix lei(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) <= value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.LE, value, result);
     }
 
     /** Test for "less than or equal" against a scalar (in-place). */
@@ -3302,12 +5161,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return gei(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) >= other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.GE, other, result);
     }
 
     /** Test for "greater than or equal" (in-place). */
@@ -3322,10 +5176,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for "greater than or equal" against a scalar (in-place). */
     public DoubleMatrix gei(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) >= value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.GE, value, result);
     }
 
     /** Test for "greater than or equal" against a scalar (in-place). */
@@ -3343,12 +5194,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return eqi(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) == other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.EQ, other, result);
     }
 
     /** Test for equality (in-place). */
@@ -3363,10 +5209,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for equality against a scalar (in-place). */
     public DoubleMatrix eqi(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) == value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.EQ, value, result);
     }
 
     /** Test for equality against a scalar (in-place). */
@@ -3384,12 +5227,7 @@ public class DoubleMatrix implements Serializable {
       if (other.isScalar())
         return nei(other.scalar(), result);
 
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) != other.get(i) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.NE, other, result);
     }
 
     /** Test for inequality (in-place). */
@@ -3404,10 +5242,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Test for inequality against a scalar (in-place). */
     public DoubleMatrix nei(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      for (int i = 0; i < length; i++)
-        result.put(i, get(i) != value ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.NE, value, result);
     }
 
     /** Test for inequality against a scalar (in-place). */
@@ -3422,12 +5257,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical and (in-place). */
     public DoubleMatrix andi(DoubleMatrix other, DoubleMatrix result) {
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) & (other.get(i) != 0.0) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.AND, other, result);
     }
 
     /** Compute elementwise logical and (in-place). */
@@ -3442,11 +5272,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical and against a scalar (in-place). */
     public DoubleMatrix andi(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      boolean val = (value != 0.0);
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) & val ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.AND, value, result);
     }
 
     /** Compute elementwise logical and against a scalar (in-place). */
@@ -3461,12 +5287,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical or (in-place). */
     public DoubleMatrix ori(DoubleMatrix other, DoubleMatrix result) {
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) | (other.get(i) != 0.0) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.OR, other, result);
     }
 
     /** Compute elementwise logical or (in-place). */
@@ -3481,11 +5302,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical or against a scalar (in-place). */
     public DoubleMatrix ori(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      boolean val = (value != 0.0);
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) | val ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.OR, value, result);
     }
 
     /** Compute elementwise logical or against a scalar (in-place). */
@@ -3500,12 +5317,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical xor (in-place). */
     public DoubleMatrix xori(DoubleMatrix other, DoubleMatrix result) {
-      assertSameLength(other);
-      ensureResultLength(other, result);
-
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) ^ (other.get(i) != 0.0) ? 1.0 : 0.0);
-      return result;
+      return elementwisei(BinaryOp.XOR, other, result);
     }
 
     /** Compute elementwise logical xor (in-place). */
@@ -3520,11 +5332,7 @@ public class DoubleMatrix implements Serializable {
 
     /** Compute elementwise logical xor against a scalar (in-place). */
     public DoubleMatrix xori(double value, DoubleMatrix result) {
-      ensureResultLength(null, result);
-      boolean val = (value != 0.0);
-      for (int i = 0; i < length; i++)
-        result.put(i, (get(i) != 0.0) ^ val ? 1.0 : 0.0);
-      return result;
+      return broadcasti(BinaryOp.XOR, value, result);
     }
 
     /** Compute elementwise logical xor against a scalar (in-place). */
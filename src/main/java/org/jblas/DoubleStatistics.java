@@ -0,0 +1,321 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Descriptive statistics of a sequence of doubles, computed in a single pass.
+ *
+ * <p>Count, mean, variance, minimum and maximum together with their
+ * positions are accumulated with Welford's update for single values. Partial
+ * statistics of consecutive chunks are combined with the update of Chan et
+ * al. in {@link #merge(DoubleStatistics)}, which is also used to compute
+ * statistics of large matrices in parallel. Chunks are always combined in
+ * the same order, such that the results do not depend on the number of
+ * threads.</p>
+ *
+ * <p>Statistics can be accumulated incrementally, for example over data which
+ * is read in chunks:</p>
+ *
+ * <pre>
+ * DoubleStatistics s = new DoubleStatistics();
+ * while (...) {
+ *     s.add(nextChunk);
+ * }
+ * double sd = s.getStandardDeviation();
+ * </pre>
+ *
+ * <p>NaNs are ignored for the minimum and the maximum (like in
+ * {@link DoubleMatrix#min()}), but make the mean and the variance NaN.</p>
+ */
+public class DoubleStatistics implements Serializable {
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long argmin = -1;
+    private long argmax = -1;
+
+    static final long serialVersionUID = 2637846120597513402L;
+
+    /** Number of elements which are processed by one task when computing statistics in parallel. */
+    private static final int GRAIN = 1 << 15;
+
+    /** Create empty statistics. */
+    public DoubleStatistics() {
+    }
+
+    /** Statistics of all elements of a matrix, with positions being linear indices. */
+    public static DoubleStatistics of(DoubleMatrix m) {
+        return new DoubleStatistics().add(m);
+    }
+
+    /** Add a value. Its position is the number of values seen so far. */
+    public DoubleStatistics add(double x) {
+        long n = ++count;
+        double delta = x - mean;
+        mean += delta / n;
+        m2 += delta * (x - mean);
+        if (x < min) {
+            min = x;
+            argmin = n - 1;
+        }
+        if (x > max) {
+            max = x;
+            argmax = n - 1;
+        }
+        return this;
+    }
+
+    /** Add the n values data[offset], data[offset + stride], ... in this order. */
+    public DoubleStatistics add(double[] data, int offset, int stride, int n) {
+        return merge(chunk(data, offset, stride, n));
+    }
+
+    /** Add all elements of a matrix in column-major order. Large matrices are processed in parallel. */
+    public DoubleStatistics add(DoubleMatrix m) {
+        final double[] data = m.data;
+        final int length = m.length;
+        if (!Parallel.worthSplitting(length, GRAIN)) {
+            return merge(chunk(data, 0, 1, length));
+        }
+        final DoubleStatistics[] partial = new DoubleStatistics[(length + GRAIN - 1) / GRAIN];
+        Parallel.forRange(0, partial.length, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    int offset = c * GRAIN;
+                    partial[c] = chunk(data, offset, 1, Math.min(GRAIN, length - offset));
+                }
+            }
+        });
+        for (DoubleStatistics p : partial) {
+            merge(p);
+        }
+        return this;
+    }
+
+    /** Statistics of a chunk of values, accumulated in local variables. */
+    private static DoubleStatistics chunk(double[] data, int offset, int stride, int n) {
+        DoubleStatistics s = new DoubleStatistics();
+        double mean = 0.0;
+        double m2 = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int argmin = -1;
+        int argmax = -1;
+        for (int i = 0, j = offset; i < n; i++, j += stride) {
+            double x = data[j];
+            double delta = x - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (x - mean);
+            if (x < min) {
+                min = x;
+                argmin = i;
+            }
+            if (x > max) {
+                max = x;
+                argmax = i;
+            }
+        }
+        s.count = n;
+        s.mean = mean;
+        s.m2 = m2;
+        s.min = min;
+        s.max = max;
+        s.argmin = argmin;
+        s.argmax = argmax;
+        return s;
+    }
+
+    /**
+     * Combine with the statistics of values which follow the values seen so
+     * far. Positions in other are shifted by the current count.
+     */
+    public DoubleStatistics merge(DoubleStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            mean += delta * ((double) other.count / n);
+            m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        }
+        if (other.min < min) {
+            min = other.min;
+            argmin = count + other.argmin;
+        }
+        if (other.max > max) {
+            max = other.max;
+            argmax = count + other.argmax;
+        }
+        count = n;
+        return this;
+    }
+
+    /** Statistics of each column, with positions being row indices. Columns are processed in parallel. */
+    public static DoubleStatistics[] columns(final DoubleMatrix m) {
+        final DoubleStatistics[] result = new DoubleStatistics[m.columns];
+        Parallel.forRange(0, m.columns, Math.max(1, GRAIN / Math.max(1, m.rows)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    result[c] = chunk(m.data, c * m.rows, 1, m.rows);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Statistics of each row, with positions being column indices. The matrix
+     * is traversed column by column, updating the statistics of a block of
+     * rows, and blocks of rows are processed in parallel.
+     */
+    public static DoubleStatistics[] rows(final DoubleMatrix m) {
+        final DoubleStatistics[] result = new DoubleStatistics[m.rows];
+        final int block = Math.max(1, GRAIN / Math.max(1, m.columns));
+        Parallel.forRange(0, m.rows, block, new Parallel.Loop() {
+            public void run(int from, int to) {
+                int n = to - from;
+                double[] mean = new double[n];
+                double[] m2 = new double[n];
+                double[] min = new double[n];
+                double[] max = new double[n];
+                int[] argmin = new int[n];
+                int[] argmax = new int[n];
+                Arrays.fill(min, Double.POSITIVE_INFINITY);
+                Arrays.fill(max, Double.NEGATIVE_INFINITY);
+                Arrays.fill(argmin, -1);
+                Arrays.fill(argmax, -1);
+                for (int c = 0; c < m.columns; c++) {
+                    double scale = 1.0 / (c + 1);
+                    int offset = c * m.rows + from;
+                    for (int i = 0; i < n; i++) {
+                        double x = m.data[offset + i];
+                        double delta = x - mean[i];
+                        mean[i] += delta * scale;
+                        m2[i] += delta * (x - mean[i]);
+                        if (x < min[i]) {
+                            min[i] = x;
+                            argmin[i] = c;
+                        }
+                        if (x > max[i]) {
+                            max[i] = x;
+                            argmax[i] = c;
+                        }
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    DoubleStatistics s = new DoubleStatistics();
+                    s.count = m.columns;
+                    s.mean = mean[i];
+                    s.m2 = m2[i];
+                    s.min = min[i];
+                    s.max = max[i];
+                    s.argmin = argmin[i];
+                    s.argmax = argmax[i];
+                    result[from + i] = s;
+                }
+            }
+        });
+        return result;
+    }
+
+    /** Number of values. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Sum of the values. */
+    public double getSum() {
+        return mean * count;
+    }
+
+    /** Mean of the values, or NaN if there are none. */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** Sample variance (normalized by count - 1), or NaN for fewer than two values. */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /** Population variance (normalized by count), or NaN if there are no values. */
+    public double getPopulationVariance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /** Sample standard deviation, the square root of {@link #getVariance()}. */
+    public double getStandardDeviation() {
+        return (double) Math.sqrt(getVariance());
+    }
+
+    /** Smallest value, or positive infinity if there are none. */
+    public double getMin() {
+        return min;
+    }
+
+    /** Largest value, or negative infinity if there are none. */
+    public double getMax() {
+        return max;
+    }
+
+    /** Position of the first smallest value, or -1 if there are none. */
+    public long getArgmin() {
+        return argmin;
+    }
+
+    /** Position of the first largest value, or -1 if there are none. */
+    public long getArgmax() {
+        return argmax;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%f, variance=%f, min=%f (at %d), max=%f (at %d)",
+                count, getMean(), getVariance(), min, argmin, max, argmax);
+    }
+}
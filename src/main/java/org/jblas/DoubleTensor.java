@@ -0,0 +1,710 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A minimal N-dimensional view on an array of doubles.
+ *
+ * <p>The element with indices (i<sub>0</sub>, ..., i<sub>n-1</sub>) is stored
+ * at <tt>data[offset + i<sub>0</sub> * strides[0] + ... + i<sub>n-1</sub> * strides[n-1]]</tt>.
+ * Tensors created by this class are stored in column-major order like
+ * {@link DoubleMatrix}, that is, the first index runs fastest, and a matrix
+ * can therefore be viewed as a tensor without copying. Permuting axes or
+ * taking diagonals only changes the strides and returns a view on the same
+ * data.</p>
+ *
+ * <p>The main use of this class is {@link #einsum(String, DoubleTensor...)},
+ * which evaluates tensor contractions in Einstein notation with matrix
+ * multiplications.</p>
+ */
+public class DoubleTensor implements Serializable {
+    /** The array holding the elements. */
+    public final double[] data;
+    /** Index of the first element in data. */
+    public final int offset;
+    /** Length of each dimension. */
+    public final int[] shape;
+    /** Distance in data between successive elements along each dimension. */
+    public final int[] strides;
+    /** Number of elements. */
+    public final int length;
+
+    static final long serialVersionUID = -6348259341927851245L;
+
+    /** Create a view on data with the given offset, shape and strides. */
+    public DoubleTensor(double[] data, int offset, int[] shape, int[] strides) {
+        if (shape.length != strides.length) {
+            throw new IllegalArgumentException("Shape and strides must have the same number of dimensions.");
+        }
+        this.data = data;
+        this.offset = offset;
+        this.shape = shape.clone();
+        this.strides = strides.clone();
+        this.length = product(shape);
+    }
+
+    /** Create a new tensor of zeros with the given shape. */
+    public DoubleTensor(int... shape) {
+        this(new double[product(shape)], 0, shape, columnMajorStrides(shape));
+    }
+
+    /** View data as a column-major tensor of the given shape. */
+    public static DoubleTensor wrap(double[] data, int... shape) {
+        if (product(shape) > data.length) {
+            throw new SizeException("Array of length " + data.length + " is too short for shape " + Arrays.toString(shape) + ".");
+        }
+        return new DoubleTensor(data, 0, shape, columnMajorStrides(shape));
+    }
+
+    /** View a matrix as a tensor with two dimensions. */
+    public static DoubleTensor view(DoubleMatrix m) {
+        return new DoubleTensor(m.data, 0, new int[]{m.rows, m.columns}, new int[]{1, m.rows});
+    }
+
+    /** View the elements of a matrix (in column-major order) as a tensor of the given shape. */
+    public static DoubleTensor view(DoubleMatrix m, int... shape) {
+        if (product(shape) != m.length) {
+            throw new SizeException("Cannot view a matrix with " + m.length + " elements as tensor of shape " + Arrays.toString(shape) + ".");
+        }
+        return new DoubleTensor(m.data, 0, shape, columnMajorStrides(shape));
+    }
+
+    private static int product(int[] shape) {
+        long p = 1;
+        for (int n : shape) {
+            if (n < 0) {
+                throw new IllegalArgumentException("Dimensions must not be negative: " + Arrays.toString(shape));
+            }
+            p *= n;
+        }
+        if (p > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tensor of shape " + Arrays.toString(shape) + " is too large.");
+        }
+        return (int) p;
+    }
+
+    private static int[] columnMajorStrides(int[] shape) {
+        int[] strides = new int[shape.length];
+        int s = 1;
+        for (int k = 0; k < shape.length; k++) {
+            strides[k] = s;
+            s *= shape[k];
+        }
+        return strides;
+    }
+
+    /** Number of dimensions. */
+    public int rank() {
+        return shape.length;
+    }
+
+    /** Length of the given dimension. */
+    public int size(int axis) {
+        return shape[axis];
+    }
+
+    /** Position of the element with the given indices in data. */
+    public int index(int... indices) {
+        if (indices.length != shape.length) {
+            throw new IllegalArgumentException("Expected " + shape.length + " indices, got " + indices.length + ".");
+        }
+        int i = offset;
+        for (int k = 0; k < shape.length; k++) {
+            if (indices[k] < 0 || indices[k] >= shape[k]) {
+                throw new IndexOutOfBoundsException("Index " + indices[k] + " out of bounds for dimension " + k + " of length " + shape[k] + ".");
+            }
+            i += indices[k] * strides[k];
+        }
+        return i;
+    }
+
+    /** Get the element with the given indices. */
+    public double get(int... indices) {
+        return data[index(indices)];
+    }
+
+    /** Set the element with the given indices. */
+    public DoubleTensor put(int[] indices, double value) {
+        data[index(indices)] = value;
+        return this;
+    }
+
+    /**
+     * Permute the dimensions (no copy). Dimension k of the result is
+     * dimension axes[k] of this tensor.
+     */
+    public DoubleTensor permute(int... axes) {
+        if (axes.length != shape.length) {
+            throw new IllegalArgumentException("Expected a permutation of " + shape.length + " axes.");
+        }
+        int[] newShape = new int[axes.length];
+        int[] newStrides = new int[axes.length];
+        boolean[] seen = new boolean[axes.length];
+        for (int k = 0; k < axes.length; k++) {
+            if (axes[k] < 0 || axes[k] >= axes.length || seen[axes[k]]) {
+                throw new IllegalArgumentException(Arrays.toString(axes) + " is not a permutation.");
+            }
+            seen[axes[k]] = true;
+            newShape[k] = shape[axes[k]];
+            newStrides[k] = strides[axes[k]];
+        }
+        return new DoubleTensor(data, offset, newShape, newStrides);
+    }
+
+    /**
+     * Take the diagonal along two dimensions of the same length (no copy).
+     * The diagonal replaces the first of the two dimensions, the second one
+     * is removed.
+     */
+    public DoubleTensor diagonal(int axis1, int axis2) {
+        if (axis1 == axis2 || shape[axis1] != shape[axis2]) {
+            throw new SizeException("Diagonal needs two different dimensions of the same length.");
+        }
+        int[] newShape = new int[shape.length - 1];
+        int[] newStrides = new int[shape.length - 1];
+        for (int k = 0, l = 0; k < shape.length; k++) {
+            if (k == axis2) {
+                continue;
+            }
+            newShape[l] = shape[k];
+            newStrides[l] = k == axis1 ? strides[axis1] + strides[axis2] : strides[k];
+            l++;
+        }
+        return new DoubleTensor(data, offset, newShape, newStrides);
+    }
+
+    /** Whether the elements are stored without gaps in column-major order. */
+    public boolean isContiguous() {
+        int s = 1;
+        for (int k = 0; k < shape.length; k++) {
+            if (shape[k] != 1 && strides[k] != s) {
+                return false;
+            }
+            s *= shape[k];
+        }
+        return true;
+    }
+
+    /** Copy the elements in column-major order into dst, starting at dstIdx. */
+    public void copyTo(double[] dst, int dstIdx) {
+        if (length == 0) {
+            return;
+        }
+        if (isContiguous()) {
+            System.arraycopy(data, offset, dst, dstIdx, length);
+            return;
+        }
+        int rank = shape.length;
+        int n0 = shape[0];
+        int s0 = strides[0];
+        int[] idx = new int[rank];
+        int src = offset;
+        for (int d = dstIdx, end = dstIdx + length; d < end; d += n0) {
+            for (int i = 0, si = src; i < n0; i++, si += s0) {
+                dst[d + i] = data[si];
+            }
+            for (int k = 1; k < rank; k++) {
+                src += strides[k];
+                if (++idx[k] < shape[k]) {
+                    break;
+                }
+                src -= shape[k] * strides[k];
+                idx[k] = 0;
+            }
+        }
+    }
+
+    /** Return a contiguous copy. */
+    public DoubleTensor dup() {
+        double[] copy = new double[length];
+        copyTo(copy, 0);
+        return new DoubleTensor(copy, 0, shape, columnMajorStrides(shape));
+    }
+
+    /** Reshape the tensor. This is a view if the tensor is contiguous and a copy otherwise. */
+    public DoubleTensor reshape(int... newShape) {
+        if (product(newShape) != length) {
+            throw new SizeException("Cannot reshape " + Arrays.toString(shape) + " to " + Arrays.toString(newShape) + ".");
+        }
+        DoubleTensor t = isContiguous() ? this : dup();
+        return new DoubleTensor(t.data, t.offset, newShape, columnMajorStrides(newShape));
+    }
+
+    /**
+     * Convert a tensor with at most two dimensions to a matrix. Scalars
+     * become 1 x 1 matrices and vectors column vectors.
+     */
+    public DoubleMatrix toDoubleMatrix() {
+        if (shape.length > 2) {
+            throw new SizeException("Only tensors with up to two dimensions can be converted to a matrix.");
+        }
+        int rows = shape.length > 0 ? shape[0] : 1;
+        int columns = shape.length > 1 ? shape[1] : 1;
+        DoubleMatrix result = new DoubleMatrix(rows, columns);
+        copyTo(result.data, 0);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof DoubleTensor)) {
+            return false;
+        }
+        DoubleTensor other = (DoubleTensor) o;
+        if (!Arrays.equals(shape, other.shape)) {
+            return false;
+        }
+        double[] a = dup().data;
+        double[] b = other.dup().data;
+        return Arrays.equals(a, b);
+    }
+
+    @Override
+    public int hashCode() {
+        return 83 * Arrays.hashCode(shape) + Arrays.hashCode(dup().data);
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleTensor" + Arrays.toString(shape) + Arrays.toString(dup().data);
+    }
+
+    /***************************************************************************
+     * Einstein summation
+     */
+
+    /** Maximal number of operands for which the optimal contraction order is searched. */
+    private static final int MAX_OPTIMIZED_OPERANDS = 12;
+
+    /**
+     * Evaluate a tensor contraction in Einstein notation.
+     *
+     * <p>The specification consists of one string of index letters per
+     * operand, separated by commas, followed by "-&gt;" and the indices of the
+     * result, for example <tt>"ij,jk-&gt;ik"</tt> for a matrix product,
+     * <tt>"ii-&gt;"</tt> for the trace or <tt>"bij,bjk-&gt;bik"</tt> for a batch of
+     * products. Indices which do not appear in the result are summed over.
+     * Without an explicit result, the result has the indices which appear
+     * only once, in alphabetical order.</p>
+     *
+     * <p>Repeated indices within one operand are turned into diagonal views,
+     * and indices which only appear in a single operand are summed over first.
+     * The remaining operands are contracted pairwise in the order with the
+     * least number of multiplications. Each pairwise contraction permutes
+     * its operands such that it becomes a batch of matrix multiplications,
+     * copying them only if they are not laid out suitably already.</p>
+     *
+     * @return a new contiguous tensor
+     */
+    public static DoubleTensor einsum(String spec, DoubleTensor... operands) {
+        Einsum e = new Einsum(spec, operands);
+        return e.evaluate();
+    }
+
+    /**
+     * Evaluate a tensor contraction in Einstein notation on matrices, see
+     * {@link #einsum(String, DoubleTensor...)}. The result may have at most
+     * two indices, a result with one index is returned as a column vector.
+     */
+    public static DoubleMatrix einsum(String spec, DoubleMatrix... operands) {
+        DoubleTensor[] tensors = new DoubleTensor[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            tensors[i] = view(operands[i]);
+        }
+        DoubleTensor result = einsum(spec, tensors);
+        if (result.rank() > 2) {
+            throw new IllegalArgumentException("Result of \"" + spec + "\" has more than two indices, use tensors instead.");
+        }
+        return result.toDoubleMatrix();
+    }
+
+    /** A tensor together with the index letter of each dimension. */
+    private static class Term {
+        final DoubleTensor tensor;
+        final String indices;
+
+        Term(DoubleTensor tensor, String indices) {
+            this.tensor = tensor;
+            this.indices = indices;
+        }
+
+        /** View with the dimensions in the order of the given letters. */
+        DoubleTensor ordered(String letters) {
+            int[] axes = new int[letters.length()];
+            for (int k = 0; k < axes.length; k++) {
+                axes[k] = indices.indexOf(letters.charAt(k));
+            }
+            return tensor.permute(axes);
+        }
+    }
+
+    private static class Einsum {
+        final Term[] terms;
+        final String output;
+        final int[] dims = new int[128];
+
+        Einsum(String spec, DoubleTensor[] operands) {
+            spec = spec.replace(" ", "");
+            int arrow = spec.indexOf("->");
+            String inputs = arrow < 0 ? spec : spec.substring(0, arrow);
+            String[] parts = inputs.split(",", -1);
+            if (parts.length != operands.length) {
+                throw new IllegalArgumentException("\"" + spec + "\" needs " + parts.length + " operands, got " + operands.length + ".");
+            }
+            Arrays.fill(dims, -1);
+            int[] counts = new int[128];
+            terms = new Term[parts.length];
+            for (int t = 0; t < parts.length; t++) {
+                String p = parts[t];
+                DoubleTensor x = operands[t];
+                if (p.length() != x.rank()) {
+                    throw new SizeException("Operand " + t + " has " + x.rank() + " dimensions, but \"" + p + "\" has " + p.length() + " indices.");
+                }
+                for (int k = 0; k < p.length(); k++) {
+                    char c = checkLetter(p.charAt(k), spec);
+                    counts[c]++;
+                    if (dims[c] >= 0 && dims[c] != x.shape[k]) {
+                        throw new SizeException("Index " + c + " has inconsistent lengths " + dims[c] + " and " + x.shape[k] + ".");
+                    }
+                    dims[c] = x.shape[k];
+                }
+                terms[t] = diagonals(new Term(x, p));
+            }
+            if (arrow < 0) {
+                StringBuilder implicit = new StringBuilder();
+                for (char c = 0; c < 128; c++) {
+                    if (counts[c] == 1) {
+                        implicit.append(c);
+                    }
+                }
+                output = implicit.toString();
+            } else {
+                output = spec.substring(arrow + 2);
+                for (int k = 0; k < output.length(); k++) {
+                    char c = checkLetter(output.charAt(k), spec);
+                    if (counts[c] == 0 || output.indexOf(c) != k) {
+                        throw new IllegalArgumentException("Output index " + c + " in \"" + spec + "\" must appear in an operand and only once in the output.");
+                    }
+                }
+            }
+        }
+
+        private static char checkLetter(char c, String spec) {
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' in \"" + spec + "\".");
+            }
+            return c;
+        }
+
+        /** Replace repeated letters by diagonal views. */
+        private static Term diagonals(Term t) {
+            DoubleTensor x = t.tensor;
+            String p = t.indices;
+            for (int k = 0; k < p.length(); k++) {
+                int l = p.indexOf(p.charAt(k), k + 1);
+                while (l >= 0) {
+                    x = x.diagonal(k, l);
+                    p = p.substring(0, l) + p.substring(l + 1);
+                    l = p.indexOf(p.charAt(k), k + 1);
+                }
+            }
+            return new Term(x, p);
+        }
+
+        /** Letters of the operands in the subset, which are needed outside of it. */
+        private String kept(int subset) {
+            StringBuilder inside = new StringBuilder();
+            StringBuilder outside = new StringBuilder(output);
+            for (int t = 0; t < terms.length; t++) {
+                ((subset & (1 << t)) != 0 ? inside : outside).append(terms[t].indices);
+            }
+            StringBuilder result = new StringBuilder();
+            for (int k = 0; k < inside.length(); k++) {
+                char c = inside.charAt(k);
+                if (outside.indexOf(String.valueOf(c)) >= 0 && result.indexOf(String.valueOf(c)) < 0) {
+                    result.append(c);
+                }
+            }
+            return result.toString();
+        }
+
+        private double size(String letters) {
+            double s = 1.0;
+            for (int k = 0; k < letters.length(); k++) {
+                s *= dims[letters.charAt(k)];
+            }
+            return s;
+        }
+
+        DoubleTensor evaluate() {
+            int n = terms.length;
+            Term[] reduced = new Term[n];
+            for (int t = 0; t < n; t++) {
+                reduced[t] = sumOut(terms[t], kept(1 << t));
+            }
+            Term result;
+            if (n == 0) {
+                throw new IllegalArgumentException("einsum needs at least one operand.");
+            } else if (n <= MAX_OPTIMIZED_OPERANDS) {
+                int[] split = optimalOrder();
+                result = contract((1 << n) - 1, split, reduced);
+            } else {
+                result = reduced[0];
+                int subset = 1;
+                for (int t = 1; t < n; t++) {
+                    subset |= 1 << t;
+                    result = pair(result, reduced[t], kept(subset));
+                }
+            }
+            return result.ordered(output).dup();
+        }
+
+        /**
+         * Find the pairwise contraction order with the least number of
+         * multiplications by dynamic programming over subsets of operands.
+         * split[s] is the subset which is contracted with its complement in
+         * s when computing s.
+         */
+        private int[] optimalOrder() {
+            int n = terms.length;
+            int full = (1 << n) - 1;
+            double[] cost = new double[full + 1];
+            int[] split = new int[full + 1];
+            String[] kept = new String[full + 1];
+            for (int s = 1; s <= full; s++) {
+                kept[s] = kept(s);
+                if (Integer.bitCount(s) == 1) {
+                    continue;
+                }
+                cost[s] = Double.POSITIVE_INFINITY;
+                // enumerate subsets a of s which contain the lowest operand of s
+                int low = s & -s;
+                for (int a = (s - 1) & s; a > 0; a = (a - 1) & s) {
+                    if ((a & low) == 0) {
+                        continue;
+                    }
+                    int b = s ^ a;
+                    double c = cost[a] + cost[b] + size(union(kept[a], kept[b]));
+                    if (c < cost[s]) {
+                        cost[s] = c;
+                        split[s] = a;
+                    }
+                }
+            }
+            return split;
+        }
+
+        private Term contract(int subset, int[] split, Term[] reduced) {
+            if (Integer.bitCount(subset) == 1) {
+                return reduced[Integer.numberOfTrailingZeros(subset)];
+            }
+            int a = split[subset];
+            return pair(contract(a, split, reduced), contract(subset ^ a, split, reduced), kept(subset));
+        }
+
+        private static String union(String a, String b) {
+            StringBuilder u = new StringBuilder(a);
+            for (int k = 0; k < b.length(); k++) {
+                if (a.indexOf(b.charAt(k)) < 0) {
+                    u.append(b.charAt(k));
+                }
+            }
+            return u.toString();
+        }
+
+        /** Sum over all letters of the term which are not in keep. */
+        private Term sumOut(Term t, String keep) {
+            StringBuilder kept = new StringBuilder();
+            StringBuilder summed = new StringBuilder();
+            for (int k = 0; k < t.indices.length(); k++) {
+                char c = t.indices.charAt(k);
+                (keep.indexOf(c) >= 0 ? kept : summed).append(c);
+            }
+            if (summed.length() == 0) {
+                return t;
+            }
+            // contiguous copy with the summed letters first, then add up blocks
+            DoubleTensor x = t.ordered(summed.toString() + kept).dup();
+            int block = (int) size(summed.toString());
+            int[] keptShape = Arrays.copyOfRange(x.shape, summed.length(), x.rank());
+            DoubleTensor result = new DoubleTensor(keptShape);
+            for (int i = 0; i < result.length; i++) {
+                double s = 0.0;
+                for (int j = i * block, end = j + block; j < end; j++) {
+                    s += x.data[j];
+                }
+                result.data[i] = s;
+            }
+            return new Term(result, kept.toString());
+        }
+
+        /** Contract two terms, keeping the given letters, as a batch of matrix products. */
+        private Term pair(Term a, Term b, String keep) {
+            a = sumOut(a, union(keep, b.indices));
+            b = sumOut(b, union(keep, a.indices));
+            StringBuilder left = new StringBuilder();
+            StringBuilder right = new StringBuilder();
+            StringBuilder inner = new StringBuilder();
+            StringBuilder batch = new StringBuilder();
+            for (int k = 0; k < a.indices.length(); k++) {
+                char c = a.indices.charAt(k);
+                if (b.indices.indexOf(c) < 0) {
+                    left.append(c);
+                } else {
+                    (keep.indexOf(c) >= 0 ? batch : inner).append(c);
+                }
+            }
+            for (int k = 0; k < b.indices.length(); k++) {
+                char c = b.indices.charAt(k);
+                if (a.indices.indexOf(c) < 0) {
+                    right.append(c);
+                }
+            }
+            final int m = (int) size(left.toString());
+            final int n = (int) size(right.toString());
+            final int k = (int) size(inner.toString());
+            final int batches = (int) size(batch.toString());
+
+            Operand x = new Operand(a, left.toString(), inner.toString(), batch.toString(), m, k);
+            Operand y = new Operand(b, inner.toString(), right.toString(), batch.toString(), k, n);
+            String letters = left.toString() + right + batch;
+            int[] shape = new int[letters.length()];
+            for (int l = 0; l < shape.length; l++) {
+                shape[l] = dims[letters.charAt(l)];
+            }
+            DoubleTensor c = new DoubleTensor(shape);
+            if (m > 0 && n > 0 && k > 0) {
+                gemmBatch(x, y, c.data, m, n, k, batches);
+            }
+            return new Term(c, letters);
+        }
+    }
+
+    /**
+     * An operand of a batch of matrix products, with the rows, columns and
+     * batch letters given. If the tensor is laid out as the transposed
+     * matrix, it is used as is.
+     */
+    private static class Operand {
+        final double[] data;
+        final int offset;
+        final int ld;
+        final int batchStride;
+        final char trans;
+
+        Operand(Term t, String rows, String columns, String batch, int r, int c) {
+            DoubleTensor x = t.ordered(rows + columns + batch);
+            char tr = 'N';
+            if (!x.isContiguous()) {
+                DoubleTensor xt = t.ordered(columns + rows + batch);
+                if (xt.isContiguous()) {
+                    x = xt;
+                    tr = 'T';
+                } else {
+                    x = x.dup();
+                }
+            }
+            data = x.data;
+            offset = x.offset;
+            trans = tr;
+            ld = Math.max(1, tr == 'N' ? r : c);
+            batchStride = r * c;
+        }
+    }
+
+    /** Products with at most this many multiplications are computed directly instead of calling GEMM. */
+    private static final int SMALL_GEMM = 64;
+
+    /** C[batch] = op(A[batch]) * op(B[batch]) for all batches. */
+    private static void gemmBatch(final Operand a, final Operand b, final double[] c,
+                                  final int m, final int n, final int k, int batches) {
+        final boolean small = (long) m * n * k <= SMALL_GEMM;
+        if (!small && NativeBlas.isLoaded()) {
+            // one batch after the other, as every call copies all of c
+            for (int i = 0; i < batches; i++) {
+                NativeBlas.dgemm(a.trans, b.trans, m, n, k, 1.0, a.data, a.offset + i * a.batchStride, a.ld,
+                        b.data, b.offset + i * b.batchStride, b.ld, 0.0, c, i * m * n, m);
+            }
+            return;
+        }
+        int grain = Math.max(1, (int) Math.min(Integer.MAX_VALUE, MatrixFunctions.MAP_GRAIN / ((long) m * n * k)));
+        Parallel.forRange(0, batches, grain, new Parallel.Loop() {
+            public void run(int from, int to) {
+                if (small && m * n * k == 1) {
+                    // only batch indices, that is, an element-wise product
+                    for (int i = from; i < to; i++) {
+                        c[i] = a.data[a.offset + i * a.batchStride] * b.data[b.offset + i * b.batchStride];
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    if (small) {
+                        smallGemm(a, a.offset + i * a.batchStride, b, b.offset + i * b.batchStride, c, i * m * n, m, n, k);
+                    } else {
+                        JavaBlas.rgemm(a.trans, b.trans, m, n, k, 1.0, a.data, a.offset + i * a.batchStride, a.ld,
+                                b.data, b.offset + i * b.batchStride, b.ld, 0.0, c, i * m * n, m);
+                    }
+                }
+            }
+        });
+    }
+
+    /** C = op(A) * op(B) for tiny matrices, where calling GEMM costs more than the product. */
+    private static void smallGemm(Operand a, int ao, Operand b, int bo, double[] c, int co, int m, int n, int k) {
+        int aRow = a.trans == 'N' ? 1 : a.ld;
+        int aColumn = a.trans == 'N' ? a.ld : 1;
+        int bRow = b.trans == 'N' ? 1 : b.ld;
+        int bColumn = b.trans == 'N' ? b.ld : 1;
+        for (int q = 0; q < n; q++) {
+            for (int p = 0; p < m; p++) {
+                double s = 0.0;
+                for (int l = 0; l < k; l++) {
+                    s += a.data[ao + p * aRow + l * aColumn] * b.data[bo + l * bRow + q * bColumn];
+                }
+                c[co + p + q * m] = s;
+            }
+        }
+    }
+}
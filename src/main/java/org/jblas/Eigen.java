@@ -50,6 +50,27 @@ import org.jblas.ranges.Range;
  * The symmetric versions are usually much faster on symmetric matrices.</p>
  */
 public class Eigen {
+//STOP
+    /**
+     * Eigenvectors (stored as columns) and the corresponding eigenvalues.
+     */
+    public static class EigenDecomposition<V, D> {
+        /** The eigenvectors, stored as columns. */
+        public final V vectors;
+        /** The eigenvalues. */
+        public final D values;
+
+        public EigenDecomposition(V vectors, D values) {
+            this.vectors = vectors;
+            this.values = values;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<EigenDecomposition vectors=%s values=%s>", vectors, values);
+        }
+    }
+//START
     private static final DoubleMatrix dummyDouble = new DoubleMatrix(1);
 
     /**
@@ -79,6 +100,22 @@ public class Eigen {
         return new DoubleMatrix[]{eigenvectors, DoubleMatrix.diag(eigenvalues)};
     }
 
+    /**
+     * Computes the eigenvalues and eigenvectors for a symmetric matrix.
+     *
+     * <p>Like {@link #symmetricEigenvectors(DoubleMatrix)}, but the eigenvalues are returned
+     * as a {@link DiagonalDoubleMatrix}, so that products like V * L take linear time
+     * and no dense n x n matrix of eigenvalues is allocated.</p>
+     */
+    public static EigenDecomposition<DoubleMatrix, DiagonalDoubleMatrix> symmetricEigenDecomposition(DoubleMatrix A) {
+        A.assertSquare();
+        DoubleMatrix eigenvalues = new DoubleMatrix(A.rows);
+        DoubleMatrix eigenvectors = A.dup();
+        int isuppz[] = new int[2 * A.rows];
+        SimpleBlas.syevr('V', 'A', 'U', A.dup(), 0, 0, 0, 0, 0, eigenvalues, eigenvectors, isuppz);
+        return new EigenDecomposition<DoubleMatrix, DiagonalDoubleMatrix>(eigenvectors, new DiagonalDoubleMatrix(eigenvalues.data));
+    }
+
     /**
      * Computes the eigenvalues of a general matrix.
      */
@@ -109,9 +146,32 @@ public class Eigen {
 
         // transferring the result
         ComplexDoubleMatrix E = new ComplexDoubleMatrix(WR, WI);
-        ComplexDoubleMatrix V = new ComplexDoubleMatrix(A.rows, A.rows);
-        //System.err.printf("VR = %s\n", VR.toString());
-        for (int i = 0; i < A.rows; i++) {
+        return new ComplexDoubleMatrix[]{complexEigenvectors(E, VR), ComplexDoubleMatrix.diag(E)};
+    }
+
+    /**
+     * Computes the eigenvalues and eigenvectors of a general matrix.
+     *
+     * <p>Like {@link #eigenvectors(DoubleMatrix)}, but the eigenvalues are returned
+     * as a complex column vector instead of a dense n x n diagonal matrix.</p>
+     */
+    public static EigenDecomposition<ComplexDoubleMatrix, ComplexDoubleMatrix> eigenDecomposition(DoubleMatrix A) {
+        A.assertSquare();
+        DoubleMatrix WR = new DoubleMatrix(A.rows);
+        DoubleMatrix WI = WR.dup();
+        DoubleMatrix VR = new DoubleMatrix(A.rows, A.rows);
+
+        SimpleBlas.geev('N', 'V', A.dup(), WR, WI, dummyDouble, VR);
+
+        ComplexDoubleMatrix E = new ComplexDoubleMatrix(WR, WI);
+        return new EigenDecomposition<ComplexDoubleMatrix, ComplexDoubleMatrix>(complexEigenvectors(E, VR), E);
+    }
+
+    /** Assemble the complex eigenvectors from the real GEEV output. */
+    private static ComplexDoubleMatrix complexEigenvectors(ComplexDoubleMatrix E, DoubleMatrix VR) {
+        int n = VR.rows;
+        ComplexDoubleMatrix V = new ComplexDoubleMatrix(n, n);
+        for (int i = 0; i < n; i++) {
             if (E.get(i).isReal()) {
                 V.putColumn(i, new ComplexDoubleMatrix(VR.getColumn(i)));
             } else {
@@ -121,7 +181,7 @@ public class Eigen {
                 i += 1;
             }
         }
-        return new ComplexDoubleMatrix[]{V, ComplexDoubleMatrix.diag(E)};
+        return V;
     }
 
     /**
@@ -338,6 +398,22 @@ public class Eigen {
         return new FloatMatrix[]{eigenvectors, FloatMatrix.diag(eigenvalues)};
     }
 
+    /**
+     * Computes the eigenvalues and eigenvectors for a symmetric matrix.
+     *
+     * <p>Like {@link #symmetricEigenvectors(FloatMatrix)}, but the eigenvalues are returned
+     * as a {@link DiagonalFloatMatrix}, so that products like V * L take linear time
+     * and no dense n x n matrix of eigenvalues is allocated.</p>
+     */
+    public static EigenDecomposition<FloatMatrix, DiagonalFloatMatrix> symmetricEigenDecomposition(FloatMatrix A) {
+        A.assertSquare();
+        FloatMatrix eigenvalues = new FloatMatrix(A.rows);
+        FloatMatrix eigenvectors = A.dup();
+        int isuppz[] = new int[2 * A.rows];
+        SimpleBlas.syevr('V', 'A', 'U', A.dup(), 0, 0, 0, 0, 0, eigenvalues, eigenvectors, isuppz);
+        return new EigenDecomposition<FloatMatrix, DiagonalFloatMatrix>(eigenvectors, new DiagonalFloatMatrix(eigenvalues.data));
+    }
+
     /**
      * Computes the eigenvalues of a general matrix.
      */
@@ -368,9 +444,32 @@ public class Eigen {
 
         // transferring the result
         ComplexFloatMatrix E = new ComplexFloatMatrix(WR, WI);
-        ComplexFloatMatrix V = new ComplexFloatMatrix(A.rows, A.rows);
-        //System.err.printf("VR = %s\n", VR.toString());
-        for (int i = 0; i < A.rows; i++) {
+        return new ComplexFloatMatrix[]{complexEigenvectors(E, VR), ComplexFloatMatrix.diag(E)};
+    }
+
+    /**
+     * Computes the eigenvalues and eigenvectors of a general matrix.
+     *
+     * <p>Like {@link #eigenvectors(FloatMatrix)}, but the eigenvalues are returned
+     * as a complex column vector instead of a dense n x n diagonal matrix.</p>
+     */
+    public static EigenDecomposition<ComplexFloatMatrix, ComplexFloatMatrix> eigenDecomposition(FloatMatrix A) {
+        A.assertSquare();
+        FloatMatrix WR = new FloatMatrix(A.rows);
+        FloatMatrix WI = WR.dup();
+        FloatMatrix VR = new FloatMatrix(A.rows, A.rows);
+
+        SimpleBlas.geev('N', 'V', A.dup(), WR, WI, dummyFloat, VR);
+
+        ComplexFloatMatrix E = new ComplexFloatMatrix(WR, WI);
+        return new EigenDecomposition<ComplexFloatMatrix, ComplexFloatMatrix>(complexEigenvectors(E, VR), E);
+    }
+
+    /** Assemble the complex eigenvectors from the real GEEV output. */
+    private static ComplexFloatMatrix complexEigenvectors(ComplexFloatMatrix E, FloatMatrix VR) {
+        int n = VR.rows;
+        ComplexFloatMatrix V = new ComplexFloatMatrix(n, n);
+        for (int i = 0; i < n; i++) {
             if (E.get(i).isReal()) {
                 V.putColumn(i, new ComplexFloatMatrix(VR.getColumn(i)));
             } else {
@@ -380,7 +479,7 @@ public class Eigen {
                 i += 1;
             }
         }
-        return new ComplexFloatMatrix[]{V, ComplexFloatMatrix.diag(E)};
+        return V;
     }
 
     /**
@@ -0,0 +1,572 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A matrix stored in 16 bit floating point numbers.
+ *
+ * <p>Two formats are supported: IEEE 754 half precision (5 exponent bits, 10
+ * mantissa bits, range up to 65504) and bfloat16 (the upper half of a float:
+ * 8 exponent bits, 7 mantissa bits, the same range as float). Values are
+ * rounded to nearest even when stored. There is no arithmetic in 16 bit: the
+ * kernels (gemv, dot, axpy) convert to float on the fly, so for memory bound
+ * operations like matrix-vector products half as much data is read as for a
+ * FloatMatrix.</p>
+ *
+ * <p>Operations with a FloatMatrix accumulate in float, operations with a
+ * DoubleMatrix accumulate in double. Data is stored in column-major order like
+ * in DoubleMatrix, so for embedding tables store one embedding per column and
+ * use {@link #getColumns(int[])}.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new HalfMatrix(floatMatrix, format)<td>Convert from a FloatMatrix.
+ * <tr><td>h.toFloatMatrix()<td>Convert to a FloatMatrix.
+ * <tr><td>h.gemv(trans, alpha, x, beta, y)<td>y = alpha * op(h) * x + beta * y.
+ * <tr><td>h.mmul(x)<td>h * x.
+ * <tr><td>h.dot(x)<td>Dot product with a vector.
+ * <tr><td>h.axpy(alpha, y)<td>y = y + alpha * h.
+ * <caption>HalfMatrix operations.</caption>
+ * </table>
+ */
+public class HalfMatrix implements Serializable {
+    /** The 16 bit floating point formats. */
+    public enum Format {
+        /** IEEE 754 binary16. */
+        HALF,
+        /** The upper 16 bits of an IEEE 754 binary32. */
+        BFLOAT16
+    }
+
+    /** Number of rows. */
+    public int rows;
+    /** Number of columns. */
+    public int columns;
+    /** Total number of elements (for convenience). */
+    public int length;
+    /** The storage format. */
+    public Format format;
+    /** The data in column-major order. */
+    public short[] data;
+
+    static final long serialVersionUID = 3960137463950226170L;
+
+    /** Minimal number of rows or columns processed by one task in parallel loops. */
+    private static final int GRAIN = 256;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create a matrix using the given data (not copied). */
+    public HalfMatrix(int rows, int columns, Format format, short[] data) {
+        if (data.length != rows * columns) {
+            throw new IllegalArgumentException("Passed data must match matrix dimensions.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.length = rows * columns;
+        this.format = format;
+        this.data = data;
+    }
+
+    /** Create an all-zero matrix. */
+    public HalfMatrix(int rows, int columns, Format format) {
+        this(rows, columns, format, new short[rows * columns]);
+    }
+
+    /** Convert a FloatMatrix. */
+    public HalfMatrix(final FloatMatrix a, Format format) {
+        this(a.rows, a.columns, format);
+        Parallel.forRange(0, length, GRAIN * 64, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                encode(a.data, from, to);
+            }
+        });
+    }
+
+    /** Convert a DoubleMatrix. */
+    public HalfMatrix(DoubleMatrix a, Format format) {
+        this(a.rows, a.columns, format);
+        for (int i = 0; i < length; i++) {
+            data[i] = encode((float) a.data[i]);
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Conversion of single values
+     *
+     **************************************************************************/
+
+    /** Lookup table for half to float, only created when needed. */
+    private static class HalfTable {
+        static final float[] TABLE = new float[1 << 16];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                TABLE[i] = computeHalfToFloat((short) i);
+            }
+        }
+    }
+
+    /** Convert IEEE half to float. */
+    public static float halfToFloat(short h) {
+        return HalfTable.TABLE[h & 0xffff];
+    }
+
+    private static float computeHalfToFloat(short h) {
+        int sign = (h & 0x8000) << 16;
+        int exp = (h >>> 10) & 0x1f;
+        int mant = h & 0x3ff;
+        if (exp == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mant << 13));
+        }
+        if (exp == 0) {
+            // zero or subnormal: mant * 2^-24
+            float v = mant * 5.9604645E-8f;
+            return sign != 0 ? -v : v;
+        }
+        return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mant << 13));
+    }
+
+    /** Convert float to IEEE half, rounding to nearest even. */
+    public static short floatToHalf(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        int sign = (bits >>> 16) & 0x8000;
+        int exp = (bits >>> 23) & 0xff;
+        int mant = bits & 0x7fffff;
+        if (exp == 0xff) {
+            // infinity or NaN (keep NaNs quiet)
+            return (short) (sign | 0x7c00 | (mant != 0 ? 0x200 | (mant >>> 13) : 0));
+        }
+        int e = exp - 127 + 15;
+        if (e >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        int half, rem, halfway;
+        if (e <= 0) {
+            // subnormal half, or zero
+            if (e < -10) {
+                return (short) sign;
+            }
+            int shift = 14 - e;
+            mant |= 0x800000;
+            half = mant >>> shift;
+            rem = mant & ((1 << shift) - 1);
+            halfway = 1 << (shift - 1);
+        } else {
+            half = (e << 10) | (mant >>> 13);
+            rem = mant & 0x1fff;
+            halfway = 0x1000;
+        }
+        // a carry into the exponent gives the right result, including infinity
+        if (rem > halfway || (rem == halfway && (half & 1) != 0)) {
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    /** Convert bfloat16 to float. */
+    public static float bfloat16ToFloat(short h) {
+        return Float.intBitsToFloat(h << 16);
+    }
+
+    /** Convert float to bfloat16, rounding to nearest even. */
+    public static short floatToBfloat16(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        if ((bits & 0x7fffffff) > 0x7f800000) {
+            return (short) ((bits >>> 16) | 0x40);
+        }
+        bits += 0x7fff + ((bits >>> 16) & 1);
+        return (short) (bits >>> 16);
+    }
+
+    private short encode(float f) {
+        return format == Format.HALF ? floatToHalf(f) : floatToBfloat16(f);
+    }
+
+    private float decode(short h) {
+        return format == Format.HALF ? halfToFloat(h) : bfloat16ToFloat(h);
+    }
+
+    /** Store src[from, to) in data[from, to). */
+    private void encode(float[] src, int from, int to) {
+        if (format == Format.HALF) {
+            for (int i = from; i < to; i++) {
+                data[i] = floatToHalf(src[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                data[i] = floatToBfloat16(src[i]);
+            }
+        }
+    }
+
+    /** Decode data[offset, offset + n) into buffer[0, n). */
+    private void decode(int offset, float[] buffer, int n) {
+        if (format == Format.HALF) {
+            float[] table = HalfTable.TABLE;
+            for (int i = 0; i < n; i++) {
+                buffer[i] = table[data[offset + i] & 0xffff];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                buffer[i] = Float.intBitsToFloat(data[offset + i] << 16);
+            }
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Element access and conversion
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Get element i in linear indexing. */
+    public float get(int i) {
+        return decode(data[i]);
+    }
+
+    /** Get element (i, j). */
+    public float get(int i, int j) {
+        return get(i + j * rows);
+    }
+
+    /** Set element i in linear indexing (rounded to 16 bits). */
+    public HalfMatrix put(int i, float v) {
+        data[i] = encode(v);
+        return this;
+    }
+
+    /** Set element (i, j) (rounded to 16 bits). */
+    public HalfMatrix put(int i, int j, float v) {
+        return put(i + j * rows, v);
+    }
+
+    /** Convert to a FloatMatrix. */
+    public FloatMatrix toFloatMatrix() {
+        final FloatMatrix result = new FloatMatrix(rows, columns);
+        Parallel.forRange(0, columns, Math.max(1, GRAIN * 64 / Math.max(1, rows)), new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                float[] buffer = new float[rows];
+                for (int j = from; j < to; j++) {
+                    decode(j * rows, buffer, rows);
+                    System.arraycopy(buffer, 0, result.data, j * rows, rows);
+                }
+            }
+        });
+        return result;
+    }
+
+    /** Convert to a DoubleMatrix. */
+    public DoubleMatrix toDoubleMatrix() {
+        DoubleMatrix result = new DoubleMatrix(rows, columns);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = decode(data[i]);
+        }
+        return result;
+    }
+
+    /** Get a column as a FloatMatrix. */
+    public FloatMatrix getColumn(int c) {
+        FloatMatrix result = new FloatMatrix(rows);
+        decode(c * rows, result.data, rows);
+        return result;
+    }
+
+    /** Get the given columns as a FloatMatrix, for example to look up embeddings. */
+    public FloatMatrix getColumns(int[] cindices) {
+        FloatMatrix result = new FloatMatrix(rows, cindices.length);
+        float[] buffer = new float[rows];
+        for (int k = 0; k < cindices.length; k++) {
+            decode(cindices[k] * rows, buffer, rows);
+            System.arraycopy(buffer, 0, result.data, k * rows, rows);
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Kernels accumulating in float
+     *
+     **************************************************************************/
+
+    /**
+     * Compute y = alpha * op(this) * x + beta * y, where op(A) = A for
+     * trans == 'N' and op(A) = A' for trans == 'T'. x and y are vectors.
+     */
+    public FloatMatrix gemv(char trans, final float alpha, final FloatMatrix x, final float beta, final FloatMatrix y) {
+        if (trans == 'N' || trans == 'n') {
+            checkVectors(columns, x, rows, y);
+            // each task handles a block of rows, going through the columns
+            Parallel.forRange(0, rows, GRAIN, new Parallel.Loop() {
+                @Override
+                public void run(int from, int to) {
+                    int n = to - from;
+                    float[] acc = new float[n];
+                    float[] a = new float[n];
+                    for (int j = 0; j < columns; j++) {
+                        float xj = x.data[j];
+                        decode(j * rows + from, a, n);
+                        for (int i = 0; i < n; i++) {
+                            acc[i] += a[i] * xj;
+                        }
+                    }
+                    for (int i = 0; i < n; i++) {
+                        y.data[from + i] = alpha * acc[i] + (beta == 0.0f ? 0.0f : beta * y.data[from + i]);
+                    }
+                }
+            });
+        } else if (trans == 'T' || trans == 't') {
+            checkVectors(rows, x, columns, y);
+            Parallel.forRange(0, columns, Math.max(1, GRAIN * 64 / Math.max(1, rows)), new Parallel.Loop() {
+                @Override
+                public void run(int from, int to) {
+                    float[] a = new float[rows];
+                    for (int j = from; j < to; j++) {
+                        decode(j * rows, a, rows);
+                        float s = 0.0f;
+                        for (int i = 0; i < rows; i++) {
+                            s += a[i] * x.data[i];
+                        }
+                        y.data[j] = alpha * s + (beta == 0.0f ? 0.0f : beta * y.data[j]);
+                    }
+                }
+            });
+        } else {
+            throw new IllegalArgumentException("trans must be one of 'N' or 'T'.");
+        }
+        return y;
+    }
+
+    /** Compute this * x for a matrix or vector x. */
+    public FloatMatrix mmul(FloatMatrix x) {
+        if (x.rows != columns) {
+            throw new SizeException("Number of rows of x must be " + columns + " (is " + x.rows + ").");
+        }
+        FloatMatrix result = new FloatMatrix(rows, x.columns);
+        for (int k = 0; k < x.columns; k++) {
+            FloatMatrix yk = new FloatMatrix(rows);
+            gemv('N', 1.0f, x.getColumn(k), 0.0f, yk);
+            System.arraycopy(yk.data, 0, result.data, k * rows, rows);
+        }
+        return result;
+    }
+
+    /** Dot product with a vector of the same length. */
+    public float dot(FloatMatrix x) {
+        x.checkLength(length);
+        float[] a = new float[Math.min(length, 4096)];
+        float s = 0.0f;
+        for (int offset = 0; offset < length; offset += a.length) {
+            int n = Math.min(a.length, length - offset);
+            decode(offset, a, n);
+            for (int i = 0; i < n; i++) {
+                s += a[i] * x.data[offset + i];
+            }
+        }
+        return s;
+    }
+
+    /** Compute y = y + alpha * this for y of the same length. */
+    public FloatMatrix axpy(float alpha, FloatMatrix y) {
+        y.checkLength(length);
+        float[] a = new float[Math.min(length, 4096)];
+        for (int offset = 0; offset < length; offset += a.length) {
+            int n = Math.min(a.length, length - offset);
+            decode(offset, a, n);
+            for (int i = 0; i < n; i++) {
+                y.data[offset + i] += alpha * a[i];
+            }
+        }
+        return y;
+    }
+
+    /**************************************************************************
+     *
+     * Kernels accumulating in double
+     *
+     **************************************************************************/
+
+    /** Compute y = alpha * op(this) * x + beta * y, accumulating in double. */
+    public DoubleMatrix gemv(char trans, final double alpha, final DoubleMatrix x, final double beta, final DoubleMatrix y) {
+        if (trans == 'N' || trans == 'n') {
+            checkVectors(columns, x, rows, y);
+            Parallel.forRange(0, rows, GRAIN, new Parallel.Loop() {
+                @Override
+                public void run(int from, int to) {
+                    int n = to - from;
+                    double[] acc = new double[n];
+                    float[] a = new float[n];
+                    for (int j = 0; j < columns; j++) {
+                        double xj = x.data[j];
+                        decode(j * rows + from, a, n);
+                        for (int i = 0; i < n; i++) {
+                            acc[i] += a[i] * xj;
+                        }
+                    }
+                    for (int i = 0; i < n; i++) {
+                        y.data[from + i] = alpha * acc[i] + (beta == 0.0 ? 0.0 : beta * y.data[from + i]);
+                    }
+                }
+            });
+        } else if (trans == 'T' || trans == 't') {
+            checkVectors(rows, x, columns, y);
+            Parallel.forRange(0, columns, Math.max(1, GRAIN * 64 / Math.max(1, rows)), new Parallel.Loop() {
+                @Override
+                public void run(int from, int to) {
+                    float[] a = new float[rows];
+                    for (int j = from; j < to; j++) {
+                        decode(j * rows, a, rows);
+                        double s = 0.0;
+                        for (int i = 0; i < rows; i++) {
+                            s += a[i] * x.data[i];
+                        }
+                        y.data[j] = alpha * s + (beta == 0.0 ? 0.0 : beta * y.data[j]);
+                    }
+                }
+            });
+        } else {
+            throw new IllegalArgumentException("trans must be one of 'N' or 'T'.");
+        }
+        return y;
+    }
+
+    /** Compute this * x for a matrix or vector x, accumulating in double. */
+    public DoubleMatrix mmul(DoubleMatrix x) {
+        if (x.rows != columns) {
+            throw new SizeException("Number of rows of x must be " + columns + " (is " + x.rows + ").");
+        }
+        DoubleMatrix result = new DoubleMatrix(rows, x.columns);
+        for (int k = 0; k < x.columns; k++) {
+            DoubleMatrix yk = new DoubleMatrix(rows);
+            gemv('N', 1.0, x.getColumn(k), 0.0, yk);
+            System.arraycopy(yk.data, 0, result.data, k * rows, rows);
+        }
+        return result;
+    }
+
+    /** Dot product with a vector of the same length, accumulating in double. */
+    public double dot(DoubleMatrix x) {
+        x.checkLength(length);
+        float[] a = new float[Math.min(length, 4096)];
+        double s = 0.0;
+        for (int offset = 0; offset < length; offset += a.length) {
+            int n = Math.min(a.length, length - offset);
+            decode(offset, a, n);
+            for (int i = 0; i < n; i++) {
+                s += a[i] * x.data[offset + i];
+            }
+        }
+        return s;
+    }
+
+    /** Compute y = y + alpha * this for y of the same length. */
+    public DoubleMatrix axpy(double alpha, DoubleMatrix y) {
+        y.checkLength(length);
+        float[] a = new float[Math.min(length, 4096)];
+        for (int offset = 0; offset < length; offset += a.length) {
+            int n = Math.min(a.length, length - offset);
+            decode(offset, a, n);
+            for (int i = 0; i < n; i++) {
+                y.data[offset + i] += alpha * a[i];
+            }
+        }
+        return y;
+    }
+
+    private static void checkVectors(int xLength, FloatMatrix x, int yLength, FloatMatrix y) {
+        if (x.length != xLength || y.length != yLength) {
+            throw new SizeException("Vectors must have length " + xLength + " and " + yLength + " (are " + x.length + " and " + y.length + ").");
+        }
+    }
+
+    private static void checkVectors(int xLength, DoubleMatrix x, int yLength, DoubleMatrix y) {
+        if (x.length != xLength || y.length != yLength) {
+            throw new SizeException("Vectors must have length " + xLength + " and " + yLength + " (are " + x.length + " and " + y.length + ").");
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof HalfMatrix)) {
+            return false;
+        }
+        HalfMatrix other = (HalfMatrix) o;
+        return rows == other.rows && columns == other.columns && format == other.format && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + rows;
+        hash = 83 * hash + columns;
+        hash = 83 * hash + format.hashCode();
+        hash = 83 * hash + Arrays.hashCode(data);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toFloatMatrix().toString();
+    }
+}
@@ -0,0 +1,1085 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * A general matrix class for <tt>int</tt> typed values.
+ *
+ * <p>Meant for labels, indices and counts, which would otherwise be stored in
+ * a DoubleMatrix and rounded on every access. Data is stored in column-major
+ * order in <tt>data</tt>, as in {@link DoubleMatrix}, and method names follow
+ * DoubleMatrix: in-place versions end in "i", and operations with another
+ * matrix also accept a 1x1 matrix as a scalar.</p>
+ *
+ * <p>Arithmetic wraps around on overflow like Java's integer arithmetic, and
+ * division by zero throws an ArithmeticException. {@link #sum()} accumulates
+ * in 64 bits.</p>
+ */
+public class IntMatrix implements Serializable {
+    /** Number of rows. */
+    public int rows;
+    /** Number of columns. */
+    public int columns;
+    /** Total number of elements (for convenience). */
+    public int length;
+    /** The actual data stored in column-major order. */
+    public int[] data = null;
+
+    static final long serialVersionUID = -1257218396751398223L;
+
+    /**************************************************************************
+     *
+     * Constructors and factory functions
+     *
+     **************************************************************************/
+
+    /** Create a new matrix with <i>newRows</i> rows, <i>newColumns</i> columns using <i>newData></i> as the data. The length of the data is not checked! */
+    public IntMatrix(int newRows, int newColumns, int... newData) {
+        rows = newRows;
+        columns = newColumns;
+        length = rows * columns;
+
+        if (newData != null && newData.length != newRows * newColumns) {
+            throw new IllegalArgumentException(
+                    "Passed data must match matrix dimensions.");
+        }
+
+        data = newData;
+    }
+
+    /** Creates a new <i>n</i> times <i>m</i> matrix. All elements are initialized to zero. */
+    public IntMatrix(int newRows, int newColumns) {
+        this(newRows, newColumns, new int[newRows * newColumns]);
+    }
+
+    /** Creates a new empty matrix of size 0 times 0. */
+    public IntMatrix() {
+        this(0, 0, (int[]) null);
+    }
+
+    /** Create a column vector of length <i>len</i>. */
+    public IntMatrix(int len) {
+        this(len, 1, new int[len]);
+    }
+
+    /** Create a column vector using <i>newData</i> as the data array. The array is not copied. */
+    public IntMatrix(int[] newData) {
+        this(newData.length, 1, newData);
+    }
+
+    /** Creates a new matrix from a two-dimensional array, where the first index is the row. */
+    public IntMatrix(int[][] data) {
+        this(data.length, data.length == 0 ? 0 : data[0].length);
+
+        for (int r = 0; r < rows; r++) {
+            if (data[r].length != columns) {
+                throw new IllegalArgumentException("All rows must have the same length.");
+            }
+            for (int c = 0; c < columns; c++) {
+                put(r, c, data[r][c]);
+            }
+        }
+    }
+
+    /** Round the entries of a DoubleMatrix to the nearest integer. */
+    public IntMatrix(DoubleMatrix a) {
+        this(a.rows, a.columns);
+        for (int i = 0; i < length; i++) {
+            data[i] = (int) Math.rint(a.data[i]);
+        }
+    }
+
+    /** Round the entries of a FloatMatrix to the nearest integer. */
+    public IntMatrix(FloatMatrix a) {
+        this(a.rows, a.columns);
+        for (int i = 0; i < length; i++) {
+            data[i] = (int) Math.rint(a.data[i]);
+        }
+    }
+
+    /** Creates a new matrix in which all values are equal 0. */
+    public static IntMatrix zeros(int rows, int columns) {
+        return new IntMatrix(rows, columns);
+    }
+
+    /** Creates a new matrix in which all values are equal 1. */
+    public static IntMatrix ones(int rows, int columns) {
+        IntMatrix m = new IntMatrix(rows, columns);
+        Arrays.fill(m.data, 1);
+        return m;
+    }
+
+    /** Create a 1x1 matrix holding v. */
+    public static IntMatrix scalar(int v) {
+        return new IntMatrix(1, 1, v);
+    }
+
+    /** Create a column vector holding from, from + 1, ..., to - 1. */
+    public static IntMatrix range(int from, int to) {
+        IntMatrix result = new IntMatrix(Math.max(0, to - from));
+        for (int i = 0; i < result.length; i++) {
+            result.data[i] = from + i;
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Element access and size checks
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /** Get linear index of matrix element (row, column). */
+    public int index(int rowIndex, int columnIndex) {
+        return rowIndex + rows * columnIndex;
+    }
+
+    /** Get element in linear indexing. */
+    public int get(int i) {
+        return data[i];
+    }
+
+    /** Get element (row, column). */
+    public int get(int rowIndex, int columnIndex) {
+        return data[index(rowIndex, columnIndex)];
+    }
+
+    /** Set element in linear indexing. */
+    public IntMatrix put(int i, int v) {
+        data[i] = v;
+        return this;
+    }
+
+    /** Set element (row, column). */
+    public IntMatrix put(int rowIndex, int columnIndex, int v) {
+        data[index(rowIndex, columnIndex)] = v;
+        return this;
+    }
+
+    /** Get the elements at the given linear indices as a column vector. */
+    public IntMatrix get(int[] indices) {
+        IntMatrix result = new IntMatrix(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            result.data[i] = data[indices[i]];
+        }
+        return result;
+    }
+
+    /** Get the elements at the given linear indices as a column vector. */
+    public IntMatrix get(IntMatrix indices) {
+        return get(indices.data);
+    }
+
+    /** Get the elements where <tt>where</tt> is true as a column vector. */
+    public IntMatrix get(BooleanMatrix where) {
+        checkLength(where.length);
+        IntMatrix result = new IntMatrix(where.count());
+        int k = 0;
+        for (int i = where.nextSetBit(0); i >= 0; i = where.nextSetBit(i + 1)) {
+            result.data[k++] = data[i];
+        }
+        return result;
+    }
+
+    /** Set the elements at the given linear indices to v. */
+    public IntMatrix put(int[] indices, int v) {
+        for (int i : indices) {
+            data[i] = v;
+        }
+        return this;
+    }
+
+    /** Set the elements where <tt>where</tt> is true to v. */
+    public IntMatrix put(BooleanMatrix where, int v) {
+        checkLength(where.length);
+        for (int i = where.nextSetBit(0); i >= 0; i = where.nextSetBit(i + 1)) {
+            data[i] = v;
+        }
+        return this;
+    }
+
+    /** Get a copy of a row. */
+    public IntMatrix getRow(int r) {
+        IntMatrix result = new IntMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            result.data[c] = get(r, c);
+        }
+        return result;
+    }
+
+    /** Get a copy of a column. */
+    public IntMatrix getColumn(int c) {
+        IntMatrix result = new IntMatrix(rows, 1);
+        System.arraycopy(data, c * rows, result.data, 0, rows);
+        return result;
+    }
+
+    /** Test whether a matrix is scalar. */
+    public boolean isScalar() {
+        return length == 1;
+    }
+
+    /** Return the first element of the matrix. */
+    public int scalar() {
+        return get(0);
+    }
+
+    /** Checks whether the matrix is empty. */
+    public boolean isEmpty() {
+        return columns == 0 || rows == 0;
+    }
+
+    /** Checks whether the matrix is a vector. */
+    public boolean isVector() {
+        return columns == 1 || rows == 1;
+    }
+
+    /** Checks whether two matrices have the same size. */
+    public boolean sameSize(IntMatrix a) {
+        return rows == a.rows && columns == a.columns;
+    }
+
+    /** Throws SizeException unless two matrices have the same size. */
+    public void assertSameSize(IntMatrix a) {
+        if (!sameSize(a)) {
+            throw new SizeException("Matrices must have the same size.");
+        }
+    }
+
+    /** Throws SizeException unless matrices have the same length. */
+    public void assertSameLength(IntMatrix a) {
+        if (length != a.length) {
+            throw new SizeException("Matrices must have same length (is: " + length + " and " + a.length + ")");
+        }
+    }
+
+    /** Throws SizeException unless the matrix has the given length. */
+    public void checkLength(int l) {
+        if (length != l) {
+            throw new SizeException("Matrix does not have the necessary length (" + length + " != " + l + ").");
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Copying, reshaping and conversion
+     *
+     **************************************************************************/
+
+    /** Returns a duplicate of this matrix. */
+    public IntMatrix dup() {
+        IntMatrix out = new IntMatrix(rows, columns);
+        System.arraycopy(data, 0, out.data, 0, length);
+        return out;
+    }
+
+    /** Return transposed copy of this matrix. */
+    public IntMatrix transpose() {
+        IntMatrix result = new IntMatrix(columns, rows);
+        for (int c = 0; c < columns; c++) {
+            for (int r = 0; r < rows; r++) {
+                result.data[c + r * columns] = data[r + c * rows];
+            }
+        }
+        return result;
+    }
+
+    /** Reshape the matrix in-place. Number of elements must not change. */
+    public IntMatrix reshape(int newRows, int newColumns) {
+        if (length != newRows * newColumns) {
+            throw new IllegalArgumentException("Number of elements must not change.");
+        }
+        rows = newRows;
+        columns = newColumns;
+        return this;
+    }
+
+    /** Converts the matrix to a one-dimensional array. */
+    public int[] toArray() {
+        return Arrays.copyOf(data, length);
+    }
+
+    /** Convert to a DoubleMatrix. */
+    public DoubleMatrix toDoubleMatrix() {
+        DoubleMatrix result = new DoubleMatrix(rows, columns);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i];
+        }
+        return result;
+    }
+
+    /** Convert to a FloatMatrix. */
+    public FloatMatrix toFloatMatrix() {
+        FloatMatrix result = new FloatMatrix(rows, columns);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i];
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic
+     *
+     **************************************************************************/
+
+    /** Add by a matrix, storing the result in result. */
+    public IntMatrix addi(IntMatrix other, IntMatrix result) {
+        if (other.isScalar()) {
+            return addi(other.scalar(), result);
+        }
+        assertSameLength(other);
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] + other.data[i];
+        }
+        return result;
+    }
+
+    /** Add by a matrix (in-place). */
+    public IntMatrix addi(IntMatrix other) {
+        return addi(other, this);
+    }
+
+    /** Add by a matrix. */
+    public IntMatrix add(IntMatrix other) {
+        return addi(other, new IntMatrix(rows, columns));
+    }
+
+    /** Add by a scalar, storing the result in result. */
+    public IntMatrix addi(int v, IntMatrix result) {
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] + v;
+        }
+        return result;
+    }
+
+    /** Add by a scalar (in-place). */
+    public IntMatrix addi(int v) {
+        return addi(v, this);
+    }
+
+    /** Add by a scalar. */
+    public IntMatrix add(int v) {
+        return addi(v, new IntMatrix(rows, columns));
+    }
+
+    /** Subtract by a matrix, storing the result in result. */
+    public IntMatrix subi(IntMatrix other, IntMatrix result) {
+        if (other.isScalar()) {
+            return subi(other.scalar(), result);
+        }
+        assertSameLength(other);
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] - other.data[i];
+        }
+        return result;
+    }
+
+    /** Subtract by a matrix (in-place). */
+    public IntMatrix subi(IntMatrix other) {
+        return subi(other, this);
+    }
+
+    /** Subtract by a matrix. */
+    public IntMatrix sub(IntMatrix other) {
+        return subi(other, new IntMatrix(rows, columns));
+    }
+
+    /** Subtract by a scalar, storing the result in result. */
+    public IntMatrix subi(int v, IntMatrix result) {
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] - v;
+        }
+        return result;
+    }
+
+    /** Subtract by a scalar (in-place). */
+    public IntMatrix subi(int v) {
+        return subi(v, this);
+    }
+
+    /** Subtract by a scalar. */
+    public IntMatrix sub(int v) {
+        return subi(v, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise multiply by a matrix, storing the result in result. */
+    public IntMatrix muli(IntMatrix other, IntMatrix result) {
+        if (other.isScalar()) {
+            return muli(other.scalar(), result);
+        }
+        assertSameLength(other);
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] * other.data[i];
+        }
+        return result;
+    }
+
+    /** Elementwise multiply by a matrix (in-place). */
+    public IntMatrix muli(IntMatrix other) {
+        return muli(other, this);
+    }
+
+    /** Elementwise multiply by a matrix. */
+    public IntMatrix mul(IntMatrix other) {
+        return muli(other, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise multiply by a scalar, storing the result in result. */
+    public IntMatrix muli(int v, IntMatrix result) {
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] * v;
+        }
+        return result;
+    }
+
+    /** Elementwise multiply by a scalar (in-place). */
+    public IntMatrix muli(int v) {
+        return muli(v, this);
+    }
+
+    /** Elementwise multiply by a scalar. */
+    public IntMatrix mul(int v) {
+        return muli(v, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise divide by a matrix, storing the result in result. */
+    public IntMatrix divi(IntMatrix other, IntMatrix result) {
+        if (other.isScalar()) {
+            return divi(other.scalar(), result);
+        }
+        assertSameLength(other);
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] / other.data[i];
+        }
+        return result;
+    }
+
+    /** Elementwise divide by a matrix (in-place). */
+    public IntMatrix divi(IntMatrix other) {
+        return divi(other, this);
+    }
+
+    /** Elementwise divide by a matrix. */
+    public IntMatrix div(IntMatrix other) {
+        return divi(other, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise divide by a scalar, storing the result in result. */
+    public IntMatrix divi(int v, IntMatrix result) {
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] / v;
+        }
+        return result;
+    }
+
+    /** Elementwise divide by a scalar (in-place). */
+    public IntMatrix divi(int v) {
+        return divi(v, this);
+    }
+
+    /** Elementwise divide by a scalar. */
+    public IntMatrix div(int v) {
+        return divi(v, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise remainder by a matrix, storing the result in result. */
+    public IntMatrix remi(IntMatrix other, IntMatrix result) {
+        if (other.isScalar()) {
+            return remi(other.scalar(), result);
+        }
+        assertSameLength(other);
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] % other.data[i];
+        }
+        return result;
+    }
+
+    /** Elementwise remainder by a matrix (in-place). */
+    public IntMatrix remi(IntMatrix other) {
+        return remi(other, this);
+    }
+
+    /** Elementwise remainder by a matrix. */
+    public IntMatrix rem(IntMatrix other) {
+        return remi(other, new IntMatrix(rows, columns));
+    }
+
+    /** Elementwise remainder by a scalar, storing the result in result. */
+    public IntMatrix remi(int v, IntMatrix result) {
+        result.checkLength(length);
+        for (int i = 0; i < length; i++) {
+            result.data[i] = data[i] % v;
+        }
+        return result;
+    }
+
+    /** Elementwise remainder by a scalar (in-place). */
+    public IntMatrix remi(int v) {
+        return remi(v, this);
+    }
+
+    /** Elementwise remainder by a scalar. */
+    public IntMatrix rem(int v) {
+        return remi(v, new IntMatrix(rows, columns));
+    }
+
+    /** Negate each element (in-place). */
+    public IntMatrix negi() {
+        for (int i = 0; i < length; i++) {
+            data[i] = -data[i];
+        }
+        return this;
+    }
+
+    /** Negate each element. */
+    public IntMatrix neg() {
+        return dup().negi();
+    }
+
+    /** Absolute value of each element (in-place). */
+    public IntMatrix absi() {
+        for (int i = 0; i < length; i++) {
+            data[i] = Math.abs(data[i]);
+        }
+        return this;
+    }
+
+    /** Absolute value of each element. */
+    public IntMatrix abs() {
+        return dup().absi();
+    }
+
+    /**************************************************************************
+     *
+     * Comparisons
+     *
+     **************************************************************************/
+
+    /** Test for "less than", returning a bit-packed mask. */
+    public BooleanMatrix ltMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return ltMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] < other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "less than" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix ltMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] < value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "greater than", returning a bit-packed mask. */
+    public BooleanMatrix gtMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return gtMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] > other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "greater than" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix gtMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] > value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "less than or equal", returning a bit-packed mask. */
+    public BooleanMatrix leMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return leMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] <= other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "less than or equal" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix leMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] <= value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "greater than or equal", returning a bit-packed mask. */
+    public BooleanMatrix geMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return geMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] >= other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "greater than or equal" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix geMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] >= value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "equality", returning a bit-packed mask. */
+    public BooleanMatrix eqMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return eqMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] == other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "equality" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix eqMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] == value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "inequality", returning a bit-packed mask. */
+    public BooleanMatrix neMask(IntMatrix other) {
+        if (other.isScalar()) {
+            return neMask(other.scalar());
+        }
+        assertSameLength(other);
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] != other.data[i], i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /** Test for "inequality" against a scalar, returning a bit-packed mask. */
+    public BooleanMatrix neMask(int value) {
+        BooleanMatrix result = new BooleanMatrix(rows, columns);
+        for (int w = 0; w < result.words.length; w++) {
+            long word = 0L;
+            for (int i = w << 6, end = Math.min(i + 64, length); i < end; i++) {
+                word |= BooleanMatrix.bit(data[i] != value, i);
+            }
+            result.words[w] = word;
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Reductions
+     *
+     **************************************************************************/
+
+    /** Sum of all elements, computed in 64 bits. */
+    public long sum() {
+        long s = 0;
+        for (int i = 0; i < length; i++) {
+            s += data[i];
+        }
+        return s;
+    }
+
+    /** Mean of all elements. */
+    public double mean() {
+        return (double) sum() / length;
+    }
+
+    /** Minimum element (Integer.MAX_VALUE for an empty matrix). */
+    public int min() {
+        int v = Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            v = Math.min(v, data[i]);
+        }
+        return v;
+    }
+
+    /** Maximum element (Integer.MIN_VALUE for an empty matrix). */
+    public int max() {
+        int v = Integer.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            v = Math.max(v, data[i]);
+        }
+        return v;
+    }
+
+    /** Linear index of the first minimal element, or -1 for an empty matrix. */
+    public int argmin() {
+        if (isEmpty()) {
+            return -1;
+        }
+        int k = 0;
+        for (int i = 1; i < length; i++) {
+            if (data[i] < data[k]) {
+                k = i;
+            }
+        }
+        return k;
+    }
+
+    /** Linear index of the first maximal element, or -1 for an empty matrix. */
+    public int argmax() {
+        if (isEmpty()) {
+            return -1;
+        }
+        int k = 0;
+        for (int i = 1; i < length; i++) {
+            if (data[i] > data[k]) {
+                k = i;
+            }
+        }
+        return k;
+    }
+
+    /** Sums of the columns, as a row vector. */
+    public IntMatrix columnSums() {
+        IntMatrix result = new IntMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            int s = 0;
+            for (int r = 0, k = c * rows; r < rows; r++, k++) {
+                s += data[k];
+            }
+            result.data[c] = s;
+        }
+        return result;
+    }
+
+    /** Sums of the rows, as a column vector. */
+    public IntMatrix rowSums() {
+        IntMatrix result = new IntMatrix(rows, 1);
+        for (int c = 0; c < columns; c++) {
+            for (int r = 0, k = c * rows; r < rows; r++, k++) {
+                result.data[r] += data[k];
+            }
+        }
+        return result;
+    }
+
+    /** Minima of the columns, as a row vector. */
+    public IntMatrix columnMins() {
+        IntMatrix result = new IntMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            int v = Integer.MAX_VALUE;
+            for (int r = 0, k = c * rows; r < rows; r++, k++) {
+                v = Math.min(v, data[k]);
+            }
+            result.data[c] = v;
+        }
+        return result;
+    }
+
+    /** Maxima of the columns, as a row vector. */
+    public IntMatrix columnMaxs() {
+        IntMatrix result = new IntMatrix(1, columns);
+        for (int c = 0; c < columns; c++) {
+            int v = Integer.MIN_VALUE;
+            for (int r = 0, k = c * rows; r < rows; r++, k++) {
+                v = Math.max(v, data[k]);
+            }
+            result.data[c] = v;
+        }
+        return result;
+    }
+
+    /** Computes the cumulative sum, that is, the sum of all elements up to and including each element (in-place). */
+    public IntMatrix cumulativeSumi() {
+        int s = 0;
+        for (int i = 0; i < length; i++) {
+            s += data[i];
+            data[i] = s;
+        }
+        return this;
+    }
+
+    /** Computes the cumulative sum. */
+    public IntMatrix cumulativeSum() {
+        return dup().cumulativeSumi();
+    }
+
+    /**************************************************************************
+     *
+     * Sorting
+     *
+     **************************************************************************/
+
+    /** Sort elements in-place. */
+    public IntMatrix sorti() {
+        Arrays.sort(data, 0, length);
+        return this;
+    }
+
+    /** Sort elements. */
+    public IntMatrix sort() {
+        return dup().sorti();
+    }
+
+    /**
+     * Get the sorting permutation: the indices such that get(indices) is
+     * sorted. The sort is stable, so equal elements keep their order.
+     */
+    public int[] sortingPermutation() {
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        mergeSort(indices, indices.clone(), data, 0, length);
+        return indices;
+    }
+
+    /** Stable merge sort of idx[from, to) by key, using tmp (with the same content) as scratch space. */
+    private static void mergeSort(int[] idx, int[] tmp, int[] key, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(tmp, idx, key, from, mid);
+        mergeSort(tmp, idx, key, mid, to);
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || p < mid && key[tmp[p]] <= key[tmp[q]]) {
+                idx[i] = tmp[p++];
+            } else {
+                idx[i] = tmp[q++];
+            }
+        }
+    }
+
+    /**************************************************************************
+     *
+     * I/O
+     *
+     **************************************************************************/
+
+    /** Writes out this matrix to the given data stream. */
+    public void out(DataOutputStream dos) throws IOException {
+        dos.writeUTF("int");
+        dos.writeInt(columns);
+        dos.writeInt(rows);
+
+        dos.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            dos.writeInt(data[i]);
+        }
+    }
+
+    /** Reads in a matrix from the given data stream. Note that the old data of this matrix will be discarded. */
+    public void in(DataInputStream dis) throws IOException {
+        if (!dis.readUTF().equals("int")) {
+            throw new IllegalStateException("The matrix in the specified file is not of the correct type!");
+        }
+
+        this.columns = dis.readInt();
+        this.rows = dis.readInt();
+
+        final int MAX = dis.readInt();
+        length = MAX;
+        data = new int[MAX];
+        for (int i = 0; i < MAX; i++) {
+            data[i] = dis.readInt();
+        }
+    }
+
+    /** Saves this matrix to the specified file. */
+    public void save(String filename) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(filename, false));
+        try {
+            this.out(dos);
+        } finally {
+            dos.close();
+        }
+    }
+
+    /** Loads a matrix from a file into this matrix. Note that the old data of this matrix will be discarded. */
+    public void load(String filename) throws IOException {
+        DataInputStream dis = new DataInputStream(new FileInputStream(filename));
+        try {
+            this.in(dis);
+        } finally {
+            dis.close();
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof IntMatrix)) {
+            return false;
+        }
+        IntMatrix other = (IntMatrix) o;
+        return sameSize(other) && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + this.rows;
+        hash = 83 * hash + this.columns;
+        hash = 83 * hash + Arrays.hashCode(this.data);
+        return hash;
+    }
+
+    /** Generate string representation of the matrix. */
+    @Override
+    public String toString() {
+        StringWriter s = new StringWriter();
+        PrintWriter p = new PrintWriter(s);
+
+        p.print("[");
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                p.print(get(r, c));
+                if (c < columns - 1) {
+                    p.print(", ");
+                }
+            }
+            if (r < rows - 1) {
+                p.print("; ");
+            }
+        }
+        p.print("]");
+
+        return s.toString();
+    }
+}
@@ -40,7 +40,10 @@
  */
 package org.jblas;
 
+import org.jblas.exceptions.LapackArgumentException;
 import org.jblas.exceptions.LapackException;
+import org.jblas.util.Parallel;
+import org.jblas.util.Summation;
 
 /**
  * <p>Implementation of some Blas functions, mostly those which require linear runtime
@@ -153,20 +156,581 @@ public class JavaBlas {
             dz[c] = dx[c] + dy[c];       
     }
 
-    /** Compute scalar product between dx and dy. */
+    /** Compute scalar product between dx and dy, summed with the default {@link Summation} mode. */
     public static double rdot(int n, double[] dx, int dxIdx, int incx, double[] dy, int dyIdx, int incy) {
-        double s = 0.0;
-        if (incx == 1 && incy == 1 && dxIdx == 0 && dyIdx == 0) {
-            for (int i = 0; i < n; i++)
-                s += dx[i] * dy[i];
+        return Summation.dot(n, dx, dxIdx, incx, dy, dyIdx, incy);
+    }
+
+    /**
+     * Compute y &lt;- alpha * A * x + beta * y for a symmetric matrix A in
+     * packed storage (BLAS SPMV).
+     *
+     * The triangle given by uplo is stored column by column in ap.
+     */
+    public static void rspmv(char uplo, int n, double alpha, double[] ap, int apIdx, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy) {
+        boolean upper = isUpper("Java.rspmv", uplo);
+        if (beta != 1.0) {
+            for (int c = 0, yi = yIdx; c < n; c++, yi += incy)
+                y[yi] = beta == 0.0 ? 0.0 : beta * y[yi];
+        }
+        if (alpha == 0.0)
+            return;
+
+        int kk = apIdx;
+        if (upper) {
+            for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+                double temp1 = alpha * x[jx];
+                double temp2 = 0.0;
+                for (int k = kk, ix = xIdx, iy = yIdx; k < kk + j; k++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * ap[k];
+                    temp2 += ap[k] * x[ix];
+                }
+                y[jy] += temp1 * ap[kk + j] + alpha * temp2;
+                kk += j + 1;
+            }
+        } else {
+            for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+                double temp1 = alpha * x[jx];
+                double temp2 = 0.0;
+                y[jy] += temp1 * ap[kk];
+                for (int k = kk + 1, ix = jx + incx, iy = jy + incy; k < kk + n - j; k++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * ap[k];
+                    temp2 += ap[k] * x[ix];
+                }
+                y[jy] += alpha * temp2;
+                kk += n - j;
+            }
+        }
+    }
+
+    /**
+     * Compute x &lt;- op(A) * x for a triangular matrix A in packed storage
+     * (BLAS TPMV).
+     *
+     * trans is 'N' for A and 'T' for the transpose of A. If diag is 'U', the
+     * diagonal is assumed to be one and not referenced.
+     */
+    public static void rtpmv(char uplo, char trans, char diag, int n, double[] ap, int apIdx, double[] x, int xIdx, int incx) {
+        boolean upper = isUpper("Java.rtpmv", uplo);
+        boolean transposed = isTransposed("Java.rtpmv", trans);
+        boolean nounit = isNonUnit("Java.rtpmv", diag);
+        int last = packedLength(n) - 1;
+
+        if (!transposed) {
+            if (upper) {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += j + 1, j++, jx += incx) {
+                    double temp = x[jx];
+                    if (temp != 0.0) {
+                        for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                            x[ix] += temp * ap[k];
+                    }
+                    if (nounit)
+                        x[jx] *= ap[kk + j];
+                }
+            } else {
+                for (int j = n - 1, kk = apIdx + last, jx = xIdx + (n - 1) * incx; j >= 0; kk -= n - j, j--, jx -= incx) {
+                    // kk points to the last element of column j
+                    double temp = x[jx];
+                    if (temp != 0.0) {
+                        for (int k = kk, ix = xIdx + (n - 1) * incx; k > kk - (n - 1 - j); k--, ix -= incx)
+                            x[ix] += temp * ap[k];
+                    }
+                    if (nounit)
+                        x[jx] *= ap[kk - (n - 1 - j)];
+                }
+            }
+        } else {
+            if (upper) {
+                for (int j = n - 1, kk = apIdx + last - j, jx = xIdx + (n - 1) * incx; j >= 0; j--, kk -= j + 1, jx -= incx) {
+                    // kk points to the first element of column j
+                    double temp = x[jx];
+                    if (nounit)
+                        temp *= ap[kk + j];
+                    for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                        temp += ap[k] * x[ix];
+                    x[jx] = temp;
+                }
+            } else {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += n - j, j++, jx += incx) {
+                    double temp = x[jx];
+                    if (nounit)
+                        temp *= ap[kk];
+                    for (int k = kk + 1, ix = jx + incx; k < kk + n - j; k++, ix += incx)
+                        temp += ap[k] * x[ix];
+                    x[jx] = temp;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve op(A) * x = b for a triangular matrix A in packed storage
+     * (BLAS TPSV). On entry, x contains b, on exit the solution.
+     *
+     * trans is 'N' for A and 'T' for the transpose of A. If diag is 'U', the
+     * diagonal is assumed to be one and not referenced.
+     */
+    public static void rtpsv(char uplo, char trans, char diag, int n, double[] ap, int apIdx, double[] x, int xIdx, int incx) {
+        boolean upper = isUpper("Java.rtpsv", uplo);
+        boolean transposed = isTransposed("Java.rtpsv", trans);
+        boolean nounit = isNonUnit("Java.rtpsv", diag);
+        int last = packedLength(n) - 1;
+
+        if (!transposed) {
+            if (upper) {
+                for (int j = n - 1, kk = apIdx + last - j, jx = xIdx + (n - 1) * incx; j >= 0; j--, kk -= j + 1, jx -= incx) {
+                    if (nounit)
+                        x[jx] /= ap[kk + j];
+                    double temp = x[jx];
+                    if (temp != 0.0) {
+                        for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                            x[ix] -= temp * ap[k];
+                    }
+                }
+            } else {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += n - j, j++, jx += incx) {
+                    if (nounit)
+                        x[jx] /= ap[kk];
+                    double temp = x[jx];
+                    if (temp != 0.0) {
+                        for (int k = kk + 1, ix = jx + incx; k < kk + n - j; k++, ix += incx)
+                            x[ix] -= temp * ap[k];
+                    }
+                }
+            }
+        } else {
+            if (upper) {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += j + 1, j++, jx += incx) {
+                    double temp = x[jx];
+                    for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                        temp -= ap[k] * x[ix];
+                    if (nounit)
+                        temp /= ap[kk + j];
+                    x[jx] = temp;
+                }
+            } else {
+                for (int j = n - 1, kk = apIdx + last, jx = xIdx + (n - 1) * incx; j >= 0; kk -= n - j, j--, jx -= incx) {
+                    // kk points to the last element of column j
+                    double temp = x[jx];
+                    for (int k = kk, ix = xIdx + (n - 1) * incx; k > kk - (n - 1 - j); k--, ix -= incx)
+                        temp -= ap[k] * x[ix];
+                    if (nounit)
+                        temp /= ap[kk - (n - 1 - j)];
+                    x[jx] = temp;
+                }
+            }
         }
-        else {
-            for (int c = 0, xi = dxIdx, yi = dyIdx; c < n; c++, xi += incx, yi += incy) {
-                s += dx[xi] * dy[yi];
+    }
+
+    /**
+     * Compute the Cholesky factorization of a positive definite matrix in
+     * packed storage (LAPACK PPTRF).
+     *
+     * For uplo = 'U', A = U' * U, for uplo = 'L', A = L * L'. The factor
+     * overwrites ap. The update of the trailing matrix is run in parallel for
+     * the lower triangle.
+     *
+     * @return 0 on success, or j if the leading minor of order j is not
+     * positive definite.
+     */
+    public static int rpptrf(char uplo, int n, final double[] ap, int apIdx) {
+        if (isUpper("Java.rpptrf", uplo)) {
+            for (int j = 0, jj = apIdx; j < n; jj += j + 1, j++) {
+                // jj points to the first element of column j
+                if (j > 0)
+                    rtpsv('U', 'T', 'N', j, ap, apIdx, ap, jj, 1);
+                double ajj = ap[jj + j] - rdot(j, ap, jj, 1, ap, jj, 1);
+                if (ajj <= 0.0 || Double.isNaN(ajj)) {
+                    ap[jj + j] = ajj;
+                    return j + 1;
+                }
+                ap[jj + j] = (double) Math.sqrt(ajj);
             }
+        } else {
+            for (int j = 0, jj = apIdx; j < n; jj += n - j, j++) {
+                double ajj = ap[jj];
+                if (ajj <= 0.0 || Double.isNaN(ajj))
+                    return j + 1;
+                ajj = (double) Math.sqrt(ajj);
+                ap[jj] = ajj;
+
+                final int m = n - j - 1;
+                final int xi = jj + 1;
+                final int start = jj + n - j;
+                for (int i = xi; i < xi + m; i++)
+                    ap[i] /= ajj;
+                // rank one update of the trailing matrix, one column per index
+                Parallel.forRange(0, m, PACKED_GRAIN, new Parallel.Loop() {
+                    @Override
+                    public void run(int from, int to) {
+                        for (int c = from; c < to; c++) {
+                            int k = start + (int) ((long) c * m - (long) c * (c - 1) / 2);
+                            double xc = ap[xi + c];
+                            if (xc != 0.0) {
+                                for (int i = c; i < m; i++, k++)
+                                    ap[k] -= ap[xi + i] * xc;
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compute C &lt;- alpha * op(A) * op(B) + beta * C for an m x k matrix op(A)
+     * and a k x n matrix op(B) (BLAS GEMM).
+     */
+    public static void rgemm(char transa, char transb, int m, int n, int k, double alpha, double[] a, int aIdx, int lda, double[] b, int bIdx, int ldb, double beta, double[] c, int cIdx, int ldc) {
+        boolean ta = isTransposed("Java.rgemm", transa);
+        boolean tb = isTransposed("Java.rgemm", transb);
+        int ai = ta ? lda : 1;
+        int al = ta ? 1 : lda;
+        for (int j = 0; j < n; j++) {
+            int cj = cIdx + j * ldc;
+            if (beta != 1.0) {
+                for (int i = 0; i < m; i++)
+                    c[cj + i] = beta == 0.0 ? 0.0 : beta * c[cj + i];
+            }
+            if (alpha == 0.0)
+                continue;
+            for (int l = 0; l < k; l++) {
+                double temp = alpha * b[tb ? bIdx + j + l * ldb : bIdx + l + j * ldb];
+                int ak = aIdx + l * al;
+                if (ai == 1) {
+                    for (int i = 0; i < m; i++)
+                        c[cj + i] += temp * a[ak + i];
+                } else {
+                    for (int i = 0; i < m; i++)
+                        c[cj + i] += temp * a[ak + i * ai];
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute y &lt;- alpha * op(A) * x + beta * y for an m x n band matrix A with
+     * kl sub- and ku super-diagonals (BLAS GBMV).
+     *
+     * The entry (i, j) of A is stored at a[aIdx + ku + i - j + j * lda].
+     */
+    public static void rgbmv(char trans, int m, int n, int kl, int ku, double alpha, double[] a, int aIdx, int lda, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy) {
+        boolean transposed = isTransposed("Java.rgbmv", trans);
+        int leny = transposed ? n : m;
+        if (beta != 1.0) {
+            for (int c = 0, yi = yIdx; c < leny; c++, yi += incy)
+                y[yi] = beta == 0.0 ? 0.0 : beta * y[yi];
+        }
+        if (alpha == 0.0)
+            return;
+
+        for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+            int k = aIdx + ku - j + j * lda;
+            int from = Math.max(0, j - ku);
+            int to = Math.min(m, j + kl + 1);
+            if (!transposed) {
+                double temp = alpha * x[jx];
+                for (int i = from, iy = yIdx + from * incy; i < to; i++, iy += incy)
+                    y[iy] += temp * a[k + i];
+            } else {
+                double temp = 0.0;
+                for (int i = from, ix = xIdx + from * incx; i < to; i++, ix += incx)
+                    temp += a[k + i] * x[ix];
+                y[jy] += alpha * temp;
+            }
+        }
+    }
+
+    /**
+     * Compute y &lt;- alpha * A * x + beta * y for a symmetric n x n band matrix A
+     * with k super-diagonals (BLAS SBMV).
+     *
+     * For uplo = 'U', the entry (i, j) with i &lt;= j is stored at
+     * a[aIdx + k + i - j + j * lda], for uplo = 'L', the entry (i, j) with i &gt;= j
+     * at a[aIdx + i - j + j * lda].
+     */
+    public static void rsbmv(char uplo, int n, int k, double alpha, double[] a, int aIdx, int lda, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy) {
+        boolean upper = isUpper("Java.rsbmv", uplo);
+        if (beta != 1.0) {
+            for (int c = 0, yi = yIdx; c < n; c++, yi += incy)
+                y[yi] = beta == 0.0 ? 0.0 : beta * y[yi];
+        }
+        if (alpha == 0.0)
+            return;
+
+        for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+            double temp1 = alpha * x[jx];
+            double temp2 = 0.0;
+            if (upper) {
+                int l = aIdx + k - j + j * lda;
+                int from = Math.max(0, j - k);
+                for (int i = from, ix = xIdx + from * incx, iy = yIdx + from * incy; i < j; i++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * a[l + i];
+                    temp2 += a[l + i] * x[ix];
+                }
+                y[jy] += temp1 * a[l + j] + alpha * temp2;
+            } else {
+                int l = aIdx - j + j * lda;
+                int to = Math.min(n, j + k + 1);
+                y[jy] += temp1 * a[l + j];
+                for (int i = j + 1, ix = jx + incx, iy = jy + incy; i < to; i++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * a[l + i];
+                    temp2 += a[l + i] * x[ix];
+                }
+                y[jy] += alpha * temp2;
+            }
+        }
+    }
+
+    /**
+     * Compute the LU factorization of an m x n band matrix with partial
+     * pivoting (LAPACK GBTRF, unblocked).
+     *
+     * ab has ldab &gt;= 2*kl + ku + 1 rows and contains the entry (i, j) of A at
+     * row kl + ku + i - j of column j. The first kl rows are used for fill-in.
+     * As in LAPACK, the pivot indices in ipiv are one-based.
+     *
+     * @return 0 on success, or j if U(j, j) is exactly zero.
+     */
+    public static int rgbtrf(int m, int n, int kl, int ku, double[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx) {
+        int kv = ku + kl;
+        int info = 0;
+
+        // zero the fill-in elements in columns ku+1 to kv-1
+        for (int j = ku + 1; j < Math.min(kv, n); j++)
+            for (int i = kv - j; i < kl; i++)
+                ab[abIdx + i + j * ldab] = 0.0;
+
+        int ju = 0;
+        for (int j = 0; j < Math.min(m, n); j++) {
+            int col = abIdx + j * ldab;
+            if (j + kv < n) {
+                for (int i = 0; i < kl; i++)
+                    ab[col + kv * ldab + i] = 0.0;
+            }
+
+            // find the pivot among the km sub-diagonal entries
+            int km = Math.min(kl, m - 1 - j);
+            int jp = 0;
+            double max = Math.abs(ab[col + kv]);
+            for (int p = 1; p <= km; p++) {
+                if (Math.abs(ab[col + kv + p]) > max) {
+                    max = Math.abs(ab[col + kv + p]);
+                    jp = p;
+                }
+            }
+            ipiv[ipivIdx + j] = jp + j + 1;
+
+            if (ab[col + kv + jp] != 0.0) {
+                ju = Math.max(ju, Math.min(j + ku + jp, n - 1));
+                if (jp != 0)
+                    rswap(ju - j + 1, ab, col + kv + jp, ldab - 1, ab, col + kv, ldab - 1);
+                if (km > 0) {
+                    double r = 1.0 / ab[col + kv];
+                    for (int i = col + kv + 1; i <= col + kv + km; i++)
+                        ab[i] *= r;
+                    // rank one update of the trailing band
+                    for (int c = 1, yi = col + kv - 1 + ldab, ai = col + kv + ldab; c <= ju - j; c++, yi += ldab - 1, ai += ldab - 1) {
+                        double yc = ab[yi];
+                        if (yc != 0.0) {
+                            for (int i = 0; i < km; i++)
+                                ab[ai + i] -= ab[col + kv + 1 + i] * yc;
+                        }
+                    }
+                }
+            } else if (info == 0) {
+                info = j + 1;
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Solve op(A) * X = B with the LU factorization of a band matrix computed
+     * by {@link #rgbtrf} (LAPACK GBTRS). The solution overwrites B.
+     */
+    public static void rgbtrs(char trans, int n, int kl, int ku, int nrhs, double[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx, double[] b, int bIdx, int ldb) {
+        boolean transposed = isTransposed("Java.rgbtrs", trans);
+        int kd = ku + kl;
+        int k = kl + ku;
+
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            if (!transposed) {
+                // solve L * x = b
+                for (int j = 0; j < n - 1; j++) {
+                    int lm = Math.min(kl, n - 1 - j);
+                    int l = ipiv[ipivIdx + j] - 1;
+                    if (l != j) {
+                        double t = b[bc + l];
+                        b[bc + l] = b[bc + j];
+                        b[bc + j] = t;
+                    }
+                    double bj = b[bc + j];
+                    int col = abIdx + kd + j * ldab;
+                    for (int r = 1; r <= lm; r++)
+                        b[bc + j + r] -= ab[col + r] * bj;
+                }
+                // solve U * x = b
+                for (int j = n - 1; j >= 0; j--) {
+                    int col = abIdx + kd - j + j * ldab;
+                    b[bc + j] /= ab[col + j];
+                    double temp = b[bc + j];
+                    for (int i = Math.max(0, j - k); i < j; i++)
+                        b[bc + i] -= temp * ab[col + i];
+                }
+            } else {
+                // solve U' * x = b
+                for (int j = 0; j < n; j++) {
+                    int col = abIdx + kd - j + j * ldab;
+                    double temp = b[bc + j];
+                    for (int i = Math.max(0, j - k); i < j; i++)
+                        temp -= ab[col + i] * b[bc + i];
+                    b[bc + j] = temp / ab[col + j];
+                }
+                // solve L' * x = b
+                for (int j = n - 2; j >= 0; j--) {
+                    int lm = Math.min(kl, n - 1 - j);
+                    int col = abIdx + kd + j * ldab;
+                    double temp = b[bc + j];
+                    for (int r = 1; r <= lm; r++)
+                        temp -= ab[col + r] * b[bc + j + r];
+                    b[bc + j] = temp;
+                    int l = ipiv[ipivIdx + j] - 1;
+                    if (l != j) {
+                        double t = b[bc + l];
+                        b[bc + l] = b[bc + j];
+                        b[bc + j] = t;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve A * X = B for a general tridiagonal matrix A by Gaussian elimination
+     * with partial pivoting (LAPACK GTSV).
+     *
+     * dl, d and du contain the n-1 sub-diagonal, n diagonal and n-1 super-diagonal
+     * entries and are overwritten by the factorization. The solution overwrites B.
+     *
+     * @return 0 on success, or i if U(i, i) is exactly zero.
+     */
+    public static int rgtsv(int n, int nrhs, double[] dl, int dlIdx, double[] d, int dIdx, double[] du, int duIdx, double[] b, int bIdx, int ldb) {
+        for (int i = 0; i < n - 1; i++) {
+            int il = dlIdx + i, id = dIdx + i, iu = duIdx + i;
+            if (Math.abs(d[id]) >= Math.abs(dl[il])) {
+                // no row interchange required
+                if (d[id] == 0.0)
+                    return i + 1;
+                double fact = dl[il] / d[id];
+                d[id + 1] -= fact * du[iu];
+                for (int c = 0, bi = bIdx + i; c < nrhs; c++, bi += ldb)
+                    b[bi + 1] -= fact * b[bi];
+                dl[il] = 0.0;
+            } else {
+                // interchange rows i and i+1
+                double fact = d[id] / dl[il];
+                d[id] = dl[il];
+                double temp = d[id + 1];
+                d[id + 1] = du[iu] - fact * temp;
+                if (i < n - 2) {
+                    dl[il] = du[iu + 1];
+                    du[iu + 1] = -fact * dl[il];
+                }
+                du[iu] = temp;
+                for (int c = 0, bi = bIdx + i; c < nrhs; c++, bi += ldb) {
+                    temp = b[bi];
+                    b[bi] = b[bi + 1];
+                    b[bi + 1] = temp - fact * b[bi + 1];
+                }
+            }
+        }
+        if (n > 0 && d[dIdx + n - 1] == 0.0)
+            return n;
+
+        // back substitution with U, which has two super-diagonals in du and dl
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            b[bc + n - 1] /= d[dIdx + n - 1];
+            if (n > 1)
+                b[bc + n - 2] = (b[bc + n - 2] - du[duIdx + n - 2] * b[bc + n - 1]) / d[dIdx + n - 2];
+            for (int i = n - 3; i >= 0; i--)
+                b[bc + i] = (b[bc + i] - du[duIdx + i] * b[bc + i + 1] - dl[dlIdx + i] * b[bc + i + 2]) / d[dIdx + i];
+        }
+        return 0;
+    }
+
+    /**
+     * Solve A * X = B for a symmetric positive definite tridiagonal matrix A
+     * using the factorization A = L * D * L' (LAPACK PTSV).
+     *
+     * d and e contain the n diagonal and n-1 off-diagonal entries and are
+     * overwritten by D and the sub-diagonal of L. The solution overwrites B.
+     *
+     * @return 0 on success, or i if the leading minor of order i is not
+     * positive definite.
+     */
+    public static int rptsv(int n, int nrhs, double[] d, int dIdx, double[] e, int eIdx, double[] b, int bIdx, int ldb) {
+        if (n == 0)
+            return 0;
+        for (int i = 0; i < n; i++) {
+            if (d[dIdx + i] <= 0.0 || Double.isNaN(d[dIdx + i]))
+                return i + 1;
+            if (i < n - 1) {
+                double ei = e[eIdx + i];
+                e[eIdx + i] = ei / d[dIdx + i];
+                d[dIdx + i + 1] -= e[eIdx + i] * ei;
+            }
+        }
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            for (int i = 1; i < n; i++)
+                b[bc + i] -= b[bc + i - 1] * e[eIdx + i - 1];
+            b[bc + n - 1] /= d[dIdx + n - 1];
+            for (int i = n - 2; i >= 0; i--)
+                b[bc + i] = b[bc + i] / d[dIdx + i] - b[bc + i + 1] * e[eIdx + i];
+        }
+        return 0;
+    }
+//STOP
+
+    private static final int PACKED_GRAIN = 128;
+
+    /** Number of elements of a packed triangular n x n matrix. */
+    public static int packedLength(int n) {
+        long length = (long) n * (n + 1) / 2;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Packed matrix of size " + n + " does not fit into an array.");
+        }
+        return (int) length;
+    }
+
+    private static boolean isUpper(String name, char uplo) {
+        switch (uplo) {
+            case 'U': case 'u': return true;
+            case 'L': case 'l': return false;
+            default: throw new LapackArgumentException(name, 1);
         }
-        return s;
     }
+
+    private static boolean isTransposed(String name, char trans) {
+        switch (trans) {
+            case 'N': case 'n': return false;
+            case 'T': case 't': case 'C': case 'c': return true;
+            default: throw new LapackArgumentException(name, 2);
+        }
+    }
+
+    private static boolean isNonUnit(String name, char diag) {
+        switch (diag) {
+            case 'N': case 'n': return true;
+            case 'U': case 'u': return false;
+            default: throw new LapackArgumentException(name, 3);
+        }
+    }
+//START
 //BEGIN
   // The code below has been automatically generated.
   // DO NOT EDIT!
@@ -268,19 +832,543 @@ public class JavaBlas {
             dz[c] = dx[c] + dy[c];       
     }
 
-    /** Compute scalar product between dx and dy. */
+    /** Compute scalar product between dx and dy, summed with the default {@link Summation} mode. */
     public static float rdot(int n, float[] dx, int dxIdx, int incx, float[] dy, int dyIdx, int incy) {
-        float s = 0.0f;
-        if (incx == 1 && incy == 1 && dxIdx == 0 && dyIdx == 0) {
-            for (int i = 0; i < n; i++)
-                s += dx[i] * dy[i];
+        return Summation.dot(n, dx, dxIdx, incx, dy, dyIdx, incy);
+    }
+
+    /**
+     * Compute y &lt;- alpha * A * x + beta * y for a symmetric matrix A in
+     * packed storage (BLAS SPMV).
+     *
+     * The triangle given by uplo is stored column by column in ap.
+     */
+    public static void rspmv(char uplo, int n, float alpha, float[] ap, int apIdx, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy) {
+        boolean upper = isUpper("Java.rspmv", uplo);
+        if (beta != 1.0f) {
+            for (int c = 0, yi = yIdx; c < n; c++, yi += incy)
+                y[yi] = beta == 0.0f ? 0.0f : beta * y[yi];
+        }
+        if (alpha == 0.0f)
+            return;
+
+        int kk = apIdx;
+        if (upper) {
+            for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+                float temp1 = alpha * x[jx];
+                float temp2 = 0.0f;
+                for (int k = kk, ix = xIdx, iy = yIdx; k < kk + j; k++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * ap[k];
+                    temp2 += ap[k] * x[ix];
+                }
+                y[jy] += temp1 * ap[kk + j] + alpha * temp2;
+                kk += j + 1;
+            }
+        } else {
+            for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+                float temp1 = alpha * x[jx];
+                float temp2 = 0.0f;
+                y[jy] += temp1 * ap[kk];
+                for (int k = kk + 1, ix = jx + incx, iy = jy + incy; k < kk + n - j; k++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * ap[k];
+                    temp2 += ap[k] * x[ix];
+                }
+                y[jy] += alpha * temp2;
+                kk += n - j;
+            }
+        }
+    }
+
+    /**
+     * Compute x &lt;- op(A) * x for a triangular matrix A in packed storage
+     * (BLAS TPMV).
+     *
+     * trans is 'N' for A and 'T' for the transpose of A. If diag is 'U', the
+     * diagonal is assumed to be one and not referenced.
+     */
+    public static void rtpmv(char uplo, char trans, char diag, int n, float[] ap, int apIdx, float[] x, int xIdx, int incx) {
+        boolean upper = isUpper("Java.rtpmv", uplo);
+        boolean transposed = isTransposed("Java.rtpmv", trans);
+        boolean nounit = isNonUnit("Java.rtpmv", diag);
+        int last = packedLength(n) - 1;
+
+        if (!transposed) {
+            if (upper) {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += j + 1, j++, jx += incx) {
+                    float temp = x[jx];
+                    if (temp != 0.0f) {
+                        for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                            x[ix] += temp * ap[k];
+                    }
+                    if (nounit)
+                        x[jx] *= ap[kk + j];
+                }
+            } else {
+                for (int j = n - 1, kk = apIdx + last, jx = xIdx + (n - 1) * incx; j >= 0; kk -= n - j, j--, jx -= incx) {
+                    // kk points to the last element of column j
+                    float temp = x[jx];
+                    if (temp != 0.0f) {
+                        for (int k = kk, ix = xIdx + (n - 1) * incx; k > kk - (n - 1 - j); k--, ix -= incx)
+                            x[ix] += temp * ap[k];
+                    }
+                    if (nounit)
+                        x[jx] *= ap[kk - (n - 1 - j)];
+                }
+            }
+        } else {
+            if (upper) {
+                for (int j = n - 1, kk = apIdx + last - j, jx = xIdx + (n - 1) * incx; j >= 0; j--, kk -= j + 1, jx -= incx) {
+                    // kk points to the first element of column j
+                    float temp = x[jx];
+                    if (nounit)
+                        temp *= ap[kk + j];
+                    for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                        temp += ap[k] * x[ix];
+                    x[jx] = temp;
+                }
+            } else {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += n - j, j++, jx += incx) {
+                    float temp = x[jx];
+                    if (nounit)
+                        temp *= ap[kk];
+                    for (int k = kk + 1, ix = jx + incx; k < kk + n - j; k++, ix += incx)
+                        temp += ap[k] * x[ix];
+                    x[jx] = temp;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve op(A) * x = b for a triangular matrix A in packed storage
+     * (BLAS TPSV). On entry, x contains b, on exit the solution.
+     *
+     * trans is 'N' for A and 'T' for the transpose of A. If diag is 'U', the
+     * diagonal is assumed to be one and not referenced.
+     */
+    public static void rtpsv(char uplo, char trans, char diag, int n, float[] ap, int apIdx, float[] x, int xIdx, int incx) {
+        boolean upper = isUpper("Java.rtpsv", uplo);
+        boolean transposed = isTransposed("Java.rtpsv", trans);
+        boolean nounit = isNonUnit("Java.rtpsv", diag);
+        int last = packedLength(n) - 1;
+
+        if (!transposed) {
+            if (upper) {
+                for (int j = n - 1, kk = apIdx + last - j, jx = xIdx + (n - 1) * incx; j >= 0; j--, kk -= j + 1, jx -= incx) {
+                    if (nounit)
+                        x[jx] /= ap[kk + j];
+                    float temp = x[jx];
+                    if (temp != 0.0f) {
+                        for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                            x[ix] -= temp * ap[k];
+                    }
+                }
+            } else {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += n - j, j++, jx += incx) {
+                    if (nounit)
+                        x[jx] /= ap[kk];
+                    float temp = x[jx];
+                    if (temp != 0.0f) {
+                        for (int k = kk + 1, ix = jx + incx; k < kk + n - j; k++, ix += incx)
+                            x[ix] -= temp * ap[k];
+                    }
+                }
+            }
+        } else {
+            if (upper) {
+                for (int j = 0, kk = apIdx, jx = xIdx; j < n; kk += j + 1, j++, jx += incx) {
+                    float temp = x[jx];
+                    for (int k = kk, ix = xIdx; k < kk + j; k++, ix += incx)
+                        temp -= ap[k] * x[ix];
+                    if (nounit)
+                        temp /= ap[kk + j];
+                    x[jx] = temp;
+                }
+            } else {
+                for (int j = n - 1, kk = apIdx + last, jx = xIdx + (n - 1) * incx; j >= 0; kk -= n - j, j--, jx -= incx) {
+                    // kk points to the last element of column j
+                    float temp = x[jx];
+                    for (int k = kk, ix = xIdx + (n - 1) * incx; k > kk - (n - 1 - j); k--, ix -= incx)
+                        temp -= ap[k] * x[ix];
+                    if (nounit)
+                        temp /= ap[kk - (n - 1 - j)];
+                    x[jx] = temp;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the Cholesky factorization of a positive definite matrix in
+     * packed storage (LAPACK PPTRF).
+     *
+     * For uplo = 'U', A = U' * U, for uplo = 'L', A = L * L'. The factor
+     * overwrites ap. The update of the trailing matrix is run in parallel for
+     * the lower triangle.
+     *
+     * @return 0 on success, or j if the leading minor of order j is not
+     * positive definite.
+     */
+    public static int rpptrf(char uplo, int n, final float[] ap, int apIdx) {
+        if (isUpper("Java.rpptrf", uplo)) {
+            for (int j = 0, jj = apIdx; j < n; jj += j + 1, j++) {
+                // jj points to the first element of column j
+                if (j > 0)
+                    rtpsv('U', 'T', 'N', j, ap, apIdx, ap, jj, 1);
+                float ajj = ap[jj + j] - rdot(j, ap, jj, 1, ap, jj, 1);
+                if (ajj <= 0.0f || Double.isNaN(ajj)) {
+                    ap[jj + j] = ajj;
+                    return j + 1;
+                }
+                ap[jj + j] = (float) Math.sqrt(ajj);
+            }
+        } else {
+            for (int j = 0, jj = apIdx; j < n; jj += n - j, j++) {
+                float ajj = ap[jj];
+                if (ajj <= 0.0f || Double.isNaN(ajj))
+                    return j + 1;
+                ajj = (float) Math.sqrt(ajj);
+                ap[jj] = ajj;
+
+                final int m = n - j - 1;
+                final int xi = jj + 1;
+                final int start = jj + n - j;
+                for (int i = xi; i < xi + m; i++)
+                    ap[i] /= ajj;
+                // rank one update of the trailing matrix, one column per index
+                Parallel.forRange(0, m, PACKED_GRAIN, new Parallel.Loop() {
+                    @Override
+                    public void run(int from, int to) {
+                        for (int c = from; c < to; c++) {
+                            int k = start + (int) ((long) c * m - (long) c * (c - 1) / 2);
+                            float xc = ap[xi + c];
+                            if (xc != 0.0f) {
+                                for (int i = c; i < m; i++, k++)
+                                    ap[k] -= ap[xi + i] * xc;
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compute C &lt;- alpha * op(A) * op(B) + beta * C for an m x k matrix op(A)
+     * and a k x n matrix op(B) (BLAS GEMM).
+     */
+    public static void rgemm(char transa, char transb, int m, int n, int k, float alpha, float[] a, int aIdx, int lda, float[] b, int bIdx, int ldb, float beta, float[] c, int cIdx, int ldc) {
+        boolean ta = isTransposed("Java.rgemm", transa);
+        boolean tb = isTransposed("Java.rgemm", transb);
+        int ai = ta ? lda : 1;
+        int al = ta ? 1 : lda;
+        for (int j = 0; j < n; j++) {
+            int cj = cIdx + j * ldc;
+            if (beta != 1.0f) {
+                for (int i = 0; i < m; i++)
+                    c[cj + i] = beta == 0.0f ? 0.0f : beta * c[cj + i];
+            }
+            if (alpha == 0.0f)
+                continue;
+            for (int l = 0; l < k; l++) {
+                float temp = alpha * b[tb ? bIdx + j + l * ldb : bIdx + l + j * ldb];
+                int ak = aIdx + l * al;
+                if (ai == 1) {
+                    for (int i = 0; i < m; i++)
+                        c[cj + i] += temp * a[ak + i];
+                } else {
+                    for (int i = 0; i < m; i++)
+                        c[cj + i] += temp * a[ak + i * ai];
+                }
+            }
         }
-        else {
-            for (int c = 0, xi = dxIdx, yi = dyIdx; c < n; c++, xi += incx, yi += incy) {
-                s += dx[xi] * dy[yi];
+    }
+
+    /**
+     * Compute y &lt;- alpha * op(A) * x + beta * y for an m x n band matrix A with
+     * kl sub- and ku super-diagonals (BLAS GBMV).
+     *
+     * The entry (i, j) of A is stored at a[aIdx + ku + i - j + j * lda].
+     */
+    public static void rgbmv(char trans, int m, int n, int kl, int ku, float alpha, float[] a, int aIdx, int lda, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy) {
+        boolean transposed = isTransposed("Java.rgbmv", trans);
+        int leny = transposed ? n : m;
+        if (beta != 1.0f) {
+            for (int c = 0, yi = yIdx; c < leny; c++, yi += incy)
+                y[yi] = beta == 0.0f ? 0.0f : beta * y[yi];
+        }
+        if (alpha == 0.0f)
+            return;
+
+        for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+            int k = aIdx + ku - j + j * lda;
+            int from = Math.max(0, j - ku);
+            int to = Math.min(m, j + kl + 1);
+            if (!transposed) {
+                float temp = alpha * x[jx];
+                for (int i = from, iy = yIdx + from * incy; i < to; i++, iy += incy)
+                    y[iy] += temp * a[k + i];
+            } else {
+                float temp = 0.0f;
+                for (int i = from, ix = xIdx + from * incx; i < to; i++, ix += incx)
+                    temp += a[k + i] * x[ix];
+                y[jy] += alpha * temp;
             }
         }
-        return s;
+    }
+
+    /**
+     * Compute y &lt;- alpha * A * x + beta * y for a symmetric n x n band matrix A
+     * with k super-diagonals (BLAS SBMV).
+     *
+     * For uplo = 'U', the entry (i, j) with i &lt;= j is stored at
+     * a[aIdx + k + i - j + j * lda], for uplo = 'L', the entry (i, j) with i &gt;= j
+     * at a[aIdx + i - j + j * lda].
+     */
+    public static void rsbmv(char uplo, int n, int k, float alpha, float[] a, int aIdx, int lda, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy) {
+        boolean upper = isUpper("Java.rsbmv", uplo);
+        if (beta != 1.0f) {
+            for (int c = 0, yi = yIdx; c < n; c++, yi += incy)
+                y[yi] = beta == 0.0f ? 0.0f : beta * y[yi];
+        }
+        if (alpha == 0.0f)
+            return;
+
+        for (int j = 0, jx = xIdx, jy = yIdx; j < n; j++, jx += incx, jy += incy) {
+            float temp1 = alpha * x[jx];
+            float temp2 = 0.0f;
+            if (upper) {
+                int l = aIdx + k - j + j * lda;
+                int from = Math.max(0, j - k);
+                for (int i = from, ix = xIdx + from * incx, iy = yIdx + from * incy; i < j; i++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * a[l + i];
+                    temp2 += a[l + i] * x[ix];
+                }
+                y[jy] += temp1 * a[l + j] + alpha * temp2;
+            } else {
+                int l = aIdx - j + j * lda;
+                int to = Math.min(n, j + k + 1);
+                y[jy] += temp1 * a[l + j];
+                for (int i = j + 1, ix = jx + incx, iy = jy + incy; i < to; i++, ix += incx, iy += incy) {
+                    y[iy] += temp1 * a[l + i];
+                    temp2 += a[l + i] * x[ix];
+                }
+                y[jy] += alpha * temp2;
+            }
+        }
+    }
+
+    /**
+     * Compute the LU factorization of an m x n band matrix with partial
+     * pivoting (LAPACK GBTRF, unblocked).
+     *
+     * ab has ldab &gt;= 2*kl + ku + 1 rows and contains the entry (i, j) of A at
+     * row kl + ku + i - j of column j. The first kl rows are used for fill-in.
+     * As in LAPACK, the pivot indices in ipiv are one-based.
+     *
+     * @return 0 on success, or j if U(j, j) is exactly zero.
+     */
+    public static int rgbtrf(int m, int n, int kl, int ku, float[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx) {
+        int kv = ku + kl;
+        int info = 0;
+
+        // zero the fill-in elements in columns ku+1 to kv-1
+        for (int j = ku + 1; j < Math.min(kv, n); j++)
+            for (int i = kv - j; i < kl; i++)
+                ab[abIdx + i + j * ldab] = 0.0f;
+
+        int ju = 0;
+        for (int j = 0; j < Math.min(m, n); j++) {
+            int col = abIdx + j * ldab;
+            if (j + kv < n) {
+                for (int i = 0; i < kl; i++)
+                    ab[col + kv * ldab + i] = 0.0f;
+            }
+
+            // find the pivot among the km sub-diagonal entries
+            int km = Math.min(kl, m - 1 - j);
+            int jp = 0;
+            float max = Math.abs(ab[col + kv]);
+            for (int p = 1; p <= km; p++) {
+                if (Math.abs(ab[col + kv + p]) > max) {
+                    max = Math.abs(ab[col + kv + p]);
+                    jp = p;
+                }
+            }
+            ipiv[ipivIdx + j] = jp + j + 1;
+
+            if (ab[col + kv + jp] != 0.0f) {
+                ju = Math.max(ju, Math.min(j + ku + jp, n - 1));
+                if (jp != 0)
+                    rswap(ju - j + 1, ab, col + kv + jp, ldab - 1, ab, col + kv, ldab - 1);
+                if (km > 0) {
+                    float r = 1.0f / ab[col + kv];
+                    for (int i = col + kv + 1; i <= col + kv + km; i++)
+                        ab[i] *= r;
+                    // rank one update of the trailing band
+                    for (int c = 1, yi = col + kv - 1 + ldab, ai = col + kv + ldab; c <= ju - j; c++, yi += ldab - 1, ai += ldab - 1) {
+                        float yc = ab[yi];
+                        if (yc != 0.0f) {
+                            for (int i = 0; i < km; i++)
+                                ab[ai + i] -= ab[col + kv + 1 + i] * yc;
+                        }
+                    }
+                }
+            } else if (info == 0) {
+                info = j + 1;
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Solve op(A) * X = B with the LU factorization of a band matrix computed
+     * by {@link #rgbtrf} (LAPACK GBTRS). The solution overwrites B.
+     */
+    public static void rgbtrs(char trans, int n, int kl, int ku, int nrhs, float[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx, float[] b, int bIdx, int ldb) {
+        boolean transposed = isTransposed("Java.rgbtrs", trans);
+        int kd = ku + kl;
+        int k = kl + ku;
+
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            if (!transposed) {
+                // solve L * x = b
+                for (int j = 0; j < n - 1; j++) {
+                    int lm = Math.min(kl, n - 1 - j);
+                    int l = ipiv[ipivIdx + j] - 1;
+                    if (l != j) {
+                        float t = b[bc + l];
+                        b[bc + l] = b[bc + j];
+                        b[bc + j] = t;
+                    }
+                    float bj = b[bc + j];
+                    int col = abIdx + kd + j * ldab;
+                    for (int r = 1; r <= lm; r++)
+                        b[bc + j + r] -= ab[col + r] * bj;
+                }
+                // solve U * x = b
+                for (int j = n - 1; j >= 0; j--) {
+                    int col = abIdx + kd - j + j * ldab;
+                    b[bc + j] /= ab[col + j];
+                    float temp = b[bc + j];
+                    for (int i = Math.max(0, j - k); i < j; i++)
+                        b[bc + i] -= temp * ab[col + i];
+                }
+            } else {
+                // solve U' * x = b
+                for (int j = 0; j < n; j++) {
+                    int col = abIdx + kd - j + j * ldab;
+                    float temp = b[bc + j];
+                    for (int i = Math.max(0, j - k); i < j; i++)
+                        temp -= ab[col + i] * b[bc + i];
+                    b[bc + j] = temp / ab[col + j];
+                }
+                // solve L' * x = b
+                for (int j = n - 2; j >= 0; j--) {
+                    int lm = Math.min(kl, n - 1 - j);
+                    int col = abIdx + kd + j * ldab;
+                    float temp = b[bc + j];
+                    for (int r = 1; r <= lm; r++)
+                        temp -= ab[col + r] * b[bc + j + r];
+                    b[bc + j] = temp;
+                    int l = ipiv[ipivIdx + j] - 1;
+                    if (l != j) {
+                        float t = b[bc + l];
+                        b[bc + l] = b[bc + j];
+                        b[bc + j] = t;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve A * X = B for a general tridiagonal matrix A by Gaussian elimination
+     * with partial pivoting (LAPACK GTSV).
+     *
+     * dl, d and du contain the n-1 sub-diagonal, n diagonal and n-1 super-diagonal
+     * entries and are overwritten by the factorization. The solution overwrites B.
+     *
+     * @return 0 on success, or i if U(i, i) is exactly zero.
+     */
+    public static int rgtsv(int n, int nrhs, float[] dl, int dlIdx, float[] d, int dIdx, float[] du, int duIdx, float[] b, int bIdx, int ldb) {
+        for (int i = 0; i < n - 1; i++) {
+            int il = dlIdx + i, id = dIdx + i, iu = duIdx + i;
+            if (Math.abs(d[id]) >= Math.abs(dl[il])) {
+                // no row interchange required
+                if (d[id] == 0.0f)
+                    return i + 1;
+                float fact = dl[il] / d[id];
+                d[id + 1] -= fact * du[iu];
+                for (int c = 0, bi = bIdx + i; c < nrhs; c++, bi += ldb)
+                    b[bi + 1] -= fact * b[bi];
+                dl[il] = 0.0f;
+            } else {
+                // interchange rows i and i+1
+                float fact = d[id] / dl[il];
+                d[id] = dl[il];
+                float temp = d[id + 1];
+                d[id + 1] = du[iu] - fact * temp;
+                if (i < n - 2) {
+                    dl[il] = du[iu + 1];
+                    du[iu + 1] = -fact * dl[il];
+                }
+                du[iu] = temp;
+                for (int c = 0, bi = bIdx + i; c < nrhs; c++, bi += ldb) {
+                    temp = b[bi];
+                    b[bi] = b[bi + 1];
+                    b[bi + 1] = temp - fact * b[bi + 1];
+                }
+            }
+        }
+        if (n > 0 && d[dIdx + n - 1] == 0.0f)
+            return n;
+
+        // back substitution with U, which has two super-diagonals in du and dl
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            b[bc + n - 1] /= d[dIdx + n - 1];
+            if (n > 1)
+                b[bc + n - 2] = (b[bc + n - 2] - du[duIdx + n - 2] * b[bc + n - 1]) / d[dIdx + n - 2];
+            for (int i = n - 3; i >= 0; i--)
+                b[bc + i] = (b[bc + i] - du[duIdx + i] * b[bc + i + 1] - dl[dlIdx + i] * b[bc + i + 2]) / d[dIdx + i];
+        }
+        return 0;
+    }
+
+    /**
+     * Solve A * X = B for a symmetric positive definite tridiagonal matrix A
+     * using the factorization A = L * D * L' (LAPACK PTSV).
+     *
+     * d and e contain the n diagonal and n-1 off-diagonal entries and are
+     * overwritten by D and the sub-diagonal of L. The solution overwrites B.
+     *
+     * @return 0 on success, or i if the leading minor of order i is not
+     * positive definite.
+     */
+    public static int rptsv(int n, int nrhs, float[] d, int dIdx, float[] e, int eIdx, float[] b, int bIdx, int ldb) {
+        if (n == 0)
+            return 0;
+        for (int i = 0; i < n; i++) {
+            if (d[dIdx + i] <= 0.0f || Double.isNaN(d[dIdx + i]))
+                return i + 1;
+            if (i < n - 1) {
+                float ei = e[eIdx + i];
+                e[eIdx + i] = ei / d[dIdx + i];
+                d[dIdx + i + 1] -= e[eIdx + i] * ei;
+            }
+        }
+        for (int c = 0; c < nrhs; c++) {
+            int bc = bIdx + c * ldb;
+            for (int i = 1; i < n; i++)
+                b[bc + i] -= b[bc + i - 1] * e[eIdx + i - 1];
+            b[bc + n - 1] /= d[dIdx + n - 1];
+            for (int i = n - 2; i >= 0; i--)
+                b[bc + i] = b[bc + i] / d[dIdx + i] - b[bc + i + 1] * e[eIdx + i];
+        }
+        return 0;
     }
 //END
 }
@@ -0,0 +1,625 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lazily evaluated element-wise expression over FloatMatrix objects.
+ *
+ * <p>Operations on a LazyFloatMatrix only record an expression graph. Nothing
+ * is computed until {@link #evaluate()}, {@link #evaluatei(FloatMatrix)} or one
+ * of the reductions is called. Then the whole graph is evaluated in one pass over
+ * blocks of {@value #BLOCK} elements: every node computes its block into a small
+ * buffer which stays in the cache, and only the leaves are read from and the
+ * result is written to memory. No intermediate matrices are created. Blocks are
+ * processed in parallel, see {@link Parallel}.</p>
+ *
+ * <p>For example,
+ * <pre>
+ * FloatMatrix r = a.lazy().mul(b).add(c).div(d.lazy().add(1.0f)).exp().evaluate();
+ * </pre>
+ * computes exp((a .* b + c) ./ (d + 1)) in a single pass.</p>
+ *
+ * <p>Operands are broadcast: an operand can be a scalar, a row vector matching
+ * the number of columns or a column vector matching the number of rows of the
+ * other operand. Subexpressions whose size differs from that of the result are
+ * evaluated into a temporary matrix first. Subexpressions which are used several
+ * times are computed only once per block.</p>
+ *
+ * <p>The leaves are read during evaluation, so they should not be changed
+ * between building the expression and evaluating it. The result may be written
+ * into one of the leaves with {@link #evaluatei(FloatMatrix)}.</p>
+ */
+public class LazyFloatMatrix {
+    /** Number of rows. */
+    public final int rows;
+    /** Number of columns. */
+    public final int columns;
+
+    private final int op;
+    private final LazyFloatMatrix[] args;
+    private final FloatMatrix leaf;
+    private final float value;
+    private final FloatFunction function;
+
+    /** Number of elements processed per node and block. */
+    public static final int BLOCK = 1024;
+
+    /** Minimal number of blocks processed by one task in parallel loops. */
+    private static final int BLOCK_GRAIN = 8;
+
+    private static final int LEAF = 0, CONSTANT = 1,
+            NEG = 10, ABS = 11, EXP = 12, LOG = 13, SQRT = 14, TANH = 15, LOGISTIC = 16, POWS = 17, FUNCTION = 18,
+            ADD = 20, SUB = 21, MUL = 22, DIV = 23, MAX = 24, MIN = 25, POW = 26, LT = 27, GT = 28;
+
+    private LazyFloatMatrix(int rows, int columns, int op, LazyFloatMatrix[] args, FloatMatrix leaf, float value, FloatFunction function) {
+        this.rows = rows;
+        this.columns = columns;
+        this.op = op;
+        this.args = args;
+        this.leaf = leaf;
+        this.value = value;
+        this.function = function;
+    }
+
+    /** Start an expression with a matrix. Same as <tt>a.lazy()</tt>. */
+    public LazyFloatMatrix(FloatMatrix a) {
+        this(a.rows, a.columns, LEAF, new LazyFloatMatrix[0], a, 0.0f, null);
+    }
+
+    /** A constant, which is broadcast to the size of the other operand. */
+    public static LazyFloatMatrix scalar(float v) {
+        return new LazyFloatMatrix(1, 1, CONSTANT, new LazyFloatMatrix[0], null, v, null);
+    }
+
+    private LazyFloatMatrix unary(int op, float value, FloatFunction function) {
+        return new LazyFloatMatrix(rows, columns, op, new LazyFloatMatrix[]{this}, null, value, function);
+    }
+
+    private LazyFloatMatrix binary(int op, LazyFloatMatrix other) {
+        int r = broadcast(rows, other.rows, "rows");
+        int c = broadcast(columns, other.columns, "columns");
+        return new LazyFloatMatrix(r, c, op, new LazyFloatMatrix[]{this, other}, null, 0.0f, null);
+    }
+
+    private static int broadcast(int a, int b, String what) {
+        if (a == b || b == 1) {
+            return a;
+        }
+        if (a == 1) {
+            return b;
+        }
+        throw new SizeException("Number of " + what + " must agree or one of them must be 1 (is " + a + " and " + b + ").");
+    }
+
+    /**************************************************************************
+     *
+     * Element-wise operations
+     *
+     **************************************************************************/
+
+    public LazyFloatMatrix add(LazyFloatMatrix other) {
+        return binary(ADD, other);
+    }
+
+    public LazyFloatMatrix add(FloatMatrix other) {
+        return add(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix add(float v) {
+        return add(scalar(v));
+    }
+
+    public LazyFloatMatrix sub(LazyFloatMatrix other) {
+        return binary(SUB, other);
+    }
+
+    public LazyFloatMatrix sub(FloatMatrix other) {
+        return sub(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix sub(float v) {
+        return sub(scalar(v));
+    }
+
+    /** Computes v - this. */
+    public LazyFloatMatrix rsub(float v) {
+        return scalar(v).sub(this);
+    }
+
+    /** Element-wise multiplication. */
+    public LazyFloatMatrix mul(LazyFloatMatrix other) {
+        return binary(MUL, other);
+    }
+
+    /** Element-wise multiplication. */
+    public LazyFloatMatrix mul(FloatMatrix other) {
+        return mul(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix mul(float v) {
+        return mul(scalar(v));
+    }
+
+    /** Element-wise division. */
+    public LazyFloatMatrix div(LazyFloatMatrix other) {
+        return binary(DIV, other);
+    }
+
+    /** Element-wise division. */
+    public LazyFloatMatrix div(FloatMatrix other) {
+        return div(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix div(float v) {
+        return div(scalar(v));
+    }
+
+    /** Computes v / this. */
+    public LazyFloatMatrix rdiv(float v) {
+        return scalar(v).div(this);
+    }
+
+    /** Element-wise maximum. */
+    public LazyFloatMatrix max(LazyFloatMatrix other) {
+        return binary(MAX, other);
+    }
+
+    public LazyFloatMatrix max(FloatMatrix other) {
+        return max(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix max(float v) {
+        return max(scalar(v));
+    }
+
+    /** Element-wise minimum. */
+    public LazyFloatMatrix min(LazyFloatMatrix other) {
+        return binary(MIN, other);
+    }
+
+    public LazyFloatMatrix min(FloatMatrix other) {
+        return min(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix min(float v) {
+        return min(scalar(v));
+    }
+
+    /** Element-wise power. */
+    public LazyFloatMatrix pow(LazyFloatMatrix other) {
+        return binary(POW, other);
+    }
+
+    public LazyFloatMatrix pow(FloatMatrix other) {
+        return pow(new LazyFloatMatrix(other));
+    }
+
+    /** Raise each element to the power v. */
+    public LazyFloatMatrix pow(float v) {
+        return unary(POWS, v, null);
+    }
+
+    /** 1.0f where this &lt; other, 0.0f elsewhere. */
+    public LazyFloatMatrix lt(LazyFloatMatrix other) {
+        return binary(LT, other);
+    }
+
+    public LazyFloatMatrix lt(FloatMatrix other) {
+        return lt(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix lt(float v) {
+        return lt(scalar(v));
+    }
+
+    /** 1.0f where this &gt; other, 0.0f elsewhere. */
+    public LazyFloatMatrix gt(LazyFloatMatrix other) {
+        return binary(GT, other);
+    }
+
+    public LazyFloatMatrix gt(FloatMatrix other) {
+        return gt(new LazyFloatMatrix(other));
+    }
+
+    public LazyFloatMatrix gt(float v) {
+        return gt(scalar(v));
+    }
+
+    public LazyFloatMatrix neg() {
+        return unary(NEG, 0.0f, null);
+    }
+
+    public LazyFloatMatrix abs() {
+        return unary(ABS, 0.0f, null);
+    }
+
+    public LazyFloatMatrix exp() {
+        return unary(EXP, 0.0f, null);
+    }
+
+    public LazyFloatMatrix log() {
+        return unary(LOG, 0.0f, null);
+    }
+
+    public LazyFloatMatrix sqrt() {
+        return unary(SQRT, 0.0f, null);
+    }
+
+    public LazyFloatMatrix tanh() {
+        return unary(TANH, 0.0f, null);
+    }
+
+    /** The logistic function 1 / (1 + exp(-x)). */
+    public LazyFloatMatrix logistic() {
+        return unary(LOGISTIC, 0.0f, null);
+    }
+
+    /** Apply a function to each element. */
+    public LazyFloatMatrix map(FloatFunction f) {
+        return unary(FUNCTION, 0.0f, f);
+    }
+
+    /**************************************************************************
+     *
+     * Evaluation
+     *
+     **************************************************************************/
+
+    /** Evaluate the expression into a new matrix. */
+    public FloatMatrix evaluate() {
+        return evaluatei(new FloatMatrix(rows, columns));
+    }
+
+    /** Evaluate the expression into target, which may be one of the leaves. */
+    public FloatMatrix evaluatei(final FloatMatrix target) {
+        if (target.rows != rows || target.columns != columns) {
+            throw new SizeException("Target must be " + rows + "x" + columns + " (is " + target.rows + "x" + target.columns + ").");
+        }
+        final Program p = new Program(this);
+        int length = rows * columns;
+        Parallel.forRange(0, numBlocks(length), BLOCK_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                float[][] buf = p.buffers();
+                for (int b = from; b < to; b++) {
+                    int start = b * BLOCK;
+                    int n = Math.min(BLOCK, rows * columns - start);
+                    System.arraycopy(p.run(start, n, buf), 0, target.data, start, n);
+                }
+            }
+        });
+        return target;
+    }
+
+    /** Sum of all elements. The result does not depend on the number of threads. */
+    public float sum() {
+        final Program p = new Program(this);
+        final int length = rows * columns;
+        final float[] partial = new float[numBlocks(length)];
+        Parallel.forRange(0, partial.length, BLOCK_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                float[][] buf = p.buffers();
+                for (int b = from; b < to; b++) {
+                    int start = b * BLOCK;
+                    int n = Math.min(BLOCK, length - start);
+                    float[] x = p.run(start, n, buf);
+                    float s = 0.0f;
+                    for (int i = 0; i < n; i++) {
+                        s += x[i];
+                    }
+                    partial[b] = s;
+                }
+            }
+        });
+        float s = 0.0f;
+        for (float v : partial) {
+            s += v;
+        }
+        return s;
+    }
+
+    /** Mean of all elements. */
+    public float mean() {
+        return sum() / (rows * columns);
+    }
+
+    /** Sums of the columns, as a row vector. */
+    public FloatMatrix columnSums() {
+        final Program p = new Program(this);
+        final FloatMatrix result = new FloatMatrix(1, columns);
+        Parallel.forRange(0, columns, Math.max(1, BLOCK * BLOCK_GRAIN / Math.max(1, rows)), new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                float[][] buf = p.buffers();
+                for (int j = from; j < to; j++) {
+                    float s = 0.0f;
+                    for (int start = j * rows; start < (j + 1) * rows; start += BLOCK) {
+                        int n = Math.min(BLOCK, (j + 1) * rows - start);
+                        float[] x = p.run(start, n, buf);
+                        for (int i = 0; i < n; i++) {
+                            s += x[i];
+                        }
+                    }
+                    result.data[j] = s;
+                }
+            }
+        });
+        return result;
+    }
+
+    /** Sums of the rows, as a column vector. */
+    public FloatMatrix rowSums() {
+        Program p = new Program(this);
+        FloatMatrix result = new FloatMatrix(rows, 1);
+        float[][] buf = p.buffers();
+        int length = rows * columns;
+        int r = 0;
+        for (int start = 0; start < length; start += BLOCK) {
+            int n = Math.min(BLOCK, length - start);
+            float[] x = p.run(start, n, buf);
+            for (int i = 0; i < n; i++) {
+                result.data[r] += x[i];
+                if (++r == rows) {
+                    r = 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int numBlocks(int length) {
+        return (length + BLOCK - 1) / BLOCK;
+    }
+
+    @Override
+    public String toString() {
+        switch (op) {
+            case LEAF: return "<" + rows + "x" + columns + ">";
+            case CONSTANT: return Float.toString(value);
+            case POWS: return "pow(" + args[0] + ", " + value + ")";
+            default:
+                StringBuilder s = new StringBuilder(opName(op)).append("(");
+                for (int i = 0; i < args.length; i++) {
+                    s.append(i > 0 ? ", " : "").append(args[i]);
+                }
+                return s.append(")").toString();
+        }
+    }
+
+    private static String opName(int op) {
+        switch (op) {
+            case NEG: return "neg";
+            case ABS: return "abs";
+            case EXP: return "exp";
+            case LOG: return "log";
+            case SQRT: return "sqrt";
+            case TANH: return "tanh";
+            case LOGISTIC: return "logistic";
+            case FUNCTION: return "map";
+            case ADD: return "add";
+            case SUB: return "sub";
+            case MUL: return "mul";
+            case DIV: return "div";
+            case MAX: return "max";
+            case MIN: return "min";
+            case POW: return "pow";
+            case LT: return "lt";
+            case GT: return "gt";
+            default: return "?";
+        }
+    }
+
+    /**
+     * The expression graph in evaluation order. Subexpressions of a different size
+     * than the result are evaluated here and replaced by leaves.
+     */
+    private static class Program {
+        final int rows;
+        final int columns;
+        final List<LazyFloatMatrix> nodes = new ArrayList<LazyFloatMatrix>();
+        final List<int[]> argIndices = new ArrayList<int[]>();
+        final Map<LazyFloatMatrix, Integer> index = new IdentityHashMap<LazyFloatMatrix, Integer>();
+
+        Program(LazyFloatMatrix root) {
+            this.rows = root.rows;
+            this.columns = root.columns;
+            add(root, root);
+        }
+
+        private int add(LazyFloatMatrix node, LazyFloatMatrix root) {
+            Integer i = index.get(node);
+            if (i != null) {
+                return i;
+            }
+            LazyFloatMatrix n = node;
+            int[] a = new int[node.args.length];
+            if (node.op != LEAF && node.op != CONSTANT && (node.rows != root.rows || node.columns != root.columns)) {
+                n = new LazyFloatMatrix(node.evaluate());
+                a = new int[0];
+            } else {
+                for (int k = 0; k < a.length; k++) {
+                    a[k] = add(node.args[k], root);
+                }
+            }
+            nodes.add(n);
+            argIndices.add(a);
+            index.put(node, nodes.size() - 1);
+            return nodes.size() - 1;
+        }
+
+        float[][] buffers() {
+            return new float[nodes.size()][BLOCK];
+        }
+
+        /** Compute elements start, ..., start + n - 1 of the result. */
+        float[] run(int start, int n, float[][] buf) {
+            for (int k = 0; k < nodes.size(); k++) {
+                LazyFloatMatrix node = nodes.get(k);
+                int[] a = argIndices.get(k);
+                float[] out = buf[k];
+                switch (node.op) {
+                    case LEAF:
+                        load(node.leaf, start, n, out);
+                        break;
+                    case CONSTANT:
+                        for (int i = 0; i < n; i++) {
+                            out[i] = node.value;
+                        }
+                        break;
+                    default:
+                        if (a.length == 1) {
+                            unary(node, buf[a[0]], out, n);
+                        } else {
+                            binary(node.op, buf[a[0]], buf[a[1]], out, n);
+                        }
+                }
+            }
+            return buf[nodes.size() - 1];
+        }
+
+        /** Load elements of a leaf, broadcasting it to the size of the result. */
+        private void load(FloatMatrix x, int start, int n, float[] out) {
+            if (x.rows == rows && x.columns == columns) {
+                System.arraycopy(x.data, start, out, 0, n);
+            } else if (x.length == 1) {
+                float v = x.data[0];
+                for (int i = 0; i < n; i++) {
+                    out[i] = v;
+                }
+            } else if (x.columns == 1) {
+                // column vector, repeated for each column
+                int r = start % rows;
+                for (int i = 0; i < n; i++) {
+                    out[i] = x.data[r];
+                    if (++r == rows) {
+                        r = 0;
+                    }
+                }
+            } else {
+                // row vector, constant within each column
+                int r = start % rows;
+                int c = start / rows;
+                for (int i = 0; i < n; i++) {
+                    out[i] = x.data[c];
+                    if (++r == rows) {
+                        r = 0;
+                        c++;
+                    }
+                }
+            }
+        }
+
+        private static void unary(LazyFloatMatrix node, float[] x, float[] out, int n) {
+            switch (node.op) {
+                case NEG:
+                    for (int i = 0; i < n; i++) out[i] = -x[i];
+                    break;
+                case ABS:
+                    for (int i = 0; i < n; i++) out[i] = Math.abs(x[i]);
+                    break;
+                case EXP:
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.exp(x[i]);
+                    break;
+                case LOG:
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.log(x[i]);
+                    break;
+                case SQRT:
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.sqrt(x[i]);
+                    break;
+                case TANH:
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.tanh(x[i]);
+                    break;
+                case LOGISTIC:
+                    for (int i = 0; i < n; i++) out[i] = 1.0f / (1.0f + MatrixFunctions.exp(-x[i]));
+                    break;
+                case POWS:
+                    float v = node.value;
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.pow(x[i], v);
+                    break;
+                case FUNCTION:
+                    FloatFunction f = node.function;
+                    for (int i = 0; i < n; i++) out[i] = f.compute(x[i]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + node.op + ".");
+            }
+        }
+
+        private static void binary(int op, float[] x, float[] y, float[] out, int n) {
+            switch (op) {
+                case ADD:
+                    for (int i = 0; i < n; i++) out[i] = x[i] + y[i];
+                    break;
+                case SUB:
+                    for (int i = 0; i < n; i++) out[i] = x[i] - y[i];
+                    break;
+                case MUL:
+                    for (int i = 0; i < n; i++) out[i] = x[i] * y[i];
+                    break;
+                case DIV:
+                    for (int i = 0; i < n; i++) out[i] = x[i] / y[i];
+                    break;
+                case MAX:
+                    for (int i = 0; i < n; i++) out[i] = Math.max(x[i], y[i]);
+                    break;
+                case MIN:
+                    for (int i = 0; i < n; i++) out[i] = Math.min(x[i], y[i]);
+                    break;
+                case POW:
+                    for (int i = 0; i < n; i++) out[i] = MatrixFunctions.pow(x[i], y[i]);
+                    break;
+                case LT:
+                    for (int i = 0; i < n; i++) out[i] = x[i] < y[i] ? 1.0f : 0.0f;
+                    break;
+                case GT:
+                    for (int i = 0; i < n; i++) out[i] = x[i] > y[i] ? 1.0f : 0.0f;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + op + ".");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -36,9 +36,24 @@
 
 package org.jblas;
 
+import org.jblas.util.ApproxMath;
+import org.jblas.util.Functions;
+import org.jblas.util.Logger;
+import org.jblas.util.Parallel;
+
 /**
  * This class provides the functions from java.lang.Math for matrices. The
  * functions are applied to each element of the matrix.
+ *
+ * The element-wise functions work directly on the data arrays. Matrices with
+ * more than {@value #MAP_GRAIN} elements are processed in parallel, see
+ * {@link Parallel}.
+ *
+ * The exponential, logarithm, power, tanh, error and logistic functions can
+ * be computed with fast approximations instead, either per call by passing
+ * an {@link Accuracy}, or globally with {@link #setAccuracy(Accuracy)} or the
+ * system property <tt>jblas.accuracy=fast</tt>. See {@link ApproxMath} for
+ * the maximal errors.
  * 
  * @author Mikio Braun
  */
@@ -46,15 +61,25 @@ public class MatrixFunctions {
 
 	/*#
 	def mapfct(f); <<-EOS
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) #{f}(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) #{f}(data[i]);
+	      }
+	   });
 	   return x;
 	   EOS
   	end
   	
   	def cmapfct(f); <<-EOS
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, x.get(i).#{f}());
+	   final ComplexDoubleMatrix y = x;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            y.put(i, y.get(i).#{f}());
+	      }
+	   });
 	   return x;
 	   EOS
   	end
@@ -69,8 +94,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix absi(DoubleMatrix x) { 
 		/*# mapfct('Math.abs') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.abs(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.abs(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -78,8 +108,13 @@ public class MatrixFunctions {
 	public static ComplexDoubleMatrix absi(ComplexDoubleMatrix x) {
 		/*# cmapfct('abs') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, x.get(i).abs());
+	   final ComplexDoubleMatrix y = x;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            y.put(i, y.get(i).abs());
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -93,8 +128,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix acosi(DoubleMatrix x) { 
 		/*# mapfct('Math.acos') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.acos(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.acos(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -108,8 +148,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix asini(DoubleMatrix x) { 
 		/*# mapfct('Math.asin') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.asin(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.asin(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -123,8 +168,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix atani(DoubleMatrix x) { 
 		/*# mapfct('Math.atan') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.atan(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.atan(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -138,8 +188,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix cbrti(DoubleMatrix x) { 
 		/*# mapfct('Math.cbrt') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.cbrt(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.cbrt(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -153,8 +208,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix ceili(DoubleMatrix x) { 
 		/*# mapfct('Math.ceil') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.ceil(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.ceil(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -168,8 +228,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix cosi(DoubleMatrix x) { 
 		/*# mapfct('Math.cos') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.cos(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.cos(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -183,8 +248,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix coshi(DoubleMatrix x) { 
 		/*# mapfct('Math.cosh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.cosh(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.cosh(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -195,11 +265,33 @@ public class MatrixFunctions {
 	 * @see MatrixFunctions#exp(DoubleMatrix)
 	 * @return this matrix
 	 */		
-	public static DoubleMatrix expi(DoubleMatrix x) { 
+	public static DoubleMatrix expi(DoubleMatrix x) {
+		return expi(x, accuracy);
+	}
+
+	public static DoubleMatrix expi(DoubleMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.exp') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) ApproxMath.exp(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.exp') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.exp(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.exp(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -213,8 +305,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix floori(DoubleMatrix x) { 
 		/*# mapfct('Math.floor') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.floor(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.floor(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -226,10 +323,32 @@ public class MatrixFunctions {
 	 * @return this matrix
 	 */		
 	public static DoubleMatrix logi(DoubleMatrix x) {
+		return logi(x, accuracy);
+	}
+
+	public static DoubleMatrix logi(DoubleMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.log') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) ApproxMath.log(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.log') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.log(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.log(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -243,8 +362,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix log10i(DoubleMatrix x) {
 		/*# mapfct('Math.log10') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.log10(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.log10(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -257,33 +381,81 @@ public class MatrixFunctions {
 	 * @return this matrix
 	 */	
 	public static DoubleMatrix powi(DoubleMatrix x, double d) {
+		return powi(x, d, accuracy);
+	}
+
+	public static DoubleMatrix powi(DoubleMatrix x, final double d, Accuracy accuracy) {
 		if (d == 2.0)
 			return x.muli(x);
 		else {
-			for (int i = 0; i < x.length; i++)
-				x.put(i, (double) Math.pow(x.get(i), d));
+			final double[] data = x.data;
+			final boolean fast = accuracy == Accuracy.FAST;
+			Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+				public void run(int from, int to) {
+					if (fast)
+						for (int i = from; i < to; i++)
+							data[i] = (double) ApproxMath.pow(data[i], d);
+					else
+						for (int i = from; i < to; i++)
+							data[i] = (double) Math.pow(data[i], d);
+				}
+			});
 			return x;
 		}
 	}
 
     public static DoubleMatrix powi(double base, DoubleMatrix x) {
-        for (int i = 0; i < x.length; i++)
-            x.put(i, (double) Math.pow(base, x.get(i)));
+        return powi(base, x, accuracy);
+    }
+
+    public static DoubleMatrix powi(final double base, DoubleMatrix x, Accuracy accuracy) {
+        final double[] data = x.data;
+        final boolean fast = accuracy == Accuracy.FAST;
+        Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                if (fast)
+                    for (int i = from; i < to; i++)
+                        data[i] = (double) ApproxMath.pow(base, data[i]);
+                else
+                    for (int i = from; i < to; i++)
+                        data[i] = (double) Math.pow(base, data[i]);
+            }
+        });
         return x;
     }
 
     public static DoubleMatrix powi(DoubleMatrix x, DoubleMatrix e) {
+        return powi(x, e, accuracy);
+    }
+
+    public static DoubleMatrix powi(DoubleMatrix x, DoubleMatrix e, Accuracy accuracy) {
         x.checkLength(e.length);
-        for (int i = 0; i < x.length; i++)
-            x.put(i, (double) Math.pow(x.get(i), e.get(i)));
+        final double[] data = x.data;
+        final double[] exponents = e.data;
+        final boolean fast = accuracy == Accuracy.FAST;
+        Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                if (fast)
+                    for (int i = from; i < to; i++)
+                        data[i] = (double) ApproxMath.pow(data[i], exponents[i]);
+                else
+                    for (int i = from; i < to; i++)
+                        data[i] = (double) Math.pow(data[i], exponents[i]);
+            }
+        });
         return x;
     }
 
     public static DoubleMatrix signumi(DoubleMatrix x) {
 		/*# mapfct('Math.signum') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.signum(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.signum(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -291,8 +463,13 @@ public class MatrixFunctions {
 	public static DoubleMatrix sini(DoubleMatrix x) { 
 		/*# mapfct('Math.sin') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.sin(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.sin(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -300,32 +477,143 @@ public class MatrixFunctions {
 	public static DoubleMatrix sinhi(DoubleMatrix x) { 
 		/*# mapfct('Math.sinh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.sinh(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.sinh(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static DoubleMatrix sqrti(DoubleMatrix x) { 
 		/*# mapfct('Math.sqrt') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.sqrt(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.sqrt(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static DoubleMatrix tani(DoubleMatrix x) {
 		/*# mapfct('Math.tan') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.tan(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.tan(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static DoubleMatrix tanhi(DoubleMatrix x) {
+		return tanhi(x, accuracy);
+	}
+
+	public static DoubleMatrix tanhi(DoubleMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.tanh') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) ApproxMath.tanh(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.tanh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (double) Math.tanh(x.get(i)));
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) Math.tanh(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+	}
+
+	/**
+	 * Applies the <i>error function</i> element-wise on this matrix. Note
+	 * that this is an in-place operation.
+	 * @see MatrixFunctions#erf(DoubleMatrix)
+	 * @return this matrix
+	 */
+	public static DoubleMatrix erfi(DoubleMatrix x) {
+		return erfi(x, accuracy);
+	}
+
+	public static DoubleMatrix erfi(DoubleMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.erf') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) ApproxMath.erf(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
+		/*# mapfct('erf') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) erf(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+	}
+
+	/**
+	 * Applies the <i>logistic</i> function 1/(1 + exp(-x)) element-wise on
+	 * this matrix. Note that this is an in-place operation.
+	 * @see MatrixFunctions#logistic(DoubleMatrix)
+	 * @return this matrix
+	 */
+	public static DoubleMatrix logistici(DoubleMatrix x) {
+		return logistici(x, accuracy);
+	}
+
+	public static DoubleMatrix logistici(DoubleMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.logistic') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) ApproxMath.logistic(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
+		/*# mapfct('logistic') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final double[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (double) logistic(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -352,19 +640,29 @@ public class MatrixFunctions {
     public static DoubleMatrix cos(DoubleMatrix x)    { return cosi(x.dup()); }
     public static DoubleMatrix cosh(DoubleMatrix x)   { return coshi(x.dup()); }
     public static DoubleMatrix exp(DoubleMatrix x)    { return expi(x.dup()); }
+    public static DoubleMatrix exp(DoubleMatrix x, Accuracy a) { return expi(x.dup(), a); }
     public static DoubleMatrix floor(DoubleMatrix x)  { return floori(x.dup()); }
     public static DoubleMatrix log(DoubleMatrix x)    { return logi(x.dup()); }
+    public static DoubleMatrix log(DoubleMatrix x, Accuracy a) { return logi(x.dup(), a); }
     public static DoubleMatrix log10(DoubleMatrix x)  { return log10i(x.dup()); }
     public static double pow(double x, double y) { return (double)Math.pow(x, y); }
     public static DoubleMatrix pow(DoubleMatrix x, double e) { return powi(x.dup(), e); }
     public static DoubleMatrix pow(double b, DoubleMatrix x) { return powi(b, x.dup()); }
     public static DoubleMatrix pow(DoubleMatrix x, DoubleMatrix e) { return powi(x.dup(), e); }
+    public static DoubleMatrix pow(DoubleMatrix x, double e, Accuracy a) { return powi(x.dup(), e, a); }
+    public static DoubleMatrix pow(double b, DoubleMatrix x, Accuracy a) { return powi(b, x.dup(), a); }
+    public static DoubleMatrix pow(DoubleMatrix x, DoubleMatrix e, Accuracy a) { return powi(x.dup(), e, a); }
     public static DoubleMatrix signum(DoubleMatrix x) { return signumi(x.dup()); }
     public static DoubleMatrix sin(DoubleMatrix x)    { return sini(x.dup()); }
     public static DoubleMatrix sinh(DoubleMatrix x)   { return sinhi(x.dup()); }
     public static DoubleMatrix sqrt(DoubleMatrix x)   { return sqrti(x.dup()); }
     public static DoubleMatrix tan(DoubleMatrix x)    { return tani(x.dup()); }
     public static DoubleMatrix tanh(DoubleMatrix x)   { return tanhi(x.dup()); }
+    public static DoubleMatrix tanh(DoubleMatrix x, Accuracy a) { return tanhi(x.dup(), a); }
+    public static DoubleMatrix erf(DoubleMatrix x)    { return erfi(x.dup()); }
+    public static DoubleMatrix erf(DoubleMatrix x, Accuracy a) { return erfi(x.dup(), a); }
+    public static DoubleMatrix logistic(DoubleMatrix x) { return logistici(x.dup()); }
+    public static DoubleMatrix logistic(DoubleMatrix x, Accuracy a) { return logistici(x.dup(), a); }
 
     /*# %w{abs acos asin atan cbrt ceil cos cosh exp floor log log10 signum sin sinh sqrt tan tanh}.map do |fct| <<-EOS
     public static double #{fct}(double x) { return (double)Math.#{fct}(x); }
@@ -391,6 +689,208 @@ public class MatrixFunctions {
     public static double tan(double x) { return (double)Math.tan(x); }
     public static double tanh(double x) { return (double)Math.tanh(x); }
 //RJPP-END--------------------------------------------------------------
+    public static double erf(double x) { return (double)Functions.erf(x); }
+    public static double logistic(double x) { return (double)(1.0 / (1.0 + Math.exp(-x))); }
+
+    /**
+     * Replaces each column by its softmax exp(x - logSumExp(x)). The maximum
+     * of each column is subtracted before exponentiating, such that no
+     * overflow occurs. Note that this is an in-place operation.
+     * @return this matrix
+     */
+    public static DoubleMatrix columnSoftmaxi(DoubleMatrix x) { return columnSoftmaxi(x, accuracy); }
+
+    public static DoubleMatrix columnSoftmaxi(DoubleMatrix x, Accuracy accuracy) {
+        columnKernel(x, null, SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each row by its softmax exp(x - logSumExp(x)). Note that this
+     * is an in-place operation.
+     * @see MatrixFunctions#columnSoftmaxi(DoubleMatrix)
+     * @return this matrix
+     */
+    public static DoubleMatrix rowSoftmaxi(DoubleMatrix x) { return rowSoftmaxi(x, accuracy); }
+
+    public static DoubleMatrix rowSoftmaxi(DoubleMatrix x, Accuracy accuracy) {
+        rowKernel(x, null, SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each column by its log-softmax x - logSumExp(x). Note that
+     * this is an in-place operation.
+     * @return this matrix
+     */
+    public static DoubleMatrix columnLogSoftmaxi(DoubleMatrix x) { return columnLogSoftmaxi(x, accuracy); }
+
+    public static DoubleMatrix columnLogSoftmaxi(DoubleMatrix x, Accuracy accuracy) {
+        columnKernel(x, null, LOG_SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each row by its log-softmax x - logSumExp(x). Note that
+     * this is an in-place operation.
+     * @return this matrix
+     */
+    public static DoubleMatrix rowLogSoftmaxi(DoubleMatrix x) { return rowLogSoftmaxi(x, accuracy); }
+
+    public static DoubleMatrix rowLogSoftmaxi(DoubleMatrix x, Accuracy accuracy) {
+        rowKernel(x, null, LOG_SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Computes log(sum(exp(x))) for each column without overflow.
+     * @return a row vector with one entry per column
+     */
+    public static DoubleMatrix columnLogSumExp(DoubleMatrix x) { return columnLogSumExp(x, accuracy); }
+
+    public static DoubleMatrix columnLogSumExp(DoubleMatrix x, Accuracy accuracy) {
+        DoubleMatrix result = new DoubleMatrix(1, x.columns);
+        columnKernel(x, result.data, LOG_SUM_EXP, accuracy == Accuracy.FAST);
+        return result;
+    }
+
+    /**
+     * Computes log(sum(exp(x))) for each row without overflow.
+     * @return a column vector with one entry per row
+     */
+    public static DoubleMatrix rowLogSumExp(DoubleMatrix x) { return rowLogSumExp(x, accuracy); }
+
+    public static DoubleMatrix rowLogSumExp(DoubleMatrix x, Accuracy accuracy) {
+        DoubleMatrix result = new DoubleMatrix(x.rows, 1);
+        rowKernel(x, result.data, LOG_SUM_EXP, accuracy == Accuracy.FAST);
+        return result;
+    }
+
+    /** Computes log(sum(exp(x))) over all elements without overflow. */
+    public static double logSumExp(DoubleMatrix x) {
+        return columnLogSumExp(new DoubleMatrix(x.length, 1, x.data)).get(0);
+    }
+
+    public static DoubleMatrix columnSoftmax(DoubleMatrix x) { return columnSoftmaxi(x.dup()); }
+    public static DoubleMatrix columnSoftmax(DoubleMatrix x, Accuracy a) { return columnSoftmaxi(x.dup(), a); }
+    public static DoubleMatrix rowSoftmax(DoubleMatrix x) { return rowSoftmaxi(x.dup()); }
+    public static DoubleMatrix rowSoftmax(DoubleMatrix x, Accuracy a) { return rowSoftmaxi(x.dup(), a); }
+    public static DoubleMatrix columnLogSoftmax(DoubleMatrix x) { return columnLogSoftmaxi(x.dup()); }
+    public static DoubleMatrix columnLogSoftmax(DoubleMatrix x, Accuracy a) { return columnLogSoftmaxi(x.dup(), a); }
+    public static DoubleMatrix rowLogSoftmax(DoubleMatrix x) { return rowLogSoftmaxi(x.dup()); }
+    public static DoubleMatrix rowLogSoftmax(DoubleMatrix x, Accuracy a) { return rowLogSoftmaxi(x.dup(), a); }
+
+    private static double expWith(double x, boolean fast) {
+        return fast ? ApproxMath.exp(x) : (double) Math.exp(x);
+    }
+
+    /**
+     * Softmax and friends on the contiguous columns. Each column takes three
+     * passes (maximum, sum of exponentials, scaling) which stay in cache.
+     */
+    private static void columnKernel(DoubleMatrix x, final double[] lse, final int mode, final boolean fast) {
+        final double[] data = x.data;
+        final int rows = x.rows;
+        Parallel.forRange(0, x.columns, Math.max(1, MAP_GRAIN / Math.max(1, rows)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    int start = j * rows;
+                    int end = start + rows;
+                    double max = (double) Double.NEGATIVE_INFINITY;
+                    for (int i = start; i < end; i++)
+                        if (data[i] > max)
+                            max = data[i];
+                    double shift = Double.isInfinite(max) ? 0.0 : max;
+                    double sum = 0.0;
+                    if (mode == SOFTMAX) {
+                        for (int i = start; i < end; i++) {
+                            double e = expWith(data[i] - shift, fast);
+                            data[i] = e;
+                            sum += e;
+                        }
+                        double scale = 1.0 / sum;
+                        for (int i = start; i < end; i++)
+                            data[i] *= scale;
+                    } else {
+                        for (int i = start; i < end; i++)
+                            sum += expWith(data[i] - shift, fast);
+                        double l = shift + (double) Math.log(sum);
+                        if (mode == LOG_SUM_EXP)
+                            lse[j] = l;
+                        else
+                            for (int i = start; i < end; i++)
+                                data[i] -= l;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Softmax and friends along the rows. Rows are processed in blocks, such
+     * that the inner loops run down the contiguous columns while the running
+     * maxima and sums of the block stay in registers or L1 cache.
+     */
+    private static void rowKernel(DoubleMatrix x, final double[] lse, final int mode, final boolean fast) {
+        final double[] data = x.data;
+        final int rows = x.rows;
+        final int columns = x.columns;
+        final int block = Math.max(16, Math.min(ROW_BLOCK, ROW_BLOCK_ELEMENTS / Math.max(1, columns)));
+        Parallel.forRange(0, rows, block, new Parallel.Loop() {
+            public void run(int from, int to) {
+                double[] shift = new double[block];
+                double[] sum = new double[block];
+                for (int r = from; r < to; r += block) {
+                    int n = Math.min(block, to - r);
+                    for (int k = 0; k < n; k++) {
+                        shift[k] = (double) Double.NEGATIVE_INFINITY;
+                        sum[k] = 0.0;
+                    }
+                    for (int j = 0; j < columns; j++) {
+                        int o = j * rows + r;
+                        for (int k = 0; k < n; k++)
+                            if (data[o + k] > shift[k])
+                                shift[k] = data[o + k];
+                    }
+                    for (int k = 0; k < n; k++)
+                        if (Double.isInfinite(shift[k]))
+                            shift[k] = 0.0;
+                    for (int j = 0; j < columns; j++) {
+                        int o = j * rows + r;
+                        if (mode == SOFTMAX)
+                            for (int k = 0; k < n; k++) {
+                                double e = expWith(data[o + k] - shift[k], fast);
+                                data[o + k] = e;
+                                sum[k] += e;
+                            }
+                        else
+                            for (int k = 0; k < n; k++)
+                                sum[k] += expWith(data[o + k] - shift[k], fast);
+                    }
+                    if (mode == SOFTMAX) {
+                        for (int k = 0; k < n; k++)
+                            sum[k] = 1.0 / sum[k];
+                        for (int j = 0; j < columns; j++) {
+                            int o = j * rows + r;
+                            for (int k = 0; k < n; k++)
+                                data[o + k] *= sum[k];
+                        }
+                    } else {
+                        for (int k = 0; k < n; k++)
+                            sum[k] = shift[k] + (double) Math.log(sum[k]);
+                        if (mode == LOG_SUM_EXP)
+                            System.arraycopy(sum, 0, lse, r, n);
+                        else
+                            for (int j = 0; j < columns; j++) {
+                                int o = j * rows + r;
+                                for (int k = 0; k < n; k++)
+                                    data[o + k] -= sum[k];
+                            }
+                    }
+                }
+            }
+        });
+    }
 
     /**
      * Calculate matrix exponential of a square matrix.
@@ -452,20 +952,78 @@ public class MatrixFunctions {
 
 
 //STOP
+    /** Minimal number of elements processed by one task in the element-wise functions. */
+    public static final int MAP_GRAIN = 8192;
+
+    private static final int SOFTMAX = 0;
+    private static final int LOG_SOFTMAX = 1;
+    private static final int LOG_SUM_EXP = 2;
+
+    /** Maximal number of rows processed together in the row-wise softmax. */
+    private static final int ROW_BLOCK = 1024;
+    /** Elements of a block of rows which should fit into the L2 cache. */
+    private static final int ROW_BLOCK_ELEMENTS = 16384;
+
+    /**
+     * Accuracy of the exponential and related functions. <tt>STRICT</tt>
+     * uses <tt>java.lang.Math</tt>, <tt>FAST</tt> the approximations from
+     * {@link ApproxMath}.
+     */
+    public enum Accuracy {
+        STRICT, FAST
+    }
+
+    private static volatile Accuracy accuracy = defaultAccuracy();
+
+    private static Accuracy defaultAccuracy() {
+        String s = System.getProperty("jblas.accuracy");
+        if (s != null) {
+            try {
+                return Accuracy.valueOf(s.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                Logger.getLogger().warning("Could not parse jblas.accuracy, using strict functions.");
+            }
+        }
+        return Accuracy.STRICT;
+    }
+
+    /** Get the accuracy used when no accuracy is given explicitly. */
+    public static Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    /** Set the accuracy used when no accuracy is given explicitly. */
+    public static void setAccuracy(Accuracy a) {
+        if (a == null) {
+            throw new IllegalArgumentException("Accuracy must not be null.");
+        }
+        accuracy = a;
+    }
+
     public static DoubleMatrix floatToDouble(FloatMatrix fm) {
-    	DoubleMatrix dm = new DoubleMatrix(fm.rows, fm.columns);
+    	final DoubleMatrix dm = new DoubleMatrix(fm.rows, fm.columns);
+        final float[] src = fm.data;
 
-        for (int i = 0; i < fm.length; i++)
-            dm.put(i, (double) fm.get(i));
+        Parallel.forRange(0, fm.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++)
+                    dm.data[i] = src[i];
+            }
+        });
 
         return dm;
     }
 
     public static FloatMatrix doubleToFloat(DoubleMatrix dm) {
-        FloatMatrix fm = new FloatMatrix(dm.rows, dm.columns);
+        final FloatMatrix fm = new FloatMatrix(dm.rows, dm.columns);
+        final double[] src = dm.data;
 
-        for (int i = 0; i < dm.length; i++)
-            fm.put(i, (float) dm.get(i));
+        Parallel.forRange(0, dm.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++)
+                    fm.data[i] = (float) src[i];
+            }
+        });
 
         return fm;
     }
@@ -477,15 +1035,25 @@ public class MatrixFunctions {
 
 	/*#
 	def mapfct(f); <<-EOS
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) #{f}(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) #{f}(data[i]);
+	      }
+	   });
 	   return x;
 	   EOS
   	end
   	
   	def cmapfct(f); <<-EOS
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, x.get(i).#{f}());
+	   final ComplexFloatMatrix y = x;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            y.put(i, y.get(i).#{f}());
+	      }
+	   });
 	   return x;
 	   EOS
   	end
@@ -500,8 +1068,13 @@ public class MatrixFunctions {
 	public static FloatMatrix absi(FloatMatrix x) { 
 		/*# mapfct('Math.abs') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.abs(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.abs(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -509,8 +1082,13 @@ public class MatrixFunctions {
 	public static ComplexFloatMatrix absi(ComplexFloatMatrix x) {
 		/*# cmapfct('abs') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, x.get(i).abs());
+	   final ComplexFloatMatrix y = x;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            y.put(i, y.get(i).abs());
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -524,8 +1102,13 @@ public class MatrixFunctions {
 	public static FloatMatrix acosi(FloatMatrix x) { 
 		/*# mapfct('Math.acos') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.acos(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.acos(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -539,8 +1122,13 @@ public class MatrixFunctions {
 	public static FloatMatrix asini(FloatMatrix x) { 
 		/*# mapfct('Math.asin') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.asin(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.asin(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -554,8 +1142,13 @@ public class MatrixFunctions {
 	public static FloatMatrix atani(FloatMatrix x) { 
 		/*# mapfct('Math.atan') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.atan(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.atan(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -569,8 +1162,13 @@ public class MatrixFunctions {
 	public static FloatMatrix cbrti(FloatMatrix x) { 
 		/*# mapfct('Math.cbrt') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.cbrt(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.cbrt(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -584,8 +1182,13 @@ public class MatrixFunctions {
 	public static FloatMatrix ceili(FloatMatrix x) { 
 		/*# mapfct('Math.ceil') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.ceil(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.ceil(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -599,8 +1202,13 @@ public class MatrixFunctions {
 	public static FloatMatrix cosi(FloatMatrix x) { 
 		/*# mapfct('Math.cos') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.cos(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.cos(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -614,8 +1222,13 @@ public class MatrixFunctions {
 	public static FloatMatrix coshi(FloatMatrix x) { 
 		/*# mapfct('Math.cosh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.cosh(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.cosh(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -626,11 +1239,33 @@ public class MatrixFunctions {
 	 * @see MatrixFunctions#exp(FloatMatrix)
 	 * @return this matrix
 	 */		
-	public static FloatMatrix expi(FloatMatrix x) { 
+	public static FloatMatrix expi(FloatMatrix x) {
+		return expi(x, accuracy);
+	}
+
+	public static FloatMatrix expi(FloatMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.exp') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) ApproxMath.exp(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.exp') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.exp(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.exp(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -644,8 +1279,13 @@ public class MatrixFunctions {
 	public static FloatMatrix floori(FloatMatrix x) { 
 		/*# mapfct('Math.floor') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.floor(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.floor(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -657,10 +1297,32 @@ public class MatrixFunctions {
 	 * @return this matrix
 	 */		
 	public static FloatMatrix logi(FloatMatrix x) {
+		return logi(x, accuracy);
+	}
+
+	public static FloatMatrix logi(FloatMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.log') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) ApproxMath.log(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.log') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.log(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.log(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -674,8 +1336,13 @@ public class MatrixFunctions {
 	public static FloatMatrix log10i(FloatMatrix x) {
 		/*# mapfct('Math.log10') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.log10(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.log10(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -688,33 +1355,81 @@ public class MatrixFunctions {
 	 * @return this matrix
 	 */	
 	public static FloatMatrix powi(FloatMatrix x, float d) {
+		return powi(x, d, accuracy);
+	}
+
+	public static FloatMatrix powi(FloatMatrix x, final float d, Accuracy accuracy) {
 		if (d == 2.0f)
 			return x.muli(x);
 		else {
-			for (int i = 0; i < x.length; i++)
-				x.put(i, (float) Math.pow(x.get(i), d));
+			final float[] data = x.data;
+			final boolean fast = accuracy == Accuracy.FAST;
+			Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+				public void run(int from, int to) {
+					if (fast)
+						for (int i = from; i < to; i++)
+							data[i] = (float) ApproxMath.pow(data[i], d);
+					else
+						for (int i = from; i < to; i++)
+							data[i] = (float) Math.pow(data[i], d);
+				}
+			});
 			return x;
 		}
 	}
 
     public static FloatMatrix powi(float base, FloatMatrix x) {
-        for (int i = 0; i < x.length; i++)
-            x.put(i, (float) Math.pow(base, x.get(i)));
+        return powi(base, x, accuracy);
+    }
+
+    public static FloatMatrix powi(final float base, FloatMatrix x, Accuracy accuracy) {
+        final float[] data = x.data;
+        final boolean fast = accuracy == Accuracy.FAST;
+        Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                if (fast)
+                    for (int i = from; i < to; i++)
+                        data[i] = (float) ApproxMath.pow(base, data[i]);
+                else
+                    for (int i = from; i < to; i++)
+                        data[i] = (float) Math.pow(base, data[i]);
+            }
+        });
         return x;
     }
 
     public static FloatMatrix powi(FloatMatrix x, FloatMatrix e) {
+        return powi(x, e, accuracy);
+    }
+
+    public static FloatMatrix powi(FloatMatrix x, FloatMatrix e, Accuracy accuracy) {
         x.checkLength(e.length);
-        for (int i = 0; i < x.length; i++)
-            x.put(i, (float) Math.pow(x.get(i), e.get(i)));
+        final float[] data = x.data;
+        final float[] exponents = e.data;
+        final boolean fast = accuracy == Accuracy.FAST;
+        Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                if (fast)
+                    for (int i = from; i < to; i++)
+                        data[i] = (float) ApproxMath.pow(data[i], exponents[i]);
+                else
+                    for (int i = from; i < to; i++)
+                        data[i] = (float) Math.pow(data[i], exponents[i]);
+            }
+        });
         return x;
     }
 
     public static FloatMatrix signumi(FloatMatrix x) {
 		/*# mapfct('Math.signum') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.signum(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.signum(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -722,8 +1437,13 @@ public class MatrixFunctions {
 	public static FloatMatrix sini(FloatMatrix x) { 
 		/*# mapfct('Math.sin') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.sin(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.sin(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -731,32 +1451,143 @@ public class MatrixFunctions {
 	public static FloatMatrix sinhi(FloatMatrix x) { 
 		/*# mapfct('Math.sinh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.sinh(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.sinh(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static FloatMatrix sqrti(FloatMatrix x) { 
 		/*# mapfct('Math.sqrt') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.sqrt(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.sqrt(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static FloatMatrix tani(FloatMatrix x) {
 		/*# mapfct('Math.tan') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.tan(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.tan(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
 	public static FloatMatrix tanhi(FloatMatrix x) {
+		return tanhi(x, accuracy);
+	}
+
+	public static FloatMatrix tanhi(FloatMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.tanh') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) ApproxMath.tanh(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
 		/*# mapfct('Math.tanh') #*/
 //RJPP-BEGIN------------------------------------------------------------
-	   for (int i = 0; i < x.length; i++)
-	      x.put(i, (float) Math.tanh(x.get(i)));
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) Math.tanh(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+	}
+
+	/**
+	 * Applies the <i>error function</i> element-wise on this matrix. Note
+	 * that this is an in-place operation.
+	 * @see MatrixFunctions#erf(FloatMatrix)
+	 * @return this matrix
+	 */
+	public static FloatMatrix erfi(FloatMatrix x) {
+		return erfi(x, accuracy);
+	}
+
+	public static FloatMatrix erfi(FloatMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.erf') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) ApproxMath.erf(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
+		/*# mapfct('erf') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) erf(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+	}
+
+	/**
+	 * Applies the <i>logistic</i> function 1/(1 + exp(-x)) element-wise on
+	 * this matrix. Note that this is an in-place operation.
+	 * @see MatrixFunctions#logistic(FloatMatrix)
+	 * @return this matrix
+	 */
+	public static FloatMatrix logistici(FloatMatrix x) {
+		return logistici(x, accuracy);
+	}
+
+	public static FloatMatrix logistici(FloatMatrix x, Accuracy accuracy) {
+		if (accuracy == Accuracy.FAST) {
+		/*# mapfct('ApproxMath.logistic') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) ApproxMath.logistic(data[i]);
+	      }
+	   });
+	   return x;
+//RJPP-END--------------------------------------------------------------
+		}
+		/*# mapfct('logistic') #*/
+//RJPP-BEGIN------------------------------------------------------------
+	   final float[] data = x.data;
+	   Parallel.forRange(0, x.length, MAP_GRAIN, new Parallel.Loop() {
+	      public void run(int from, int to) {
+	         for (int i = from; i < to; i++)
+	            data[i] = (float) logistic(data[i]);
+	      }
+	   });
 	   return x;
 //RJPP-END--------------------------------------------------------------
 	}
@@ -783,19 +1614,29 @@ public class MatrixFunctions {
     public static FloatMatrix cos(FloatMatrix x)    { return cosi(x.dup()); }
     public static FloatMatrix cosh(FloatMatrix x)   { return coshi(x.dup()); }
     public static FloatMatrix exp(FloatMatrix x)    { return expi(x.dup()); }
+    public static FloatMatrix exp(FloatMatrix x, Accuracy a) { return expi(x.dup(), a); }
     public static FloatMatrix floor(FloatMatrix x)  { return floori(x.dup()); }
     public static FloatMatrix log(FloatMatrix x)    { return logi(x.dup()); }
+    public static FloatMatrix log(FloatMatrix x, Accuracy a) { return logi(x.dup(), a); }
     public static FloatMatrix log10(FloatMatrix x)  { return log10i(x.dup()); }
     public static float pow(float x, float y) { return (float)Math.pow(x, y); }
     public static FloatMatrix pow(FloatMatrix x, float e) { return powi(x.dup(), e); }
     public static FloatMatrix pow(float b, FloatMatrix x) { return powi(b, x.dup()); }
     public static FloatMatrix pow(FloatMatrix x, FloatMatrix e) { return powi(x.dup(), e); }
+    public static FloatMatrix pow(FloatMatrix x, float e, Accuracy a) { return powi(x.dup(), e, a); }
+    public static FloatMatrix pow(float b, FloatMatrix x, Accuracy a) { return powi(b, x.dup(), a); }
+    public static FloatMatrix pow(FloatMatrix x, FloatMatrix e, Accuracy a) { return powi(x.dup(), e, a); }
     public static FloatMatrix signum(FloatMatrix x) { return signumi(x.dup()); }
     public static FloatMatrix sin(FloatMatrix x)    { return sini(x.dup()); }
     public static FloatMatrix sinh(FloatMatrix x)   { return sinhi(x.dup()); }
     public static FloatMatrix sqrt(FloatMatrix x)   { return sqrti(x.dup()); }
     public static FloatMatrix tan(FloatMatrix x)    { return tani(x.dup()); }
     public static FloatMatrix tanh(FloatMatrix x)   { return tanhi(x.dup()); }
+    public static FloatMatrix tanh(FloatMatrix x, Accuracy a) { return tanhi(x.dup(), a); }
+    public static FloatMatrix erf(FloatMatrix x)    { return erfi(x.dup()); }
+    public static FloatMatrix erf(FloatMatrix x, Accuracy a) { return erfi(x.dup(), a); }
+    public static FloatMatrix logistic(FloatMatrix x) { return logistici(x.dup()); }
+    public static FloatMatrix logistic(FloatMatrix x, Accuracy a) { return logistici(x.dup(), a); }
 
     /*# %w{abs acos asin atan cbrt ceil cos cosh exp floor log log10 signum sin sinh sqrt tan tanh}.map do |fct| <<-EOS
     public static float #{fct}(float x) { return (float)Math.#{fct}(x); }
@@ -822,6 +1663,208 @@ public class MatrixFunctions {
     public static float tan(float x) { return (float)Math.tan(x); }
     public static float tanh(float x) { return (float)Math.tanh(x); }
 //RJPP-END--------------------------------------------------------------
+    public static float erf(float x) { return (float)Functions.erf(x); }
+    public static float logistic(float x) { return (float)(1.0f / (1.0f + Math.exp(-x))); }
+
+    /**
+     * Replaces each column by its softmax exp(x - logSumExp(x)). The maximum
+     * of each column is subtracted before exponentiating, such that no
+     * overflow occurs. Note that this is an in-place operation.
+     * @return this matrix
+     */
+    public static FloatMatrix columnSoftmaxi(FloatMatrix x) { return columnSoftmaxi(x, accuracy); }
+
+    public static FloatMatrix columnSoftmaxi(FloatMatrix x, Accuracy accuracy) {
+        columnKernel(x, null, SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each row by its softmax exp(x - logSumExp(x)). Note that this
+     * is an in-place operation.
+     * @see MatrixFunctions#columnSoftmaxi(FloatMatrix)
+     * @return this matrix
+     */
+    public static FloatMatrix rowSoftmaxi(FloatMatrix x) { return rowSoftmaxi(x, accuracy); }
+
+    public static FloatMatrix rowSoftmaxi(FloatMatrix x, Accuracy accuracy) {
+        rowKernel(x, null, SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each column by its log-softmax x - logSumExp(x). Note that
+     * this is an in-place operation.
+     * @return this matrix
+     */
+    public static FloatMatrix columnLogSoftmaxi(FloatMatrix x) { return columnLogSoftmaxi(x, accuracy); }
+
+    public static FloatMatrix columnLogSoftmaxi(FloatMatrix x, Accuracy accuracy) {
+        columnKernel(x, null, LOG_SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Replaces each row by its log-softmax x - logSumExp(x). Note that
+     * this is an in-place operation.
+     * @return this matrix
+     */
+    public static FloatMatrix rowLogSoftmaxi(FloatMatrix x) { return rowLogSoftmaxi(x, accuracy); }
+
+    public static FloatMatrix rowLogSoftmaxi(FloatMatrix x, Accuracy accuracy) {
+        rowKernel(x, null, LOG_SOFTMAX, accuracy == Accuracy.FAST);
+        return x;
+    }
+
+    /**
+     * Computes log(sum(exp(x))) for each column without overflow.
+     * @return a row vector with one entry per column
+     */
+    public static FloatMatrix columnLogSumExp(FloatMatrix x) { return columnLogSumExp(x, accuracy); }
+
+    public static FloatMatrix columnLogSumExp(FloatMatrix x, Accuracy accuracy) {
+        FloatMatrix result = new FloatMatrix(1, x.columns);
+        columnKernel(x, result.data, LOG_SUM_EXP, accuracy == Accuracy.FAST);
+        return result;
+    }
+
+    /**
+     * Computes log(sum(exp(x))) for each row without overflow.
+     * @return a column vector with one entry per row
+     */
+    public static FloatMatrix rowLogSumExp(FloatMatrix x) { return rowLogSumExp(x, accuracy); }
+
+    public static FloatMatrix rowLogSumExp(FloatMatrix x, Accuracy accuracy) {
+        FloatMatrix result = new FloatMatrix(x.rows, 1);
+        rowKernel(x, result.data, LOG_SUM_EXP, accuracy == Accuracy.FAST);
+        return result;
+    }
+
+    /** Computes log(sum(exp(x))) over all elements without overflow. */
+    public static float logSumExp(FloatMatrix x) {
+        return columnLogSumExp(new FloatMatrix(x.length, 1, x.data)).get(0);
+    }
+
+    public static FloatMatrix columnSoftmax(FloatMatrix x) { return columnSoftmaxi(x.dup()); }
+    public static FloatMatrix columnSoftmax(FloatMatrix x, Accuracy a) { return columnSoftmaxi(x.dup(), a); }
+    public static FloatMatrix rowSoftmax(FloatMatrix x) { return rowSoftmaxi(x.dup()); }
+    public static FloatMatrix rowSoftmax(FloatMatrix x, Accuracy a) { return rowSoftmaxi(x.dup(), a); }
+    public static FloatMatrix columnLogSoftmax(FloatMatrix x) { return columnLogSoftmaxi(x.dup()); }
+    public static FloatMatrix columnLogSoftmax(FloatMatrix x, Accuracy a) { return columnLogSoftmaxi(x.dup(), a); }
+    public static FloatMatrix rowLogSoftmax(FloatMatrix x) { return rowLogSoftmaxi(x.dup()); }
+    public static FloatMatrix rowLogSoftmax(FloatMatrix x, Accuracy a) { return rowLogSoftmaxi(x.dup(), a); }
+
+    private static float expWith(float x, boolean fast) {
+        return fast ? ApproxMath.exp(x) : (float) Math.exp(x);
+    }
+
+    /**
+     * Softmax and friends on the contiguous columns. Each column takes three
+     * passes (maximum, sum of exponentials, scaling) which stay in cache.
+     */
+    private static void columnKernel(FloatMatrix x, final float[] lse, final int mode, final boolean fast) {
+        final float[] data = x.data;
+        final int rows = x.rows;
+        Parallel.forRange(0, x.columns, Math.max(1, MAP_GRAIN / Math.max(1, rows)), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    int start = j * rows;
+                    int end = start + rows;
+                    float max = (float) Double.NEGATIVE_INFINITY;
+                    for (int i = start; i < end; i++)
+                        if (data[i] > max)
+                            max = data[i];
+                    float shift = Double.isInfinite(max) ? 0.0f : max;
+                    float sum = 0.0f;
+                    if (mode == SOFTMAX) {
+                        for (int i = start; i < end; i++) {
+                            float e = expWith(data[i] - shift, fast);
+                            data[i] = e;
+                            sum += e;
+                        }
+                        float scale = 1.0f / sum;
+                        for (int i = start; i < end; i++)
+                            data[i] *= scale;
+                    } else {
+                        for (int i = start; i < end; i++)
+                            sum += expWith(data[i] - shift, fast);
+                        float l = shift + (float) Math.log(sum);
+                        if (mode == LOG_SUM_EXP)
+                            lse[j] = l;
+                        else
+                            for (int i = start; i < end; i++)
+                                data[i] -= l;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Softmax and friends along the rows. Rows are processed in blocks, such
+     * that the inner loops run down the contiguous columns while the running
+     * maxima and sums of the block stay in registers or L1 cache.
+     */
+    private static void rowKernel(FloatMatrix x, final float[] lse, final int mode, final boolean fast) {
+        final float[] data = x.data;
+        final int rows = x.rows;
+        final int columns = x.columns;
+        final int block = Math.max(16, Math.min(ROW_BLOCK, ROW_BLOCK_ELEMENTS / Math.max(1, columns)));
+        Parallel.forRange(0, rows, block, new Parallel.Loop() {
+            public void run(int from, int to) {
+                float[] shift = new float[block];
+                float[] sum = new float[block];
+                for (int r = from; r < to; r += block) {
+                    int n = Math.min(block, to - r);
+                    for (int k = 0; k < n; k++) {
+                        shift[k] = (float) Double.NEGATIVE_INFINITY;
+                        sum[k] = 0.0f;
+                    }
+                    for (int j = 0; j < columns; j++) {
+                        int o = j * rows + r;
+                        for (int k = 0; k < n; k++)
+                            if (data[o + k] > shift[k])
+                                shift[k] = data[o + k];
+                    }
+                    for (int k = 0; k < n; k++)
+                        if (Double.isInfinite(shift[k]))
+                            shift[k] = 0.0f;
+                    for (int j = 0; j < columns; j++) {
+                        int o = j * rows + r;
+                        if (mode == SOFTMAX)
+                            for (int k = 0; k < n; k++) {
+                                float e = expWith(data[o + k] - shift[k], fast);
+                                data[o + k] = e;
+                                sum[k] += e;
+                            }
+                        else
+                            for (int k = 0; k < n; k++)
+                                sum[k] += expWith(data[o + k] - shift[k], fast);
+                    }
+                    if (mode == SOFTMAX) {
+                        for (int k = 0; k < n; k++)
+                            sum[k] = 1.0f / sum[k];
+                        for (int j = 0; j < columns; j++) {
+                            int o = j * rows + r;
+                            for (int k = 0; k < n; k++)
+                                data[o + k] *= sum[k];
+                        }
+                    } else {
+                        for (int k = 0; k < n; k++)
+                            sum[k] = shift[k] + (float) Math.log(sum[k]);
+                        if (mode == LOG_SUM_EXP)
+                            System.arraycopy(sum, 0, lse, r, n);
+                        else
+                            for (int j = 0; j < columns; j++) {
+                                int o = j * rows + r;
+                                for (int k = 0; k < n; k++)
+                                    data[o + k] -= sum[k];
+                            }
+                    }
+                }
+            }
+        });
+    }
 
     /**
      * Calculate matrix exponential of a square matrix.
@@ -77,6 +77,14 @@ public class NativeBlas {
     NativeBlasLibraryLoader.loadLibraryAndCheckErrors();
   }
 
+  /**
+   * Returns true if the native library could be loaded. Classes with pure Java
+   * fallbacks use this to decide whether to call the native routines.
+   */
+  public static boolean isLoaded() {
+    return NativeBlasLibraryLoader.isLoaded();
+  }
+
   private static int[] intDummy = new int[1];
   private static double[] doubleDummy = new double[1];
   private static float[] floatDummy = new float[1];
@@ -548,5 +556,29 @@ public class NativeBlas {
     return info;
   }
 
+  public static native void dspmv(char uplo, int n, double alpha, double[] ap, int apIdx, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy);
+  public static native void sspmv(char uplo, int n, float alpha, float[] ap, int apIdx, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy);
+  public static native void dtpmv(char uplo, char trans, char diag, int n, double[] ap, int apIdx, double[] x, int xIdx, int incx);
+  public static native void stpmv(char uplo, char trans, char diag, int n, float[] ap, int apIdx, float[] x, int xIdx, int incx);
+  public static native void dtpsv(char uplo, char trans, char diag, int n, double[] ap, int apIdx, double[] x, int xIdx, int incx);
+  public static native void stpsv(char uplo, char trans, char diag, int n, float[] ap, int apIdx, float[] x, int xIdx, int incx);
+  public static native int dpptrf(char uplo, int n, double[] ap, int apIdx);
+  public static native int dpptrs(char uplo, int n, int nrhs, double[] ap, int apIdx, double[] b, int bIdx, int ldb);
+  public static native int spptrf(char uplo, int n, float[] ap, int apIdx);
+  public static native int spptrs(char uplo, int n, int nrhs, float[] ap, int apIdx, float[] b, int bIdx, int ldb);
+  public static native int dsptrf(char uplo, int n, double[] ap, int apIdx, int[] ipiv, int ipivIdx);
+  public static native int dsptrs(char uplo, int n, int nrhs, double[] ap, int apIdx, int[] ipiv, int ipivIdx, double[] b, int bIdx, int ldb);
+  public static native int ssptrf(char uplo, int n, float[] ap, int apIdx, int[] ipiv, int ipivIdx);
+  public static native int ssptrs(char uplo, int n, int nrhs, float[] ap, int apIdx, int[] ipiv, int ipivIdx, float[] b, int bIdx, int ldb);
+  public static native void dgbmv(char trans, int m, int n, int kl, int ku, double alpha, double[] a, int aIdx, int lda, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy);
+  public static native void sgbmv(char trans, int m, int n, int kl, int ku, float alpha, float[] a, int aIdx, int lda, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy);
+  public static native void dsbmv(char uplo, int n, int k, double alpha, double[] a, int aIdx, int lda, double[] x, int xIdx, int incx, double beta, double[] y, int yIdx, int incy);
+  public static native void ssbmv(char uplo, int n, int k, float alpha, float[] a, int aIdx, int lda, float[] x, int xIdx, int incx, float beta, float[] y, int yIdx, int incy);
+  public static native int dgbsv(int n, int kl, int ku, int nrhs, double[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx, double[] b, int bIdx, int ldb);
+  public static native int sgbsv(int n, int kl, int ku, int nrhs, float[] ab, int abIdx, int ldab, int[] ipiv, int ipivIdx, float[] b, int bIdx, int ldb);
+  public static native int dgtsv(int n, int nrhs, double[] dl, int dlIdx, double[] d, int dIdx, double[] du, int duIdx, double[] b, int bIdx, int ldb);
+  public static native int sgtsv(int n, int nrhs, float[] dl, int dlIdx, float[] d, int dIdx, float[] du, int duIdx, float[] b, int bIdx, int ldb);
+  public static native int dptsv(int n, int nrhs, double[] d, int dIdx, double[] e, int eIdx, double[] b, int bIdx, int ldb);
+  public static native int sptsv(int n, int nrhs, float[] d, int dIdx, float[] e, int eIdx, float[] b, int bIdx, int ldb);
 
 }
@@ -49,6 +49,8 @@ import org.jblas.util.Logger;
  * Date: Oct 24, 2012
  */
 class NativeBlasLibraryLoader {
+  private static boolean loaded = false;
+
   static void loadLibraryAndCheckErrors() {
     try {
       try {
@@ -72,6 +74,7 @@ class NativeBlasLibraryLoader {
       // when dependent libraries cannot be found
       double[] a = new double[1];
       NativeBlas.dgemm('N', 'N', 1, 1, 1, 1.0, a, 0, 1, a, 0, 1, 1.0, a, 0, 1);
+      loaded = true;
     } catch (UnsatisfiedLinkError e) {
       String arch = System.getProperty("os.arch");
       String name = System.getProperty("os.name");
@@ -90,6 +93,11 @@ class NativeBlasLibraryLoader {
     }
   }
 
+  /** Whether the native library has been loaded and passed the check above. */
+  static boolean isLoaded() {
+    return loaded;
+  }
+
   public static void loadDependentLibraries() {
     String arch = System.getProperty("os.arch");
     String name = System.getProperty("os.name");
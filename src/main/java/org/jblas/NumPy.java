@@ -0,0 +1,669 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.BinaryIO;
+import org.jblas.util.Parallel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reading and writing of NumPy's <tt>.npy</tt> and <tt>.npz</tt> files.
+ *
+ * <p>Arrays with up to two dimensions and elements of type <tt>f4</tt>,
+ * <tt>f8</tt>, <tt>i4</tt>, <tt>i8</tt>, <tt>c8</tt> or <tt>c16</tt> in
+ * either byte order can be read. One-dimensional arrays become column
+ * vectors. Arrays in C order are transposed while reading, arrays in Fortran
+ * order have the same layout as jblas matrices and are copied in bulk if the
+ * element type matches. Files are read through memory mappings, and
+ * {@link #mapDouble(Path)} and {@link #mapFloat(Path)} give direct views of
+ * the elements without copying them at all.</p>
+ *
+ * <p>Matrices are written in Fortran order and little-endian byte order.
+ * <tt>.npz</tt> archives are zip files with one <tt>.npy</tt> file per array,
+ * either stored or deflated.</p>
+ */
+public class NumPy {
+    private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final Pattern DESCR = Pattern.compile("'descr'\\s*:\\s*'([<>|=])([a-z])(\\d+)'");
+    private static final Pattern FORTRAN_ORDER = Pattern.compile("'fortran_order'\\s*:\\s*(True|False)");
+    private static final Pattern SHAPE = Pattern.compile("'shape'\\s*:\\s*\\(([^)]*)\\)");
+
+    /** Files are mapped in windows of at most this many bytes. */
+    private static final long MAP_WINDOW = 1L << 30;
+
+    /** Element type, layout and shape of an array. */
+    public static class Header {
+        /** The kind of the elements: 'f' (floating point), 'i' (integer) or 'c' (complex). */
+        public final char kind;
+        /** The size of an element in bytes. */
+        public final int size;
+        /** The byte order of the elements. */
+        public final ByteOrder order;
+        /** Whether the elements are stored column by column. */
+        public final boolean fortranOrder;
+        /** The number of rows, 1 for arrays without dimensions. */
+        public final int rows;
+        /** The number of columns, 1 for arrays with less than two dimensions. */
+        public final int columns;
+        final long dataOffset;
+
+        Header(char kind, int size, ByteOrder order, boolean fortranOrder, int rows, int columns, long dataOffset) {
+            this.kind = kind;
+            this.size = size;
+            this.order = order;
+            this.fortranOrder = fortranOrder;
+            this.rows = rows;
+            this.columns = columns;
+            this.dataOffset = dataOffset;
+        }
+
+        /** Whether the elements are already in column-major order. */
+        boolean columnMajor() {
+            return fortranOrder || rows == 1 || columns == 1;
+        }
+
+        /** Size in bytes of the real and imaginary parts of complex elements, or of the elements. */
+        int componentSize() {
+            return kind == 'c' ? size / 2 : size;
+        }
+
+        int components() {
+            return kind == 'c' ? 2 : 1;
+        }
+
+        long dataSize() {
+            return (long) rows * columns * size;
+        }
+    }
+
+    /**************************************************************************
+     * .npy files
+     */
+
+    /** Read the header of a .npy file. */
+    public static Header readHeader(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer start = ByteBuffer.allocate(12);
+            readFully(channel, start);
+            int length = headerLength(start.array());
+            ByteBuffer all = ByteBuffer.allocate(length);
+            channel.position(0);
+            readFully(channel, all);
+            return parseHeader(all.array());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Read a real array as a DoubleMatrix. */
+    public static DoubleMatrix loadDouble(Path path) throws IOException {
+        Header h = readHeader(path);
+        checkReal(h);
+        DoubleMatrix result = new DoubleMatrix(h.rows, h.columns);
+        readFile(path, h, new DoubleTarget(result.data, 1));
+        return result;
+    }
+
+    /** Read a real array as a FloatMatrix. */
+    public static FloatMatrix loadFloat(Path path) throws IOException {
+        Header h = readHeader(path);
+        checkReal(h);
+        FloatMatrix result = new FloatMatrix(h.rows, h.columns);
+        readFile(path, h, new FloatTarget(result.data));
+        return result;
+    }
+
+    /** Read a complex or real array as a ComplexDoubleMatrix. */
+    public static ComplexDoubleMatrix loadComplexDouble(Path path) throws IOException {
+        Header h = readHeader(path);
+        ComplexDoubleMatrix result = new ComplexDoubleMatrix(h.rows, h.columns);
+        readFile(path, h, new DoubleTarget(result.data, 2));
+        return result;
+    }
+
+    /**
+     * Map the elements of a file with <tt>f8</tt> elements in column-major
+     * order into memory. The result is a read-only view of the file in
+     * jblas' layout, without any copying.
+     */
+    public static DoubleBuffer mapDouble(Path path) throws IOException {
+        return map(path, 'f', 8).asDoubleBuffer();
+    }
+
+    /** Map the elements of a file with <tt>f4</tt> elements, see {@link #mapDouble(Path)}. */
+    public static FloatBuffer mapFloat(Path path) throws IOException {
+        return map(path, 'f', 4).asFloatBuffer();
+    }
+
+    /** Write a matrix as <tt>&lt;f8</tt> array in Fortran order. */
+    public static void save(Path path, DoubleMatrix m) throws IOException {
+        FileChannel channel = create(path);
+        try {
+            writeFully(channel, ByteBuffer.wrap(header("<f8", m.rows, m.columns)));
+            BinaryIO.write(channel, channel.position(), m.data, ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Write a matrix as <tt>&lt;f4</tt> array in Fortran order. */
+    public static void save(Path path, FloatMatrix m) throws IOException {
+        FileChannel channel = create(path);
+        try {
+            writeFully(channel, ByteBuffer.wrap(header("<f4", m.rows, m.columns)));
+            BinaryIO.write(channel, channel.position(), m.data, ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Write a matrix as <tt>&lt;c16</tt> array in Fortran order. */
+    public static void save(Path path, ComplexDoubleMatrix m) throws IOException {
+        FileChannel channel = create(path);
+        try {
+            writeFully(channel, ByteBuffer.wrap(header("<c16", m.rows, m.columns)));
+            BinaryIO.write(channel, channel.position(), m.data, ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**************************************************************************
+     * .npz archives
+     */
+
+    /** Read all real arrays of an archive as DoubleMatrix, by name without the .npy suffix. */
+    public static Map<String, DoubleMatrix> loadDoubleArchive(Path path) throws IOException {
+        Map<String, DoubleMatrix> result = new LinkedHashMap<String, DoubleMatrix>();
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isArray(entry)) {
+                    byte[] bytes = readEntry(zip, entry);
+                    Header h = parseHeader(bytes);
+                    checkReal(h);
+                    DoubleMatrix m = new DoubleMatrix(h.rows, h.columns);
+                    convert(ByteBuffer.wrap(bytes), h, new DoubleTarget(m.data, 1));
+                    result.put(arrayName(entry), m);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return result;
+    }
+
+    /** Read all real arrays of an archive as FloatMatrix, see {@link #loadDoubleArchive(Path)}. */
+    public static Map<String, FloatMatrix> loadFloatArchive(Path path) throws IOException {
+        Map<String, FloatMatrix> result = new LinkedHashMap<String, FloatMatrix>();
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isArray(entry)) {
+                    byte[] bytes = readEntry(zip, entry);
+                    Header h = parseHeader(bytes);
+                    checkReal(h);
+                    FloatMatrix m = new FloatMatrix(h.rows, h.columns);
+                    convert(ByteBuffer.wrap(bytes), h, new FloatTarget(m.data));
+                    result.put(arrayName(entry), m);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return result;
+    }
+
+    /** Read all arrays of an archive as ComplexDoubleMatrix, see {@link #loadDoubleArchive(Path)}. */
+    public static Map<String, ComplexDoubleMatrix> loadComplexDoubleArchive(Path path) throws IOException {
+        Map<String, ComplexDoubleMatrix> result = new LinkedHashMap<String, ComplexDoubleMatrix>();
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isArray(entry)) {
+                    byte[] bytes = readEntry(zip, entry);
+                    Header h = parseHeader(bytes);
+                    ComplexDoubleMatrix m = new ComplexDoubleMatrix(h.rows, h.columns);
+                    convert(ByteBuffer.wrap(bytes), h, new DoubleTarget(m.data, 2));
+                    result.put(arrayName(entry), m);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return result;
+    }
+
+    /**
+     * Write an archive with one array per entry of the map. The values must
+     * be DoubleMatrix, FloatMatrix or ComplexDoubleMatrix.
+     *
+     * @param compressed whether to deflate the arrays, like
+     *                   <tt>numpy.savez_compressed</tt>, or to store them,
+     *                   like <tt>numpy.savez</tt>
+     */
+    public static void saveArchive(Path path, Map<String, ?> arrays, boolean compressed) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (Map.Entry<String, ?> e : arrays.entrySet()) {
+                byte[] bytes = toBytes(e.getValue());
+                ZipEntry entry = new ZipEntry(e.getKey() + ".npy");
+                if (compressed) {
+                    entry.setMethod(ZipEntry.DEFLATED);
+                } else {
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(bytes.length);
+                    entry.setCompressedSize(bytes.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(bytes);
+                zip.closeEntry();
+            }
+            zip.finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**************************************************************************
+     * Headers
+     */
+
+    /** Total length of the header including the magic string, from the first 12 bytes. */
+    private static int headerLength(byte[] start) throws IOException {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (start[i] != MAGIC[i]) {
+                throw new IOException("Not a .npy file.");
+            }
+        }
+        ByteBuffer b = ByteBuffer.wrap(start).order(ByteOrder.LITTLE_ENDIAN);
+        int major = start[6];
+        if (major == 1) {
+            return 10 + (b.getShort(8) & 0xffff);
+        } else if (major == 2 || major == 3) {
+            long length = 12 + (b.getInt(8) & 0xffffffffL);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Header of .npy file is too long.");
+            }
+            return (int) length;
+        }
+        throw new IOException("Unsupported .npy format version " + major + ".");
+    }
+
+    private static Header parseHeader(byte[] bytes) throws IOException {
+        if (bytes.length < 12) {
+            throw new IOException("Not a .npy file.");
+        }
+        int length = headerLength(bytes);
+        if (bytes.length < length) {
+            throw new EOFException("The .npy header is truncated.");
+        }
+        int start = bytes[6] == 1 ? 10 : 12;
+        String dict = new String(bytes, start, length - start, Charset.forName("UTF-8"));
+
+        Matcher descr = DESCR.matcher(dict);
+        Matcher fortranOrder = FORTRAN_ORDER.matcher(dict);
+        Matcher shape = SHAPE.matcher(dict);
+        if (!descr.find() || !fortranOrder.find() || !shape.find()) {
+            throw new IOException("Could not parse .npy header " + dict.trim());
+        }
+
+        char kind = descr.group(2).charAt(0);
+        int size = Integer.parseInt(descr.group(3));
+        if (!(kind == 'f' && (size == 4 || size == 8)) && !(kind == 'i' && (size == 4 || size == 8))
+                && !(kind == 'c' && (size == 8 || size == 16))) {
+            throw new IOException("Unsupported element type " + descr.group(2) + descr.group(3) + ".");
+        }
+        ByteOrder order;
+        switch (descr.group(1).charAt(0)) {
+            case '<':
+                order = ByteOrder.LITTLE_ENDIAN;
+                break;
+            case '>':
+                order = ByteOrder.BIG_ENDIAN;
+                break;
+            default:
+                order = ByteOrder.nativeOrder();
+        }
+
+        long[] dims = new long[2];
+        int n = 0;
+        for (String d : shape.group(1).split(",")) {
+            d = d.trim();
+            if (d.endsWith("L")) {
+                d = d.substring(0, d.length() - 1);
+            }
+            if (d.length() == 0) {
+                continue;
+            }
+            if (n == 2) {
+                throw new IOException("Only arrays with at most two dimensions are supported.");
+            }
+            dims[n++] = Long.parseLong(d);
+        }
+        long rows = n == 0 ? 1 : dims[0];
+        long columns = n < 2 ? 1 : dims[1];
+        if (rows * columns * (kind == 'c' ? 2 : 1) > Integer.MAX_VALUE) {
+            throw new IOException("Array with shape (" + shape.group(1) + ") is too large for a matrix.");
+        }
+        return new Header(kind, size, order, fortranOrder.group(1).equals("True"), (int) rows, (int) columns, length);
+    }
+
+    /** A version 1.0 header, padded so that the elements are aligned to 64 bytes. */
+    private static byte[] header(String descr, int rows, int columns) {
+        StringBuilder dict = new StringBuilder();
+        dict.append("{'descr': '").append(descr).append("', 'fortran_order': True, 'shape': (")
+                .append(rows).append(", ").append(columns).append("), }");
+        while ((10 + dict.length() + 1) % 64 != 0) {
+            dict.append(' ');
+        }
+        dict.append('\n');
+        ByteBuffer b = ByteBuffer.allocate(10 + dict.length()).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(MAGIC).put((byte) 1).put((byte) 0).putShort((short) dict.length()).put(dict.toString().getBytes(ASCII));
+        return b.array();
+    }
+
+    private static void checkReal(Header h) throws IOException {
+        if (h.kind == 'c') {
+            throw new IOException("The array is complex, use loadComplexDouble.");
+        }
+    }
+
+    /**************************************************************************
+     * Conversion of elements
+     */
+
+    /** Destination of the elements read from a file. */
+    private static abstract class Target {
+        /** Number of values per element, 2 for complex matrices. */
+        final int components;
+
+        Target(int components) {
+            this.components = components;
+        }
+
+        abstract void set(int i, double value);
+
+        /**
+         * Copy n values from the buffer starting at index i if they have the
+         * type of the target, returning false otherwise.
+         */
+        abstract boolean bulk(ByteBuffer b, Header h, int i, int n);
+    }
+
+    private static class DoubleTarget extends Target {
+        final double[] data;
+
+        DoubleTarget(double[] data, int components) {
+            super(components);
+            this.data = data;
+        }
+
+        void set(int i, double value) {
+            data[i] = value;
+        }
+
+        boolean bulk(ByteBuffer b, Header h, int i, int n) {
+            if (h.componentSize() != 8 || h.kind == 'i' || h.components() != components) {
+                return false;
+            }
+            b.asDoubleBuffer().get(data, i, n);
+            return true;
+        }
+    }
+
+    private static class FloatTarget extends Target {
+        final float[] data;
+
+        FloatTarget(float[] data) {
+            super(1);
+            this.data = data;
+        }
+
+        void set(int i, double value) {
+            data[i] = (float) value;
+        }
+
+        boolean bulk(ByteBuffer b, Header h, int i, int n) {
+            if (h.kind != 'f' || h.size != 4) {
+                return false;
+            }
+            b.asFloatBuffer().get(data, i, n);
+            return true;
+        }
+    }
+
+    /** Read the elements of a .npy file through memory mappings of at most MAP_WINDOW bytes. */
+    private static void readFile(Path path, Header h, Target target) throws IOException {
+        if (h.dataSize() == 0) {
+            return;
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < h.dataOffset + h.dataSize()) {
+                throw new EOFException("The .npy file is truncated.");
+            }
+            // windows are whole rows for arrays in C order
+            long unit = h.columnMajor() ? h.size : (long) h.columns * h.size;
+            long perWindow = Math.max(1, MAP_WINDOW / unit) * unit;
+            for (long offset = 0; offset < h.dataSize(); offset += perWindow) {
+                long size = Math.min(perWindow, h.dataSize() - offset);
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Rows of the array are too long to be mapped.");
+                }
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, h.dataOffset + offset, size);
+                convert(window.order(h.order), h, (int) (offset / h.size), (int) (size / h.size), target);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Convert all elements of an array stored in the buffer after its header. */
+    private static void convert(ByteBuffer bytes, Header h, Target target) throws IOException {
+        if (bytes.capacity() < h.dataOffset + h.dataSize()) {
+            throw new EOFException("The .npy data is truncated.");
+        }
+        bytes.position((int) h.dataOffset);
+        convert(bytes.slice().order(h.order), h, 0, h.rows * h.columns, target);
+    }
+
+    /**
+     * Convert count elements starting with element first (in the order of
+     * the file), with element first at the start of the buffer.
+     */
+    private static void convert(final ByteBuffer b, final Header h, final int first, final int count, final Target target) {
+        final int fileComponents = h.components();
+        if (h.columnMajor() && target.bulk(b, h, first * target.components, count * fileComponents)) {
+            return;
+        }
+        final int rows = h.rows;
+        final int columns = h.columns;
+        final boolean columnMajor = h.columnMajor();
+        Parallel.forRange(0, count, MatrixFunctions.MAP_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                int k = first + from;
+                // row and column of element k in C order
+                int i = columnMajor ? 0 : k / columns;
+                int j = columnMajor ? 0 : k % columns;
+                for (int e = from; e < to; e++, k++) {
+                    int dest = columnMajor ? k : j * rows + i;
+                    for (int c = 0; c < fileComponents; c++) {
+                        target.set(dest * target.components + c, component(b, h, e * fileComponents + c));
+                    }
+                    if (!columnMajor && ++j == columns) {
+                        j = 0;
+                        i++;
+                    }
+                }
+            }
+        });
+    }
+
+    /** The value with the given index, counting real and imaginary parts separately. */
+    private static double component(ByteBuffer b, Header h, int index) {
+        if (h.kind == 'i') {
+            return h.size == 8 ? (double) b.getLong(8 * index) : b.getInt(4 * index);
+        }
+        return h.componentSize() == 8 ? b.getDouble(8 * index) : b.getFloat(4 * index);
+    }
+
+    /**************************************************************************
+     * Helpers
+     */
+
+    private static ByteBuffer map(Path path, char kind, int size) throws IOException {
+        Header h = readHeader(path);
+        if (h.kind != kind || h.size != size || !h.columnMajor()) {
+            throw new IOException("Only arrays with elements of type " + kind + size
+                    + " in Fortran order can be mapped.");
+        }
+        if (h.dataSize() > Integer.MAX_VALUE) {
+            throw new IOException("The array is too large to be mapped as a whole.");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, h.dataOffset, h.dataSize()).order(h.order);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static FileChannel create(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    /** The .npy file for a matrix as bytes. */
+    private static byte[] toBytes(Object m) {
+        byte[] header;
+        ByteBuffer b;
+        if (m instanceof DoubleMatrix) {
+            DoubleMatrix d = (DoubleMatrix) m;
+            header = header("<f8", d.rows, d.columns);
+            b = ByteBuffer.allocate(header.length + 8 * d.data.length).order(ByteOrder.LITTLE_ENDIAN);
+            b.put(header).asDoubleBuffer().put(d.data);
+        } else if (m instanceof FloatMatrix) {
+            FloatMatrix f = (FloatMatrix) m;
+            header = header("<f4", f.rows, f.columns);
+            b = ByteBuffer.allocate(header.length + 4 * f.data.length).order(ByteOrder.LITTLE_ENDIAN);
+            b.put(header).asFloatBuffer().put(f.data);
+        } else if (m instanceof ComplexDoubleMatrix) {
+            ComplexDoubleMatrix c = (ComplexDoubleMatrix) m;
+            header = header("<c16", c.rows, c.columns);
+            b = ByteBuffer.allocate(header.length + 8 * c.data.length).order(ByteOrder.LITTLE_ENDIAN);
+            b.put(header).asDoubleBuffer().put(c.data);
+        } else {
+            throw new IllegalArgumentException("Cannot save " + (m == null ? "null" : m.getClass().getName())
+                    + " as .npy array.");
+        }
+        return b.array();
+    }
+
+    private static boolean isArray(ZipEntry entry) {
+        return !entry.isDirectory() && entry.getName().endsWith(".npy");
+    }
+
+    private static String arrayName(ZipEntry entry) {
+        String name = entry.getName();
+        return name.substring(0, name.length() - ".npy".length());
+    }
+
+    private static byte[] readEntry(ZipFile zip, ZipEntry entry) throws IOException {
+        InputStream in = zip.getInputStream(entry);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(entry.getSize() > 0 ? (int) entry.getSize() : 1 << 16);
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            if (channel.read(b) < 0) {
+                throw new EOFException("The .npy file is truncated.");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            channel.write(b);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A permutation matrix stored as an index vector.
+ *
+ * <p>The permutation matrix P has a one at (indices[i], i) for each column i and
+ * zeros elsewhere. Multiplying P from the left moves row i of a matrix to row
+ * indices[i], multiplying it from the right moves column indices[i] to column i.
+ * Both only take O(n) memory and time linear in the size of the other matrix,
+ * compared to O(n^2) memory and O(n^3) time for a dense permutation matrix.</p>
+ *
+ * <p>The in-place versions (mmuli, rmmuli) follow the cycles of the permutation
+ * and only need memory for a single row or column.</p>
+ */
+public class PermutationMatrix implements Serializable {
+    /** The permutation: P(indices[i], i) = 1. */
+    public int[] indices;
+
+    static final long serialVersionUID = -2870383120519470853L;
+
+    /** Create a permutation matrix from an index vector. The array is not copied. */
+    public PermutationMatrix(int[] indices) {
+        boolean[] seen = new boolean[indices.length];
+        for (int i : indices) {
+            if (i < 0 || i >= indices.length || seen[i]) {
+                throw new IllegalArgumentException("Indices must be a permutation of 0, ..., n - 1.");
+            }
+            seen[i] = true;
+        }
+        this.indices = indices;
+    }
+
+    /** Create an identity permutation of size n. */
+    public static PermutationMatrix eye(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return new PermutationMatrix(indices);
+    }
+
+    /**
+     * Create a permutation matrix from a LAPACK-style 'ipiv' vector as returned
+     * by GETRF, such that A = P * L * U.
+     *
+     * @param ipiv row i was interchanged with row ipiv[i] (one-based)
+     */
+    public static PermutationMatrix fromPivotIndices(int size, int[] ipiv) {
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        for (int i = 0; i < ipiv.length; i++) {
+            int j = ipiv[i] - 1;
+            int t = indices[i];
+            indices[i] = indices[j];
+            indices[j] = t;
+        }
+        return new PermutationMatrix(indices);
+    }
+
+    /** Size of the permutation. */
+    public int size() {
+        return indices.length;
+    }
+
+    public int getRows() {
+        return indices.length;
+    }
+
+    public int getColumns() {
+        return indices.length;
+    }
+
+    /** Get the entry (i, j), which is either 0 or 1. */
+    public double get(int i, int j) {
+        return indices[j] == i ? 1.0 : 0.0;
+    }
+
+    /** The inverse permutation, which equals the transpose. */
+    public PermutationMatrix inverse() {
+        int[] inv = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            inv[indices[i]] = i;
+        }
+        return new PermutationMatrix(inv);
+    }
+
+    /** The transpose, which equals the inverse. */
+    public PermutationMatrix transpose() {
+        return inverse();
+    }
+
+    /** The product this * other. */
+    public PermutationMatrix mmul(PermutationMatrix other) {
+        assertSize(other.indices.length);
+        int[] result = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            result[i] = indices[other.indices[i]];
+        }
+        return new PermutationMatrix(result);
+    }
+
+    /** The sign of the permutation (the determinant of the matrix), +1 or -1. */
+    public int sign() {
+        boolean[] visited = new boolean[indices.length];
+        int sign = 1;
+        for (int s = 0; s < indices.length; s++) {
+            if (!visited[s]) {
+                int length = 0;
+                for (int i = s; !visited[i]; i = indices[i]) {
+                    visited[i] = true;
+                    length++;
+                }
+                if (length % 2 == 0) {
+                    sign = -sign;
+                }
+            }
+        }
+        return sign;
+    }
+
+    /** Apply the permutation to an index: P maps the unit vector e_i to e_indices[i]. */
+    public int apply(int i) {
+        return indices[i];
+    }
+
+    private void assertSize(int n) {
+        if (n != indices.length) {
+            throw new SizeException("Size must be " + indices.length + " (is " + n + ").");
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Products with DoubleMatrix
+     *
+     **************************************************************************/
+
+    /** Compute this * a. */
+    public DoubleMatrix mmul(DoubleMatrix a) {
+        assertSize(a.rows);
+        DoubleMatrix result = new DoubleMatrix(a.rows, a.columns);
+        for (int j = 0; j < a.columns; j++) {
+            int c = j * a.rows;
+            for (int i = 0; i < a.rows; i++) {
+                result.data[c + indices[i]] = a.data[c + i];
+            }
+        }
+        return result;
+    }
+
+    /** Compute a = this * a in-place. */
+    public DoubleMatrix mmuli(DoubleMatrix a) {
+        assertSize(a.rows);
+        boolean[] visited = new boolean[indices.length];
+        for (int s = 0; s < indices.length; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            visited[s] = true;
+            for (int j = 0; j < a.columns; j++) {
+                int c = j * a.rows;
+                double carry = a.data[c + s];
+                for (int i = indices[s]; i != s; i = indices[i]) {
+                    double t = a.data[c + i];
+                    a.data[c + i] = carry;
+                    carry = t;
+                }
+                a.data[c + s] = carry;
+            }
+            for (int i = indices[s]; i != s; i = indices[i]) {
+                visited[i] = true;
+            }
+        }
+        return a;
+    }
+
+    /** Compute a * this. */
+    public DoubleMatrix rmmul(DoubleMatrix a) {
+        assertSize(a.columns);
+        DoubleMatrix result = new DoubleMatrix(a.rows, a.columns);
+        for (int i = 0; i < indices.length; i++) {
+            System.arraycopy(a.data, indices[i] * a.rows, result.data, i * a.rows, a.rows);
+        }
+        return result;
+    }
+
+    /** Compute a = a * this in-place. */
+    public DoubleMatrix rmmuli(DoubleMatrix a) {
+        assertSize(a.columns);
+        boolean[] visited = new boolean[indices.length];
+        double[] temp = new double[a.rows];
+        for (int s = 0; s < indices.length; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            System.arraycopy(a.data, s * a.rows, temp, 0, a.rows);
+            int i = s;
+            visited[i] = true;
+            while (indices[i] != s) {
+                System.arraycopy(a.data, indices[i] * a.rows, a.data, i * a.rows, a.rows);
+                i = indices[i];
+                visited[i] = true;
+            }
+            System.arraycopy(temp, 0, a.data, i * a.rows, a.rows);
+        }
+        return a;
+    }
+
+    /** Convert to a dense DoubleMatrix. */
+    public DoubleMatrix toDoubleMatrix() {
+        DoubleMatrix result = new DoubleMatrix(indices.length, indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            result.put(indices[i], i, 1.0);
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Products with FloatMatrix
+     *
+     **************************************************************************/
+
+    /** Compute this * a. */
+    public FloatMatrix mmul(FloatMatrix a) {
+        assertSize(a.rows);
+        FloatMatrix result = new FloatMatrix(a.rows, a.columns);
+        for (int j = 0; j < a.columns; j++) {
+            int c = j * a.rows;
+            for (int i = 0; i < a.rows; i++) {
+                result.data[c + indices[i]] = a.data[c + i];
+            }
+        }
+        return result;
+    }
+
+    /** Compute a = this * a in-place. */
+    public FloatMatrix mmuli(FloatMatrix a) {
+        assertSize(a.rows);
+        boolean[] visited = new boolean[indices.length];
+        for (int s = 0; s < indices.length; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            visited[s] = true;
+            for (int j = 0; j < a.columns; j++) {
+                int c = j * a.rows;
+                float carry = a.data[c + s];
+                for (int i = indices[s]; i != s; i = indices[i]) {
+                    float t = a.data[c + i];
+                    a.data[c + i] = carry;
+                    carry = t;
+                }
+                a.data[c + s] = carry;
+            }
+            for (int i = indices[s]; i != s; i = indices[i]) {
+                visited[i] = true;
+            }
+        }
+        return a;
+    }
+
+    /** Compute a * this. */
+    public FloatMatrix rmmul(FloatMatrix a) {
+        assertSize(a.columns);
+        FloatMatrix result = new FloatMatrix(a.rows, a.columns);
+        for (int i = 0; i < indices.length; i++) {
+            System.arraycopy(a.data, indices[i] * a.rows, result.data, i * a.rows, a.rows);
+        }
+        return result;
+    }
+
+    /** Compute a = a * this in-place. */
+    public FloatMatrix rmmuli(FloatMatrix a) {
+        assertSize(a.columns);
+        boolean[] visited = new boolean[indices.length];
+        float[] temp = new float[a.rows];
+        for (int s = 0; s < indices.length; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            System.arraycopy(a.data, s * a.rows, temp, 0, a.rows);
+            int i = s;
+            visited[i] = true;
+            while (indices[i] != s) {
+                System.arraycopy(a.data, indices[i] * a.rows, a.data, i * a.rows, a.rows);
+                i = indices[i];
+                visited[i] = true;
+            }
+            System.arraycopy(temp, 0, a.data, i * a.rows, a.rows);
+        }
+        return a;
+    }
+
+    /** Convert to a dense FloatMatrix. */
+    public FloatMatrix toFloatMatrix() {
+        FloatMatrix result = new FloatMatrix(indices.length, indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            result.put(indices[i], i, 1.0f);
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PermutationMatrix && Arrays.equals(indices, ((PermutationMatrix) o).indices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(indices);
+    }
+
+    @Override
+    public String toString() {
+        return "<PermutationMatrix " + Arrays.toString(indices) + ">";
+    }
+}
@@ -67,6 +67,31 @@ public class Solve {
 		return X;
 	}
 
+	/** Solves the linear equation A*X = B for a band matrix A in O(n * kl * (kl + ku)) time. */
+	public static DoubleMatrix solve(BandDoubleMatrix A, DoubleMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for a tridiagonal matrix A in O(n) time. */
+	public static DoubleMatrix solve(TridiagonalDoubleMatrix A, DoubleMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric and positive definite tridiagonal A. */
+	public static DoubleMatrix solvePositive(TridiagonalDoubleMatrix A, DoubleMatrix B) {
+		return A.solvePositive(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric A in packed storage. */
+	public static DoubleMatrix solveSymmetric(SymmetricDoubleMatrix A, DoubleMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric and positive definite A in packed storage. */
+	public static DoubleMatrix solvePositive(SymmetricDoubleMatrix A, DoubleMatrix B) {
+		return A.solvePositive(B);
+	}
+
   /** Computes the Least Squares solution for over or underdetermined
    * linear equations A*X = B
    *
@@ -135,6 +160,31 @@ public class Solve {
 		return X;
 	}
 
+	/** Solves the linear equation A*X = B for a band matrix A in O(n * kl * (kl + ku)) time. */
+	public static FloatMatrix solve(BandFloatMatrix A, FloatMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for a tridiagonal matrix A in O(n) time. */
+	public static FloatMatrix solve(TridiagonalFloatMatrix A, FloatMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric and positive definite tridiagonal A. */
+	public static FloatMatrix solvePositive(TridiagonalFloatMatrix A, FloatMatrix B) {
+		return A.solvePositive(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric A in packed storage. */
+	public static FloatMatrix solveSymmetric(SymmetricFloatMatrix A, FloatMatrix B) {
+		return A.solve(B);
+	}
+
+	/** Solves the linear equation A*X = B for symmetric and positive definite A in packed storage. */
+	public static FloatMatrix solvePositive(SymmetricFloatMatrix A, FloatMatrix B) {
+		return A.solvePositive(B);
+	}
+
   /** Computes the Least Squares solution for over or underdetermined
    * linear equations A*X = B
    *
@@ -0,0 +1,632 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A sparse matrix for <tt>float</tt> values in compressed sparse column (CSC) format.
+ *
+ * <p>Like FloatMatrix, the matrix is stored by columns. The row indices of the
+ * non-zero entries of column <i>j</i> are stored in
+ * <tt>rowIndices[columnPointers[j]]</tt> to <tt>rowIndices[columnPointers[j + 1] - 1]</tt>
+ * in increasing order, and the corresponding values in <tt>values</tt>.</p>
+ *
+ * <p>Products, sums and element-wise products of two sparse matrices are computed
+ * without converting to a dense matrix. Products are computed with a multi-threaded
+ * version of Gustavson's algorithm, which first computes the number of non-zeros of
+ * each result column (the symbolic phase) and then fills in the values (the numeric
+ * phase). Results are always sparse. Use {@link #autoConvert()} to get a
+ * FloatMatrix instead if the result has become dense enough.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new SparseFloatMatrix(x)<td>Sparse copy of the FloatMatrix x.
+ * <tr><td>SparseFloatMatrix.fromTriplets(m, n, r, c, v)<td>Matrix with entries v[k] at (r[k], c[k]).
+ * <tr><td>a.mmul(b)<td>Matrix-matrix product with a sparse or dense matrix.
+ * <tr><td>a.add(b), a.sub(b)<td>Sum and difference of sparse matrices.
+ * <tr><td>a.mul(b)<td>Element-wise (Hadamard) product of sparse matrices.
+ * <tr><td>a.mul(v)<td>Multiplication with a scalar.
+ * <tr><td>a.toDense()<td>Convert to a FloatMatrix.
+ * <caption>Sparse matrix operations.</caption>
+ * </table>
+ */
+public class SparseFloatMatrix implements ConvertsToFloatMatrix, Serializable {
+    /** Number of rows. */
+    public int rows;
+    /** Number of columns. */
+    public int columns;
+    /** Start of each column in rowIndices and values (length columns + 1). */
+    public int[] columnPointers;
+    /** Row index of each stored entry. */
+    public int[] rowIndices;
+    /** Value of each stored entry. */
+    public float[] values;
+
+    static final long serialVersionUID = 3360837468209742816L;
+
+    /**
+     * Fraction of non-zero entries above which {@link #autoConvert()} returns a
+     * dense matrix.
+     */
+    public static float denseThreshold = 0.3f;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 64;
+
+    /**************************************************************************
+     *
+     * Constructors and factory functions
+     *
+     **************************************************************************/
+
+    /**
+     * Create a sparse matrix from its CSC representation. The arrays are not
+     * copied. Row indices must be sorted within each column and must not contain
+     * duplicates.
+     */
+    public SparseFloatMatrix(int rows, int columns, int[] columnPointers, int[] rowIndices, float[] values) {
+        if (columnPointers.length != columns + 1) {
+            throw new IllegalArgumentException("Column pointers must have columns + 1 entries.");
+        }
+        if (rowIndices.length < columnPointers[columns] || values.length < columnPointers[columns]) {
+            throw new IllegalArgumentException("Row indices and values must have at least as many entries as non-zeros.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.values = values;
+    }
+
+    /** Create an all-zero sparse matrix. */
+    public SparseFloatMatrix(int rows, int columns) {
+        this(rows, columns, new int[columns + 1], new int[0], new float[0]);
+    }
+
+    /** Create a sparse copy of the non-zero entries of a dense matrix. */
+    public SparseFloatMatrix(FloatMatrix A) {
+        this(A.rows, A.columns);
+
+        int nnz = 0;
+        for (int i = 0; i < A.length; i++) {
+            if (A.data[i] != 0.0f) {
+                nnz++;
+            }
+        }
+
+        rowIndices = new int[nnz];
+        values = new float[nnz];
+
+        int k = 0;
+        for (int j = 0; j < A.columns; j++) {
+            int offset = j * A.rows;
+            for (int i = 0; i < A.rows; i++) {
+                float v = A.data[offset + i];
+                if (v != 0.0f) {
+                    rowIndices[k] = i;
+                    values[k] = v;
+                    k++;
+                }
+            }
+            columnPointers[j + 1] = k;
+        }
+    }
+
+    /**
+     * Create a sparse matrix from triplets, such that entry (ri[k], ci[k]) equals v[k].
+     * Values for duplicate positions are summed up.
+     */
+    public static SparseFloatMatrix fromTriplets(int rows, int columns, int[] ri, int[] ci, float[] v) {
+        if (ri.length != ci.length || ri.length != v.length) {
+            throw new SizeException("Row indices, column indices and values must have the same length.");
+        }
+
+        // counting sort by column, then sort rows within columns
+        int[] columnPointers = new int[columns + 1];
+        for (int k = 0; k < ci.length; k++) {
+            if (ri[k] < 0 || ri[k] >= rows || ci[k] < 0 || ci[k] >= columns) {
+                throw new IndexOutOfBoundsException("Entry (" + ri[k] + ", " + ci[k] + ") outside of " + rows + " * " + columns + " matrix.");
+            }
+            columnPointers[ci[k] + 1]++;
+        }
+        for (int j = 0; j < columns; j++) {
+            columnPointers[j + 1] += columnPointers[j];
+        }
+
+        int[] next = Arrays.copyOf(columnPointers, columns);
+        int[] sortedRows = new int[ri.length];
+        float[] sortedValues = new float[ri.length];
+        for (int k = 0; k < ci.length; k++) {
+            int p = next[ci[k]]++;
+            sortedRows[p] = ri[k];
+            sortedValues[p] = v[k];
+        }
+
+        // sort each column and merge duplicates
+        int[] rowIndices = new int[ri.length];
+        float[] values = new float[ri.length];
+        int nnz = 0;
+        long[] keys = new long[0];
+        for (int j = 0; j < columns; j++) {
+            int start = columnPointers[j];
+            int end = columnPointers[j + 1];
+            columnPointers[j] = nnz;
+            int len = end - start;
+            if (keys.length < len) {
+                keys = new long[len];
+            }
+            for (int p = 0; p < len; p++) {
+                keys[p] = ((long) sortedRows[start + p] << 32) | p;
+            }
+            Arrays.sort(keys, 0, len);
+            int last = -1;
+            for (int p = 0; p < len; p++) {
+                int r = (int) (keys[p] >>> 32);
+                float x = sortedValues[start + (int) (keys[p] & 0xffffffffL)];
+                if (r == last) {
+                    values[nnz - 1] += x;
+                } else {
+                    rowIndices[nnz] = r;
+                    values[nnz] = x;
+                    nnz++;
+                    last = r;
+                }
+            }
+        }
+        columnPointers[columns] = nnz;
+
+        return new SparseFloatMatrix(rows, columns, columnPointers, rowIndices, values);
+    }
+
+    /** Create an n-by-n sparse identity matrix. */
+    public static SparseFloatMatrix eye(int n) {
+        int[] columnPointers = new int[n + 1];
+        int[] rowIndices = new int[n];
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++) {
+            columnPointers[i + 1] = i + 1;
+            rowIndices[i] = i;
+            values[i] = 1.0f;
+        }
+        return new SparseFloatMatrix(n, n, columnPointers, rowIndices, values);
+    }
+
+    /**************************************************************************
+     *
+     * Element access and conversion
+     *
+     **************************************************************************/
+
+    /** Number of stored (structurally non-zero) entries. */
+    public int nnz() {
+        return columnPointers[columns];
+    }
+
+    /** Fraction of stored entries. */
+    public float density() {
+        if (rows == 0 || columns == 0) {
+            return 0.0f;
+        }
+        return (float) nnz() / ((float) rows * columns);
+    }
+
+    /** Get element in row i and column j. */
+    public float get(int i, int j) {
+        int p = Arrays.binarySearch(rowIndices, columnPointers[j], columnPointers[j + 1], i);
+        return p >= 0 ? values[p] : 0.0f;
+    }
+
+    /** Checks whether two matrices have the same size. */
+    public boolean sameSize(SparseFloatMatrix a) {
+        return rows == a.rows && columns == a.columns;
+    }
+
+    /** Throws SizeException unless two matrices have the same size. */
+    public void assertSameSize(SparseFloatMatrix a) {
+        if (!sameSize(a)) {
+            throw new SizeException("Matrices must have the same size.");
+        }
+    }
+
+    /** Convert to a dense matrix. */
+    public FloatMatrix toDense() {
+        FloatMatrix result = new FloatMatrix(rows, columns);
+        for (int j = 0; j < columns; j++) {
+            int offset = j * rows;
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                result.data[offset + rowIndices[p]] = values[p];
+            }
+        }
+        return result;
+    }
+
+    public FloatMatrix convertToFloatMatrix() {
+        return toDense();
+    }
+
+    /**
+     * Returns a dense copy if the density is at least {@link #denseThreshold},
+     * otherwise returns this matrix.
+     */
+    public ConvertsToFloatMatrix autoConvert() {
+        if (density() >= denseThreshold) {
+            return toDense();
+        }
+        return this;
+    }
+
+    /** Returns a duplicate of this matrix. */
+    public SparseFloatMatrix dup() {
+        int nnz = nnz();
+        return new SparseFloatMatrix(rows, columns, columnPointers.clone(),
+                Arrays.copyOf(rowIndices, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    /** Return the transposed matrix. */
+    public SparseFloatMatrix transpose() {
+        int nnz = nnz();
+        int[] tPointers = new int[rows + 1];
+        for (int p = 0; p < nnz; p++) {
+            tPointers[rowIndices[p] + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            tPointers[i + 1] += tPointers[i];
+        }
+
+        int[] next = Arrays.copyOf(tPointers, rows);
+        int[] tRows = new int[nnz];
+        float[] tValues = new float[nnz];
+        // going through the columns in order keeps the row indices of the result sorted
+        for (int j = 0; j < columns; j++) {
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                int q = next[rowIndices[p]]++;
+                tRows[q] = j;
+                tValues[q] = values[p];
+            }
+        }
+        return new SparseFloatMatrix(columns, rows, tPointers, tRows, tValues);
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic operations
+     *
+     **************************************************************************/
+
+    /** Multiply all entries by a scalar (in-place). */
+    public SparseFloatMatrix muli(float v) {
+        int nnz = nnz();
+        for (int p = 0; p < nnz; p++) {
+            values[p] *= v;
+        }
+        return this;
+    }
+
+    /** Multiply all entries by a scalar. */
+    public SparseFloatMatrix mul(float v) {
+        return dup().muli(v);
+    }
+
+    /** Negate all entries. */
+    public SparseFloatMatrix neg() {
+        return dup().muli(-1.0f);
+    }
+
+    /** Add a sparse matrix. */
+    public SparseFloatMatrix add(SparseFloatMatrix other) {
+        return elementwise(other, ADD);
+    }
+
+    /** Subtract a sparse matrix. */
+    public SparseFloatMatrix sub(SparseFloatMatrix other) {
+        return elementwise(other, SUB);
+    }
+
+    /** Element-wise (Hadamard) product with a sparse matrix. */
+    public SparseFloatMatrix mul(SparseFloatMatrix other) {
+        return elementwise(other, MUL);
+    }
+
+    /** Add a dense matrix. The result is dense. */
+    public FloatMatrix add(FloatMatrix other) {
+        if (rows != other.rows || columns != other.columns) {
+            throw new SizeException("Matrices must have the same size.");
+        }
+        FloatMatrix result = other.dup();
+        for (int j = 0; j < columns; j++) {
+            int offset = j * rows;
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                result.data[offset + rowIndices[p]] += values[p];
+            }
+        }
+        return result;
+    }
+
+    /** Element-wise product with a dense matrix. The result is sparse. */
+    public SparseFloatMatrix mul(FloatMatrix other) {
+        if (rows != other.rows || columns != other.columns) {
+            throw new SizeException("Matrices must have the same size.");
+        }
+        SparseFloatMatrix result = dup();
+        for (int j = 0; j < columns; j++) {
+            int offset = j * rows;
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                result.values[p] *= other.data[offset + rowIndices[p]];
+            }
+        }
+        return result;
+    }
+
+    private static final int ADD = 0;
+    private static final int SUB = 1;
+    private static final int MUL = 2;
+
+    /**
+     * Element-wise operations on two sparse matrices. Sums and differences store the
+     * union of both patterns, products the intersection.
+     */
+    private SparseFloatMatrix elementwise(final SparseFloatMatrix other, final int op) {
+        assertSameSize(other);
+
+        // symbolic phase: number of entries of each result column
+        final int[] counts = new int[columns + 1];
+        Parallel.forRange(0, columns, COLUMN_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    counts[j + 1] = mergeColumn(other, op, j, null, null, 0);
+                }
+            }
+        });
+        for (int j = 0; j < columns; j++) {
+            counts[j + 1] += counts[j];
+        }
+
+        // numeric phase
+        final int[] resultRows = new int[counts[columns]];
+        final float[] resultValues = new float[counts[columns]];
+        Parallel.forRange(0, columns, COLUMN_GRAIN, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    mergeColumn(other, op, j, resultRows, resultValues, counts[j]);
+                }
+            }
+        });
+
+        return new SparseFloatMatrix(rows, columns, counts, resultRows, resultValues);
+    }
+
+    /**
+     * Merge column j of this and other. If resultRows is null, only counts the
+     * number of result entries.
+     */
+    private int mergeColumn(SparseFloatMatrix other, int op, int j, int[] resultRows, float[] resultValues, int q) {
+        int p1 = columnPointers[j], e1 = columnPointers[j + 1];
+        int p2 = other.columnPointers[j], e2 = other.columnPointers[j + 1];
+        int[] r1 = rowIndices, r2 = other.rowIndices;
+        float[] v1 = values, v2 = other.values;
+        int start = q;
+
+        if (op == MUL) {
+            while (p1 < e1 && p2 < e2) {
+                if (r1[p1] < r2[p2]) {
+                    p1++;
+                } else if (r1[p1] > r2[p2]) {
+                    p2++;
+                } else {
+                    if (resultRows != null) {
+                        resultRows[q] = r1[p1];
+                        resultValues[q] = v1[p1] * v2[p2];
+                    }
+                    q++;
+                    p1++;
+                    p2++;
+                }
+            }
+            return q - start;
+        }
+
+        float sign = (op == SUB) ? -1.0f : 1.0f;
+        while (p1 < e1 || p2 < e2) {
+            int row;
+            float v;
+            if (p2 >= e2 || (p1 < e1 && r1[p1] < r2[p2])) {
+                row = r1[p1];
+                v = v1[p1++];
+            } else if (p1 >= e1 || r2[p2] < r1[p1]) {
+                row = r2[p2];
+                v = sign * v2[p2++];
+            } else {
+                row = r1[p1];
+                v = v1[p1++] + sign * v2[p2++];
+            }
+            if (resultRows != null) {
+                resultRows[q] = row;
+                resultValues[q] = v;
+            }
+            q++;
+        }
+        return q - start;
+    }
+
+    /**
+     * Matrix-matrix multiplication with a sparse matrix.
+     *
+     * Uses Gustavson's algorithm: column j of the result is the sum of the
+     * columns of this matrix weighted by the entries of column j of other.
+     * The result columns are computed in parallel, first only their number of
+     * non-zeros to size the result, and then their values. The columns are
+     * split into about one range per thread, each with its own dense workspace.
+     */
+    public SparseFloatMatrix mmul(final SparseFloatMatrix other) {
+        if (columns != other.rows) {
+            throw new SizeException("Number of columns of left matrix must be equal to number of rows of right matrix.");
+        }
+        final int n = other.columns;
+        // every task allocates a workspace of the size of a column, so only create about one task per thread
+        final int grain = Math.max(COLUMN_GRAIN, (n + Parallel.getThreads() - 1) / Parallel.getThreads());
+
+        // symbolic phase
+        final int[] resultPointers = new int[n + 1];
+        Parallel.forRange(0, n, grain, new Parallel.Loop() {
+            public void run(int from, int to) {
+                int[] marker = new int[rows];
+                Arrays.fill(marker, -1);
+                for (int j = from; j < to; j++) {
+                    int count = 0;
+                    for (int pb = other.columnPointers[j]; pb < other.columnPointers[j + 1]; pb++) {
+                        int k = other.rowIndices[pb];
+                        for (int pa = columnPointers[k]; pa < columnPointers[k + 1]; pa++) {
+                            int i = rowIndices[pa];
+                            if (marker[i] != j) {
+                                marker[i] = j;
+                                count++;
+                            }
+                        }
+                    }
+                    resultPointers[j + 1] = count;
+                }
+            }
+        });
+        for (int j = 0; j < n; j++) {
+            resultPointers[j + 1] += resultPointers[j];
+        }
+
+        // numeric phase, using a dense accumulator for each task
+        final int[] resultRows = new int[resultPointers[n]];
+        final float[] resultValues = new float[resultPointers[n]];
+        Parallel.forRange(0, n, grain, new Parallel.Loop() {
+            public void run(int from, int to) {
+                int[] marker = new int[rows];
+                float[] accumulator = new float[rows];
+                Arrays.fill(marker, -1);
+                for (int j = from; j < to; j++) {
+                    int start = resultPointers[j];
+                    int q = start;
+                    for (int pb = other.columnPointers[j]; pb < other.columnPointers[j + 1]; pb++) {
+                        int k = other.rowIndices[pb];
+                        float b = other.values[pb];
+                        for (int pa = columnPointers[k]; pa < columnPointers[k + 1]; pa++) {
+                            int i = rowIndices[pa];
+                            if (marker[i] != j) {
+                                marker[i] = j;
+                                resultRows[q++] = i;
+                                accumulator[i] = values[pa] * b;
+                            } else {
+                                accumulator[i] += values[pa] * b;
+                            }
+                        }
+                    }
+                    Arrays.sort(resultRows, start, q);
+                    for (int p = start; p < q; p++) {
+                        resultValues[p] = accumulator[resultRows[p]];
+                    }
+                }
+            }
+        });
+
+        return new SparseFloatMatrix(rows, n, resultPointers, resultRows, resultValues);
+    }
+
+    /** Matrix-matrix multiplication with a dense matrix. The result is dense. */
+    public FloatMatrix mmul(final FloatMatrix other) {
+        if (columns != other.rows) {
+            throw new SizeException("Number of columns of left matrix must be equal to number of rows of right matrix.");
+        }
+        final FloatMatrix result = new FloatMatrix(rows, other.columns);
+        Parallel.forRange(0, other.columns, Math.max(1, COLUMN_GRAIN * rows / Math.max(1, nnz())), new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    int bOffset = j * other.rows;
+                    int cOffset = j * rows;
+                    for (int k = 0; k < columns; k++) {
+                        float b = other.data[bOffset + k];
+                        if (b == 0.0f) {
+                            continue;
+                        }
+                        for (int p = columnPointers[k]; p < columnPointers[k + 1]; p++) {
+                            result.data[cOffset + rowIndices[p]] += values[p] * b;
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SparseFloatMatrix)) {
+            return false;
+        }
+        SparseFloatMatrix other = (SparseFloatMatrix) o;
+        if (!sameSize(other) || !Arrays.equals(columnPointers, other.columnPointers)) {
+            return false;
+        }
+        int nnz = nnz();
+        for (int p = 0; p < nnz; p++) {
+            if (rowIndices[p] != other.rowIndices[p] || values[p] != other.values[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + rows;
+        hash = 83 * hash + columns;
+        hash = 83 * hash + Arrays.hashCode(columnPointers);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<%d * %d sparse matrix with %d non-zeros>", rows, columns, nnz());
+    }
+}
\ No newline at end of file
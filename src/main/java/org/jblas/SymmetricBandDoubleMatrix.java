@@ -0,0 +1,237 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A symmetric band matrix of <tt>double</tt> values.
+ *
+ * <p>Only the diagonal and the k diagonals of one triangle are stored, in the
+ * LAPACK symmetric band format. For <tt>uplo = 'U'</tt>, the entry (i, j) with
+ * i &lt;= j is stored at <tt>data[k + i - j + j * (k + 1)]</tt>, for
+ * <tt>uplo = 'L'</tt>, the entry (i, j) with i &gt;= j at
+ * <tt>data[i - j + j * (k + 1)]</tt>.</p>
+ *
+ * <p>Products are computed in Java (SBMV). For solving linear equations,
+ * convert to a {@link BandDoubleMatrix} with {@link #toBand()}.</p>
+ */
+public class SymmetricBandDoubleMatrix implements ConvertsToDoubleMatrix, Serializable {
+    /** Number of rows and columns. */
+    public int n;
+    /** Number of diagonals above (and below) the main diagonal. */
+    public int k;
+    /** Which triangle is stored, 'U' or 'L'. */
+    public char uplo;
+    /** The diagonals, stored by columns with leading dimension k + 1. */
+    public double[] data;
+
+    static final long serialVersionUID = 8325180944163391630L;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 4;
+
+    /*
+     * Set once the native library turns out not to export SBMV, which is
+     * missing from older builds of the library. The Java implementation is
+     * used instead.
+     */
+    private static volatile boolean sbmvMissing;
+
+    /** Create a symmetric band matrix from data in band format. The array is not copied. */
+    public SymmetricBandDoubleMatrix(char uplo, int n, int k, double[] data) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of diagonals must not be negative.");
+        }
+        if (data.length != (long) (k + 1) * n) {
+            throw new IllegalArgumentException("Band data must have (k + 1) * n entries.");
+        }
+        this.uplo = SymmetricDoubleMatrix.checkUplo(uplo);
+        this.n = n;
+        this.k = k;
+        this.data = data;
+    }
+
+    /** Create an all-zero symmetric band matrix. */
+    public SymmetricBandDoubleMatrix(char uplo, int n, int k) {
+        this(uplo, n, k, new double[(k + 1) * n]);
+    }
+
+    /** Copy the band of the given triangle of a square matrix. */
+    public SymmetricBandDoubleMatrix(char uplo, DoubleMatrix a, int k) {
+        this(uplo, a.rows, k);
+        a.assertSquare();
+        for (int j = 0; j < n; j++) {
+            int from = this.uplo == 'U' ? Math.max(0, j - k) : j;
+            int to = this.uplo == 'U' ? j + 1 : Math.min(n, j + k + 1);
+            for (int i = from; i < to; i++) {
+                data[index(i, j)] = a.get(i, j);
+            }
+        }
+    }
+
+    public int getRows() {
+        return n;
+    }
+
+    public int getColumns() {
+        return n;
+    }
+
+    /** Index of the entry (i, j), which must lie in the stored band, in data. */
+    private int index(int i, int j) {
+        return (uplo == 'U' ? k + i - j : i - j) + j * (k + 1);
+    }
+
+    /** Get the entry (i, j). Entries outside the band are zero. */
+    public double get(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") out of bounds for " + n + " x " + n + " matrix.");
+        }
+        if (Math.abs(i - j) > k) {
+            return 0.0;
+        }
+        if ((uplo == 'U') == (i > j)) {
+            return data[index(j, i)];
+        }
+        return data[index(i, j)];
+    }
+
+    /** Set the entries (i, j) and (j, i), which must lie within the band. */
+    public SymmetricBandDoubleMatrix put(int i, int j, double v) {
+        if (i < 0 || i >= n || j < 0 || j >= n || Math.abs(i - j) > k) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") lies outside the band.");
+        }
+        if ((uplo == 'U') == (i > j)) {
+            data[index(j, i)] = v;
+        } else {
+            data[index(i, j)] = v;
+        }
+        return this;
+    }
+
+    /** Convert to a DoubleMatrix with both triangles filled in. */
+    public DoubleMatrix toDense() {
+        DoubleMatrix result = new DoubleMatrix(n, n);
+        for (int j = 0; j < n; j++) {
+            for (int i = Math.max(0, j - k); i < Math.min(n, j + k + 1); i++) {
+                result.data[i + j * n] = get(i, j);
+            }
+        }
+        return result;
+    }
+
+    public DoubleMatrix convertToDoubleMatrix() {
+        return toDense();
+    }
+
+    /** Convert to a general band matrix with k sub- and super-diagonals. */
+    public BandDoubleMatrix toBand() {
+        BandDoubleMatrix result = new BandDoubleMatrix(n, n, k, k);
+        for (int j = 0; j < n; j++) {
+            for (int i = Math.max(0, j - k); i < Math.min(n, j + k + 1); i++) {
+                result.data[result.index(i, j)] = get(i, j);
+            }
+        }
+        return result;
+    }
+
+    /** Return a copy of this matrix. */
+    public SymmetricBandDoubleMatrix dup() {
+        return new SymmetricBandDoubleMatrix(uplo, n, k, Arrays.copyOf(data, data.length));
+    }
+
+    /**
+     * Compute y = alpha * this * x + beta * y (SBMV) for each column of x and y.
+     */
+    public DoubleMatrix mmuli(final double alpha, final DoubleMatrix x, final double beta, final DoubleMatrix y) {
+        if (x.rows != n || y.rows != n || x.columns != y.columns) {
+            throw new SizeException("Matrices must have " + n + " rows and the same number of columns.");
+        }
+        if (x == y) {
+            throw new IllegalArgumentException("x and y must be different matrices.");
+        }
+        if (NativeBlas.isLoaded() && !sbmvMissing) {
+            // one column after the other, as every call copies all of x and y
+            try {
+                for (int j = 0; j < x.columns; j++) {
+                    NativeBlas.dsbmv(uplo, n, k, alpha, data, 0, k + 1, x.data, j * n, 1, beta, y.data, j * n, 1);
+                }
+                return y;
+            } catch (UnsatisfiedLinkError e) {
+                sbmvMissing = true;
+            }
+        }
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    JavaBlas.rsbmv(uplo, n, k, alpha, data, 0, k + 1, x.data, j * n, 1, beta, y.data, j * n, 1);
+                }
+            }
+        });
+        return y;
+    }
+
+    /** Matrix product with a vector or matrix. */
+    public DoubleMatrix mmul(DoubleMatrix x) {
+        return mmuli(1.0, x, 0.0, new DoubleMatrix(n, x.columns));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SymmetricBandDoubleMatrix)) {
+            return false;
+        }
+        SymmetricBandDoubleMatrix other = (SymmetricBandDoubleMatrix) o;
+        return toBand().equals(other.toBand());
+    }
+
+    @Override
+    public int hashCode() {
+        return toBand().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
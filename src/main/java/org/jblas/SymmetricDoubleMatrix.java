@@ -0,0 +1,491 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackArgumentException;
+import org.jblas.exceptions.LapackPositivityException;
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A symmetric matrix of <tt>double</tt> values in packed storage.
+ *
+ * <p>Only one triangle of the matrix is stored, column by column, as in the
+ * LAPACK packed format. For <tt>uplo = 'U'</tt>, the entry (i, j) with i &lt;= j is
+ * stored at <tt>data[i + j*(j+1)/2]</tt>, for <tt>uplo = 'L'</tt>, the entry (i, j)
+ * with i &gt;= j is stored at <tt>data[i + j*(2*n-j-1)/2]</tt>. This needs
+ * n*(n+1)/2 instead of n*n elements.</p>
+ *
+ * <p>Matrix-vector products are computed in Java (they are memory bound, and
+ * copying the data to native code doesn't pay off). Factorizations use the
+ * packed LAPACK routines (SPTRF, PPTRF) if the native library is available,
+ * and Java implementations otherwise.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new SymmetricDoubleMatrix(a)<td>Packed copy of the upper triangle of the DoubleMatrix a.
+ * <tr><td>s.mmul(x)<td>Product with a vector or matrix (SPMV).
+ * <tr><td>s.cholesky()<td>Cholesky factor as a TriangularDoubleMatrix (PPTRF).
+ * <tr><td>s.solve(b)<td>Solve s * x = b for a symmetric indefinite s (SPTRF/SPTRS).
+ * <tr><td>s.solvePositive(b)<td>Solve s * x = b for a positive definite s (PPTRF/PPTRS).
+ * <tr><td>s.toDense()<td>Convert to a DoubleMatrix.
+ * <caption>Packed symmetric matrix operations.</caption>
+ * </table>
+ */
+public class SymmetricDoubleMatrix implements ConvertsToDoubleMatrix, Serializable {
+    /** Number of rows and columns. */
+    public int n;
+    /** Which triangle is stored, 'U' or 'L'. */
+    public char uplo;
+    /** The packed triangle. */
+    public double[] data;
+
+    static final long serialVersionUID = -4227196498011373458L;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 4;
+
+    /*
+     * Set once the native library turns out not to export a routine. The
+     * packed routines are missing from older builds of the library, and then
+     * the Java implementations are used instead.
+     */
+    private static volatile boolean spmvMissing;
+    private static volatile boolean pptrfMissing;
+    private static volatile boolean sptrfMissing;
+
+    /**************************************************************************
+     *
+     * Constructors and factory functions
+     *
+     **************************************************************************/
+
+    /** Create a symmetric matrix from packed data. The array is not copied. */
+    public SymmetricDoubleMatrix(char uplo, int n, double[] data) {
+        this.uplo = checkUplo(uplo);
+        this.n = n;
+        if (data.length != JavaBlas.packedLength(n)) {
+            throw new IllegalArgumentException("Packed data must have n*(n+1)/2 entries.");
+        }
+        this.data = data;
+    }
+
+    /** Create an all-zero symmetric n x n matrix. */
+    public SymmetricDoubleMatrix(char uplo, int n) {
+        this(uplo, n, new double[JavaBlas.packedLength(n)]);
+    }
+
+    /** Create an all-zero symmetric n x n matrix storing the upper triangle. */
+    public SymmetricDoubleMatrix(int n) {
+        this('U', n);
+    }
+
+    /**
+     * Pack the given triangle of a square matrix. The other triangle is not
+     * looked at.
+     */
+    public SymmetricDoubleMatrix(char uplo, DoubleMatrix a) {
+        this(uplo, a.rows);
+        a.assertSquare();
+        pack(this.uplo, a, data);
+    }
+
+    /** Pack the upper triangle of a square matrix. */
+    public SymmetricDoubleMatrix(DoubleMatrix a) {
+        this('U', a);
+    }
+
+    /** Create an n x n identity matrix. */
+    public static SymmetricDoubleMatrix eye(int n) {
+        SymmetricDoubleMatrix result = new SymmetricDoubleMatrix(n);
+        for (int i = 0; i < n; i++) {
+            result.put(i, i, 1.0);
+        }
+        return result;
+    }
+
+    static char checkUplo(char uplo) {
+        switch (uplo) {
+            case 'U': case 'u': return 'U';
+            case 'L': case 'l': return 'L';
+            default: throw new IllegalArgumentException("uplo must be 'U' or 'L'.");
+        }
+    }
+
+    /** Copy the given triangle of a into packed storage. */
+    static void pack(char uplo, DoubleMatrix a, double[] data) {
+        int n = a.rows;
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            if (uplo == 'U') {
+                System.arraycopy(a.data, j * n, data, k, j + 1);
+                k += j + 1;
+            } else {
+                System.arraycopy(a.data, j * n + j, data, k, n - j);
+                k += n - j;
+            }
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    /** Number of rows (same as columns). */
+    public int getRows() {
+        return n;
+    }
+
+    /** Number of columns (same as rows). */
+    public int getColumns() {
+        return n;
+    }
+
+    /** Index of the entry (i, j) in data. (i, j) must lie in the stored triangle. */
+    static int packedIndex(char uplo, int n, int i, int j) {
+        if (uplo == 'U') {
+            return (int) (i + (long) j * (j + 1) / 2);
+        } else {
+            return (int) (i + (long) j * (2L * n - j - 1) / 2);
+        }
+    }
+
+    /** Index of the entry (i, j) or (j, i) in data, whichever is stored. */
+    public int index(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") out of bounds for " + n + " x " + n + " matrix.");
+        }
+        if ((uplo == 'U') == (i > j)) {
+            int t = i;
+            i = j;
+            j = t;
+        }
+        return packedIndex(uplo, n, i, j);
+    }
+
+    /** Get the entry (i, j). */
+    public double get(int i, int j) {
+        return data[index(i, j)];
+    }
+
+    /** Set the entries (i, j) and (j, i) to v. */
+    public SymmetricDoubleMatrix put(int i, int j, double v) {
+        data[index(i, j)] = v;
+        return this;
+    }
+
+    /** Get the diagonal as a column vector. */
+    public DoubleMatrix diag() {
+        DoubleMatrix result = new DoubleMatrix(n);
+        for (int i = 0; i < n; i++) {
+            result.data[i] = get(i, i);
+        }
+        return result;
+    }
+
+    /** Throws SizeException unless x has n rows. */
+    private void assertRows(DoubleMatrix x) {
+        if (x.rows != n) {
+            throw new SizeException("Matrix must have " + n + " rows (has " + x.rows + ").");
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    /** Convert to a DoubleMatrix with both triangles filled in. */
+    public DoubleMatrix toDense() {
+        DoubleMatrix result = new DoubleMatrix(n, n);
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            int from = uplo == 'U' ? 0 : j;
+            int to = uplo == 'U' ? j + 1 : n;
+            for (int i = from; i < to; i++, k++) {
+                result.data[i + j * n] = data[k];
+                result.data[j + i * n] = data[k];
+            }
+        }
+        return result;
+    }
+
+    public DoubleMatrix convertToDoubleMatrix() {
+        return toDense();
+    }
+
+    /** Return a copy of this matrix. */
+    public SymmetricDoubleMatrix dup() {
+        return new SymmetricDoubleMatrix(uplo, n, Arrays.copyOf(data, data.length));
+    }
+
+    /** The transpose of a symmetric matrix is the matrix itself. */
+    public SymmetricDoubleMatrix transpose() {
+        return this;
+    }
+
+    /** Return a copy storing the other triangle. */
+    public SymmetricDoubleMatrix repack(char newUplo) {
+        newUplo = checkUplo(newUplo);
+        if (newUplo == uplo) {
+            return dup();
+        }
+        SymmetricDoubleMatrix result = new SymmetricDoubleMatrix(newUplo, n);
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            int from = newUplo == 'U' ? 0 : j;
+            int to = newUplo == 'U' ? j + 1 : n;
+            for (int i = from; i < to; i++, k++) {
+                result.data[k] = get(i, j);
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic
+     *
+     **************************************************************************/
+
+    /** Multiply all entries with v (in-place). */
+    public SymmetricDoubleMatrix muli(double v) {
+        for (int k = 0; k < data.length; k++) {
+            data[k] *= v;
+        }
+        return this;
+    }
+
+    /** Multiply all entries with v. */
+    public SymmetricDoubleMatrix mul(double v) {
+        return dup().muli(v);
+    }
+
+    /** Add another symmetric matrix (in-place). */
+    public SymmetricDoubleMatrix addi(SymmetricDoubleMatrix other) {
+        return addi(1.0, other);
+    }
+
+    /** Subtract another symmetric matrix (in-place). */
+    public SymmetricDoubleMatrix subi(SymmetricDoubleMatrix other) {
+        return addi(-1.0, other);
+    }
+
+    /** Add another symmetric matrix. */
+    public SymmetricDoubleMatrix add(SymmetricDoubleMatrix other) {
+        return dup().addi(other);
+    }
+
+    /** Subtract another symmetric matrix. */
+    public SymmetricDoubleMatrix sub(SymmetricDoubleMatrix other) {
+        return dup().subi(other);
+    }
+
+    private SymmetricDoubleMatrix addi(double alpha, SymmetricDoubleMatrix other) {
+        if (other.n != n) {
+            throw new SizeException("Matrices must have the same size.");
+        }
+        if (other.uplo != uplo) {
+            other = other.repack(uplo);
+        }
+        JavaBlas.raxpy(data.length, alpha, other.data, 0, 1, data, 0, 1);
+        return this;
+    }
+
+    /**
+     * Compute y = alpha * this * x + beta * y (SPMV) for each column of x and y.
+     */
+    public DoubleMatrix mmuli(final double alpha, final DoubleMatrix x, final double beta, final DoubleMatrix y) {
+        assertRows(x);
+        assertRows(y);
+        if (x.columns != y.columns) {
+            throw new SizeException("Matrices must have the same number of columns.");
+        }
+        if (x == y) {
+            throw new IllegalArgumentException("x and y must be different matrices.");
+        }
+        if (NativeBlas.isLoaded() && !spmvMissing) {
+            // one column after the other, as every call copies all of x and y
+            try {
+                for (int j = 0; j < x.columns; j++) {
+                    NativeBlas.dspmv(uplo, n, alpha, data, 0, x.data, j * n, 1, beta, y.data, j * n, 1);
+                }
+                return y;
+            } catch (UnsatisfiedLinkError e) {
+                spmvMissing = true;
+            }
+        }
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    JavaBlas.rspmv(uplo, n, alpha, data, 0, x.data, j * n, 1, beta, y.data, j * n, 1);
+                }
+            }
+        });
+        return y;
+    }
+
+    /** Matrix product with a vector or matrix. */
+    public DoubleMatrix mmul(DoubleMatrix x) {
+        return mmuli(1.0, x, 0.0, new DoubleMatrix(n, x.columns));
+    }
+
+    /** Compute the quadratic form x' * this * x for a vector x. */
+    public double quadraticForm(DoubleMatrix x) {
+        return x.dot(mmul(x));
+    }
+
+    /**************************************************************************
+     *
+     * Factorizations and linear equations
+     *
+     **************************************************************************/
+
+    /**
+     * Compute the Cholesky factorization. For uplo = 'U', returns the upper
+     * triangular U with this = U' * U, and for uplo = 'L' the lower triangular
+     * L with this = L * L'.
+     *
+     * @throws LapackPositivityException if the matrix is not positive definite.
+     */
+    public TriangularDoubleMatrix cholesky() {
+        double[] factor = Arrays.copyOf(data, data.length);
+        int info;
+        try {
+            info = NativeBlas.isLoaded() && !pptrfMissing ? NativeBlas.dpptrf(uplo, n, factor, 0)
+                    : JavaBlas.rpptrf(uplo, n, factor, 0);
+        } catch (UnsatisfiedLinkError e) {
+            pptrfMissing = true;
+            info = JavaBlas.rpptrf(uplo, n, factor, 0);
+        }
+        if (info < 0) {
+            throw new LapackArgumentException("DPPTRF", -info);
+        } else if (info > 0) {
+            throw new LapackPositivityException("DPPTRF", "Minor " + info + " was negative. Matrix must be positive definite.");
+        }
+        return new TriangularDoubleMatrix(uplo, 'N', n, factor);
+    }
+
+    /**
+     * Solve this * x = b for a positive definite matrix. b is not changed.
+     *
+     * @throws LapackPositivityException if the matrix is not positive definite.
+     */
+    public DoubleMatrix solvePositive(DoubleMatrix b) {
+        assertRows(b);
+        return cholesky().choleskySolve(b);
+    }
+
+    /**
+     * Solve this * x = b for a symmetric, possibly indefinite matrix using the
+     * Bunch-Kaufman factorization (SPTRF/SPTRS). b is not changed.
+     *
+     * <p>Without the native library, only positive definite matrices can be
+     * solved, using the Cholesky factorization.</p>
+     *
+     * @throws LapackSingularityException if the matrix is singular.
+     */
+    public DoubleMatrix solve(DoubleMatrix b) {
+        assertRows(b);
+        if (!NativeBlas.isLoaded() || sptrfMissing) {
+            return solvePositive(b);
+        }
+        double[] factor = Arrays.copyOf(data, data.length);
+        int[] ipiv = new int[n];
+        DoubleMatrix x = b.dup();
+        int info;
+        try {
+            info = NativeBlas.dsptrf(uplo, n, factor, 0, ipiv, 0);
+            if (info < 0) {
+                throw new LapackArgumentException("DSPTRF", -info);
+            } else if (info > 0) {
+                throw new LapackSingularityException("DSPTRF", "Linear equation cannot be solved because the matrix was singular.");
+            }
+            info = NativeBlas.dsptrs(uplo, n, x.columns, factor, 0, ipiv, 0, x.data, 0, n);
+        } catch (UnsatisfiedLinkError e) {
+            sptrfMissing = true;
+            return solvePositive(b);
+        }
+        if (info < 0) {
+            throw new LapackArgumentException("DSPTRS", -info);
+        }
+        return x;
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    /** Compare with another symmetric matrix, regardless of the stored triangle. */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SymmetricDoubleMatrix)) {
+            return false;
+        }
+        SymmetricDoubleMatrix other = (SymmetricDoubleMatrix) o;
+        if (other.n != n) {
+            return false;
+        }
+        if (other.uplo != uplo) {
+            other = other.repack(uplo);
+        }
+        return Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + n;
+        hash = 83 * hash + Arrays.hashCode(uplo == 'U' ? data : repack('U').data);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
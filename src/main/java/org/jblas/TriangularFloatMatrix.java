@@ -0,0 +1,409 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackArgumentException;
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A triangular matrix of <tt>float</tt> values in packed storage.
+ *
+ * <p>The triangle is stored column by column in the same format as
+ * {@link SymmetricFloatMatrix}. If <tt>diag = 'U'</tt>, the matrix has a unit
+ * diagonal and the diagonal entries in <tt>data</tt> are not referenced.</p>
+ *
+ * <p>Products and triangular solves (TPMV, TPSV) are computed in Java, in
+ * parallel over the columns of the right hand side.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new TriangularFloatMatrix('L', a)<td>Packed copy of the lower triangle of the FloatMatrix a.
+ * <tr><td>t.mmul(x)<td>Product with a vector or matrix (TPMV).
+ * <tr><td>t.solve(b)<td>Solve t * x = b (TPSV).
+ * <tr><td>t.transpose()<td>The transposed matrix, storing the other triangle.
+ * <tr><td>t.toDense()<td>Convert to a FloatMatrix.
+ * <caption>Packed triangular matrix operations.</caption>
+ * </table>
+ */
+public class TriangularFloatMatrix implements ConvertsToFloatMatrix, Serializable {
+    /** Number of rows and columns. */
+    public int n;
+    /** Whether this is an upper ('U') or lower ('L') triangular matrix. */
+    public char uplo;
+    /** Whether the diagonal is stored ('N') or all ones ('U'). */
+    public char diag;
+    /** The packed triangle. */
+    public float[] data;
+
+    static final long serialVersionUID = 6190731482366240915L;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 4;
+
+    /*
+     * Set once the native library turns out not to export a routine. The
+     * packed routines are missing from older builds of the library, and then
+     * the Java implementations are used instead.
+     */
+    private static volatile boolean tpmvMissing;
+    private static volatile boolean tpsvMissing;
+    private static volatile boolean pptrsMissing;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create a triangular matrix from packed data. The array is not copied. */
+    public TriangularFloatMatrix(char uplo, char diag, int n, float[] data) {
+        this.uplo = SymmetricFloatMatrix.checkUplo(uplo);
+        this.diag = checkDiag(diag);
+        this.n = n;
+        if (data.length != JavaBlas.packedLength(n)) {
+            throw new IllegalArgumentException("Packed data must have n*(n+1)/2 entries.");
+        }
+        this.data = data;
+    }
+
+    /** Create an all-zero triangular n x n matrix. */
+    public TriangularFloatMatrix(char uplo, int n) {
+        this(uplo, 'N', n, new float[JavaBlas.packedLength(n)]);
+    }
+
+    /**
+     * Pack the given triangle of a square matrix. The entries of the other
+     * triangle are ignored.
+     */
+    public TriangularFloatMatrix(char uplo, FloatMatrix a) {
+        this(uplo, a.rows);
+        a.assertSquare();
+        SymmetricFloatMatrix.pack(this.uplo, a, data);
+    }
+
+    private static char checkDiag(char diag) {
+        switch (diag) {
+            case 'N': case 'n': return 'N';
+            case 'U': case 'u': return 'U';
+            default: throw new IllegalArgumentException("diag must be 'N' or 'U'.");
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    /** Number of rows (same as columns). */
+    public int getRows() {
+        return n;
+    }
+
+    /** Number of columns (same as rows). */
+    public int getColumns() {
+        return n;
+    }
+
+    public boolean isUpper() {
+        return uplo == 'U';
+    }
+
+    public boolean isLower() {
+        return uplo == 'L';
+    }
+
+    /** Whether the entry (i, j) lies in the stored triangle. */
+    public boolean inTriangle(int i, int j) {
+        return uplo == 'U' ? i <= j : i >= j;
+    }
+
+    /** Get the entry (i, j). Entries outside the triangle are zero. */
+    public float get(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") out of bounds for " + n + " x " + n + " matrix.");
+        }
+        if (i == j && diag == 'U') {
+            return 1.0f;
+        }
+        if (!inTriangle(i, j)) {
+            return 0.0f;
+        }
+        return data[SymmetricFloatMatrix.packedIndex(uplo, n, i, j)];
+    }
+
+    /** Set the entry (i, j), which must lie in the stored triangle. */
+    public TriangularFloatMatrix put(int i, int j, float v) {
+        if (i < 0 || i >= n || j < 0 || j >= n || !inTriangle(i, j)) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") is not in the stored triangle.");
+        }
+        data[SymmetricFloatMatrix.packedIndex(uplo, n, i, j)] = v;
+        return this;
+    }
+
+    /** Get the diagonal as a column vector. */
+    public FloatMatrix diag() {
+        FloatMatrix result = new FloatMatrix(n);
+        for (int i = 0; i < n; i++) {
+            result.data[i] = get(i, i);
+        }
+        return result;
+    }
+
+    /** The determinant, that is, the product of the diagonal entries. */
+    public float determinant() {
+        float result = 1.0f;
+        if (diag == 'N') {
+            for (int i = 0; i < n; i++) {
+                result *= get(i, i);
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    /** Convert to a FloatMatrix. */
+    public FloatMatrix toDense() {
+        FloatMatrix result = new FloatMatrix(n, n);
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            if (uplo == 'U') {
+                System.arraycopy(data, k, result.data, j * n, j + 1);
+                k += j + 1;
+            } else {
+                System.arraycopy(data, k, result.data, j * n + j, n - j);
+                k += n - j;
+            }
+            if (diag == 'U') {
+                result.data[j * n + j] = 1.0f;
+            }
+        }
+        return result;
+    }
+
+    public FloatMatrix convertToFloatMatrix() {
+        return toDense();
+    }
+
+    /** Return a copy of this matrix. */
+    public TriangularFloatMatrix dup() {
+        return new TriangularFloatMatrix(uplo, diag, n, Arrays.copyOf(data, data.length));
+    }
+
+    /** Return the transposed matrix, which stores the other triangle. */
+    public TriangularFloatMatrix transpose() {
+        TriangularFloatMatrix result = new TriangularFloatMatrix(uplo == 'U' ? 'L' : 'U', diag, n, new float[data.length]);
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            int from = result.uplo == 'U' ? 0 : j;
+            int to = result.uplo == 'U' ? j + 1 : n;
+            for (int i = from; i < to; i++, k++) {
+                result.data[k] = data[SymmetricFloatMatrix.packedIndex(uplo, n, j, i)];
+            }
+        }
+        return result;
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic and linear equations
+     *
+     **************************************************************************/
+
+    private void assertRows(FloatMatrix x) {
+        if (x.rows != n) {
+            throw new SizeException("Matrix must have " + n + " rows (has " + x.rows + ").");
+        }
+    }
+
+    /**
+     * Compute x = op(this) * x (TPMV) for each column of x, where op is the
+     * identity for trans = 'N' and the transpose for trans = 'T'.
+     */
+    public FloatMatrix mmuli(final char trans, final FloatMatrix x) {
+        assertRows(x);
+        if (NativeBlas.isLoaded() && !tpmvMissing) {
+            // one column after the other, as every call copies all of x
+            try {
+                for (int j = 0; j < x.columns; j++) {
+                    NativeBlas.stpmv(uplo, trans, diag, n, data, 0, x.data, j * n, 1);
+                }
+                return x;
+            } catch (UnsatisfiedLinkError e) {
+                tpmvMissing = true;
+            }
+        }
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    JavaBlas.rtpmv(uplo, trans, diag, n, data, 0, x.data, j * n, 1);
+                }
+            }
+        });
+        return x;
+    }
+
+    /** Matrix product with a vector or matrix. */
+    public FloatMatrix mmul(FloatMatrix x) {
+        return mmuli('N', x.dup());
+    }
+
+    /**
+     * Solve op(this) * x = b (TPSV) for each column of b, where op is the
+     * identity for trans = 'N' and the transpose for trans = 'T'. The
+     * solution overwrites b.
+     *
+     * @throws LapackSingularityException if a diagonal entry is zero.
+     */
+    public FloatMatrix solvei(final char trans, final FloatMatrix b) {
+        assertRows(b);
+        if (diag == 'N') {
+            for (int i = 0; i < n; i++) {
+                if (get(i, i) == 0.0f) {
+                    throw new LapackSingularityException("TPSV", "Linear equation cannot be solved because the matrix was singular.");
+                }
+            }
+        }
+        if (NativeBlas.isLoaded() && !tpsvMissing) {
+            // one column after the other, as every call copies all of b
+            try {
+                for (int j = 0; j < b.columns; j++) {
+                    NativeBlas.stpsv(uplo, trans, diag, n, data, 0, b.data, j * n, 1);
+                }
+                return b;
+            } catch (UnsatisfiedLinkError e) {
+                tpsvMissing = true;
+            }
+        }
+        Parallel.forRange(0, b.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    JavaBlas.rtpsv(uplo, trans, diag, n, data, 0, b.data, j * n, 1);
+                }
+            }
+        });
+        return b;
+    }
+
+    /** Solve this * x = b. b is not changed. */
+    public FloatMatrix solve(FloatMatrix b) {
+        return solvei('N', b.dup());
+    }
+
+    /**
+     * Solve A * x = b, where this matrix is the Cholesky factor of A, that is,
+     * A = U' * U or A = L * L' (PPTRS). b is not changed.
+     */
+    FloatMatrix choleskySolve(FloatMatrix b) {
+        assertRows(b);
+        FloatMatrix x = b.dup();
+        if (NativeBlas.isLoaded() && !pptrsMissing) {
+            try {
+                int info = NativeBlas.spptrs(uplo, n, x.columns, data, 0, x.data, 0, n);
+                if (info < 0) {
+                    throw new LapackArgumentException("DPPTRS", -info);
+                }
+                return x;
+            } catch (UnsatisfiedLinkError e) {
+                pptrsMissing = true;
+            }
+        }
+        if (uplo == 'U') {
+            return solvei('N', solvei('T', x));
+        } else {
+            return solvei('T', solvei('N', x));
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TriangularFloatMatrix)) {
+            return false;
+        }
+        TriangularFloatMatrix other = (TriangularFloatMatrix) o;
+        if (other.n != n || other.uplo != uplo) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (get(i, i) != other.get(i, i)) {
+                return false;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            int from = uplo == 'U' ? 0 : j + 1;
+            int to = uplo == 'U' ? j : n;
+            for (int i = from; i < to; i++) {
+                if (get(i, j) != other.get(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + n;
+        hash = 83 * hash + uplo;
+        hash = 83 * hash + Arrays.hashCode(toDense().data);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
\ No newline at end of file
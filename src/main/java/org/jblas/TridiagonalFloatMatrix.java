@@ -0,0 +1,377 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackPositivityException;
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.exceptions.SizeException;
+import org.jblas.util.Parallel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A tridiagonal matrix of <tt>float</tt> values.
+ *
+ * <p>The matrix is stored as three arrays: the n-1 entries below the diagonal,
+ * the n diagonal entries and the n-1 entries above the diagonal. Products and
+ * linear equations take O(n) time per right hand side.</p>
+ *
+ * <p>Products are computed in Java, processing several columns in parallel.
+ * Linear equations are solved with GTSV and PTSV in a single call for all
+ * right hand sides if the native library is available. Otherwise, the Java
+ * implementations of the same algorithms solve blocks of right hand sides in
+ * parallel.</p>
+ *
+ * <table class="my">
+ * <tr><th>Method<th>Description
+ * <tr><td>new TridiagonalFloatMatrix(dl, d, du)<td>Matrix with the given diagonals.
+ * <tr><td>t.mmul(x)<td>Product with a vector or matrix.
+ * <tr><td>t.solve(b)<td>Solve t * x = b with partial pivoting (GTSV).
+ * <tr><td>t.solvePositive(b)<td>Solve t * x = b for a symmetric positive definite t (PTSV).
+ * <tr><td>t.toDense()<td>Convert to a FloatMatrix.
+ * <caption>Tridiagonal matrix operations.</caption>
+ * </table>
+ */
+public class TridiagonalFloatMatrix implements ConvertsToFloatMatrix, Serializable {
+    /** Number of rows and columns. */
+    public int n;
+    /** The n-1 entries below the diagonal. */
+    public float[] lower;
+    /** The n diagonal entries. */
+    public float[] diag;
+    /** The n-1 entries above the diagonal. */
+    public float[] upper;
+
+    static final long serialVersionUID = -1580542712954196407L;
+
+    /** Minimal number of columns processed by one task in parallel loops. */
+    private static final int COLUMN_GRAIN = 8;
+
+    /*
+     * Set once the native library turns out not to export a routine. The
+     * tridiagonal routines are missing from older builds of the library, and
+     * then the Java implementations are used instead.
+     */
+    private static volatile boolean gtsvMissing;
+    private static volatile boolean ptsvMissing;
+
+    /**************************************************************************
+     *
+     * Constructors
+     *
+     **************************************************************************/
+
+    /** Create a tridiagonal matrix from its diagonals. The arrays are not copied. */
+    public TridiagonalFloatMatrix(float[] lower, float[] diag, float[] upper) {
+        int n = diag.length;
+        if (lower.length != Math.max(0, n - 1) || upper.length != Math.max(0, n - 1)) {
+            throw new SizeException("Off-diagonals must have " + Math.max(0, n - 1) + " entries.");
+        }
+        this.n = n;
+        this.lower = lower;
+        this.diag = diag;
+        this.upper = upper;
+    }
+
+    /** Create a tridiagonal matrix from its diagonals given as vectors. */
+    public TridiagonalFloatMatrix(FloatMatrix lower, FloatMatrix diag, FloatMatrix upper) {
+        this(lower.toArray(), diag.toArray(), upper.toArray());
+    }
+
+    /** Create an all-zero n x n tridiagonal matrix. */
+    public TridiagonalFloatMatrix(int n) {
+        this(new float[Math.max(0, n - 1)], new float[n], new float[Math.max(0, n - 1)]);
+    }
+
+    /** Create a symmetric tridiagonal matrix with diagonal d and off-diagonal e. */
+    public static TridiagonalFloatMatrix symmetric(float[] d, float[] e) {
+        return new TridiagonalFloatMatrix(e, d, Arrays.copyOf(e, e.length));
+    }
+
+    /** Copy the tridiagonal part of a square matrix. */
+    public TridiagonalFloatMatrix(FloatMatrix a) {
+        this(a.rows);
+        a.assertSquare();
+        for (int i = 0; i < n; i++) {
+            diag[i] = a.get(i, i);
+            if (i < n - 1) {
+                lower[i] = a.get(i + 1, i);
+                upper[i] = a.get(i, i + 1);
+            }
+        }
+    }
+
+    /**************************************************************************
+     *
+     * Element access
+     *
+     **************************************************************************/
+
+    public int getRows() {
+        return n;
+    }
+
+    public int getColumns() {
+        return n;
+    }
+
+    /** Get the entry (i, j). Entries outside the three diagonals are zero. */
+    public float get(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") out of bounds for " + n + " x " + n + " matrix.");
+        }
+        if (i == j) {
+            return diag[i];
+        } else if (i == j + 1) {
+            return lower[j];
+        } else if (i + 1 == j) {
+            return upper[i];
+        } else {
+            return 0.0f;
+        }
+    }
+
+    /** Set the entry (i, j), which must lie on one of the three diagonals. */
+    public TridiagonalFloatMatrix put(int i, int j, float v) {
+        if (i < 0 || i >= n || j < 0 || j >= n || Math.abs(i - j) > 1) {
+            throw new IndexOutOfBoundsException("Index (" + i + ", " + j + ") is not on one of the three diagonals.");
+        }
+        if (i == j) {
+            diag[i] = v;
+        } else if (i > j) {
+            lower[j] = v;
+        } else {
+            upper[i] = v;
+        }
+        return this;
+    }
+
+    /** Whether the entries below and above the diagonal are equal. */
+    public boolean isSymmetric() {
+        return Arrays.equals(lower, upper);
+    }
+
+    /**************************************************************************
+     *
+     * Conversion
+     *
+     **************************************************************************/
+
+    /** Convert to a FloatMatrix. */
+    public FloatMatrix toDense() {
+        FloatMatrix result = new FloatMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            result.put(i, i, diag[i]);
+            if (i < n - 1) {
+                result.put(i + 1, i, lower[i]);
+                result.put(i, i + 1, upper[i]);
+            }
+        }
+        return result;
+    }
+
+    public FloatMatrix convertToFloatMatrix() {
+        return toDense();
+    }
+
+    /** Convert to a band matrix with one sub- and one super-diagonal. */
+    public BandFloatMatrix toBand() {
+        return BandFloatMatrix.fromDiagonals(1, 1, lower, diag, upper);
+    }
+
+    /** Return a copy of this matrix. */
+    public TridiagonalFloatMatrix dup() {
+        return new TridiagonalFloatMatrix(lower.clone(), diag.clone(), upper.clone());
+    }
+
+    /** Return the transposed matrix. */
+    public TridiagonalFloatMatrix transpose() {
+        return new TridiagonalFloatMatrix(upper.clone(), diag.clone(), lower.clone());
+    }
+
+    /**************************************************************************
+     *
+     * Arithmetic and linear equations
+     *
+     **************************************************************************/
+
+    private void assertRows(FloatMatrix x) {
+        if (x.rows != n) {
+            throw new SizeException("Matrix must have " + n + " rows (has " + x.rows + ").");
+        }
+    }
+
+    /** Matrix product with a vector or matrix. */
+    public FloatMatrix mmul(final FloatMatrix x) {
+        assertRows(x);
+        final FloatMatrix y = new FloatMatrix(n, x.columns);
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                for (int j = from; j < to; j++) {
+                    int c = j * n;
+                    for (int i = 0; i < n; i++) {
+                        float s = diag[i] * x.data[c + i];
+                        if (i > 0) {
+                            s += lower[i - 1] * x.data[c + i - 1];
+                        }
+                        if (i < n - 1) {
+                            s += upper[i] * x.data[c + i + 1];
+                        }
+                        y.data[c + i] = s;
+                    }
+                }
+            }
+        });
+        return y;
+    }
+
+    /**
+     * Solve this * x = b using Gaussian elimination with partial pivoting
+     * (GTSV). b is not changed.
+     *
+     * @throws LapackSingularityException if the matrix is singular.
+     */
+    public FloatMatrix solve(FloatMatrix b) {
+        assertRows(b);
+        FloatMatrix x = b.dup();
+        int info;
+        if (NativeBlas.isLoaded() && !gtsvMissing) {
+            // a single call for all right hand sides
+            try {
+                info = NativeBlas.sgtsv(n, x.columns, lower.clone(), 0, diag.clone(), 0, upper.clone(), 0, x.data, 0, n);
+            } catch (UnsatisfiedLinkError e) {
+                gtsvMissing = true;
+                info = solveJava(x);
+            }
+        } else {
+            info = solveJava(x);
+        }
+        if (info != 0) {
+            throw new LapackSingularityException("GTSV", "Linear equation cannot be solved because the matrix was singular.");
+        }
+        return x;
+    }
+
+    /**
+     * Solve this * x = b for a symmetric positive definite matrix using the
+     * factorization L * D * L' (PTSV). Only the diagonal and the entries above
+     * the diagonal are used. b is not changed.
+     *
+     * @throws LapackPositivityException if the matrix is not positive definite.
+     */
+    public FloatMatrix solvePositive(FloatMatrix b) {
+        assertRows(b);
+        FloatMatrix x = b.dup();
+        int info;
+        if (NativeBlas.isLoaded() && !ptsvMissing) {
+            try {
+                info = NativeBlas.sptsv(n, x.columns, diag.clone(), 0, upper.clone(), 0, x.data, 0, n);
+            } catch (UnsatisfiedLinkError e) {
+                ptsvMissing = true;
+                info = solvePositiveJava(x);
+            }
+        } else {
+            info = solvePositiveJava(x);
+        }
+        if (info != 0) {
+            throw new LapackPositivityException("PTSV", "Minor " + info + " was negative. Matrix must be positive definite.");
+        }
+        return x;
+    }
+
+    /** Solve in place for blocks of columns of x in parallel (GTSV). */
+    private int solveJava(final FloatMatrix x) {
+        final int[] info = new int[1];
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                // every chunk needs its own copy as the factorization overwrites the diagonals
+                int result = JavaBlas.rgtsv(n, to - from, lower.clone(), 0, diag.clone(), 0, upper.clone(), 0, x.data, from * n, n);
+                if (result != 0) {
+                    info[0] = result;
+                }
+            }
+        });
+        return info[0];
+    }
+
+    /** Solve in place for blocks of columns of x in parallel (PTSV). */
+    private int solvePositiveJava(final FloatMatrix x) {
+        final int[] info = new int[1];
+        Parallel.forRange(0, x.columns, COLUMN_GRAIN, new Parallel.Loop() {
+            @Override
+            public void run(int from, int to) {
+                int result = JavaBlas.rptsv(n, to - from, diag.clone(), 0, upper.clone(), 0, x.data, from * n, n);
+                if (result != 0) {
+                    info[0] = result;
+                }
+            }
+        });
+        return info[0];
+    }
+
+    /**************************************************************************
+     *
+     * Object methods
+     *
+     **************************************************************************/
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TridiagonalFloatMatrix)) {
+            return false;
+        }
+        TridiagonalFloatMatrix other = (TridiagonalFloatMatrix) o;
+        return Arrays.equals(lower, other.lower) && Arrays.equals(diag, other.diag) && Arrays.equals(upper, other.upper);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 83 * hash + Arrays.hashCode(lower);
+        hash = 83 * hash + Arrays.hashCode(diag);
+        hash = 83 * hash + Arrays.hashCode(upper);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+}
\ No newline at end of file
@@ -56,4 +56,11 @@ class BenchmarkResult {
                 iterations,
                 duration);
     }
+
+    void printEvaluations() {
+        System.out.printf("%8.2f M evaluations per second (%d iterations in %.1f seconds)%n",
+                numOps / duration / 1e6,
+                iterations,
+                duration);
+    }
 }
@@ -0,0 +1,97 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.benchmark;
+
+import org.jblas.DoubleMatrix;
+import org.jblas.MatrixFunctions;
+import org.jblas.MatrixFunctions.Accuracy;
+
+/**
+ * Benchmarks the element-wise functions from MatrixFunctions with strict or
+ * fast accuracy. Operations are counted as function evaluations.
+ */
+class ElementwiseFunctionBenchmark implements Benchmark {
+    private final String function;
+    private final Accuracy accuracy;
+
+    ElementwiseFunctionBenchmark(String function, Accuracy accuracy) {
+        this.function = function;
+        this.accuracy = accuracy;
+    }
+
+    public String getName() {
+        return "Element-wise " + function + ", " + accuracy.toString().toLowerCase() + " accuracy";
+    }
+
+    private void apply(DoubleMatrix x) {
+        if (function.equals("exp")) {
+            MatrixFunctions.expi(x, accuracy);
+        } else if (function.equals("log")) {
+            MatrixFunctions.logi(x, accuracy);
+        } else if (function.equals("pow")) {
+            MatrixFunctions.powi(x, 1.5, accuracy);
+        } else if (function.equals("tanh")) {
+            MatrixFunctions.tanhi(x, accuracy);
+        } else if (function.equals("erf")) {
+            MatrixFunctions.erfi(x, accuracy);
+        } else if (function.equals("logistic")) {
+            MatrixFunctions.logistici(x, accuracy);
+        } else {
+            throw new IllegalArgumentException("Unknown function " + function);
+        }
+    }
+
+    public BenchmarkResult run(int size, double seconds) {
+        int counter = 0;
+        long ops = 0;
+
+        DoubleMatrix a = DoubleMatrix.rand(size).muli(2.0).addi(0.5);
+        DoubleMatrix x = new DoubleMatrix(size);
+
+        Timer t = new Timer();
+        t.start();
+        while (!t.ranFor(seconds)) {
+            System.arraycopy(a.data, 0, x.data, 0, size);
+            apply(x);
+            counter++;
+            ops += size;
+        }
+        t.stop();
+
+        return new BenchmarkResult(ops, t.elapsedSeconds(), counter);
+    }
+}
@@ -36,6 +36,7 @@
 package org.jblas.benchmark;
 
 import java.io.PrintStream;
+import org.jblas.MatrixFunctions;
 import org.jblas.util.Logger;
 
 /**
@@ -54,6 +55,8 @@ public class Main {
         new NativeDoubleMultiplicationBenchmark(),
         new NativeFloatMultiplicationBenchmark(),};
 
+    static String[] elementwiseFunctions = {"exp", "log", "pow", "tanh", "erf", "logistic"};
+
     public static void printHelp() {
         System.out.printf("Usage: benchmark [opts]%n"
                 + "%n"
@@ -61,6 +64,7 @@ public class Main {
                 + "%n"
                 + "  --arch-flavor=value     overriding arch flavor (e.g. --arch-flavor=sse2)%n"
                 + "  --skip-java             don't run java benchmarks%n"
+                + "  --functions             compare strict and fast element-wise functions%n"
                 + "  --help                  show this help%n"
                 + "  --debug                 set config levels to debug%n"
                 + "%njblas version " + org.jblas.Info.VERSION + "%n");
@@ -71,6 +75,7 @@ public class Main {
         PrintStream out = System.out;
 
         boolean skipJava = false;
+        boolean functions = false;
         boolean unrecognizedOptions = false;
 
         Logger log = Logger.getLogger();
@@ -91,6 +96,8 @@ public class Main {
                     org.jblas.util.ArchFlavor.overrideArchFlavor(value);
                 } else if (arg.equals("--skip-java")) {
                     skipJava = true;
+                } else if (arg.equals("--functions")) {
+                    functions = true;
                 } else if (arg.equals("--help")) {
                     printHelp();
                     return;
@@ -109,6 +116,11 @@ public class Main {
         out.println("Simple benchmark for jblas");
         out.println();
 
+        if (functions) {
+            runFunctionBenchmarks(out);
+            return;
+        }
+
         out.println("Running sanity benchmarks.");
         out.println();
         org.jblas.util.SanityChecks.main(args);
@@ -135,4 +147,25 @@ public class Main {
             }
         }
     }
+
+    static void runFunctionBenchmarks(PrintStream out) {
+        int[] sizes = {1000, 1000000};
+
+        out.println("Each benchmark will take about 2 seconds...");
+
+        for (String f : elementwiseFunctions) {
+            for (MatrixFunctions.Accuracy a : MatrixFunctions.Accuracy.values()) {
+                Benchmark b = new ElementwiseFunctionBenchmark(f, a);
+
+                out.println();
+                out.println("Running benchmark \"" + b.getName() + "\".");
+                for (int n : sizes) {
+                    out.printf("n = %-8d: ", n);
+                    out.flush();
+
+                    b.run(n, 2.0).printEvaluations();
+                }
+            }
+        }
+    }
 }
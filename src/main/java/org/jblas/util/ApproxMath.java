@@ -0,0 +1,255 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+/**
+ * Fast approximations of exponential and related functions.
+ *
+ * <p>The functions trade a few bits of accuracy for speed. They use short
+ * table lookups and low degree polynomials without data dependent branches in
+ * the common case, which makes them suitable for tight loops over arrays. The
+ * maximal relative errors below have been measured against
+ * <tt>java.lang.Math</tt> and {@link Functions#erf(double)} on random
+ * arguments over the range where the result is a normal number.</p>
+ *
+ * <table summary="Maximal errors">
+ * <tr><th>function</th><th>relative error</th></tr>
+ * <tr><td>{@link #exp(double)}</td><td>3e-16</td></tr>
+ * <tr><td>{@link #log(double)}</td><td>5e-16</td></tr>
+ * <tr><td>{@link #pow(double, double)}</td><td>(1 + |y log(x)|) * 3e-16</td></tr>
+ * <tr><td>{@link #tanh(double)}</td><td>5e-15</td></tr>
+ * <tr><td>{@link #logistic(double)}</td><td>5e-16</td></tr>
+ * <tr><td>{@link #erf(double)}</td><td>2e-15</td></tr>
+ * </table>
+ *
+ * <p>Arguments outside of the range where the approximations are valid
+ * (infinities, NaN, and results which overflow or become subnormal) are
+ * passed on to <tt>java.lang.Math</tt>, such that special values are
+ * handled exactly as there. The float versions are computed with the double
+ * kernels and are accurate to about one ulp.</p>
+ */
+public class ApproxMath {
+    private static final int EXP_BITS = 6;
+    private static final int EXP_SIZE = 1 << EXP_BITS;
+    private static final double INV_LN2_SCALED = EXP_SIZE / 0.6931471805599453;
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+    private static final double LN2_SCALED_HI = LN2_HI / EXP_SIZE;
+    private static final double LN2_SCALED_LO = LN2_LO / EXP_SIZE;
+    private static final double EXP_MAX = 709.0;
+    private static final double EXP_MIN = -705.0;
+    private static final double[] EXP_TABLE = new double[EXP_SIZE];
+
+    private static final int LOG_BITS = 7;
+    private static final int LOG_SIZE = 1 << LOG_BITS;
+    private static final int LOG_HALF = 53;
+    private static final double[] LOG_CENTER = new double[LOG_SIZE];
+    private static final double[] LOG_TABLE = new double[LOG_SIZE];
+
+    private static final double ERF_STEP = 32.0;
+    private static final double ERF_MAX = 6.0;
+    private static final int ERF_DEGREE = 7;
+    private static final double[] ERF_TABLE;
+    private static final double TWO_OVER_SQRT_PI = 1.1283791670955126;
+
+    static {
+        for (int j = 0; j < EXP_SIZE; j++) {
+            EXP_TABLE[j] = Math.pow(2.0, (double) j / EXP_SIZE);
+        }
+        // mantissas above sqrt(2) are halved, the first and last entry
+        // expand directly around 1 to avoid cancellation
+        for (int j = 0; j < LOG_SIZE; j++) {
+            double c = 1.0 + (j + 0.5) / LOG_SIZE;
+            if (j == 0 || j == LOG_SIZE - 1) {
+                c = 1.0;
+            } else if (j >= LOG_HALF) {
+                c *= 0.5;
+            }
+            LOG_CENTER[j] = c;
+            LOG_TABLE[j] = Math.log(c);
+        }
+
+        // Taylor coefficients of g(x) = exp(x^2) erfc(x) around the nodes,
+        // using g' = 2xg - 2/sqrt(pi) and g^(k+1) = 2x g^(k) + 2k g^(k-1).
+        int nodes = (int) (ERF_MAX * ERF_STEP) + 2;
+        ERF_TABLE = new double[nodes * (ERF_DEGREE + 1)];
+        double[] d = new double[ERF_DEGREE + 1];
+        for (int i = 0; i < nodes; i++) {
+            double x0 = i / ERF_STEP;
+            d[0] = Functions.erfcx(x0);
+            d[1] = 2 * x0 * d[0] - TWO_OVER_SQRT_PI;
+            for (int k = 1; k < ERF_DEGREE; k++) {
+                d[k + 1] = 2 * x0 * d[k] + 2 * k * d[k - 1];
+            }
+            double factorial = 1.0;
+            for (int k = 0; k <= ERF_DEGREE; k++) {
+                if (k > 0) {
+                    factorial *= k;
+                }
+                ERF_TABLE[i * (ERF_DEGREE + 1) + k] = d[k] / factorial;
+            }
+        }
+    }
+
+    /**
+     * Exponential function. The argument is reduced to a multiple of
+     * log(2)/64 and a remainder below log(2)/128 in magnitude, and the
+     * remainder is expanded into a polynomial of degree 5.
+     */
+    public static double exp(double x) {
+        if (!(x > EXP_MIN && x < EXP_MAX)) {
+            return Math.exp(x);
+        }
+        double kd = Math.rint(x * INV_LN2_SCALED);
+        long k = (long) kd;
+        double r = (x - kd * LN2_SCALED_HI) - kd * LN2_SCALED_LO;
+        int j = (int) (k & (EXP_SIZE - 1));
+        long e = k >> EXP_BITS;
+        double p = r * (1.0 + r * (0.5 + r * (1.0 / 6 + r * (1.0 / 24 + r * (1.0 / 120)))));
+        double t = EXP_TABLE[j];
+        return Double.longBitsToDouble(Double.doubleToRawLongBits(t + t * p) + (e << 52));
+    }
+
+    /**
+     * Natural logarithm. The mantissa m is scaled into [sqrt(1/2), sqrt(2)),
+     * divided by the nearest of 128 table entries c, and log(m/c) is
+     * computed from the series of 2 atanh((m - c)/(m + c)).
+     */
+    public static double log(double x) {
+        if (!(x >= Double.MIN_NORMAL && x <= Double.MAX_VALUE)) {
+            return Math.log(x);
+        }
+        long bits = Double.doubleToRawLongBits(x);
+        int j = (int) (bits >>> (52 - LOG_BITS)) & (LOG_SIZE - 1);
+        int h = (j + LOG_SIZE - LOG_HALF) >> LOG_BITS;
+        int e = (int) (bits >>> 52) - 1023 + h;
+        double m = Double.longBitsToDouble((bits & 0x000fffffffffffffL) | ((long) (1023 - h) << 52));
+        double c = LOG_CENTER[j];
+        double s = (m - c) / (m + c);
+        double s2 = s * s;
+        double q = 2 * s + 2 * s * s2 * (1.0 / 3 + s2 * (1.0 / 5 + s2 * (1.0 / 7)));
+        return e * LN2_HI + (LOG_TABLE[j] + (q + e * LN2_LO));
+    }
+
+    /**
+     * Power function computed as exp(y log(x)) for positive x. Other bases
+     * are passed on to <tt>Math.pow</tt>.
+     */
+    public static double pow(double x, double y) {
+        if (!(x > 0.0) || Double.isInfinite(x)) {
+            return Math.pow(x, y);
+        }
+        return exp(y * log(x));
+    }
+
+    /** Hyperbolic tangent, based on {@link #exp(double)}. */
+    public static double tanh(double x) {
+        double ax = Math.abs(x);
+        double r;
+        if (ax < 0.0625) {
+            double x2 = x * x;
+            return x + x * x2 * (-1.0 / 3 + x2 * (2.0 / 15 + x2 * (-17.0 / 315
+                    + x2 * (62.0 / 2835 + x2 * (-1382.0 / 155925)))));
+        } else if (ax < 22.0) {
+            r = 1.0 - 2.0 / (exp(2 * ax) + 1.0);
+        } else if (ax <= Double.MAX_VALUE) {
+            r = 1.0;
+        } else {
+            return Math.tanh(x);
+        }
+        return x < 0 ? -r : r;
+    }
+
+    /** Logistic function 1/(1 + exp(-x)), based on {@link #exp(double)}. */
+    public static double logistic(double x) {
+        return 1.0 / (1.0 + exp(-x));
+    }
+
+    /**
+     * Error function. Small arguments use the Taylor series, larger ones a
+     * local Taylor expansion of exp(x^2) erfc(x) at the nearest of the
+     * tabulated nodes spaced 1/32 apart.
+     */
+    public static double erf(double x) {
+        double ax = Math.abs(x);
+        double r;
+        if (ax < 0.25) {
+            double x2 = x * x;
+            return TWO_OVER_SQRT_PI * (x + x * x2 * (-1.0 / 3 + x2 * (1.0 / 10 + x2 * (-1.0 / 42
+                    + x2 * (1.0 / 216 + x2 * (-1.0 / 1320 + x2 * (1.0 / 9360
+                    + x2 * (-1.0 / 75600 + x2 * (1.0 / 685440)))))))));
+        } else if (ax < ERF_MAX) {
+            int i = (int) (ax * ERF_STEP + 0.5);
+            double d = ax - i / ERF_STEP;
+            int o = i * (ERF_DEGREE + 1);
+            double g = ERF_TABLE[o + ERF_DEGREE];
+            for (int k = ERF_DEGREE - 1; k >= 0; k--) {
+                g = g * d + ERF_TABLE[o + k];
+            }
+            r = 1.0 - exp(-ax * ax) * g;
+        } else if (ax <= Double.MAX_VALUE) {
+            r = 1.0;
+        } else {
+            return Double.isNaN(x) ? x : Math.signum(x);
+        }
+        return x < 0 ? -r : r;
+    }
+
+    public static float exp(float x) {
+        return (float) exp((double) x);
+    }
+
+    public static float log(float x) {
+        return (float) log((double) x);
+    }
+
+    public static float pow(float x, float y) {
+        return (float) pow((double) x, (double) y);
+    }
+
+    public static float tanh(float x) {
+        return (float) tanh((double) x);
+    }
+
+    public static float logistic(float x) {
+        return (float) logistic((double) x);
+    }
+
+    public static float erf(float x) {
+        return (float) erf((double) x);
+    }
+}
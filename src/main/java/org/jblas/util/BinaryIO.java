@@ -0,0 +1,326 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Bulk binary input and output of matrices.
+ *
+ * <p>The format is the one written by {@link org.jblas.DoubleMatrix#out(DataOutputStream)}:
+ * the element type (<tt>"double"</tt> or <tt>"float"</tt>) written with
+ * {@link DataOutputStream#writeUTF(String)}, the number of columns, the number
+ * of rows and the number of elements as ints, followed by the elements, all in
+ * big-endian order.</p>
+ *
+ * <p>Instead of writing one element at a time, the elements are converted in
+ * blocks of {@link #BUFFER_SIZE} bytes through a {@link ByteBuffer}. Files are
+ * accessed through a {@link FileChannel} with positional reads and writes, so
+ * that large matrices are split into chunks of {@link #PARALLEL_CHUNK} bytes
+ * which are transferred in parallel.</p>
+ */
+public class BinaryIO {
+    /** Size in bytes of the buffers used for the conversion of elements. */
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    /** Files with more bytes of elements are read and written in parallel chunks of this size. */
+    public static final int PARALLEL_CHUNK = 1 << 24;
+
+    /** Direct buffer of BUFFER_SIZE bytes per thread, reused by all transfers of that thread. */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    /** Write the header for a matrix with elements of the given type at the current position of the channel. */
+    public static void writeHeader(FileChannel channel, String type, int rows, int columns, int length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bytes);
+        dos.writeUTF(type);
+        dos.writeInt(columns);
+        dos.writeInt(rows);
+        dos.writeInt(length);
+        dos.flush();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a header from the current position of the channel, which is left
+     * at the first element.
+     *
+     * @param shape receives the number of rows, columns and elements
+     * @return the element type
+     */
+    public static String readHeader(FileChannel channel, int[] shape) throws IOException {
+        // no buffering, so that exactly the header is consumed
+        DataInputStream dis = new DataInputStream(Channels.newInputStream(channel));
+        String type = dis.readUTF();
+        shape[1] = dis.readInt();
+        shape[0] = dis.readInt();
+        shape[2] = dis.readInt();
+        return type;
+    }
+
+    /**
+     * Write data to the channel, starting at the given position in the file.
+     * The elements are written in big-endian order, as with
+     * {@link java.io.DataOutputStream#writeDouble(double)}.
+     */
+    public static void write(FileChannel channel, long position, double[] data) throws IOException {
+        write(channel, position, data, ByteOrder.BIG_ENDIAN);
+    }
+
+    /** Write data to the channel with the elements in the given byte order. */
+    public static void write(final FileChannel channel, final long position, final double[] data, final ByteOrder order) throws IOException {
+        final IOException[] error = new IOException[1];
+        Parallel.forRange(0, data.length, PARALLEL_CHUNK / 8, new Parallel.Loop() {
+            public void run(int from, int to) {
+                try {
+                    ByteBuffer buffer = buffer(order);
+                    for (int i = from; i < to; ) {
+                        int n = Math.min(to - i, buffer.capacity() / 8);
+                        buffer.clear();
+                        buffer.asDoubleBuffer().put(data, i, n);
+                        buffer.limit(8 * n);
+                        writeFully(channel, buffer, position + 8L * i);
+                        i += n;
+                    }
+                } catch (IOException e) {
+                    setError(error, e);
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    /**
+     * Read data.length elements from the channel, starting at the given
+     * position in the file, see {@link #write(FileChannel, long, double[])}.
+     */
+    public static void read(FileChannel channel, long position, double[] data) throws IOException {
+        read(channel, position, data, ByteOrder.BIG_ENDIAN);
+    }
+
+    /** Read data.length elements in the given byte order from the channel. */
+    public static void read(final FileChannel channel, final long position, final double[] data, final ByteOrder order) throws IOException {
+        final IOException[] error = new IOException[1];
+        Parallel.forRange(0, data.length, PARALLEL_CHUNK / 8, new Parallel.Loop() {
+            public void run(int from, int to) {
+                try {
+                    ByteBuffer buffer = buffer(order);
+                    for (int i = from; i < to; ) {
+                        int n = Math.min(to - i, buffer.capacity() / 8);
+                        buffer.clear();
+                        buffer.limit(8 * n);
+                        readFully(channel, buffer, position + 8L * i);
+                        buffer.flip();
+                        buffer.asDoubleBuffer().get(data, i, n);
+                        i += n;
+                    }
+                } catch (IOException e) {
+                    setError(error, e);
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    /** Write data to the stream in blocks, in the same format as {@link java.io.DataOutputStream#writeDouble(double)}. */
+    public static void write(DataOutputStream out, double[] data) throws IOException {
+        byte[] bytes = new byte[8 * Math.min(data.length, BUFFER_SIZE / 8)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < data.length; ) {
+            int n = Math.min(data.length - i, bytes.length / 8);
+            buffer.clear();
+            buffer.asDoubleBuffer().put(data, i, n);
+            out.write(bytes, 0, 8 * n);
+            i += n;
+        }
+    }
+
+    /** Read data.length elements from the stream in blocks, see {@link #write(DataOutputStream, double[])}. */
+    public static void read(DataInputStream in, double[] data) throws IOException {
+        byte[] bytes = new byte[8 * Math.min(data.length, BUFFER_SIZE / 8)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < data.length; ) {
+            int n = Math.min(data.length - i, bytes.length / 8);
+            in.readFully(bytes, 0, 8 * n);
+            buffer.clear();
+            buffer.asDoubleBuffer().get(data, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * Write data to the channel, starting at the given position in the file.
+     * The elements are written in big-endian order, as with
+     * {@link java.io.DataOutputStream#writeFloat(float)}.
+     */
+    public static void write(FileChannel channel, long position, float[] data) throws IOException {
+        write(channel, position, data, ByteOrder.BIG_ENDIAN);
+    }
+
+    /** Write data to the channel with the elements in the given byte order. */
+    public static void write(final FileChannel channel, final long position, final float[] data, final ByteOrder order) throws IOException {
+        final IOException[] error = new IOException[1];
+        Parallel.forRange(0, data.length, PARALLEL_CHUNK / 4, new Parallel.Loop() {
+            public void run(int from, int to) {
+                try {
+                    ByteBuffer buffer = buffer(order);
+                    for (int i = from; i < to; ) {
+                        int n = Math.min(to - i, buffer.capacity() / 4);
+                        buffer.clear();
+                        buffer.asFloatBuffer().put(data, i, n);
+                        buffer.limit(4 * n);
+                        writeFully(channel, buffer, position + 4L * i);
+                        i += n;
+                    }
+                } catch (IOException e) {
+                    setError(error, e);
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    /**
+     * Read data.length elements from the channel, starting at the given
+     * position in the file, see {@link #write(FileChannel, long, float[])}.
+     */
+    public static void read(FileChannel channel, long position, float[] data) throws IOException {
+        read(channel, position, data, ByteOrder.BIG_ENDIAN);
+    }
+
+    /** Read data.length elements in the given byte order from the channel. */
+    public static void read(final FileChannel channel, final long position, final float[] data, final ByteOrder order) throws IOException {
+        final IOException[] error = new IOException[1];
+        Parallel.forRange(0, data.length, PARALLEL_CHUNK / 4, new Parallel.Loop() {
+            public void run(int from, int to) {
+                try {
+                    ByteBuffer buffer = buffer(order);
+                    for (int i = from; i < to; ) {
+                        int n = Math.min(to - i, buffer.capacity() / 4);
+                        buffer.clear();
+                        buffer.limit(4 * n);
+                        readFully(channel, buffer, position + 4L * i);
+                        buffer.flip();
+                        buffer.asFloatBuffer().get(data, i, n);
+                        i += n;
+                    }
+                } catch (IOException e) {
+                    setError(error, e);
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    /** Write data to the stream in blocks, in the same format as {@link java.io.DataOutputStream#writeFloat(float)}. */
+    public static void write(DataOutputStream out, float[] data) throws IOException {
+        byte[] bytes = new byte[4 * Math.min(data.length, BUFFER_SIZE / 4)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < data.length; ) {
+            int n = Math.min(data.length - i, bytes.length / 4);
+            buffer.clear();
+            buffer.asFloatBuffer().put(data, i, n);
+            out.write(bytes, 0, 4 * n);
+            i += n;
+        }
+    }
+
+    /** Read data.length elements from the stream in blocks, see {@link #write(DataOutputStream, float[])}. */
+    public static void read(DataInputStream in, float[] data) throws IOException {
+        byte[] bytes = new byte[4 * Math.min(data.length, BUFFER_SIZE / 4)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < data.length; ) {
+            int n = Math.min(data.length - i, bytes.length / 4);
+            in.readFully(bytes, 0, 4 * n);
+            buffer.clear();
+            buffer.asFloatBuffer().get(data, i, n);
+            i += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("File ends before all elements have been read.");
+            }
+            position += n;
+        }
+    }
+
+    private static ByteBuffer buffer(ByteOrder order) {
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        return buffer.order(order);
+    }
+
+    private static synchronized void setError(IOException[] error, IOException e) {
+        if (error[0] == null) {
+            error[0] = e;
+        }
+    }
+}
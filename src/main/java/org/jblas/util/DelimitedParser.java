@@ -0,0 +1,579 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser for matrices stored as text, with one row per line and the values
+ * separated by whitespace or by a delimiter like ','.
+ *
+ * <p>The input is read in a single pass in chunks of {@link #CHUNK_SIZE}
+ * bytes which end at a line break. Chunks are parsed in parallel, each into a
+ * column-major block of the result, so no per-line strings are created. Most
+ * numbers are converted by a fast path which is exact for up to 15
+ * significant digits and small exponents; everything else falls back to
+ * {@link Double#parseDouble(String)}. The special values <tt>nan</tt>,
+ * <tt>inf</tt> and <tt>infinity</tt> are accepted in any case.</p>
+ *
+ * <p>Empty fields (only possible with a delimiter) and fields equal to one of
+ * the missing value tokens are replaced by the missing value, which is NaN
+ * by default. Empty lines are skipped. Fields may be enclosed in double
+ * quotes. All lines must have the same number of fields.</p>
+ *
+ * <p>The settings are changed with chainable setters, for example
+ * <tt>new DelimitedParser().delimiter(',').header(true).missing("NA")</tt>.</p>
+ */
+public class DelimitedParser {
+    /** Approximate size in bytes of the chunks of input which are parsed in parallel. */
+    public static final int CHUNK_SIZE = 1 << 22;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private char delimiter = 0;
+    private boolean header = false;
+    private double missingValue = Double.NaN;
+    private byte[][] missingTokens = new byte[0][];
+
+    /** A parser for whitespace separated values without header. */
+    public DelimitedParser() {
+    }
+
+    /**
+     * Separate values by the given character instead of by whitespace. With
+     * ' ', values are separated by any amount of whitespace (the default).
+     */
+    public DelimitedParser delimiter(char delimiter) {
+        if (delimiter == '\n' || delimiter == '\r' || delimiter == '"' || delimiter > 127) {
+            throw new IllegalArgumentException("Unsupported delimiter '" + delimiter + "'.");
+        }
+        this.delimiter = delimiter == ' ' ? 0 : delimiter;
+        return this;
+    }
+
+    /** Whether the first non-empty line contains the names of the columns. */
+    public DelimitedParser header(boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    /** The value used for empty fields and missing value tokens. */
+    public DelimitedParser missingValue(double missingValue) {
+        this.missingValue = missingValue;
+        return this;
+    }
+
+    /** Fields which are replaced by the missing value, for example "NA" or "?". */
+    public DelimitedParser missing(String... tokens) {
+        missingTokens = new byte[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            missingTokens[i] = tokens[i].getBytes(ASCII);
+        }
+        return this;
+    }
+
+    /**
+     * The parsed values, stored as column-major blocks of consecutive rows.
+     */
+    public static class Table {
+        private final String[] header;
+        private final int columns;
+        private final List<Block> blocks;
+        private final int rows;
+
+        Table(String[] header, int columns, List<Block> blocks) throws IOException {
+            long rows = 0;
+            for (Block b : blocks) {
+                rows += b.rows;
+            }
+            if (rows * columns > Integer.MAX_VALUE) {
+                throw new IOException("Too many values for a matrix: " + rows + " rows and " + columns + " columns.");
+            }
+            this.header = header;
+            this.columns = columns;
+            this.blocks = blocks;
+            this.rows = (int) rows;
+        }
+
+        /** The number of rows. */
+        public int rows() {
+            return rows;
+        }
+
+        /** The number of columns. */
+        public int columns() {
+            return columns;
+        }
+
+        /** The names of the columns, or null if the input had no header. */
+        public String[] header() {
+            return header;
+        }
+
+        /** Copy the values into a column-major array with rows() * columns() elements. */
+        public void copyTo(double[] data) {
+            int r = 0;
+            for (Block b : blocks) {
+                for (int c = 0; c < columns; c++) {
+                    System.arraycopy(b.values, c * b.stride, data, c * rows + r, b.rows);
+                }
+                r += b.rows;
+            }
+        }
+
+        /** Copy the values into a column-major array with rows() * columns() elements. */
+        public void copyTo(float[] data) {
+            int r = 0;
+            for (Block b : blocks) {
+                for (int c = 0; c < columns; c++) {
+                    for (int i = 0, j = c * rows + r; i < b.rows; i++, j++) {
+                        data[j] = (float) b.values[c * b.stride + i];
+                    }
+                }
+                r += b.rows;
+            }
+        }
+    }
+
+    /** Values of consecutive rows in column-major order with the given stride. */
+    private static class Block {
+        final double[] values;
+        final int stride;
+        final int rows;
+
+        Block(double[] values, int stride, int rows) {
+            this.values = values;
+            this.stride = stride;
+            this.rows = rows;
+        }
+    }
+
+    /** A chunk of input consisting of complete lines. */
+    private static class Chunk {
+        final byte[] bytes;
+        final int from;
+        final int to;
+
+        Chunk(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Parse the whole stream. The stream is not closed.
+     */
+    public Table parse(InputStream in) throws IOException {
+        ChunkReader reader = new ChunkReader(in);
+        List<Block> blocks = new ArrayList<Block>();
+        String[] names = null;
+        int columns = -1;
+        int batchSize = Math.max(1, Parallel.getThreads());
+
+        while (true) {
+            List<Chunk> batch = new ArrayList<Chunk>();
+            Chunk chunk;
+            while (batch.size() < batchSize && (chunk = reader.next()) != null) {
+                if (columns < 0) {
+                    // look at the first non-empty line to get the number of columns
+                    int from = chunk.from;
+                    while (from < chunk.to && isBlank(chunk.bytes, from, lineEnd(chunk.bytes, from, chunk.to))) {
+                        from = nextLine(chunk.bytes, from, chunk.to);
+                    }
+                    if (from == chunk.to) {
+                        continue;
+                    }
+                    int end = lineEnd(chunk.bytes, from, chunk.to);
+                    if (header) {
+                        names = fields(chunk.bytes, from, end);
+                        columns = names.length;
+                        from = nextLine(chunk.bytes, from, chunk.to);
+                    } else {
+                        columns = fields(chunk.bytes, from, end).length;
+                    }
+                    chunk = new Chunk(chunk.bytes, from, chunk.to);
+                }
+                batch.add(chunk);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            blocks.addAll(parseChunks(batch, columns));
+        }
+        return new Table(names, Math.max(columns, 0), blocks);
+    }
+
+    private List<Block> parseChunks(final List<Chunk> chunks, final int columns) throws IOException {
+        final Block[] result = new Block[chunks.size()];
+        final IOException[] error = new IOException[1];
+        Parallel.forRange(0, chunks.size(), 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int k = from; k < to; k++) {
+                    try {
+                        result[k] = parseChunk(chunks.get(k), columns);
+                    } catch (IOException e) {
+                        synchronized (error) {
+                            if (error[0] == null) {
+                                error[0] = e;
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        List<Block> blocks = new ArrayList<Block>(result.length);
+        for (Block b : result) {
+            blocks.add(b);
+        }
+        return blocks;
+    }
+
+    private Block parseChunk(Chunk chunk, int columns) throws IOException {
+        byte[] b = chunk.bytes;
+        int lines = 0;
+        for (int i = chunk.from; i < chunk.to; i++) {
+            if (b[i] == '\n') {
+                lines++;
+            }
+        }
+        if (chunk.to > chunk.from && b[chunk.to - 1] != '\n') {
+            lines++;
+        }
+
+        double[] values = new double[lines * columns];
+        int row = 0;
+        for (int pos = chunk.from; pos < chunk.to; pos = nextLine(b, pos, chunk.to)) {
+            int end = lineEnd(b, pos, chunk.to);
+            if (isBlank(b, pos, end)) {
+                continue;
+            }
+            int c = 0;
+            int i = pos;
+            while (true) {
+                int start;
+                int stop;
+                if (delimiter == 0) {
+                    while (i < end && isSpace(b[i])) {
+                        i++;
+                    }
+                    if (i == end) {
+                        break;
+                    }
+                    start = i;
+                    while (i < end && !isSpace(b[i])) {
+                        i++;
+                    }
+                    stop = i;
+                } else {
+                    start = i;
+                    while (i < end && b[i] != delimiter) {
+                        i++;
+                    }
+                    stop = i;
+                }
+                if (c == columns) {
+                    throw fieldCountChanged(b, pos, end);
+                }
+                values[c * lines + row] = value(b, start, stop);
+                c++;
+                if (delimiter != 0) {
+                    if (i == end) {
+                        break;
+                    }
+                    i++;
+                }
+            }
+            if (c != columns) {
+                throw fieldCountChanged(b, pos, end);
+            }
+            row++;
+        }
+        return new Block(values, lines, row);
+    }
+
+    /** Convert a field, see {@link DelimitedParser}. */
+    private double value(byte[] b, int from, int to) throws IOException {
+        while (from < to && isSpace(b[from])) {
+            from++;
+        }
+        while (to > from && isSpace(b[to - 1])) {
+            to--;
+        }
+        if (to - from >= 2 && b[from] == '"' && b[to - 1] == '"') {
+            from++;
+            to--;
+        }
+        if (from == to) {
+            return missingValue;
+        }
+        for (byte[] token : missingTokens) {
+            if (equals(b, from, to, token)) {
+                return missingValue;
+            }
+        }
+        return parseDouble(b, from, to);
+    }
+
+    /**
+     * Parse a number in the ASCII characters b[from..to-1].
+     *
+     * <p>Numbers with at most 15 significant digits and a decimal exponent
+     * of at most 22 are computed as one exact multiplication or division of
+     * exactly representable values, which gives the correctly rounded
+     * result. Other numbers are handled by {@link Double#parseDouble(String)}.</p>
+     */
+    public static double parseDouble(byte[] b, int from, int to) throws IOException {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        for (; i < to && isDigit(b[i]); i++) {
+            if (digits < 16) {
+                mantissa = 10 * mantissa + (b[i] - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            any = true;
+        }
+        if (i < to && b[i] == '.') {
+            for (i++; i < to && isDigit(b[i]); i++) {
+                if (digits < 16) {
+                    mantissa = 10 * mantissa + (b[i] - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                }
+                any = true;
+            }
+        }
+        if (any && i < to && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (b[i] == '-' || b[i] == '+')) {
+                negativeExponent = b[i] == '-';
+                i++;
+            }
+            int e = 0;
+            boolean anyExponent = false;
+            for (; i < to && isDigit(b[i]); i++) {
+                e = Math.min(10 * e + (b[i] - '0'), 100000);
+                anyExponent = true;
+            }
+            if (!anyExponent) {
+                any = false;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (any && i == to && digits <= 15) {
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            }
+            if (exponent >= -22 && exponent <= 22) {
+                double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+                return negative ? -value : value;
+            }
+        }
+        return parseSlow(b, from, to);
+    }
+
+    private static double parseSlow(byte[] b, int from, int to) throws IOException {
+        String s = new String(b, from, to - from, ASCII);
+        String lower = s.toLowerCase();
+        String unsigned = lower.startsWith("-") || lower.startsWith("+") ? lower.substring(1) : lower;
+        if (unsigned.equals("nan")) {
+            return Double.NaN;
+        }
+        if (unsigned.equals("inf") || unsigned.equals("infinity")) {
+            return lower.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IOException("Could not parse number '" + s + "'.");
+        }
+    }
+
+    /** Split a line into trimmed fields, used for the header and the first line. */
+    private String[] fields(byte[] b, int from, int to) {
+        List<String> result = new ArrayList<String>();
+        int i = from;
+        while (true) {
+            if (delimiter == 0) {
+                while (i < to && isSpace(b[i])) {
+                    i++;
+                }
+                if (i == to) {
+                    break;
+                }
+            }
+            int start = i;
+            while (i < to && (delimiter == 0 ? !isSpace(b[i]) : b[i] != delimiter)) {
+                i++;
+            }
+            String field = new String(b, start, i - start, ASCII).trim();
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1);
+            }
+            result.add(field);
+            if (delimiter != 0) {
+                if (i == to) {
+                    break;
+                }
+                i++;
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    private static IOException fieldCountChanged(byte[] b, int from, int to) {
+        return new IOException("Number of elements changes in line " + new String(b, from, to - from, ASCII) + ".");
+    }
+
+    private static boolean equals(byte[] b, int from, int to, byte[] token) {
+        if (to - from != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            if (b[from + i] != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isBlank(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isSpace(b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** End of the line starting at from, without the line break. */
+    private static int lineEnd(byte[] b, int from, int to) {
+        while (from < to && b[from] != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    /** Start of the line after the one starting at from. */
+    private static int nextLine(byte[] b, int from, int to) {
+        int end = lineEnd(b, from, to);
+        return end < to ? end + 1 : to;
+    }
+
+    /** Reads the input in chunks of complete lines. */
+    private static class ChunkReader {
+        private final InputStream in;
+        private byte[] rest = new byte[0];
+        private boolean eof = false;
+
+        ChunkReader(InputStream in) {
+            this.in = in;
+        }
+
+        /** The next chunk, or null at the end of the input. */
+        Chunk next() throws IOException {
+            if (eof && rest.length == 0) {
+                return null;
+            }
+            byte[] buffer = new byte[Math.max(CHUNK_SIZE, 2 * rest.length)];
+            System.arraycopy(rest, 0, buffer, 0, rest.length);
+            int length = rest.length;
+            while (true) {
+                while (!eof && length < buffer.length) {
+                    int n = in.read(buffer, length, buffer.length - length);
+                    if (n < 0) {
+                        eof = true;
+                    } else {
+                        length += n;
+                    }
+                }
+                if (eof) {
+                    rest = new byte[0];
+                    return length > 0 ? new Chunk(buffer, 0, length) : null;
+                }
+                int end = length;
+                while (end > 0 && buffer[end - 1] != '\n') {
+                    end--;
+                }
+                if (end > 0) {
+                    rest = new byte[length - end];
+                    System.arraycopy(buffer, end, rest, 0, rest.length);
+                    return new Chunk(buffer, 0, end);
+                }
+                // a line longer than the buffer
+                byte[] larger = new byte[2 * buffer.length];
+                System.arraycopy(buffer, 0, larger, 0, length);
+                buffer = larger;
+            }
+        }
+    }
+}
@@ -52,4 +52,76 @@ public class Functions {
   public static double log2(double x) {
     return Math.log(x) / LOG2;
   }
+
+  private static final double TWO_OVER_SQRT_PI = 1.1283791670955126;
+  private static final double ONE_OVER_SQRT_PI = 0.5641895835477563;
+
+  /** Error function, computed to about one ulp. */
+  public static double erf(double x) {
+    double ax = Math.abs(x);
+    double r;
+    if (ax < 1.5) {
+      r = erfSeries(ax);
+    } else if (ax < 6.0) {
+      r = 1.0 - expMinusSquare(ax) * erfcxFraction(ax);
+    } else if (ax <= Double.MAX_VALUE) {
+      r = 1.0;
+    } else {
+      return Double.isNaN(x) ? x : Math.signum(x);
+    }
+    return x < 0 ? -r : r;
+  }
+
+  /** Complementary error function 1 - erf(x). */
+  public static double erfc(double x) {
+    if (x < 0) {
+      return 2.0 - erfc(-x);
+    } else if (x < 1.0) {
+      return 1.0 - erfSeries(x);
+    } else if (x < 27.5) {
+      return expMinusSquare(x) * erfcxFraction(x);
+    } else {
+      return Double.isNaN(x) ? x : 0.0;
+    }
+  }
+
+  /** Scaled complementary error function exp(x^2) erfc(x) for x &gt;= 0. */
+  static double erfcx(double x) {
+    if (x < 1.0) {
+      return Math.exp(x * x) * (1.0 - erfSeries(x));
+    } else {
+      return erfcxFraction(x);
+    }
+  }
+
+  /** erf(x) for x &gt;= 0 from a series with positive terms only. */
+  private static double erfSeries(double x) {
+    double x2 = x * x;
+    double term = x;
+    double sum = x;
+    for (int n = 1; term > sum * 1e-17; n++) {
+      term *= 2 * x2 / (2 * n + 1);
+      sum += term;
+    }
+    return TWO_OVER_SQRT_PI * expMinusSquare(x) * sum;
+  }
+
+  /** exp(x^2) erfc(x) for x &gt;= 1 from its continued fraction. */
+  private static double erfcxFraction(double x) {
+    double f = x;
+    for (int k = 60 + (int) (140 / (x * x)); k > 0; k--) {
+      f = x + 0.5 * k / f;
+    }
+    return ONE_OVER_SQRT_PI / f;
+  }
+
+  /** exp(-x^2), taking the rounding error of x^2 into account. */
+  private static double expMinusSquare(double x) {
+    double hi = x * x;
+    double c = 134217729.0 * x;
+    double xh = c - (c - x);
+    double xl = x - xh;
+    double lo = ((xh * xh - hi) + 2 * xh * xl) + xl * xl;
+    return Math.exp(-hi) * (1.0 - lo);
+  }
 }
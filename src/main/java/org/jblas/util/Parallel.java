@@ -0,0 +1,177 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helpers for running loops in parallel on a shared fork-join pool.
+ *
+ * <p>Loops are split recursively into chunks of at most <tt>grain</tt>
+ * iterations. The way a range is split only depends on its size and the
+ * grain, not on the number of threads, such that results computed per chunk
+ * are always combined in the same order.</p>
+ *
+ * <p>The number of threads can be set with the system property
+ * <tt>jblas.threads</tt> or by calling {@link #setThreads(int)}. With a single
+ * thread, the chunks are run one after the other in the calling thread.</p>
+ */
+public class Parallel {
+    private static ForkJoinPool pool;
+    private static int threads = defaultThreads();
+
+    /** Body of a loop over a range of indices. */
+    public static abstract class Loop {
+        /** Process the indices from (inclusive) to to (exclusive). */
+        public abstract void run(int from, int to);
+    }
+
+    private static int defaultThreads() {
+        int n = Runtime.getRuntime().availableProcessors();
+        try {
+            String s = System.getProperty("jblas.threads");
+            if (s != null) {
+                n = Integer.parseInt(s);
+            }
+        } catch (NumberFormatException e) {
+            Logger.getLogger().warning("Could not parse jblas.threads, using " + n + " threads.");
+        }
+        return Math.max(1, n);
+    }
+
+    /** Get the number of threads used for parallel loops. */
+    public static synchronized int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of threads used for parallel loops.
+     *
+     * <p>Loops which are already running finish on the old pool. The old pool
+     * is not shut down, as other threads may still be submitting to it; its
+     * workers exit by themselves once they are idle.</p>
+     */
+    public static synchronized void setThreads(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+        if (n != threads) {
+            pool = null;
+        }
+        threads = n;
+    }
+
+    /** Get the fork-join pool used for parallel loops. */
+    public static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    /**
+     * Whether a loop of the given size is split into several chunks. This only
+     * depends on the size and the grain, not on the number of threads.
+     */
+    public static boolean worthSplitting(int n, int grain) {
+        return n > Math.max(1, grain);
+    }
+
+    /**
+     * Run body over the range from (inclusive) to to (exclusive), splitting it
+     * into chunks of at most grain indices which are processed in parallel.
+     */
+    public static void forRange(int from, int to, int grain, Loop body) {
+        if (to <= from) {
+            return;
+        }
+        grain = Math.max(1, grain);
+        if (!worthSplitting(to - from, grain)) {
+            body.run(from, to);
+            return;
+        }
+        if (getThreads() == 1) {
+            runChunks(from, to, grain, body);
+            return;
+        }
+        LoopTask task = new LoopTask(from, to, grain, body);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            pool().invoke(task);
+        }
+    }
+
+    /** Run the chunks of a range in the calling thread, split like a LoopTask. */
+    private static void runChunks(int from, int to, int grain, Loop body) {
+        if (to - from <= grain) {
+            body.run(from, to);
+        } else {
+            int mid = from + (to - from) / 2;
+            runChunks(from, mid, grain, body);
+            runChunks(mid, to, grain, body);
+        }
+    }
+
+    private static class LoopTask extends RecursiveAction {
+        static final long serialVersionUID = 4871268015722934672L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Loop body;
+
+        LoopTask(int from, int to, int grain, Loop body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+            } else {
+                int mid = from + (to - from) / 2;
+                invokeAll(new LoopTask(from, mid, grain, body), new LoopTask(mid, to, grain, body));
+            }
+        }
+    }
+}
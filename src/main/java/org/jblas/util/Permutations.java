@@ -39,6 +39,7 @@ package org.jblas.util;
 import java.util.Random;
 import org.jblas.DoubleMatrix;
 import org.jblas.FloatMatrix;
+import org.jblas.PermutationMatrix;
 
 /**
  * Functions which generate random permutations.
@@ -97,25 +98,7 @@ public class Permutations {
      * @param ipiv row i was interchanged with row ipiv[i]
      */
     public static DoubleMatrix permutationDoubleMatrixFromPivotIndices(int size, int[] ipiv) {
-        int n = ipiv.length;
-        //System.out.printf("size = %d n = %d\n", size, n);
-        int indices[] = new int[size];
-        for (int i = 0; i < size; i++)
-            indices[i] = i;
-
-        //for (int i = 0; i < n; i++)
-        //    System.out.printf("ipiv[%d] = %d\n", i, ipiv[i]);
-
-        for (int i = 0; i < n; i++) {
-            int j = ipiv[i] - 1;
-            int t = indices[i];
-            indices[i] = indices[j];
-            indices[j] = t;
-        }
-        DoubleMatrix result = new DoubleMatrix(size, size);
-        for (int i = 0; i < size; i++)
-            result.put(indices[i], i, 1.0);
-        return result;
+        return PermutationMatrix.fromPivotIndices(size, ipiv).toDoubleMatrix();
     }
 
   /**
@@ -124,24 +107,6 @@ public class Permutations {
    * @param ipiv row i was interchanged with row ipiv[i]
    */
   public static FloatMatrix permutationFloatMatrixFromPivotIndices(int size, int[] ipiv) {
-      int n = ipiv.length;
-      //System.out.printf("size = %d n = %d\n", size, n);
-      int indices[] = new int[size];
-      for (int i = 0; i < size; i++)
-          indices[i] = i;
-
-      //for (int i = 0; i < n; i++)
-      //    System.out.printf("ipiv[%d] = %d\n", i, ipiv[i]);
-
-      for (int i = 0; i < n; i++) {
-          int j = ipiv[i] - 1;
-          int t = indices[i];
-          indices[i] = indices[j];
-          indices[j] = t;
-      }
-      FloatMatrix result = new FloatMatrix(size, size);
-      for (int i = 0; i < size; i++)
-          result.put(indices[i], i, 1.0f);
-      return result;
+      return PermutationMatrix.fromPivotIndices(size, ipiv).toFloatMatrix();
   }
 }
@@ -0,0 +1,643 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorting of primitive arrays, computation of sorting permutations without
+ * boxing, and selection of order statistics and of the largest elements.
+ *
+ * <p>Sorting permutations are computed by a stable LSD radix sort on the bits
+ * of the numbers, transformed such that their integer order is the order of
+ * {@link Double#compare(double, double)}: -0.0 comes before 0.0, and NaNs come
+ * last. This is the order used by {@link Arrays#sort(double[])} as well.
+ * Large arrays are split into chunks of {@link #PARALLEL_GRAIN} elements
+ * which are sorted in parallel and then merged.</p>
+ */
+public class Sorting {
+    /** Arrays with more elements are sorted in parallel chunks of this size. */
+    public static final int PARALLEL_GRAIN = 1 << 16;
+
+    /** Below this size, sorting permutations are computed with a merge sort instead of a radix sort. */
+    private static final int RADIX_THRESHOLD = 256;
+
+    /** Below this size, merge sort falls back to insertion sort. */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private static final int DIGIT_BITS = 8;
+    private static final int BUCKETS = 1 << DIGIT_BITS;
+    private static final int DIGITS = 64 / DIGIT_BITS;
+
+    /**
+     * Sorting permutation of the n elements data[offset], data[offset + stride],
+     * ..., data[offset + (n-1) * stride]: the returned indices i<sub>0</sub>, ...
+     * enumerate the elements in sorted order. The sort is stable.
+     */
+    public static int[] sortingPermutation(double[] data, int offset, int stride, int n) {
+        long[] keys = new long[n];
+        for (int i = 0, j = offset; i < n; i++, j += stride) {
+            long bits = Double.doubleToLongBits(data[j]);
+            keys[i] = bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+        }
+        return sortingPermutation(keys);
+    }
+
+    /**
+     * Sorting permutation of the n elements data[offset], data[offset + stride],
+     * ..., data[offset + (n-1) * stride]: the returned indices i<sub>0</sub>, ...
+     * enumerate the elements in sorted order. The sort is stable.
+     */
+    public static int[] sortingPermutation(float[] data, int offset, int stride, int n) {
+        long[] keys = new long[n];
+        for (int i = 0, j = offset; i < n; i++, j += stride) {
+            int bits = Float.floatToIntBits(data[j]);
+            // non-negative keys with the upper 32 bits zero, such that the radix sort skips them
+            keys[i] = (long) (bits >= 0 ? bits : bits ^ Integer.MAX_VALUE) - Integer.MIN_VALUE;
+        }
+        return sortingPermutation(keys);
+    }
+
+    /** Stable sorting permutation of the keys (in signed order). The keys are overwritten. */
+    private static int[] sortingPermutation(final long[] keys) {
+        final int n = keys.length;
+        final int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        final long[] tmpKeys = new long[n];
+        final int[] tmpIdx = new int[n];
+        if (!Parallel.worthSplitting(n, PARALLEL_GRAIN)) {
+            sortRange(keys, idx, tmpKeys, tmpIdx, 0, n);
+            return idx;
+        }
+
+        int chunks = (n + PARALLEL_GRAIN - 1) / PARALLEL_GRAIN;
+        Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int c = from; c < to; c++) {
+                    sortRange(keys, idx, tmpKeys, tmpIdx, c * PARALLEL_GRAIN, Math.min(n, (c + 1) * PARALLEL_GRAIN));
+                }
+            }
+        });
+
+        // merge sorted runs of doubling width, alternating between the two pairs of arrays
+        long[] srcKeys = keys, dstKeys = tmpKeys;
+        int[] srcIdx = idx, dstIdx = tmpIdx;
+        for (int width = PARALLEL_GRAIN; width < n; width *= 2) {
+            mergeRuns(srcKeys, srcIdx, dstKeys, dstIdx, n, width);
+            long[] k = srcKeys; srcKeys = dstKeys; dstKeys = k;
+            int[] i = srcIdx; srcIdx = dstIdx; dstIdx = i;
+        }
+        return srcIdx;
+    }
+
+    /** Merge all pairs of neighbouring runs of the given width from src into dst. */
+    private static void mergeRuns(final long[] srcKeys, final int[] srcIdx, final long[] dstKeys, final int[] dstIdx,
+                                  final int n, final int width) {
+        int pairs = (n + 2 * width - 1) / (2 * width);
+        Parallel.forRange(0, pairs, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int p = from; p < to; p++) {
+                    int lo = p * 2 * width;
+                    int mid = Math.min(n, lo + width);
+                    int hi = Math.min(n, mid + width);
+                    merge(srcKeys, srcIdx, dstKeys, dstIdx, lo, mid, hi);
+                }
+            }
+        });
+    }
+
+    /** Stable merge of src[lo, mid) and src[mid, hi) into dst[lo, hi). */
+    private static void merge(long[] srcKeys, int[] srcIdx, long[] dstKeys, int[] dstIdx, int lo, int mid, int hi) {
+        int p = lo, q = mid;
+        for (int i = lo; i < hi; i++) {
+            if (q >= hi || p < mid && srcKeys[p] <= srcKeys[q]) {
+                dstKeys[i] = srcKeys[p];
+                dstIdx[i] = srcIdx[p++];
+            } else {
+                dstKeys[i] = srcKeys[q];
+                dstIdx[i] = srcIdx[q++];
+            }
+        }
+    }
+
+    /** Stably sort keys[from, to) together with idx, using the tmp arrays as scratch space. */
+    private static void sortRange(long[] keys, int[] idx, long[] tmpKeys, int[] tmpIdx, int from, int to) {
+        if (to - from < RADIX_THRESHOLD) {
+            System.arraycopy(keys, from, tmpKeys, from, to - from);
+            System.arraycopy(idx, from, tmpIdx, from, to - from);
+            mergeSort(keys, idx, tmpKeys, tmpIdx, from, to);
+        } else {
+            radixSort(keys, idx, tmpKeys, tmpIdx, from, to);
+        }
+    }
+
+    /**
+     * Stable merge sort of [from, to) into keys and idx, where the tmp arrays
+     * hold the same content and are used as scratch space.
+     */
+    private static void mergeSort(long[] keys, int[] idx, long[] tmpKeys, int[] tmpIdx, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long k = keys[i];
+                int x = idx[i];
+                int j = i - 1;
+                while (j >= from && keys[j] > k) {
+                    keys[j + 1] = keys[j];
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                idx[j + 1] = x;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(tmpKeys, tmpIdx, keys, idx, from, mid);
+        mergeSort(tmpKeys, tmpIdx, keys, idx, mid, to);
+        merge(tmpKeys, tmpIdx, keys, idx, from, mid, to);
+    }
+
+    /** LSD radix sort of [from, to) on the (sign-flipped) bytes of the keys. */
+    private static void radixSort(long[] keys, int[] idx, long[] tmpKeys, int[] tmpIdx, int from, int to) {
+        int[][] counts = new int[DIGITS][BUCKETS];
+        for (int i = from; i < to; i++) {
+            long u = keys[i] ^ Long.MIN_VALUE;
+            for (int d = 0; d < DIGITS; d++) {
+                counts[d][(int) (u >>> (d * DIGIT_BITS)) & (BUCKETS - 1)]++;
+            }
+        }
+
+        long[] srcKeys = keys, dstKeys = tmpKeys;
+        int[] srcIdx = idx, dstIdx = tmpIdx;
+        int n = to - from;
+        int[] pos = new int[BUCKETS];
+        for (int d = 0; d < DIGITS; d++) {
+            int[] count = counts[d];
+            int shift = d * DIGIT_BITS;
+            // skip digits which are the same for all keys
+            if (count[(int) ((srcKeys[from] ^ Long.MIN_VALUE) >>> shift) & (BUCKETS - 1)] == n) {
+                continue;
+            }
+            for (int b = 0, p = from; b < BUCKETS; b++) {
+                pos[b] = p;
+                p += count[b];
+            }
+            for (int i = from; i < to; i++) {
+                long k = srcKeys[i];
+                int p = pos[(int) ((k ^ Long.MIN_VALUE) >>> shift) & (BUCKETS - 1)]++;
+                dstKeys[p] = k;
+                dstIdx[p] = srcIdx[i];
+            }
+            long[] k = srcKeys; srcKeys = dstKeys; dstKeys = k;
+            int[] x = srcIdx; srcIdx = dstIdx; dstIdx = x;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, from, keys, from, n);
+            System.arraycopy(srcIdx, from, idx, from, n);
+        }
+    }
+
+    /**
+     * Sort a[from, to) in the order of {@link Arrays#sort(double[])}, in
+     * parallel chunks for large ranges.
+     */
+    public static void sort(final double[] a, final int from, final int to) {
+        final int n = to - from;
+        if (!Parallel.worthSplitting(n, PARALLEL_GRAIN)) {
+            Arrays.sort(a, from, to);
+            return;
+        }
+        int chunks = (n + PARALLEL_GRAIN - 1) / PARALLEL_GRAIN;
+        Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+            public void run(int lo, int hi) {
+                for (int c = lo; c < hi; c++) {
+                    Arrays.sort(a, from + c * PARALLEL_GRAIN, from + Math.min(n, (c + 1) * PARALLEL_GRAIN));
+                }
+            }
+        });
+        double[] src = a, dst = new double[a.length];
+        for (int width = PARALLEL_GRAIN; width < n; width *= 2) {
+            final double[] s = src, t = dst;
+            final int w = width;
+            Parallel.forRange(0, (n + 2 * w - 1) / (2 * w), 1, new Parallel.Loop() {
+                public void run(int lo, int hi) {
+                    for (int p = lo; p < hi; p++) {
+                        int l = from + p * 2 * w;
+                        int mid = Math.min(to, l + w);
+                        int h = Math.min(to, mid + w);
+                        for (int i = l, x = l, y = mid; i < h; i++) {
+                            t[i] = y >= h || x < mid && Double.compare(s[x], s[y]) <= 0 ? s[x++] : s[y++];
+                        }
+                    }
+                }
+            });
+            src = t;
+            dst = s;
+        }
+        if (src != a) {
+            System.arraycopy(src, from, a, from, n);
+        }
+    }
+
+    /**
+     * Sort a[from, to) in the order of {@link Arrays#sort(float[])}, in
+     * parallel chunks for large ranges.
+     */
+    public static void sort(final float[] a, final int from, final int to) {
+        final int n = to - from;
+        if (!Parallel.worthSplitting(n, PARALLEL_GRAIN)) {
+            Arrays.sort(a, from, to);
+            return;
+        }
+        int chunks = (n + PARALLEL_GRAIN - 1) / PARALLEL_GRAIN;
+        Parallel.forRange(0, chunks, 1, new Parallel.Loop() {
+            public void run(int lo, int hi) {
+                for (int c = lo; c < hi; c++) {
+                    Arrays.sort(a, from + c * PARALLEL_GRAIN, from + Math.min(n, (c + 1) * PARALLEL_GRAIN));
+                }
+            }
+        });
+        float[] src = a, dst = new float[a.length];
+        for (int width = PARALLEL_GRAIN; width < n; width *= 2) {
+            final float[] s = src, t = dst;
+            final int w = width;
+            Parallel.forRange(0, (n + 2 * w - 1) / (2 * w), 1, new Parallel.Loop() {
+                public void run(int lo, int hi) {
+                    for (int p = lo; p < hi; p++) {
+                        int l = from + p * 2 * w;
+                        int mid = Math.min(to, l + w);
+                        int h = Math.min(to, mid + w);
+                        for (int i = l, x = l, y = mid; i < h; i++) {
+                            t[i] = y >= h || x < mid && Float.compare(s[x], s[y]) <= 0 ? s[x++] : s[y++];
+                        }
+                    }
+                }
+            });
+            src = t;
+            dst = s;
+        }
+        if (src != a) {
+            System.arraycopy(src, from, a, from, n);
+        }
+    }
+
+    /**
+     * Reorder a[from, to) such that for each k in ks, a[from + k] is the
+     * element which would be there if the range were sorted (in the order of
+     * {@link Arrays#sort(double[])}). The ks must be sorted in ascending order.
+     *
+     * <p>This is an introselect: a quickselect with three-way partitioning
+     * around a median-of-three pivot, which falls back to sorting when the
+     * partitions shrink too slowly. NaNs are moved to the end first.</p>
+     */
+    public static void select(double[] a, int from, int to, int[] ks) {
+        int end = to;
+        for (int i = from; i < end; ) {
+            if (Double.isNaN(a[i])) {
+                double t = a[i]; a[i] = a[--end]; a[end] = t;
+            } else {
+                i++;
+            }
+        }
+        int[] pos = new int[ks.length];
+        int m = 0;
+        for (int j = 0; j < ks.length; j++) {
+            if (ks[j] < 0 || ks[j] >= to - from) {
+                throw new IllegalArgumentException("Order " + ks[j] + " out of range for " + (to - from) + " elements.");
+            }
+            if (j > 0 && ks[j] < ks[j - 1]) {
+                throw new IllegalArgumentException("Orders must be sorted.");
+            }
+            if (from + ks[j] < end) {
+                pos[m++] = from + ks[j];
+            }
+        }
+        select(a, from, end, pos, 0, m, 2 * (32 - Integer.numberOfLeadingZeros(end - from)));
+    }
+
+    /**
+     * Return the element which would be at a[from + k] if the range were
+     * sorted, partially reordering the range, see {@link #select(double[], int, int, int[])}.
+     */
+    public static double select(double[] a, int from, int to, int k) {
+        select(a, from, to, new int[]{k});
+        return a[from + k];
+    }
+
+    private static void select(double[] a, int from, int to, int[] pos, int kFrom, int kTo, int depth) {
+        while (kFrom < kTo && to - from > 1) {
+            if (to - from <= INSERTION_THRESHOLD || depth-- == 0) {
+                Arrays.sort(a, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            double x = a[from], y = a[mid], z = a[to - 1];
+            double pivot = x < y ? (y < z ? y : (x < z ? z : x)) : (x < z ? x : (y < z ? z : y));
+
+            // [from, lt) < pivot, [lt, i) == pivot, [gt, to) > pivot
+            int lt = from, i = from, gt = to;
+            while (i < gt) {
+                double v = a[i];
+                if (v < pivot) {
+                    a[i++] = a[lt];
+                    a[lt++] = v;
+                } else if (v > pivot) {
+                    a[i] = a[--gt];
+                    a[gt] = v;
+                } else {
+                    i++;
+                }
+            }
+
+            int kLeft = kFrom;
+            while (kLeft < kTo && pos[kLeft] < lt) {
+                kLeft++;
+            }
+            int kRight = kLeft;
+            while (kRight < kTo && pos[kRight] < gt) {
+                kRight++;
+            }
+            // recurse into the side with fewer orders, iterate on the other one
+            if (kLeft - kFrom < kTo - kRight) {
+                select(a, from, lt, pos, kFrom, kLeft, depth);
+                from = gt;
+                kFrom = kRight;
+            } else {
+                select(a, gt, to, pos, kRight, kTo, depth);
+                to = lt;
+                kTo = kLeft;
+            }
+        }
+    }
+
+    /**
+     * Positions of the k largest (or smallest) of the n elements data[offset],
+     * data[offset + stride], ..., data[offset + (n-1) * stride], ordered
+     * from the largest (or smallest) one, in the order of
+     * {@link Double#compare(double, double)}. Of equal elements, the one with
+     * the lower position comes first. If k is larger than n, all n positions
+     * are returned.
+     *
+     * <p>The elements are scanned once, keeping the best k in a heap.</p>
+     */
+    public static int[] top(double[] data, int offset, int stride, int n, int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative.");
+        }
+        k = Math.min(k, n);
+        // heap with the worst of the best k elements at the root
+        double[] values = new double[k];
+        int[] positions = new int[k];
+        int size = 0;
+        for (int i = 0, j = offset; i < n; i++, j += stride) {
+            double v = data[j];
+            if (size < k) {
+                int c = size++;
+                while (c > 0) {
+                    int p = (c - 1) >>> 1;
+                    if (!better(values[p], positions[p], v, i, largest)) {
+                        break;
+                    }
+                    values[c] = values[p];
+                    positions[c] = positions[p];
+                    c = p;
+                }
+                values[c] = v;
+                positions[c] = i;
+            } else if (k > 0 && better(v, i, values[0], positions[0], largest)) {
+                siftDown(values, positions, k, v, i, largest);
+            }
+        }
+        int[] result = new int[k];
+        while (size > 0) {
+            result[--size] = positions[0];
+            siftDown(values, positions, size, values[size], positions[size], largest);
+        }
+        return result;
+    }
+
+    /** Whether (v, i) comes before (w, j) among the best elements. */
+    private static boolean better(double v, int i, double w, int j, boolean largest) {
+        int c = largest ? Double.compare(v, w) : Double.compare(w, v);
+        return c > 0 || c == 0 && i < j;
+    }
+
+    /** Put (v, i) at the root of the heap of the given size and restore the heap order. */
+    private static void siftDown(double[] values, int[] positions, int size, double v, int i, boolean largest) {
+        int c = 0;
+        while (2 * c + 1 < size) {
+            int child = 2 * c + 1;
+            if (child + 1 < size && better(values[child], positions[child], values[child + 1], positions[child + 1], largest)) {
+                child++;
+            }
+            if (!better(v, i, values[child], positions[child], largest)) {
+                break;
+            }
+            values[c] = values[child];
+            positions[c] = positions[child];
+            c = child;
+        }
+        if (size > 0) {
+            values[c] = v;
+            positions[c] = i;
+        }
+    }
+
+    /**
+     * Reorder a[from, to) such that for each k in ks, a[from + k] is the
+     * element which would be there if the range were sorted (in the order of
+     * {@link Arrays#sort(float[])}). The ks must be sorted in ascending order.
+     *
+     * <p>This is an introselect: a quickselect with three-way partitioning
+     * around a median-of-three pivot, which falls back to sorting when the
+     * partitions shrink too slowly. NaNs are moved to the end first.</p>
+     */
+    public static void select(float[] a, int from, int to, int[] ks) {
+        int end = to;
+        for (int i = from; i < end; ) {
+            if (Float.isNaN(a[i])) {
+                float t = a[i]; a[i] = a[--end]; a[end] = t;
+            } else {
+                i++;
+            }
+        }
+        int[] pos = new int[ks.length];
+        int m = 0;
+        for (int j = 0; j < ks.length; j++) {
+            if (ks[j] < 0 || ks[j] >= to - from) {
+                throw new IllegalArgumentException("Order " + ks[j] + " out of range for " + (to - from) + " elements.");
+            }
+            if (j > 0 && ks[j] < ks[j - 1]) {
+                throw new IllegalArgumentException("Orders must be sorted.");
+            }
+            if (from + ks[j] < end) {
+                pos[m++] = from + ks[j];
+            }
+        }
+        select(a, from, end, pos, 0, m, 2 * (32 - Integer.numberOfLeadingZeros(end - from)));
+    }
+
+    /**
+     * Return the element which would be at a[from + k] if the range were
+     * sorted, partially reordering the range, see {@link #select(float[], int, int, int[])}.
+     */
+    public static float select(float[] a, int from, int to, int k) {
+        select(a, from, to, new int[]{k});
+        return a[from + k];
+    }
+
+    private static void select(float[] a, int from, int to, int[] pos, int kFrom, int kTo, int depth) {
+        while (kFrom < kTo && to - from > 1) {
+            if (to - from <= INSERTION_THRESHOLD || depth-- == 0) {
+                Arrays.sort(a, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            float x = a[from], y = a[mid], z = a[to - 1];
+            float pivot = x < y ? (y < z ? y : (x < z ? z : x)) : (x < z ? x : (y < z ? z : y));
+
+            // [from, lt) < pivot, [lt, i) == pivot, [gt, to) > pivot
+            int lt = from, i = from, gt = to;
+            while (i < gt) {
+                float v = a[i];
+                if (v < pivot) {
+                    a[i++] = a[lt];
+                    a[lt++] = v;
+                } else if (v > pivot) {
+                    a[i] = a[--gt];
+                    a[gt] = v;
+                } else {
+                    i++;
+                }
+            }
+
+            int kLeft = kFrom;
+            while (kLeft < kTo && pos[kLeft] < lt) {
+                kLeft++;
+            }
+            int kRight = kLeft;
+            while (kRight < kTo && pos[kRight] < gt) {
+                kRight++;
+            }
+            // recurse into the side with fewer orders, iterate on the other one
+            if (kLeft - kFrom < kTo - kRight) {
+                select(a, from, lt, pos, kFrom, kLeft, depth);
+                from = gt;
+                kFrom = kRight;
+            } else {
+                select(a, gt, to, pos, kRight, kTo, depth);
+                to = lt;
+                kTo = kLeft;
+            }
+        }
+    }
+
+    /**
+     * Positions of the k largest (or smallest) of the n elements data[offset],
+     * data[offset + stride], ..., data[offset + (n-1) * stride], ordered
+     * from the largest (or smallest) one, in the order of
+     * {@link Float#compare(float, float)}. Of equal elements, the one with
+     * the lower position comes first. If k is larger than n, all n positions
+     * are returned.
+     *
+     * <p>The elements are scanned once, keeping the best k in a heap.</p>
+     */
+    public static int[] top(float[] data, int offset, int stride, int n, int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative.");
+        }
+        k = Math.min(k, n);
+        // heap with the worst of the best k elements at the root
+        float[] values = new float[k];
+        int[] positions = new int[k];
+        int size = 0;
+        for (int i = 0, j = offset; i < n; i++, j += stride) {
+            float v = data[j];
+            if (size < k) {
+                int c = size++;
+                while (c > 0) {
+                    int p = (c - 1) >>> 1;
+                    if (!better(values[p], positions[p], v, i, largest)) {
+                        break;
+                    }
+                    values[c] = values[p];
+                    positions[c] = positions[p];
+                    c = p;
+                }
+                values[c] = v;
+                positions[c] = i;
+            } else if (k > 0 && better(v, i, values[0], positions[0], largest)) {
+                siftDown(values, positions, k, v, i, largest);
+            }
+        }
+        int[] result = new int[k];
+        while (size > 0) {
+            result[--size] = positions[0];
+            siftDown(values, positions, size, values[size], positions[size], largest);
+        }
+        return result;
+    }
+
+    /** Whether (v, i) comes before (w, j) among the best elements. */
+    private static boolean better(float v, int i, float w, int j, boolean largest) {
+        int c = largest ? Float.compare(v, w) : Float.compare(w, v);
+        return c > 0 || c == 0 && i < j;
+    }
+
+    /** Put (v, i) at the root of the heap of the given size and restore the heap order. */
+    private static void siftDown(float[] values, int[] positions, int size, float v, int i, boolean largest) {
+        int c = 0;
+        while (2 * c + 1 < size) {
+            int child = 2 * c + 1;
+            if (child + 1 < size && better(values[child], positions[child], values[child + 1], positions[child + 1], largest)) {
+                child++;
+            }
+            if (!better(v, i, values[child], positions[child], largest)) {
+                break;
+            }
+            values[c] = values[child];
+            positions[c] = positions[child];
+            c = child;
+        }
+        if (size > 0) {
+            values[c] = v;
+            positions[c] = i;
+        }
+    }
+}
@@ -0,0 +1,605 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas.util;
+
+import java.util.Arrays;
+
+/**
+ * Summation of vectors with a selectable trade-off between speed and accuracy.
+ *
+ * <p>The following modes are available:</p>
+ * <ul>
+ * <li>{@link Mode#NAIVE}: a single running sum. The error can grow linearly
+ * with the number of elements.</li>
+ * <li>{@link Mode#PAIRWISE}: recursive halving down to blocks of 128
+ * elements. The error grows only logarithmically, at about the speed of
+ * naive summation. This is the default.</li>
+ * <li>{@link Mode#KAHAN}: Kahan's compensated summation.</li>
+ * <li>{@link Mode#NEUMAIER}: the Kahan-Babuska variant by Neumaier, which
+ * also compensates when the added values are larger than the running
+ * sum. The error is essentially independent of the number of elements.</li>
+ * <li>{@link Mode#UNROLLED}: four independent running sums, which the
+ * processor can update in parallel.</li>
+ * </ul>
+ *
+ * <p>Long vectors are split into blocks of {@link #BLOCK} elements which are
+ * summed in parallel, and the partial sums are combined in a fixed order with
+ * the same mode. Since the blocks do not depend on the number of threads,
+ * results are reproducible across thread counts.</p>
+ *
+ * <p>The default mode can be set with the system property
+ * <tt>jblas.summation</tt> (for example <tt>-Djblas.summation=neumaier</tt>)
+ * or with {@link #setMode(Mode)}.</p>
+ */
+public class Summation {
+    /** Summation algorithms, see {@link Summation}. */
+    public enum Mode {NAIVE, PAIRWISE, KAHAN, NEUMAIER, UNROLLED}
+
+    /** Vectors with more elements are split into blocks of this size, which are summed in parallel. */
+    public static final int BLOCK = 1 << 14;
+
+    /** Size of the blocks below which pairwise summation adds up elements directly. */
+    private static final int PAIRWISE_BASE = 128;
+
+    /** Number of columns below which pairwise row sums add up columns directly. */
+    private static final int PAIRWISE_ROW_BASE = 8;
+
+    private static volatile Mode mode = defaultMode();
+
+    private static Mode defaultMode() {
+        String s = System.getProperty("jblas.summation");
+        if (s != null) {
+            try {
+                return Mode.valueOf(s.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                Logger.getLogger().warning("Could not parse jblas.summation, using pairwise summation.");
+            }
+        }
+        return Mode.PAIRWISE;
+    }
+
+    /** Get the mode used when no mode is given explicitly. */
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /** Set the mode used when no mode is given explicitly. */
+    public static void setMode(Mode m) {
+        if (m == null) {
+            throw new IllegalArgumentException("Summation mode must not be null.");
+        }
+        mode = m;
+    }
+
+    /** Sum of the n elements x[offset], x[offset + stride], ... with the default mode. */
+    public static double sum(double[] x, int offset, int stride, int n) {
+        return reduce(x, offset, stride, null, 0, 0, n, mode);
+    }
+
+    /** Sum of the n elements x[offset], x[offset + stride], ... with the given mode. */
+    public static double sum(double[] x, int offset, int stride, int n, Mode mode) {
+        return reduce(x, offset, stride, null, 0, 0, n, mode);
+    }
+
+    /** Dot product of n elements of x and y, with the default mode. */
+    public static double dot(int n, double[] x, int xIdx, int incx, double[] y, int yIdx, int incy) {
+        return reduce(x, xIdx, incx, y, yIdx, incy, n, mode);
+    }
+
+    /** Dot product of n elements of x and y, with the given mode. */
+    public static double dot(int n, double[] x, int xIdx, int incx, double[] y, int yIdx, int incy, Mode mode) {
+        return reduce(x, xIdx, incx, y, yIdx, incy, n, mode);
+    }
+
+    /**
+     * Sum of x[i] (or x[i] * y[i] if y is not null) over n elements, split
+     * into blocks which are summed in parallel and combined in a fixed order.
+     */
+    private static double reduce(final double[] x, final int xo, final int incx,
+                                 final double[] y, final int yo, final int incy, final int n, final Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Summation mode must not be null.");
+        }
+        if (n <= BLOCK) {
+            double[] comp = new double[1];
+            double s = block(x, xo, incx, y, yo, incy, n, mode, comp, 0);
+            return s + comp[0];
+        }
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        final double[] sums = new double[blocks];
+        final double[] comps = new double[blocks];
+        Parallel.forRange(0, blocks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int b = from; b < to; b++) {
+                    int start = b * BLOCK;
+                    sums[b] = block(x, xo + start * incx, incx, y, yo + start * incy, incy,
+                            Math.min(BLOCK, n - start), mode, comps, b);
+                }
+            }
+        });
+        switch (mode) {
+            case PAIRWISE:
+                return pairwise(sums, 0, 1, null, 0, 0, blocks);
+            case KAHAN:
+            case NEUMAIER:
+                double[] comp = new double[1];
+                double s = neumaier(sums, 0, 1, null, 0, 0, blocks, comp, 0);
+                return s + (comp[0] + naive(comps, 0, 1, null, 0, 0, blocks));
+            default:
+                return naive(sums, 0, 1, null, 0, 0, blocks);
+        }
+    }
+
+    /** Sum of one block. Compensated modes store their compensation in comp[compIdx]. */
+    private static double block(double[] x, int xo, int incx, double[] y, int yo, int incy, int n,
+                                Mode mode, double[] comp, int compIdx) {
+        switch (mode) {
+            case NAIVE:
+                return naive(x, xo, incx, y, yo, incy, n);
+            case PAIRWISE:
+                return pairwise(x, xo, incx, y, yo, incy, n);
+            case KAHAN:
+                return kahan(x, xo, incx, y, yo, incy, n, comp, compIdx);
+            case NEUMAIER:
+                return neumaier(x, xo, incx, y, yo, incy, n, comp, compIdx);
+            default:
+                return unrolled(x, xo, incx, y, yo, incy, n);
+        }
+    }
+
+    private static double naive(double[] x, int xo, int incx, double[] y, int yo, int incy, int n) {
+        double s = 0.0;
+        if (y == null) {
+            for (int i = 0, xi = xo; i < n; i++, xi += incx)
+                s += x[xi];
+        } else {
+            for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy)
+                s += x[xi] * y[yi];
+        }
+        return s;
+    }
+
+    private static double pairwise(double[] x, int xo, int incx, double[] y, int yo, int incy, int n) {
+        if (n <= PAIRWISE_BASE) {
+            return unrolled(x, xo, incx, y, yo, incy, n);
+        }
+        int half = n / 2;
+        return pairwise(x, xo, incx, y, yo, incy, half)
+                + pairwise(x, xo + half * incx, incx, y, yo + half * incy, incy, n - half);
+    }
+
+    private static double kahan(double[] x, int xo, int incx, double[] y, int yo, int incy, int n,
+                                double[] comp, int compIdx) {
+        double s = 0.0;
+        double c = 0.0;
+        for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy) {
+            double v = (y == null ? x[xi] : x[xi] * y[yi]) - c;
+            double t = s + v;
+            c = (t - s) - v;
+            s = t;
+        }
+        comp[compIdx] = -c;
+        return s;
+    }
+
+    private static double neumaier(double[] x, int xo, int incx, double[] y, int yo, int incy, int n,
+                                   double[] comp, int compIdx) {
+        double s = 0.0;
+        double c = 0.0;
+        for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy) {
+            double v = y == null ? x[xi] : x[xi] * y[yi];
+            double t = s + v;
+            if (Math.abs(s) >= Math.abs(v)) {
+                c += (s - t) + v;
+            } else {
+                c += (v - t) + s;
+            }
+            s = t;
+        }
+        comp[compIdx] = c;
+        return s;
+    }
+
+    /** Four independent accumulators, which the processor can update in parallel. */
+    private static double unrolled(double[] x, int xo, int incx, double[] y, int yo, int incy, int n) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        if (y == null && incx == 1) {
+            for (; i + 3 < n; i += 4) {
+                s0 += x[xo + i];
+                s1 += x[xo + i + 1];
+                s2 += x[xo + i + 2];
+                s3 += x[xo + i + 3];
+            }
+            for (; i < n; i++)
+                s0 += x[xo + i];
+        } else if (y != null && incx == 1 && incy == 1) {
+            for (; i + 3 < n; i += 4) {
+                s0 += x[xo + i] * y[yo + i];
+                s1 += x[xo + i + 1] * y[yo + i + 1];
+                s2 += x[xo + i + 2] * y[yo + i + 2];
+                s3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++)
+                s0 += x[xo + i] * y[yo + i];
+        } else {
+            s0 = naive(x, xo, incx, y, yo, incy, n);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sums of the rows of the m x n matrix stored at a[offset] with leading
+     * dimension lda, stored into result[resultIdx, resultIdx + m). The matrix
+     * is streamed column by column, accumulating into one value per row, so
+     * that every row is summed with the given mode but memory is read
+     * contiguously.
+     */
+    public static void rowSums(double[] a, int offset, int lda, int m, int n, double[] result, int resultIdx, Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Summation mode must not be null.");
+        }
+        Arrays.fill(result, resultIdx, resultIdx + m, 0.0);
+        switch (mode) {
+            case PAIRWISE:
+                pairwiseRows(a, offset, lda, m, n, result, resultIdx);
+                break;
+            case KAHAN:
+            case NEUMAIER: {
+                double[] c = new double[m];
+                for (int j = 0; j < n; j++) {
+                    int aj = offset + j * lda;
+                    for (int i = 0; i < m; i++) {
+                        double s = result[resultIdx + i];
+                        double v = a[aj + i];
+                        double t;
+                        if (mode == Mode.KAHAN) {
+                            v -= c[i];
+                            t = s + v;
+                            c[i] = (t - s) - v;
+                        } else {
+                            t = s + v;
+                            if (Math.abs(s) >= Math.abs(v)) {
+                                c[i] += (s - t) + v;
+                            } else {
+                                c[i] += (v - t) + s;
+                            }
+                        }
+                        result[resultIdx + i] = t;
+                    }
+                }
+                for (int i = 0; i < m; i++)
+                    result[resultIdx + i] += mode == Mode.KAHAN ? -c[i] : c[i];
+                break;
+            }
+            default: {
+                int j = 0;
+                if (mode == Mode.UNROLLED) {
+                    // add four columns at a time
+                    for (; j + 3 < n; j += 4) {
+                        int a0 = offset + j * lda, a1 = a0 + lda, a2 = a1 + lda, a3 = a2 + lda;
+                        for (int i = 0; i < m; i++)
+                            result[resultIdx + i] += (a[a0 + i] + a[a1 + i]) + (a[a2 + i] + a[a3 + i]);
+                    }
+                }
+                for (; j < n; j++) {
+                    int aj = offset + j * lda;
+                    for (int i = 0; i < m; i++)
+                        result[resultIdx + i] += a[aj + i];
+                }
+            }
+        }
+    }
+
+    /** Pairwise row sums over the columns, adding to result. */
+    private static void pairwiseRows(double[] a, int offset, int lda, int m, int n, double[] result, int resultIdx) {
+        // one scratch vector per level of the recursion, for the sums of the right halves
+        int levels = 0;
+        for (int k = n; k > PAIRWISE_ROW_BASE; k -= k / 2) {
+            levels++;
+        }
+        pairwiseRows(a, offset, lda, m, n, result, resultIdx, new double[levels * m], 0);
+    }
+
+    private static void pairwiseRows(double[] a, int offset, int lda, int m, int n, double[] result, int resultIdx,
+                                     double[] scratch, int level) {
+        if (n <= PAIRWISE_ROW_BASE) {
+            for (int j = 0; j < n; j++) {
+                int aj = offset + j * lda;
+                for (int i = 0; i < m; i++)
+                    result[resultIdx + i] += a[aj + i];
+            }
+            return;
+        }
+        int half = n / 2;
+        int right = level * m;
+        pairwiseRows(a, offset, lda, m, half, result, resultIdx, scratch, level + 1);
+        Arrays.fill(scratch, right, right + m, 0.0);
+        pairwiseRows(a, offset + half * lda, lda, m, n - half, scratch, right, scratch, level + 1);
+        for (int i = 0; i < m; i++)
+            result[resultIdx + i] += scratch[right + i];
+    }
+
+    /** Sum of the n elements x[offset], x[offset + stride], ... with the default mode. */
+    public static float sum(float[] x, int offset, int stride, int n) {
+        return reduce(x, offset, stride, null, 0, 0, n, mode);
+    }
+
+    /** Sum of the n elements x[offset], x[offset + stride], ... with the given mode. */
+    public static float sum(float[] x, int offset, int stride, int n, Mode mode) {
+        return reduce(x, offset, stride, null, 0, 0, n, mode);
+    }
+
+    /** Dot product of n elements of x and y, with the default mode. */
+    public static float dot(int n, float[] x, int xIdx, int incx, float[] y, int yIdx, int incy) {
+        return reduce(x, xIdx, incx, y, yIdx, incy, n, mode);
+    }
+
+    /** Dot product of n elements of x and y, with the given mode. */
+    public static float dot(int n, float[] x, int xIdx, int incx, float[] y, int yIdx, int incy, Mode mode) {
+        return reduce(x, xIdx, incx, y, yIdx, incy, n, mode);
+    }
+
+    /**
+     * Sum of x[i] (or x[i] * y[i] if y is not null) over n elements, split
+     * into blocks which are summed in parallel and combined in a fixed order.
+     */
+    private static float reduce(final float[] x, final int xo, final int incx,
+                                 final float[] y, final int yo, final int incy, final int n, final Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Summation mode must not be null.");
+        }
+        if (n <= BLOCK) {
+            float[] comp = new float[1];
+            float s = block(x, xo, incx, y, yo, incy, n, mode, comp, 0);
+            return s + comp[0];
+        }
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        final float[] sums = new float[blocks];
+        final float[] comps = new float[blocks];
+        Parallel.forRange(0, blocks, 1, new Parallel.Loop() {
+            public void run(int from, int to) {
+                for (int b = from; b < to; b++) {
+                    int start = b * BLOCK;
+                    sums[b] = block(x, xo + start * incx, incx, y, yo + start * incy, incy,
+                            Math.min(BLOCK, n - start), mode, comps, b);
+                }
+            }
+        });
+        switch (mode) {
+            case PAIRWISE:
+                return pairwise(sums, 0, 1, null, 0, 0, blocks);
+            case KAHAN:
+            case NEUMAIER:
+                float[] comp = new float[1];
+                float s = neumaier(sums, 0, 1, null, 0, 0, blocks, comp, 0);
+                return s + (comp[0] + naive(comps, 0, 1, null, 0, 0, blocks));
+            default:
+                return naive(sums, 0, 1, null, 0, 0, blocks);
+        }
+    }
+
+    /** Sum of one block. Compensated modes store their compensation in comp[compIdx]. */
+    private static float block(float[] x, int xo, int incx, float[] y, int yo, int incy, int n,
+                                Mode mode, float[] comp, int compIdx) {
+        switch (mode) {
+            case NAIVE:
+                return naive(x, xo, incx, y, yo, incy, n);
+            case PAIRWISE:
+                return pairwise(x, xo, incx, y, yo, incy, n);
+            case KAHAN:
+                return kahan(x, xo, incx, y, yo, incy, n, comp, compIdx);
+            case NEUMAIER:
+                return neumaier(x, xo, incx, y, yo, incy, n, comp, compIdx);
+            default:
+                return unrolled(x, xo, incx, y, yo, incy, n);
+        }
+    }
+
+    private static float naive(float[] x, int xo, int incx, float[] y, int yo, int incy, int n) {
+        float s = 0.0f;
+        if (y == null) {
+            for (int i = 0, xi = xo; i < n; i++, xi += incx)
+                s += x[xi];
+        } else {
+            for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy)
+                s += x[xi] * y[yi];
+        }
+        return s;
+    }
+
+    private static float pairwise(float[] x, int xo, int incx, float[] y, int yo, int incy, int n) {
+        if (n <= PAIRWISE_BASE) {
+            return unrolled(x, xo, incx, y, yo, incy, n);
+        }
+        int half = n / 2;
+        return pairwise(x, xo, incx, y, yo, incy, half)
+                + pairwise(x, xo + half * incx, incx, y, yo + half * incy, incy, n - half);
+    }
+
+    private static float kahan(float[] x, int xo, int incx, float[] y, int yo, int incy, int n,
+                                float[] comp, int compIdx) {
+        float s = 0.0f;
+        float c = 0.0f;
+        for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy) {
+            float v = (y == null ? x[xi] : x[xi] * y[yi]) - c;
+            float t = s + v;
+            c = (t - s) - v;
+            s = t;
+        }
+        comp[compIdx] = -c;
+        return s;
+    }
+
+    private static float neumaier(float[] x, int xo, int incx, float[] y, int yo, int incy, int n,
+                                   float[] comp, int compIdx) {
+        float s = 0.0f;
+        float c = 0.0f;
+        for (int i = 0, xi = xo, yi = yo; i < n; i++, xi += incx, yi += incy) {
+            float v = y == null ? x[xi] : x[xi] * y[yi];
+            float t = s + v;
+            if (Math.abs(s) >= Math.abs(v)) {
+                c += (s - t) + v;
+            } else {
+                c += (v - t) + s;
+            }
+            s = t;
+        }
+        comp[compIdx] = c;
+        return s;
+    }
+
+    /** Four independent accumulators, which the processor can update in parallel. */
+    private static float unrolled(float[] x, int xo, int incx, float[] y, int yo, int incy, int n) {
+        float s0 = 0.0f, s1 = 0.0f, s2 = 0.0f, s3 = 0.0f;
+        int i = 0;
+        if (y == null && incx == 1) {
+            for (; i + 3 < n; i += 4) {
+                s0 += x[xo + i];
+                s1 += x[xo + i + 1];
+                s2 += x[xo + i + 2];
+                s3 += x[xo + i + 3];
+            }
+            for (; i < n; i++)
+                s0 += x[xo + i];
+        } else if (y != null && incx == 1 && incy == 1) {
+            for (; i + 3 < n; i += 4) {
+                s0 += x[xo + i] * y[yo + i];
+                s1 += x[xo + i + 1] * y[yo + i + 1];
+                s2 += x[xo + i + 2] * y[yo + i + 2];
+                s3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++)
+                s0 += x[xo + i] * y[yo + i];
+        } else {
+            s0 = naive(x, xo, incx, y, yo, incy, n);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sums of the rows of the m x n matrix stored at a[offset] with leading
+     * dimension lda, stored into result[resultIdx, resultIdx + m). The matrix
+     * is streamed column by column, accumulating into one value per row, so
+     * that every row is summed with the given mode but memory is read
+     * contiguously.
+     */
+    public static void rowSums(float[] a, int offset, int lda, int m, int n, float[] result, int resultIdx, Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Summation mode must not be null.");
+        }
+        Arrays.fill(result, resultIdx, resultIdx + m, 0.0f);
+        switch (mode) {
+            case PAIRWISE:
+                pairwiseRows(a, offset, lda, m, n, result, resultIdx);
+                break;
+            case KAHAN:
+            case NEUMAIER: {
+                float[] c = new float[m];
+                for (int j = 0; j < n; j++) {
+                    int aj = offset + j * lda;
+                    for (int i = 0; i < m; i++) {
+                        float s = result[resultIdx + i];
+                        float v = a[aj + i];
+                        float t;
+                        if (mode == Mode.KAHAN) {
+                            v -= c[i];
+                            t = s + v;
+                            c[i] = (t - s) - v;
+                        } else {
+                            t = s + v;
+                            if (Math.abs(s) >= Math.abs(v)) {
+                                c[i] += (s - t) + v;
+                            } else {
+                                c[i] += (v - t) + s;
+                            }
+                        }
+                        result[resultIdx + i] = t;
+                    }
+                }
+                for (int i = 0; i < m; i++)
+                    result[resultIdx + i] += mode == Mode.KAHAN ? -c[i] : c[i];
+                break;
+            }
+            default: {
+                int j = 0;
+                if (mode == Mode.UNROLLED) {
+                    // add four columns at a time
+                    for (; j + 3 < n; j += 4) {
+                        int a0 = offset + j * lda, a1 = a0 + lda, a2 = a1 + lda, a3 = a2 + lda;
+                        for (int i = 0; i < m; i++)
+                            result[resultIdx + i] += (a[a0 + i] + a[a1 + i]) + (a[a2 + i] + a[a3 + i]);
+                    }
+                }
+                for (; j < n; j++) {
+                    int aj = offset + j * lda;
+                    for (int i = 0; i < m; i++)
+                        result[resultIdx + i] += a[aj + i];
+                }
+            }
+        }
+    }
+
+    /** Pairwise row sums over the columns, adding to result. */
+    private static void pairwiseRows(float[] a, int offset, int lda, int m, int n, float[] result, int resultIdx) {
+        // one scratch vector per level of the recursion, for the sums of the right halves
+        int levels = 0;
+        for (int k = n; k > PAIRWISE_ROW_BASE; k -= k / 2) {
+            levels++;
+        }
+        pairwiseRows(a, offset, lda, m, n, result, resultIdx, new float[levels * m], 0);
+    }
+
+    private static void pairwiseRows(float[] a, int offset, int lda, int m, int n, float[] result, int resultIdx,
+                                     float[] scratch, int level) {
+        if (n <= PAIRWISE_ROW_BASE) {
+            for (int j = 0; j < n; j++) {
+                int aj = offset + j * lda;
+                for (int i = 0; i < m; i++)
+                    result[resultIdx + i] += a[aj + i];
+            }
+            return;
+        }
+        int half = n / 2;
+        int right = level * m;
+        pairwiseRows(a, offset, lda, m, half, result, resultIdx, scratch, level + 1);
+        Arrays.fill(scratch, right, right + m, 0.0f);
+        pairwiseRows(a, offset + half * lda, lda, m, n - half, scratch, right, scratch, level + 1);
+        for (int i = 0; i < m; i++)
+            result[resultIdx + i] += scratch[right + i];
+    }
+}
@@ -0,0 +1,148 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.ApproxMath;
+import org.jblas.util.Functions;
+import org.jblas.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestApproxMath extends AbstractTestJblas {
+
+  private static final int N = 100000;
+
+  private static void assertRelative(double expected, double actual, double bound) {
+    if (expected == actual) {
+      return;
+    }
+    double error = Math.abs(actual - expected) / Math.abs(expected);
+    assertTrue("expected " + expected + ", got " + actual, error <= bound);
+  }
+
+  /** Uniform random number in [-a, a]. */
+  private static double uniform(double a) {
+    return (2 * Random.nextDouble() - 1) * a;
+  }
+
+  /** Random number with random magnitude up to a. */
+  private static double scaled(double a) {
+    return uniform(a) * Math.pow(2, -Random.nextInt(20));
+  }
+
+  @Test
+  public void testExpAndLog() {
+    Random.seed(1);
+    for (int i = 0; i < N; i++) {
+      double x = uniform(700);
+      assertRelative(Math.exp(x), ApproxMath.exp(x), 3e-16);
+      x = scaled(2);
+      assertRelative(Math.exp(x), ApproxMath.exp(x), 3e-16);
+
+      double y = Math.exp(uniform(700));
+      assertRelative(Math.log(y), ApproxMath.log(y), 5e-16);
+      y = 1 + scaled(0.5);
+      assertRelative(Math.log(y), ApproxMath.log(y), 5e-16);
+    }
+  }
+
+  @Test
+  public void testPow() {
+    Random.seed(2);
+    for (int i = 0; i < N; i++) {
+      double x = Math.exp(uniform(10));
+      double y = uniform(50);
+      double bound = (1 + Math.abs(y * Math.log(x))) * 3e-16;
+      assertRelative(Math.pow(x, y), ApproxMath.pow(x, y), bound);
+    }
+  }
+
+  @Test
+  public void testTanhLogisticErf() {
+    Random.seed(3);
+    for (int i = 0; i < N; i++) {
+      double x = scaled(25);
+      assertRelative(Math.tanh(x), ApproxMath.tanh(x), 5e-15);
+      assertRelative(1 / (1 + Math.exp(-x)), ApproxMath.logistic(x), 5e-16);
+      assertRelative(Functions.erf(x), ApproxMath.erf(x), 2e-15);
+    }
+  }
+
+  @Test
+  public void testSpecialValues() {
+    double[] xs = {0.0, -0.0, 1.0, -1.0, Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN};
+    for (double x : xs) {
+      assertEquals(Math.log(x), ApproxMath.log(x), 0.0);
+      assertEquals(Math.tanh(x), ApproxMath.tanh(x), 0.0);
+      assertEquals(Math.pow(x, 2.5), ApproxMath.pow(x, 2.5), 0.0);
+      assertEquals(Math.pow(x, 0.0), ApproxMath.pow(x, 0.0), 0.0);
+    }
+    double[] ys = {0.0, -0.0, 710.0, -710.0, -745.5, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.NaN};
+    for (double y : ys) {
+      assertEquals(Math.exp(y), ApproxMath.exp(y), 0.0);
+    }
+    assertEquals(1.0, ApproxMath.erf(Double.POSITIVE_INFINITY), 0.0);
+    assertEquals(-1.0, ApproxMath.erf(-7.0), 0.0);
+    assertTrue(Double.isNaN(ApproxMath.erf(Double.NaN)));
+    assertEquals(0.0, ApproxMath.logistic(-800.0), 0.0);
+    assertEquals(1.0, ApproxMath.logistic(800.0), 0.0);
+  }
+
+  @Test
+  public void testErf() {
+    assertEquals(0.0, Functions.erf(0.0), 0.0);
+    assertEquals(0.5204998778130465, Functions.erf(0.5), 2e-16);
+    assertEquals(0.8427007929497149, Functions.erf(1.0), 2e-16);
+    assertEquals(-0.9953222650189527, Functions.erf(-2.0), 2e-16);
+    assertEquals(2.209049699858544e-05, Functions.erfc(3.0), 1e-20);
+    assertEquals(1.5374597944280349e-12, Functions.erfc(5.0), 1e-26);
+    assertEquals(2.0, Functions.erfc(Double.NEGATIVE_INFINITY), 0.0);
+  }
+
+  @Test
+  public void testFloat() {
+    Random.seed(4);
+    for (int i = 0; i < 10000; i++) {
+      float x = (float) uniform(10);
+      assertEquals((float) Math.exp(x), ApproxMath.exp(x), Math.ulp((float) Math.exp(x)));
+      assertEquals((float) Math.tanh(x), ApproxMath.tanh(x), Math.ulp((float) Math.tanh(x)));
+    }
+  }
+}
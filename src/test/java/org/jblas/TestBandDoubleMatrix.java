@@ -0,0 +1,143 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.util.Random;
+import org.junit.Test;
+
+import static org.jblas.TestSymmetricDoubleMatrix.assertClose;
+import static org.jblas.TestSymmetricDoubleMatrix.naiveMmul;
+import static org.junit.Assert.*;
+
+public class TestBandDoubleMatrix extends AbstractTestJblas {
+
+  /** Random m x n matrix with kl sub- and ku super-diagonals. */
+  static DoubleMatrix randomBand(int m, int n, int kl, int ku) {
+    DoubleMatrix a = new DoubleMatrix(m, n);
+    for (int j = 0; j < n; j++) {
+      for (int i = Math.max(0, j - ku); i < Math.min(m, j + kl + 1); i++) {
+        a.put(i, j, Random.nextGaussian());
+      }
+    }
+    return a;
+  }
+
+  @Test
+  public void testConversion() {
+    DoubleMatrix a = randomBand(6, 5, 2, 1);
+    BandDoubleMatrix b = new BandDoubleMatrix(a, 2, 1);
+    assertEquals(4 * 5, b.data.length);
+    assertEquals(a, b.toDense());
+    assertEquals(0.0, b.get(0, 3), 0.0);
+    assertEquals(a.transpose(), b.transpose().toDense());
+    assertEquals(b, new BandDoubleMatrix(a, 3, 2));
+    assertEquals(b.hashCode(), new BandDoubleMatrix(a, 3, 2).hashCode());
+
+    BandDoubleMatrix c = BandDoubleMatrix.fromDiagonals(1, 0, new double[] {4.0, 5.0}, new double[] {1.0, 2.0, 3.0});
+    assertEquals(new DoubleMatrix(new double[][] {{1.0, 0.0, 0.0}, {4.0, 2.0, 0.0}, {0.0, 5.0, 3.0}}), c.toDense());
+  }
+
+  @Test
+  public void testMmul() {
+    DoubleMatrix a = randomBand(30, 20, 3, 2);
+    BandDoubleMatrix b = new BandDoubleMatrix(a, 3, 2);
+    DoubleMatrix x = DoubleMatrix.randn(20, 7);
+    assertClose(naiveMmul(a, x), b.mmul(x), 1e-10);
+
+    DoubleMatrix y = DoubleMatrix.randn(30, 7);
+    DoubleMatrix expected = naiveMmul(a.transpose(), y);
+    DoubleMatrix z = DoubleMatrix.ones(20, 7);
+    for (int i = 0; i < expected.length; i++) {
+      expected.data[i] = 2.0 * expected.data[i] + 0.5;
+    }
+    assertClose(expected, b.mmuli('T', 2.0, y, 0.5, z), 1e-10);
+  }
+
+  @Test
+  public void testSolve() {
+    for (int[] k : new int[][] {{0, 0}, {1, 1}, {3, 2}, {2, 5}}) {
+      DoubleMatrix a = randomBand(50, 50, k[0], k[1]);
+      BandDoubleMatrix b = new BandDoubleMatrix(a, k[0], k[1]);
+      DoubleMatrix rhs = DoubleMatrix.randn(50, 9);
+      assertClose(rhs, naiveMmul(a, b.solve(rhs)), 1e-8);
+      assertClose(rhs, naiveMmul(a, Solve.solve(b, rhs)), 1e-8);
+    }
+  }
+
+  @Test
+  public void testTransposedSolve() {
+    DoubleMatrix a = randomBand(25, 25, 2, 3);
+    double[] ab = new double[(2 * 2 + 3 + 1) * 25];
+    BandDoubleMatrix b = new BandDoubleMatrix(a, 2, 3);
+    for (int j = 0; j < 25; j++) {
+      System.arraycopy(b.data, j * 6, ab, 2 + j * 8, 6);
+    }
+    int[] ipiv = new int[25];
+    assertEquals(0, JavaBlas.rgbtrf(25, 25, 2, 3, ab, 0, 8, ipiv, 0));
+    DoubleMatrix rhs = DoubleMatrix.randn(25, 2);
+    DoubleMatrix x = rhs.dup();
+    JavaBlas.rgbtrs('T', 25, 2, 3, 2, ab, 0, 8, ipiv, 0, x.data, 0, 25);
+    assertClose(rhs, naiveMmul(a.transpose(), x), 1e-8);
+  }
+
+  @Test(expected = LapackSingularityException.class)
+  public void testSingular() {
+    new BandDoubleMatrix(4, 4, 1, 1).solve(DoubleMatrix.ones(4));
+  }
+
+  @Test
+  public void testSymmetricBand() {
+    DoubleMatrix a = randomBand(15, 15, 2, 2);
+    DoubleMatrix s = new DoubleMatrix(15, 15);
+    for (int i = 0; i < s.length; i++) {
+      s.data[i] = a.data[i];
+    }
+    for (int j = 0; j < 15; j++) {
+      for (int i = j + 1; i < 15; i++) {
+        s.put(i, j, s.get(j, i));
+      }
+    }
+    DoubleMatrix x = DoubleMatrix.randn(15, 3);
+    for (char uplo : new char[] {'U', 'L'}) {
+      SymmetricBandDoubleMatrix b = new SymmetricBandDoubleMatrix(uplo, s, 2);
+      assertEquals(s, b.toDense());
+      assertEquals(s, b.toBand().toDense());
+      assertClose(naiveMmul(s, x), b.mmul(x), 1e-10);
+    }
+  }
+}
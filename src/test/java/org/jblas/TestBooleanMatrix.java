@@ -0,0 +1,142 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestBooleanMatrix extends AbstractTestJblas {
+
+  @Test
+  public void testElementAccess() {
+    BooleanMatrix m = new BooleanMatrix(10, 13);
+    assertEquals(3, m.words.length);
+    assertFalse(m.any());
+    m.put(3, 4, true);
+    m.put(129, true);
+    assertTrue(m.get(3, 4));
+    assertTrue(m.get(43));
+    assertTrue(m.get(129));
+    assertFalse(m.get(44));
+    assertEquals(2, m.count());
+    assertArrayEquals(new int[] {43, 129}, m.findIndices());
+    assertEquals(43, m.nextSetBit(0));
+    assertEquals(129, m.nextSetBit(44));
+    assertEquals(-1, m.nextSetBit(130));
+    m.put(43, false);
+    assertEquals(1, m.count());
+  }
+
+  @Test
+  public void testLogicalOperations() {
+    DoubleMatrix a = DoubleMatrix.rand(7, 21).gti(0.5);
+    DoubleMatrix b = DoubleMatrix.rand(7, 21).gti(0.5);
+    BooleanMatrix ma = new BooleanMatrix(a);
+    BooleanMatrix mb = b.truthMask();
+
+    assertEquals(a, ma.toDoubleMatrix());
+    assertEquals(a.and(b), ma.and(mb).toDoubleMatrix());
+    assertEquals(a.or(b), ma.or(mb).toDoubleMatrix());
+    assertEquals(a.xor(b), ma.xor(mb).toDoubleMatrix());
+    assertEquals(a.and(b.not()), ma.andNot(mb).toDoubleMatrix());
+    assertEquals(a.not(), ma.not().toDoubleMatrix());
+    assertEquals((int) a.sum(), ma.count());
+    assertArrayEquals(a.findIndices(), ma.findIndices());
+
+    BooleanMatrix all = BooleanMatrix.trues(7, 21);
+    assertEquals(147, all.count());
+    assertTrue(all.all());
+    assertFalse(all.not().any());
+    assertEquals(ma, ma.not().not());
+  }
+
+  @Test
+  public void testComparisons() {
+    DoubleMatrix x = DoubleMatrix.randn(100, 3);
+    DoubleMatrix y = DoubleMatrix.randn(100, 3);
+    x.put(5, 0.5);
+    y.put(5, 0.5);
+
+    assertEquals(x.lt(y), x.ltMask(y).toDoubleMatrix());
+    assertEquals(x.gt(y), x.gtMask(y).toDoubleMatrix());
+    assertEquals(x.le(y), x.leMask(y).toDoubleMatrix());
+    assertEquals(x.ge(y), x.geMask(y).toDoubleMatrix());
+    assertEquals(x.eq(y), x.eqMask(y).toDoubleMatrix());
+    assertEquals(x.ne(y), x.neMask(y).toDoubleMatrix());
+    assertEquals(x.lt(0.5), x.ltMask(0.5).toDoubleMatrix());
+    assertEquals(x.ge(0.5), x.geMask(new DoubleMatrix(1, 1, 0.5)).toDoubleMatrix());
+
+    x.put(7, Double.NaN);
+    x.put(8, Double.POSITIVE_INFINITY);
+    assertEquals(x.isNaN(), x.isNaNMask().toDoubleMatrix());
+    assertEquals(x.isInfinite(), x.isInfiniteMask().toDoubleMatrix());
+  }
+
+  @Test
+  public void testWordBoundaries() {
+    for (int n : new int[] {1, 63, 64, 65, 128, 129}) {
+      DoubleMatrix x = DoubleMatrix.ones(n);
+      BooleanMatrix mask = x.gtMask(0.0);
+      assertEquals(n, mask.count());
+      assertTrue(mask.all());
+      assertEquals(n, new BooleanMatrix(x).count());
+      assertEquals(n, mask.noti().noti().count());
+    }
+  }
+
+  @Test
+  public void testMaskedAccess() {
+    DoubleMatrix x = DoubleMatrix.randn(70, 2);
+    BooleanMatrix positive = x.gtMask(0.0);
+
+    assertEquals(x.select(x.gt(0.0)), x.select(positive));
+    assertEquals(x.get(x.gt(0.0)), x.get(positive));
+    assertEquals(x.dup().put(x.gt(0.0), 1.0), x.dup().put(positive, 1.0));
+
+    DoubleMatrix v = DoubleMatrix.linspace(1, positive.count(), positive.count());
+    DoubleMatrix y = x.dup().put(positive, v);
+    assertEquals(v, y.get(positive));
+    assertEquals(x.get(positive.not()), y.get(positive.not()));
+
+    FloatMatrix f = new FloatMatrix(new float[] {1.0f, -2.0f, 3.0f});
+    assertEquals(new FloatMatrix(new float[] {1.0f, 3.0f}), f.get(f.gtMask(0.0f)));
+    assertTrue(Arrays.equals(new boolean[] {true, false, true}, f.gtMask(0.0f).toArray()));
+  }
+}
@@ -33,6 +33,27 @@ public class TestDecompose {
     assertTrue(lu.u.isUpperTriangular());
   }
 
+  @Test
+  public void luPermutationDouble() {
+    DoubleMatrix A = new DoubleMatrix(3, 3, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
+
+    Decompose.LUDecomposition<DoubleMatrix> lu = Decompose.luPermutation(A);
+
+    assertNull(lu.p);
+    assertEquals(0.0, (lu.permutation.mmul(lu.l.mmul(lu.u)).sub(A).normmax()), 1e-10);
+    assertEquals(Decompose.lu(A).p, lu.getP());
+  }
+
+  @Test
+  public void luPermutationFloat() {
+    FloatMatrix A = new FloatMatrix(3, 3, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
+
+    Decompose.LUDecomposition<FloatMatrix> lu = Decompose.luPermutation(A);
+
+    assertNull(lu.p);
+    assertEquals(Decompose.lu(A).p, lu.getP());
+  }
+
   @Test
   public void qrDouble() {
     DoubleMatrix A = new DoubleMatrix(3, 3, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
@@ -0,0 +1,134 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.DelimitedParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestDelimitedParser extends AbstractTestJblas {
+
+  private static DoubleMatrix parse(String text, DelimitedParser parser) throws IOException {
+    return DoubleMatrix.loadDelimited(new ByteArrayInputStream(text.getBytes("US-ASCII")), parser);
+  }
+
+  @Test
+  public void testWhitespace() throws IOException {
+    DoubleMatrix m = parse("  1.0 2\t3e0\n\n4 -5.5   6 \r\n", new DelimitedParser());
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 4.0, 2.0, -5.5, 3.0, 6.0), m);
+    assertEquals(0, parse("", new DelimitedParser()).length);
+  }
+
+  @Test
+  public void testDelimiterHeaderAndMissing() throws IOException {
+    DelimitedParser parser = new DelimitedParser().delimiter(',').header(true).missing("NA");
+    DelimitedParser.Table table = parser.parse(new ByteArrayInputStream(
+        "a, \"b\",c\n1,,\"3\"\nNA, 5 ,nan\n-inf,1e-3,Infinity".getBytes("US-ASCII")));
+    assertArrayEquals(new String[]{"a", "b", "c"}, table.header());
+    assertEquals(3, table.rows());
+    assertEquals(3, table.columns());
+    double[] data = new double[9];
+    table.copyTo(data);
+    assertEquals(1.0, data[0], 0.0);
+    assertTrue(Double.isNaN(data[1]));
+    assertEquals(Double.NEGATIVE_INFINITY, data[2], 0.0);
+    assertTrue(Double.isNaN(data[3]));
+    assertEquals(5.0, data[4], 0.0);
+    assertEquals(1e-3, data[5], 0.0);
+    assertEquals(3.0, data[6], 0.0);
+    assertTrue(Double.isNaN(data[7]));
+    assertEquals(Double.POSITIVE_INFINITY, data[8], 0.0);
+
+    DoubleMatrix m = parse("1;;2\n", new DelimitedParser().delimiter(';').missingValue(-1.0));
+    assertEquals(new DoubleMatrix(1, 3, 1.0, -1.0, 2.0), m);
+  }
+
+  @Test
+  public void testParseDouble() throws IOException {
+    Random random = new Random(42);
+    String[] special = {"0", "-0.0", "1e22", "1e23", "123456789012345678", "0.1", "4.9e-324",
+        "1.7976931348623157e308", "2.2250738585072014E-308", ".5", "5.", "+7", "0.000000000000000000001"};
+    for (String s : special) {
+      byte[] b = s.getBytes("US-ASCII");
+      assertEquals(s, Double.parseDouble(s), DelimitedParser.parseDouble(b, 0, b.length), 0.0);
+    }
+    for (int i = 0; i < 10000; i++) {
+      String s = Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+      byte[] b = s.getBytes("US-ASCII");
+      assertEquals(s, Double.parseDouble(s), DelimitedParser.parseDouble(b, 0, b.length), 0.0);
+    }
+    for (int i = 0; i < 10000; i++) {
+      String s = String.format("%.6f", random.nextDouble() * 1000 - 500);
+      byte[] b = s.getBytes("US-ASCII");
+      assertEquals(s, Double.parseDouble(s), DelimitedParser.parseDouble(b, 0, b.length), 0.0);
+    }
+  }
+
+  @Test
+  public void testLargeInput() throws IOException {
+    // several chunks, parsed in parallel
+    int rows = 300000;
+    StringBuilder text = new StringBuilder();
+    for (int r = 0; r < rows; r++) {
+      text.append(r).append(',').append(r * 0.25).append(',').append(-r).append('\n');
+    }
+    DoubleMatrix m = parse(text.toString(), new DelimitedParser().delimiter(','));
+    assertEquals(rows, m.rows);
+    assertEquals(3, m.columns);
+    for (int r = 0; r < rows; r += 997) {
+      assertEquals(r, m.get(r, 0), 0.0);
+      assertEquals(r * 0.25, m.get(r, 1), 0.0);
+      assertEquals(-r, m.get(r, 2), 0.0);
+    }
+    assertEquals(rows - 1, m.get(rows - 1, 0), 0.0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testChangingNumberOfFields() throws IOException {
+    parse("1 2\n3 4 5\n", new DelimitedParser());
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadNumber() throws IOException {
+    parse("1,x\n", new DelimitedParser().delimiter(','));
+  }
+}
@@ -0,0 +1,74 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import static org.jblas.TestSymmetricDoubleMatrix.assertClose;
+import static org.jblas.TestSymmetricDoubleMatrix.naiveMmul;
+import static org.junit.Assert.*;
+
+public class TestDiagonalDoubleMatrix extends AbstractTestJblas {
+
+  @Test
+  public void testConversion() {
+    DiagonalDoubleMatrix d = new DiagonalDoubleMatrix(1.0, 2.0, 3.0);
+    assertEquals(DoubleMatrix.diag(new DoubleMatrix(new double[] {1.0, 2.0, 3.0})), d.toDense());
+    assertEquals(0.0, d.get(0, 1), 0.0);
+    assertEquals(2.0, d.get(1, 1), 0.0);
+    assertEquals(6.0, d.determinant(), 0.0);
+    assertEquals(d, d.transpose());
+    assertEquals(new DiagonalDoubleMatrix(1.0, 0.5, 1.0 / 3.0), d.inverse());
+    assertEquals(DiagonalDoubleMatrix.eye(3), d.mmul(d.inverse()));
+  }
+
+  @Test
+  public void testProducts() {
+    int n = 23;
+    DiagonalDoubleMatrix d = new DiagonalDoubleMatrix(DoubleMatrix.randn(n));
+    DoubleMatrix dense = d.toDense();
+    DoubleMatrix a = DoubleMatrix.randn(n, 7);
+    DoubleMatrix b = DoubleMatrix.randn(5, n);
+
+    assertEquals(naiveMmul(dense, a), d.mmul(a));
+    assertEquals(naiveMmul(b, dense), d.rmmul(b));
+    assertEquals(naiveMmul(dense, a), d.mmuli(a.dup()));
+    assertEquals(naiveMmul(b, dense), d.rmmuli(b.dup()));
+    assertClose(a, d.mmul(d.solve(a)), 1e-10);
+    assertClose(a, d.inverse().mmul(d.mmul(a)), 1e-10);
+  }
+}
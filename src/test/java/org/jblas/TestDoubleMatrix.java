@@ -36,7 +36,11 @@
 
 package org.jblas;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.PrintStream;
 
 import org.jblas.util.Random;
@@ -46,6 +50,7 @@ import java.util.Arrays;
 import static org.jblas.ranges.RangeUtils.*;
 
 import org.junit.Before;
+import org.jblas.exceptions.SizeException;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -714,6 +719,50 @@ public class TestDoubleMatrix extends AbstractTestJblas {
     }
   }
 
+  @Test
+  public void testSaveLoad() throws Exception {
+    File f = File.createTempFile("jblas-test", "bin");
+    f.deleteOnExit();
+
+    // files written element by element can be loaded
+    DataOutputStream dos = new DataOutputStream(new FileOutputStream(f));
+    dos.writeUTF("double");
+    dos.writeInt(3);
+    dos.writeInt(2);
+    dos.writeInt(6);
+    for (int i = 0; i < 6; i++) {
+      dos.writeDouble(i + 0.5);
+    }
+    dos.close();
+    DoubleMatrix a = new DoubleMatrix(f.getPath());
+    assertEquals(new DoubleMatrix(2, 3, 0.5, 1.5, 2.5, 3.5, 4.5, 5.5), a);
+    assertEquals(6, a.length);
+
+    // and saved files can be read element by element
+    a.save(f.getPath());
+    DataInputStream dis = new DataInputStream(new FileInputStream(f));
+    assertEquals("double", dis.readUTF());
+    assertEquals(3, dis.readInt());
+    assertEquals(2, dis.readInt());
+    assertEquals(6, dis.readInt());
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i + 0.5, dis.readDouble(), 0.0);
+    }
+    assertEquals(-1, dis.read());
+    dis.close();
+
+    // large enough to be written and read in parallel chunks
+    DoubleMatrix b = new DoubleMatrix(1 << 11, (1 << 11) + 3);
+    for (int i = 0; i < b.length; i++) {
+      b.data[i] = i % 1001 - 500.0;
+    }
+    b.save(f.getPath());
+    DoubleMatrix c = new DoubleMatrix();
+    c.load(f.getPath());
+    assertEquals(b, c);
+    assertTrue(f.delete());
+  }
+
   @Test
   public void testRanges() {
     DoubleMatrix A = new DoubleMatrix(3, 3, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
@@ -779,4 +828,395 @@ public class TestDoubleMatrix extends AbstractTestJblas {
     DoubleMatrix m3 = m.getColumns(new org.jblas.ranges.IndicesRange(new int[] {0, 1, 0}));
     assertEquals("[1, 2, 1; 4, 5, 4; 7, 8, 7; 10, 11, 10]", m3.toString("%.0f"));
   }
+
+  @Test
+  public void testBroadcast() {
+    DoubleMatrix col = new DoubleMatrix(3, 1, 1.0, 2.0, 3.0);
+    DoubleMatrix row = new DoubleMatrix(1, 2, 10.0, 20.0);
+    assertEquals(new DoubleMatrix(3, 2, 11.0, 12.0, 13.0, 21.0, 22.0, 23.0), col.broadcast(DoubleMatrix.BinaryOp.ADD, row));
+    assertEquals(new DoubleMatrix(3, 2, 9.0, 8.0, 7.0, 19.0, 18.0, 17.0), row.broadcast(DoubleMatrix.BinaryOp.SUB, col));
+
+    DoubleMatrix m = new DoubleMatrix(3, 2, 1.0, 5.0, 3.0, 30.0, 10.0, 25.0);
+    assertEquals(new DoubleMatrix(3, 2, 1.0, 0.0, 0.0, 0.0, 1.0, 0.0), m.broadcast(DoubleMatrix.BinaryOp.LT, new DoubleMatrix(1, 2, 2.0, 20.0)));
+    assertEquals(new DoubleMatrix(3, 2, 1.0, 2.0, 3.0, 1.0, 2.0, 3.0), m.broadcast(DoubleMatrix.BinaryOp.MIN, col));
+    assertEquals(new DoubleMatrix(3, 2, 4.0, 5.0, 4.0, 30.0, 10.0, 25.0), m.broadcast(DoubleMatrix.BinaryOp.MAX, 4.0));
+
+    DoubleMatrix.BinaryOp squarePlus = new DoubleMatrix.BinaryOp() {
+      public double apply(double a, double b) {
+        return a * a + b;
+      }
+    };
+    assertEquals(new DoubleMatrix(3, 2, 11.0, 14.0, 19.0, 21.0, 24.0, 29.0), col.broadcast(squarePlus, row));
+
+    try {
+      m.broadcast(DoubleMatrix.BinaryOp.ADD, new DoubleMatrix(2, 2));
+      fail("Expected SizeException");
+    } catch (SizeException e) {
+      // expected
+    }
+    try {
+      col.broadcasti(DoubleMatrix.BinaryOp.ADD, row);
+      fail("Expected SizeException");
+    } catch (SizeException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testBroadcastLarge() {
+    // several tiles per column, processed in parallel
+    DoubleMatrix m = DoubleMatrix.rand(10000, 7);
+    DoubleMatrix c = DoubleMatrix.rand(10000, 1);
+    DoubleMatrix r = DoubleMatrix.rand(1, 7);
+
+    DoubleMatrix mc = m.broadcast(DoubleMatrix.BinaryOp.DIV, c);
+    DoubleMatrix mr = m.dup().subiRowVector(r);
+    DoubleMatrix cr = c.broadcast(DoubleMatrix.BinaryOp.MUL, r);
+    for (int j = 0; j < m.columns; j++) {
+      for (int i = 0; i < m.rows; i++) {
+        assertEquals(m.get(i, j) / c.get(i), mc.get(i, j), 0.0);
+        assertEquals(m.get(i, j) - r.get(j), mr.get(i, j), 0.0);
+        assertEquals(c.get(i) * r.get(j), cr.get(i, j), 0.0);
+      }
+    }
+  }
+
+  private static DoubleMatrix naiveProduct(DoubleMatrix a, DoubleMatrix b) {
+    DoubleMatrix c = new DoubleMatrix(a.rows, b.columns);
+    for (int i = 0; i < a.rows; i++) {
+      for (int j = 0; j < b.columns; j++) {
+        double s = 0.0;
+        for (int k = 0; k < a.columns; k++) {
+          s += a.get(i, k) * b.get(k, j);
+        }
+        c.put(i, j, s);
+      }
+    }
+    return c;
+  }
+
+  @Test
+  public void testMmulChain() {
+    DoubleMatrix a = DoubleMatrix.rand(20, 30);
+    DoubleMatrix b = DoubleMatrix.rand(30, 5);
+    DoubleMatrix c = DoubleMatrix.rand(5, 40);
+    DoubleMatrix d = DoubleMatrix.rand(40, 10);
+    DoubleMatrix x = DoubleMatrix.rand(10, 1);
+    DoubleMatrix y = DoubleMatrix.rand(1, 20);
+
+    DoubleMatrix expected = naiveProduct(naiveProduct(naiveProduct(naiveProduct(a, b), c), d), x);
+    DoubleMatrix chain = DoubleMatrix.mmulChain(a, b, c, d, x);
+    assertEquals(20, chain.rows);
+    assertEquals(1, chain.columns);
+    assertTrue(expected.distance2(chain) < 1e-5 * expected.norm2());
+
+    DoubleMatrix scalar = DoubleMatrix.mmulChain(y, a, b, c, d, x);
+    assertEquals(naiveProduct(y, expected).get(0), scalar.get(0), 1e-5 * Math.abs(scalar.get(0)));
+
+    DoubleMatrix ab = DoubleMatrix.mmulChain(a, b);
+    assertTrue(naiveProduct(a, b).distance2(ab) < 1e-5 * ab.norm2());
+
+    DoubleMatrix single = DoubleMatrix.mmulChain(a);
+    assertEquals(a, single);
+    assertNotSame(a, single);
+
+    assertEquals(DoubleMatrix.zeros(20, 40), DoubleMatrix.mmulChain(a, new DoubleMatrix(30, 0), new DoubleMatrix(0, 40)));
+  }
+
+  @Test(expected = SizeException.class)
+  public void testMmulChainSizeMismatch() {
+    DoubleMatrix.mmulChain(new DoubleMatrix(3, 4), new DoubleMatrix(5, 2));
+  }
+
+  private static void assertSortingPermutation(DoubleMatrix x, int[] p) {
+    assertEquals(x.length, p.length);
+    boolean[] seen = new boolean[x.length];
+    for (int i = 0; i < p.length; i++) {
+      assertFalse(seen[p[i]]);
+      seen[p[i]] = true;
+      if (i > 0) {
+        int c = Double.compare(x.get(p[i - 1]), x.get(p[i]));
+        assertTrue(c < 0 || c == 0 && p[i - 1] < p[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testSortingPermutation() {
+    DoubleMatrix x = new DoubleMatrix(new double[]{3.0, -1.0, 0.0, Double.NaN, -0.0, 3.0, Double.NEGATIVE_INFINITY, 2.5});
+    assertArrayEquals(new int[]{6, 1, 4, 2, 7, 0, 5, 3}, x.sortingPermutation());
+    assertEquals(x.sort(), x.get(x.sortingPermutation()));
+
+    // large enough for the radix sort and the parallel merges, with many ties
+    DoubleMatrix y = DoubleMatrix.rand(300000).muli(1000.0);
+    for (int i = 0; i < 150000; i++) {
+      y.put(i, (double) Math.floor(y.get(i)) - 500.0);
+    }
+    int[] p = y.sortingPermutation();
+    assertSortingPermutation(y, p);
+    assertEquals(y.sort(), y.get(p));
+  }
+
+  @Test
+  public void testSortColumnsAndRows() {
+    DoubleMatrix x = DoubleMatrix.rand(300, 200);
+    for (int i = 0; i < x.length; i += 7) {
+      x.put(i, -x.get(i));
+    }
+
+    DoubleMatrix sc = x.sortColumns();
+    int[][] cp = x.columnSortingPermutations();
+    for (int c = 0; c < x.columns; c++) {
+      DoubleMatrix column = x.getColumn(c);
+      assertEquals(column.sort(), sc.getColumn(c));
+      assertSortingPermutation(column, cp[c]);
+    }
+
+    DoubleMatrix sr = x.sortRows();
+    int[][] rp = x.rowSortingPermutations();
+    for (int r = 0; r < x.rows; r++) {
+      DoubleMatrix row = x.getRow(r);
+      assertEquals(row.sort(), sr.getRow(r));
+      assertSortingPermutation(row, rp[r]);
+    }
+  }
+
+  @Test
+  public void testSelection() {
+    DoubleMatrix x = new DoubleMatrix(new double[]{5.0, 1.0, 4.0, 1.0, 3.0, 9.0, 2.0, 6.0});
+    DoubleMatrix sorted = x.sort();
+    for (int k = 0; k < x.length; k++) {
+      assertEquals(sorted.get(k), x.select(k), 0.0);
+    }
+    assertEquals(3.5, x.median(), 0.0);
+    assertEquals(new DoubleMatrix(new double[]{1.0, 1.0, 3.5, 9.0}), x.quantiles(0.0, 1.0 / 7.0, 0.5, 1.0));
+    assertEquals(1.4, x.quantiles(0.2).get(0), 1e-6);
+    assertEquals(2.1, x.quantiles(0.3).get(0), 1e-6);
+    assertEquals(4.0, new DoubleMatrix(new double[]{4.0, Double.NaN, 1.0, 7.0, Double.NaN}).select(1), 0.0);
+
+    // many duplicates and enough elements for the partitioning
+    DoubleMatrix m = DoubleMatrix.rand(1001, 9);
+    for (int i = 0; i < m.length; i += 3) {
+      m.put(i, 0.5);
+    }
+    DoubleMatrix sc = m.sortColumns();
+    DoubleMatrix q = m.columnQuantiles(0.1, 0.5, 0.9);
+    DoubleMatrix kth = m.columnSelect(17);
+    for (int c = 0; c < m.columns; c++) {
+      assertEquals(sc.get(100, c), q.get(0, c), 0.0);
+      assertEquals(sc.get(500, c), q.get(1, c), 0.0);
+      assertEquals(sc.get(900, c), q.get(2, c), 0.0);
+      assertEquals(sc.get(17, c), kth.get(c), 0.0);
+    }
+    assertEquals(q.getRow(1), m.columnMedians());
+
+    DoubleMatrix t = m.transpose();
+    assertEquals(q.transpose(), t.rowQuantiles(0.1, 0.5, 0.9));
+    assertEquals(kth.transpose(), t.rowSelect(17));
+    assertEquals(q.getRow(1).transpose(), t.rowMedians());
+    assertEquals(m.sort().get(4500), m.select(4500), 0.0);
+  }
+
+  @Test
+  public void testTopK() {
+    DoubleMatrix x = new DoubleMatrix(new double[]{5.0, 1.0, 4.0, 1.0, 3.0, 9.0, 2.0, 5.0});
+    assertArrayEquals(new int[]{5, 0, 7}, x.topK(3));
+    assertArrayEquals(new int[]{1, 3, 6}, x.bottomK(3));
+    assertArrayEquals(new int[0], x.topK(0));
+    assertEquals(8, x.topK(20).length);
+
+    DoubleMatrix m = DoubleMatrix.rand(200, 5);
+    int[][] top = m.columnTopK(10);
+    int[][] bottom = m.columnBottomK(10);
+    int[][] perm = m.columnSortingPermutations();
+    for (int c = 0; c < m.columns; c++) {
+      for (int i = 0; i < 10; i++) {
+        assertEquals(perm[c][199 - i], top[c][i]);
+        assertEquals(perm[c][i], bottom[c][i]);
+      }
+    }
+    DoubleMatrix t = m.transpose();
+    for (int r = 0; r < t.rows; r++) {
+      assertArrayEquals(top[r], t.rowTopK(10)[r]);
+      assertArrayEquals(bottom[r], t.rowBottomK(10)[r]);
+    }
+  }
+
+  @Test
+  public void testRowReductions() {
+    // more rows than one row block, with NaNs and ties
+    DoubleMatrix x = DoubleMatrix.rand(1300, 37);
+    for (int i = 0; i < x.length; i += 11) {
+      x.put(i, Double.NaN);
+    }
+    for (int i = 5; i < x.length; i += 13) {
+      x.put(i, 0.25);
+    }
+    DoubleMatrix mins = x.rowMins();
+    DoubleMatrix maxs = x.rowMaxs();
+    int[] argmins = x.rowArgmins();
+    int[] argmaxs = x.rowArgmaxs();
+    DoubleMatrix sums = x.rowSums();
+    for (int r = 0; r < x.rows; r++) {
+      DoubleMatrix row = x.getRow(r);
+      assertEquals(row.min(), mins.get(r), 0.0);
+      assertEquals(row.max(), maxs.get(r), 0.0);
+      assertEquals(row.argmin(), argmins[r]);
+      assertEquals(row.argmax(), argmaxs[r]);
+      double s = 0.0;
+      for (int c = 0; c < x.columns; c++) {
+        s += x.get(r, c);
+      }
+      assertEquals(s, sums.get(r), 1e-10);
+    }
+
+    DoubleMatrix empty = new DoubleMatrix(3, 0);
+    assertEquals(Double.POSITIVE_INFINITY, empty.rowMins().get(2), 0.0);
+    assertEquals(-1, empty.rowArgmaxs()[0]);
+  }
+
+  @Test
+  public void testScans() {
+    DoubleMatrix x = new DoubleMatrix(2, 3, 1.0, 2.0, 3.0, -1.0, 0.5, 4.0);
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 3.0, 6.0, 5.0, 5.5, 9.5), x.cumulativeSum());
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 2.0, 6.0, -6.0, -3.0, -12.0), x.cumulative(DoubleMatrix.Scan.PROD));
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 1.0, 1.0, -1.0, -1.0, -1.0), x.cumulative(DoubleMatrix.Scan.MIN));
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 3.0, 3.0, 2.0, 0.5, 4.5), x.columnCumulative(DoubleMatrix.Scan.SUM));
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 2.0, 3.0, 2.0, 3.0, 4.0), x.rowCumulative(DoubleMatrix.Scan.MAX));
+    assertEquals(new DoubleMatrix(2, 3, 1.0, 2.0, 4.0, 1.0, 4.5, 5.0), x.rowCumulative(DoubleMatrix.Scan.SUM));
+
+    DoubleMatrix lse = x.columnCumulative(DoubleMatrix.Scan.LOG_SUM_EXP);
+    assertEquals(Math.log(Math.exp(1.0) + Math.exp(2.0)), lse.get(1, 0), 1e-6);
+    assertEquals(Math.log(Math.exp(0.5) + Math.exp(4.0)), lse.get(1, 2), 1e-6);
+    assertEquals(1000.0 + Math.log(2.0), new DoubleMatrix(new double[]{1000.0, 1000.0}).cumulative(DoubleMatrix.Scan.LOG_SUM_EXP).get(1), 1e-3);
+
+    // several scan blocks
+    DoubleMatrix y = DoubleMatrix.rand(100000, 2);
+    DoubleMatrix cs = y.columnCumulative(DoubleMatrix.Scan.SUM);
+    DoubleMatrix cm = y.cumulative(DoubleMatrix.Scan.MAX);
+    double s0 = 0.0, s1 = 0.0, m = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < y.rows; i++) {
+      s0 += y.get(i, 0);
+      s1 += y.get(i, 1);
+      m = Math.max(m, y.get(i, 0));
+      assertEquals(s0, cs.get(i, 0), 1e-3 * s0);
+      assertEquals(s1, cs.get(i, 1), 1e-3 * s1);
+      assertEquals(m, cm.get(i, 0), 0.0);
+    }
+  }
+
+  @Test
+  public void testGroupedReductions() {
+    DoubleMatrix x = new DoubleMatrix(new double[][]{{1.0, 2.0}, {3.0, 4.0}, {5.0, -6.0}, {7.0, 8.0}});
+    int[] labels = {1, 0, 1, 1};
+    assertArrayEquals(new int[]{1, 3, 0}, DoubleMatrix.groupCounts(labels, 3));
+    assertEquals(new DoubleMatrix(new double[][]{{3.0, 4.0}, {13.0, 4.0}, {0.0, 0.0}}), x.rowGroupSums(labels, 3));
+    assertEquals(new DoubleMatrix(new double[][]{{3.0, 4.0}, {13.0 / 3.0, 4.0 / 3.0}}), x.rowGroupMeans(labels, 2));
+    assertEquals(new DoubleMatrix(new double[][]{{3.0, 4.0}, {7.0, 8.0}}), x.rowGroupMaxs(labels, 2));
+    assertEquals(new DoubleMatrix(new double[][]{{3.0, 4.0}, {1.0, -6.0}}), x.rowGroupMins(labels, 2));
+    assertTrue(Double.isNaN(x.rowGroupMeans(labels, 3).get(2, 0)));
+
+    DoubleMatrix t = x.transpose();
+    assertEquals(x.rowGroupSums(labels, 3).transpose(), t.columnGroupSums(labels, 3));
+    assertEquals(x.rowGroupMeans(labels, 2).transpose(), t.columnGroupMeans(labels, 2));
+    assertEquals(x.rowGroupMaxs(labels, 2).transpose(), t.columnGroupMaxs(labels, 2));
+    assertEquals(x.rowGroupMins(labels, 2).transpose(), t.columnGroupMins(labels, 2));
+
+    int[] ids = {0, 0, 2, 2};
+    assertEquals(new DoubleMatrix(new double[][]{{4.0, 6.0}, {0.0, 0.0}, {12.0, 2.0}}), x.rowSegmentSums(ids));
+    assertEquals(new DoubleMatrix(new double[][]{{2.0, 3.0}, {6.0, 1.0}}), x.rowSegmentMeans(new int[]{0, 0, 1, 1}));
+    assertEquals(new DoubleMatrix(new double[][]{{3.0, 4.0}, {7.0, 8.0}}), x.rowSegmentMaxs(new int[]{0, 0, 1, 1}));
+    assertEquals(new DoubleMatrix(new double[][]{{1.0, 2.0}, {5.0, -6.0}}), x.rowSegmentMins(new int[]{0, 0, 1, 1}));
+    assertEquals(x.rowSegmentSums(ids).transpose(), t.columnSegmentSums(ids));
+    assertEquals(x.rowSegmentMaxs(ids).getRow(2), t.columnSegmentMaxs(ids).getColumn(2).transpose());
+
+    // tall matrix with few columns, reduced in chunks
+    DoubleMatrix y = DoubleMatrix.rand(100000, 3);
+    int[] l = new int[y.rows];
+    for (int i = 0; i < l.length; i++) {
+      l[i] = (i * 7) % 5;
+    }
+    DoubleMatrix sums = y.rowGroupSums(l, 5);
+    DoubleMatrix maxs = y.rowGroupMaxs(l, 5);
+    DoubleMatrix expected = new DoubleMatrix(5, 3);
+    DoubleMatrix expectedMax = new DoubleMatrix(5, 3);
+    for (int i = 0; i < y.rows; i++) {
+      for (int c = 0; c < 3; c++) {
+        expected.put(l[i], c, expected.get(l[i], c) + y.get(i, c));
+        expectedMax.put(l[i], c, Math.max(expectedMax.get(l[i], c), y.get(i, c)));
+      }
+    }
+    assertTrue(expected.distance1(sums) < 1e-5 * expected.norm1());
+    assertEquals(expectedMax, maxs);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGroupLabelOutOfRange() {
+    new DoubleMatrix(2, 2).rowGroupSums(new int[]{0, 2}, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsortedSegments() {
+    new DoubleMatrix(3, 2).rowSegmentSums(new int[]{0, 1, 0});
+  }
+
+  @Test
+  public void testHistograms() {
+    DoubleMatrix x = new DoubleMatrix(3, 3, 0.0, 0.5, 1.0, 1.5, 2.0, 3.0, -1.0, Double.NaN, 2.5);
+    assertEquals(new DoubleMatrix(3, 1, 2.0, 2.0, 3.0), x.histogram(3, 0.0, 3.0));
+    assertEquals(new DoubleMatrix(2, 1, 3.0, 3.0), x.histogram(new double[]{0.0, 1.5, 2.5}));
+    DoubleMatrix w = new DoubleMatrix(3, 3, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
+    assertEquals(new DoubleMatrix(3, 1, 3.0, 7.0, 20.0), x.histogram(3, 0.0, 3.0, w));
+    assertEquals(new DoubleMatrix(3, 3, 2.0, 1.0, 0.0, 0.0, 1.0, 2.0, 0.0, 0.0, 1.0),
+        x.columnHistograms(3, 0.0, 3.0));
+
+    IntMatrix d = x.digitize(3, 0.0, 3.0);
+    assertArrayEquals(new int[]{0, 0, 1, 1, 2, 2, -1, -1, 2}, d.data);
+    assertArrayEquals(new int[]{0, 0, 0, 1, 1, -1, -1, -1, 1}, x.digitize(new double[]{0.0, 1.5, 2.5}).data);
+    assertEquals(new DoubleMatrix(4, 1, 2.0, 2.0, 3.0, 0.0), DoubleMatrix.bincount(d, 4));
+    assertEquals(new DoubleMatrix(3, 1, 3.0, 7.0, 20.0), DoubleMatrix.bincount(d, w, 0));
+
+    int n = 100000;
+    DoubleMatrix y = new DoubleMatrix(n);
+    for (int i = 0; i < n; i++) {
+      y.put(i, (double) ((i * 7919) % 1000) / 10.0);
+    }
+    DoubleMatrix h = y.histogram(10, 0.0, 100.0);
+    for (int b = 0; b < 10; b++) {
+      assertEquals(n / 10.0, h.get(b), 0.0);
+    }
+    assertEquals(h, DoubleMatrix.bincount(y.digitize(10, 0.0, 100.0), 10));
+  }
+
+  @Test
+  public void testUnique() {
+    DoubleMatrix x = new DoubleMatrix(2, 4, 3.0, -0.0, 1.0, Double.NaN, 3.0, 0.0, Double.NaN, 3.0);
+    DoubleMatrix u = x.unique();
+    assertEquals(4, u.length);
+    assertEquals(0.0, u.get(0), 0.0);
+    assertEquals(1.0, u.get(1), 0.0);
+    assertEquals(3.0, u.get(2), 0.0);
+    assertTrue(Double.isNaN(u.get(3)));
+    assertArrayEquals(new int[]{2, 1, 3, 2}, x.uniqueCounts());
+
+    int n = 200000;
+    DoubleMatrix y = new DoubleMatrix(n);
+    for (int i = 0; i < n; i++) {
+      y.put(i, (double) ((i * 7919) % 5000) - 2500.0);
+    }
+    u = y.unique();
+    assertEquals(5000, u.length);
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i - 2500.0, u.get(i), 0.0);
+    }
+    for (int c : y.uniqueCounts()) {
+      assertEquals(n / 5000, c);
+    }
+    assertEquals(0, new DoubleMatrix(0).unique().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHistogramEdgesNotIncreasing() {
+    new DoubleMatrix(3).histogram(new double[]{0.0, 1.0, 1.0});
+  }
 }
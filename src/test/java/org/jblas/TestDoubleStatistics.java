@@ -0,0 +1,129 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDoubleStatistics extends AbstractTestJblas {
+
+  private static final double EPS = 1e-10;
+
+  /** Check against a straightforward two-pass computation. */
+  private static void assertStatistics(double[] x, DoubleStatistics s) {
+    assertEquals(x.length, s.getCount());
+    double sum = 0.0;
+    for (double v : x) {
+      sum += v;
+    }
+    double mean = sum / x.length;
+    double ss = 0.0;
+    int argmin = 0, argmax = 0;
+    for (int i = 0; i < x.length; i++) {
+      ss += (x[i] - mean) * (x[i] - mean);
+      if (x[i] < x[argmin]) {
+        argmin = i;
+      }
+      if (x[i] > x[argmax]) {
+        argmax = i;
+      }
+    }
+    assertEquals(mean, s.getMean(), EPS * (1.0 + Math.abs(mean)));
+    assertEquals(sum, s.getSum(), EPS * (1.0 + Math.abs(sum)));
+    assertEquals(ss / (x.length - 1), s.getVariance(), EPS * ss);
+    assertEquals(ss / x.length, s.getPopulationVariance(), EPS * ss);
+    assertEquals(Math.sqrt(ss / (x.length - 1)), s.getStandardDeviation(), EPS * Math.sqrt(ss));
+    assertEquals(x[argmin], s.getMin(), 0.0);
+    assertEquals(x[argmax], s.getMax(), 0.0);
+    assertEquals(argmin, s.getArgmin());
+    assertEquals(argmax, s.getArgmax());
+  }
+
+  @Test
+  public void testMatrix() {
+    DoubleMatrix x = DoubleMatrix.randn(100000).addi(1e6);
+    x.put(777, 1e6 + 20.0);
+    x.put(90001, 1e6 - 20.0);
+    assertStatistics(x.data, x.statistics());
+    assertStatistics(x.data, DoubleStatistics.of(x));
+  }
+
+  @Test
+  public void testIncremental() {
+    DoubleMatrix x = DoubleMatrix.rand(1000);
+    DoubleStatistics single = new DoubleStatistics();
+    for (int i = 0; i < 300; i++) {
+      single.add(x.get(i));
+    }
+    single.add(x.data, 300, 1, 500);
+    DoubleStatistics rest = new DoubleStatistics().add(x.data, 800, 1, 200);
+    single.merge(rest);
+    assertStatistics(x.data, single);
+
+    DoubleStatistics empty = new DoubleStatistics();
+    assertEquals(0, empty.getCount());
+    assertTrue(Double.isNaN(empty.getMean()));
+    assertTrue(Double.isNaN(empty.getVariance()));
+    assertEquals(-1, empty.getArgmax());
+    assertStatistics(x.data, empty.merge(single));
+  }
+
+  @Test
+  public void testColumnsAndRows() {
+    DoubleMatrix m = DoubleMatrix.randn(37, 23);
+    DoubleStatistics[] columns = m.columnStatistics();
+    assertEquals(m.columns, columns.length);
+    for (int c = 0; c < m.columns; c++) {
+      assertStatistics(m.getColumn(c).data, columns[c]);
+    }
+    DoubleStatistics[] rows = m.rowStatistics();
+    assertEquals(m.rows, rows.length);
+    for (int r = 0; r < m.rows; r++) {
+      assertStatistics(m.getRow(r).data, rows[r]);
+    }
+  }
+
+  @Test
+  public void testNaN() {
+    DoubleStatistics s = new DoubleStatistics().add(new double[]{1.0, Double.NaN, 3.0}, 0, 1, 3);
+    assertTrue(Double.isNaN(s.getMean()));
+    assertEquals(1.0, s.getMin(), 0.0);
+    assertEquals(3.0, s.getMax(), 0.0);
+    assertEquals(2, s.getArgmax());
+  }
+}
@@ -0,0 +1,217 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDoubleTensor extends AbstractTestJblas {
+
+  private static final double EPS = 1e-12;
+
+  private static DoubleTensor sequence(int... shape) {
+    DoubleTensor t = new DoubleTensor(shape);
+    for (int i = 0; i < t.length; i++) {
+      t.data[i] = (i % 7) - 2.5 + 0.125 * i;
+    }
+    return t;
+  }
+
+  private static DoubleMatrix matrix(int rows, int columns) {
+    return sequence(new int[]{rows, columns}).toDoubleMatrix();
+  }
+
+  private static DoubleMatrix product(DoubleMatrix a, DoubleMatrix b) {
+    DoubleMatrix c = new DoubleMatrix(a.rows, b.columns);
+    for (int i = 0; i < a.rows; i++) {
+      for (int j = 0; j < b.columns; j++) {
+        double s = 0.0;
+        for (int k = 0; k < a.columns; k++) {
+          s += a.get(i, k) * b.get(k, j);
+        }
+        c.put(i, j, s);
+      }
+    }
+    return c;
+  }
+
+  private static void assertClose(DoubleMatrix expected, DoubleMatrix actual) {
+    assertEquals(expected.rows, actual.rows);
+    assertEquals(expected.columns, actual.columns);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected.get(i), actual.get(i), EPS * (1.0 + Math.abs(expected.get(i))));
+    }
+  }
+
+  @Test
+  public void testViews() {
+    DoubleTensor t = sequence(2, 3, 4);
+    assertEquals(3, t.rank());
+    assertEquals(24, t.length);
+    assertTrue(t.isContiguous());
+    assertEquals(t.data[1 + 2 * 2 + 3 * 6], t.get(1, 2, 3), 0.0);
+
+    DoubleTensor p = t.permute(2, 0, 1);
+    assertArrayEquals(new int[]{4, 2, 3}, p.shape);
+    assertSame(t.data, p.data);
+    assertFalse(p.isContiguous());
+    assertEquals(t.get(1, 2, 3), p.get(3, 1, 2), 0.0);
+
+    DoubleTensor r = p.reshape(8, 3);
+    assertTrue(r.isContiguous());
+    assertEquals(p.get(3, 1, 2), r.get(7, 2), 0.0);
+    assertSame(t.data, t.reshape(6, 4).data);
+
+    DoubleTensor d = sequence(3, 3).diagonal(0, 1);
+    assertArrayEquals(new int[]{3}, d.shape);
+    assertEquals(sequence(3, 3).get(2, 2), d.get(2), 0.0);
+
+    DoubleMatrix m = matrix(3, 4);
+    assertEquals(m, DoubleTensor.view(m).toDoubleMatrix());
+    assertEquals(m.get(2, 3), DoubleTensor.view(m, 3, 2, 2).get(2, 1, 1), 0.0);
+    assertEquals(t, p.permute(1, 2, 0).dup());
+  }
+
+  @Test
+  public void testMatrixProducts() {
+    DoubleMatrix a = matrix(5, 7);
+    DoubleMatrix b = matrix(7, 3);
+    DoubleMatrix c = matrix(3, 4);
+
+    assertClose(product(a, b), DoubleTensor.einsum("ij,jk->ik", a, b));
+    assertClose(product(a, b), DoubleTensor.einsum("ij,jk", a, b));
+    assertClose(product(a, b).transpose(), DoubleTensor.einsum("ij,jk->ki", a, b));
+    assertClose(product(a.transpose(), a), DoubleTensor.einsum("ji,jk->ik", a, a));
+    assertClose(product(product(a, b), c), DoubleTensor.einsum("ij,jk,kl->il", a, b, c));
+    assertClose(product(a, b).columnSums(), DoubleTensor.einsum("ij,jk->k", a, b).transpose());
+  }
+
+  @Test
+  public void testReductions() {
+    DoubleMatrix a = matrix(4, 4);
+    double trace = a.get(0, 0) + a.get(1, 1) + a.get(2, 2) + a.get(3, 3);
+    assertEquals(trace, DoubleTensor.einsum("ii", a).get(0), EPS);
+    assertEquals(a.diag(), DoubleTensor.einsum("ii->i", a));
+    assertEquals(a.transpose(), DoubleTensor.einsum("ij->ji", a));
+    assertEquals(a.sum(), DoubleTensor.einsum("ij->", a).get(0), EPS);
+    assertClose(a.rowSums(), DoubleTensor.einsum("ij->i", a));
+
+    DoubleMatrix x = matrix(4, 1);
+    DoubleMatrix y = matrix(3, 1);
+    DoubleMatrix outer = new DoubleMatrix(4, 3);
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 3; j++) {
+        outer.put(i, j, x.get(i) * y.get(j));
+      }
+    }
+    assertClose(outer, DoubleTensor.einsum("ia,jb->ij", x, y));
+  }
+
+  @Test
+  public void testElementwise() {
+    DoubleMatrix a = matrix(40, 30);
+    DoubleMatrix b = matrix(40, 30).addi(1.0);
+    DoubleMatrix ab = new DoubleMatrix(40, 30);
+    DoubleMatrix dots = new DoubleMatrix(40, 1);
+    for (int i = 0; i < ab.length; i++) {
+      ab.put(i, a.get(i) * b.get(i));
+      dots.put(i % 40, dots.get(i % 40) + ab.get(i));
+    }
+    assertClose(ab, DoubleTensor.einsum("ij,ij->ij", a, b));
+    assertClose(ab.transpose(), DoubleTensor.einsum("ij,ij->ji", a, b));
+    assertClose(dots, DoubleTensor.einsum("ij,ij->i", a, b));
+  }
+
+  @Test
+  public void testBatched() {
+    DoubleTensor x = sequence(6, 4);
+    DoubleTensor m = sequence(6, 4, 5);
+    DoubleTensor y = sequence(6, 5);
+
+    DoubleTensor r = DoubleTensor.einsum("bi,bij,bj->b", x, m, y);
+    assertArrayEquals(new int[]{6}, r.shape);
+    for (int b = 0; b < 6; b++) {
+      double s = 0.0;
+      for (int i = 0; i < 4; i++) {
+        for (int j = 0; j < 5; j++) {
+          s += x.get(b, i) * m.get(b, i, j) * y.get(b, j);
+        }
+      }
+      assertEquals(s, r.get(b), EPS * (1.0 + Math.abs(s)));
+    }
+
+    DoubleTensor p = sequence(3, 4, 2);
+    DoubleTensor q = sequence(4, 5, 2);
+    DoubleTensor pq = DoubleTensor.einsum("ijb,jkb->bki", p, q);
+    assertArrayEquals(new int[]{2, 5, 3}, pq.shape);
+    for (int b = 0; b < 2; b++) {
+      for (int i = 0; i < 3; i++) {
+        for (int k = 0; k < 5; k++) {
+          double s = 0.0;
+          for (int j = 0; j < 4; j++) {
+            s += p.get(i, j, b) * q.get(j, k, b);
+          }
+          assertEquals(s, pq.get(b, k, i), EPS * (1.0 + Math.abs(s)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    DoubleMatrix a = new DoubleMatrix(3, 0);
+    DoubleMatrix b = new DoubleMatrix(0, 2);
+    assertEquals(DoubleMatrix.zeros(3, 2), DoubleTensor.einsum("ij,jk->ik", a, b));
+  }
+
+  @Test(expected = SizeException.class)
+  public void testDimensionMismatch() {
+    DoubleTensor.einsum("ij,jk->ik", matrix(2, 3), matrix(4, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOperandCount() {
+    DoubleTensor.einsum("ij,jk->ik", matrix(2, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownOutputIndex() {
+    DoubleTensor.einsum("ij->iz", matrix(2, 3));
+  }
+}
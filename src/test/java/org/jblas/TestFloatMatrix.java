@@ -36,7 +36,11 @@
 
 package org.jblas;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.PrintStream;
 
 import org.jblas.util.Random;
@@ -46,6 +50,7 @@ import java.util.Arrays;
 import static org.jblas.ranges.RangeUtils.*;
 
 import org.junit.Before;
+import org.jblas.exceptions.SizeException;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -713,6 +718,50 @@ public class TestFloatMatrix extends AbstractTestJblas {
     }
   }
 
+  @Test
+  public void testSaveLoad() throws Exception {
+    File f = File.createTempFile("jblas-test", "bin");
+    f.deleteOnExit();
+
+    // files written element by element can be loaded
+    DataOutputStream dos = new DataOutputStream(new FileOutputStream(f));
+    dos.writeUTF("float");
+    dos.writeInt(3);
+    dos.writeInt(2);
+    dos.writeInt(6);
+    for (int i = 0; i < 6; i++) {
+      dos.writeFloat(i + 0.5f);
+    }
+    dos.close();
+    FloatMatrix a = new FloatMatrix(f.getPath());
+    assertEquals(new FloatMatrix(2, 3, 0.5f, 1.5f, 2.5f, 3.5f, 4.5f, 5.5f), a);
+    assertEquals(6, a.length);
+
+    // and saved files can be read element by element
+    a.save(f.getPath());
+    DataInputStream dis = new DataInputStream(new FileInputStream(f));
+    assertEquals("float", dis.readUTF());
+    assertEquals(3, dis.readInt());
+    assertEquals(2, dis.readInt());
+    assertEquals(6, dis.readInt());
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i + 0.5f, dis.readFloat(), 0.0f);
+    }
+    assertEquals(-1, dis.read());
+    dis.close();
+
+    // large enough to be written and read in parallel chunks
+    FloatMatrix b = new FloatMatrix(1 << 11, (1 << 11) + 3);
+    for (int i = 0; i < b.length; i++) {
+      b.data[i] = i % 1001 - 500.0f;
+    }
+    b.save(f.getPath());
+    FloatMatrix c = new FloatMatrix();
+    c.load(f.getPath());
+    assertEquals(b, c);
+    assertTrue(f.delete());
+  }
+
   @Test
   public void testRanges() {
     FloatMatrix A = new FloatMatrix(3, 3, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
@@ -778,4 +827,395 @@ public class TestFloatMatrix extends AbstractTestJblas {
     FloatMatrix m3 = m.getColumns(new org.jblas.ranges.IndicesRange(new int[] {0, 1, 0}));
     assertEquals("[1, 2, 1; 4, 5, 4; 7, 8, 7; 10, 11, 10]", m3.toString("%.0f"));
   }
+
+  @Test
+  public void testBroadcast() {
+    FloatMatrix col = new FloatMatrix(3, 1, 1.0f, 2.0f, 3.0f);
+    FloatMatrix row = new FloatMatrix(1, 2, 10.0f, 20.0f);
+    assertEquals(new FloatMatrix(3, 2, 11.0f, 12.0f, 13.0f, 21.0f, 22.0f, 23.0f), col.broadcast(FloatMatrix.BinaryOp.ADD, row));
+    assertEquals(new FloatMatrix(3, 2, 9.0f, 8.0f, 7.0f, 19.0f, 18.0f, 17.0f), row.broadcast(FloatMatrix.BinaryOp.SUB, col));
+
+    FloatMatrix m = new FloatMatrix(3, 2, 1.0f, 5.0f, 3.0f, 30.0f, 10.0f, 25.0f);
+    assertEquals(new FloatMatrix(3, 2, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f), m.broadcast(FloatMatrix.BinaryOp.LT, new FloatMatrix(1, 2, 2.0f, 20.0f)));
+    assertEquals(new FloatMatrix(3, 2, 1.0f, 2.0f, 3.0f, 1.0f, 2.0f, 3.0f), m.broadcast(FloatMatrix.BinaryOp.MIN, col));
+    assertEquals(new FloatMatrix(3, 2, 4.0f, 5.0f, 4.0f, 30.0f, 10.0f, 25.0f), m.broadcast(FloatMatrix.BinaryOp.MAX, 4.0f));
+
+    FloatMatrix.BinaryOp squarePlus = new FloatMatrix.BinaryOp() {
+      public float apply(float a, float b) {
+        return a * a + b;
+      }
+    };
+    assertEquals(new FloatMatrix(3, 2, 11.0f, 14.0f, 19.0f, 21.0f, 24.0f, 29.0f), col.broadcast(squarePlus, row));
+
+    try {
+      m.broadcast(FloatMatrix.BinaryOp.ADD, new FloatMatrix(2, 2));
+      fail("Expected SizeException");
+    } catch (SizeException e) {
+      // expected
+    }
+    try {
+      col.broadcasti(FloatMatrix.BinaryOp.ADD, row);
+      fail("Expected SizeException");
+    } catch (SizeException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testBroadcastLarge() {
+    // several tiles per column, processed in parallel
+    FloatMatrix m = FloatMatrix.rand(10000, 7);
+    FloatMatrix c = FloatMatrix.rand(10000, 1);
+    FloatMatrix r = FloatMatrix.rand(1, 7);
+
+    FloatMatrix mc = m.broadcast(FloatMatrix.BinaryOp.DIV, c);
+    FloatMatrix mr = m.dup().subiRowVector(r);
+    FloatMatrix cr = c.broadcast(FloatMatrix.BinaryOp.MUL, r);
+    for (int j = 0; j < m.columns; j++) {
+      for (int i = 0; i < m.rows; i++) {
+        assertEquals(m.get(i, j) / c.get(i), mc.get(i, j), 0.0f);
+        assertEquals(m.get(i, j) - r.get(j), mr.get(i, j), 0.0f);
+        assertEquals(c.get(i) * r.get(j), cr.get(i, j), 0.0f);
+      }
+    }
+  }
+
+  private static FloatMatrix naiveProduct(FloatMatrix a, FloatMatrix b) {
+    FloatMatrix c = new FloatMatrix(a.rows, b.columns);
+    for (int i = 0; i < a.rows; i++) {
+      for (int j = 0; j < b.columns; j++) {
+        float s = 0.0f;
+        for (int k = 0; k < a.columns; k++) {
+          s += a.get(i, k) * b.get(k, j);
+        }
+        c.put(i, j, s);
+      }
+    }
+    return c;
+  }
+
+  @Test
+  public void testMmulChain() {
+    FloatMatrix a = FloatMatrix.rand(20, 30);
+    FloatMatrix b = FloatMatrix.rand(30, 5);
+    FloatMatrix c = FloatMatrix.rand(5, 40);
+    FloatMatrix d = FloatMatrix.rand(40, 10);
+    FloatMatrix x = FloatMatrix.rand(10, 1);
+    FloatMatrix y = FloatMatrix.rand(1, 20);
+
+    FloatMatrix expected = naiveProduct(naiveProduct(naiveProduct(naiveProduct(a, b), c), d), x);
+    FloatMatrix chain = FloatMatrix.mmulChain(a, b, c, d, x);
+    assertEquals(20, chain.rows);
+    assertEquals(1, chain.columns);
+    assertTrue(expected.distance2(chain) < 1e-5 * expected.norm2());
+
+    FloatMatrix scalar = FloatMatrix.mmulChain(y, a, b, c, d, x);
+    assertEquals(naiveProduct(y, expected).get(0), scalar.get(0), 1e-5 * Math.abs(scalar.get(0)));
+
+    FloatMatrix ab = FloatMatrix.mmulChain(a, b);
+    assertTrue(naiveProduct(a, b).distance2(ab) < 1e-5 * ab.norm2());
+
+    FloatMatrix single = FloatMatrix.mmulChain(a);
+    assertEquals(a, single);
+    assertNotSame(a, single);
+
+    assertEquals(FloatMatrix.zeros(20, 40), FloatMatrix.mmulChain(a, new FloatMatrix(30, 0), new FloatMatrix(0, 40)));
+  }
+
+  @Test(expected = SizeException.class)
+  public void testMmulChainSizeMismatch() {
+    FloatMatrix.mmulChain(new FloatMatrix(3, 4), new FloatMatrix(5, 2));
+  }
+
+  private static void assertSortingPermutation(FloatMatrix x, int[] p) {
+    assertEquals(x.length, p.length);
+    boolean[] seen = new boolean[x.length];
+    for (int i = 0; i < p.length; i++) {
+      assertFalse(seen[p[i]]);
+      seen[p[i]] = true;
+      if (i > 0) {
+        int c = Float.compare(x.get(p[i - 1]), x.get(p[i]));
+        assertTrue(c < 0 || c == 0 && p[i - 1] < p[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testSortingPermutation() {
+    FloatMatrix x = new FloatMatrix(new float[]{3.0f, -1.0f, 0.0f, Float.NaN, -0.0f, 3.0f, Float.NEGATIVE_INFINITY, 2.5f});
+    assertArrayEquals(new int[]{6, 1, 4, 2, 7, 0, 5, 3}, x.sortingPermutation());
+    assertEquals(x.sort(), x.get(x.sortingPermutation()));
+
+    // large enough for the radix sort and the parallel merges, with many ties
+    FloatMatrix y = FloatMatrix.rand(300000).muli(1000.0f);
+    for (int i = 0; i < 150000; i++) {
+      y.put(i, (float) Math.floor(y.get(i)) - 500.0f);
+    }
+    int[] p = y.sortingPermutation();
+    assertSortingPermutation(y, p);
+    assertEquals(y.sort(), y.get(p));
+  }
+
+  @Test
+  public void testSortColumnsAndRows() {
+    FloatMatrix x = FloatMatrix.rand(300, 200);
+    for (int i = 0; i < x.length; i += 7) {
+      x.put(i, -x.get(i));
+    }
+
+    FloatMatrix sc = x.sortColumns();
+    int[][] cp = x.columnSortingPermutations();
+    for (int c = 0; c < x.columns; c++) {
+      FloatMatrix column = x.getColumn(c);
+      assertEquals(column.sort(), sc.getColumn(c));
+      assertSortingPermutation(column, cp[c]);
+    }
+
+    FloatMatrix sr = x.sortRows();
+    int[][] rp = x.rowSortingPermutations();
+    for (int r = 0; r < x.rows; r++) {
+      FloatMatrix row = x.getRow(r);
+      assertEquals(row.sort(), sr.getRow(r));
+      assertSortingPermutation(row, rp[r]);
+    }
+  }
+
+  @Test
+  public void testSelection() {
+    FloatMatrix x = new FloatMatrix(new float[]{5.0f, 1.0f, 4.0f, 1.0f, 3.0f, 9.0f, 2.0f, 6.0f});
+    FloatMatrix sorted = x.sort();
+    for (int k = 0; k < x.length; k++) {
+      assertEquals(sorted.get(k), x.select(k), 0.0f);
+    }
+    assertEquals(3.5f, x.median(), 0.0f);
+    assertEquals(new FloatMatrix(new float[]{1.0f, 1.0f, 3.5f, 9.0f}), x.quantiles(0.0f, 1.0f / 7.0f, 0.5f, 1.0f));
+    assertEquals(1.4f, x.quantiles(0.2f).get(0), 1e-6);
+    assertEquals(2.1f, x.quantiles(0.3f).get(0), 1e-6);
+    assertEquals(4.0f, new FloatMatrix(new float[]{4.0f, Float.NaN, 1.0f, 7.0f, Float.NaN}).select(1), 0.0f);
+
+    // many duplicates and enough elements for the partitioning
+    FloatMatrix m = FloatMatrix.rand(1001, 9);
+    for (int i = 0; i < m.length; i += 3) {
+      m.put(i, 0.5f);
+    }
+    FloatMatrix sc = m.sortColumns();
+    FloatMatrix q = m.columnQuantiles(0.1f, 0.5f, 0.9f);
+    FloatMatrix kth = m.columnSelect(17);
+    for (int c = 0; c < m.columns; c++) {
+      assertEquals(sc.get(100, c), q.get(0, c), 0.0f);
+      assertEquals(sc.get(500, c), q.get(1, c), 0.0f);
+      assertEquals(sc.get(900, c), q.get(2, c), 0.0f);
+      assertEquals(sc.get(17, c), kth.get(c), 0.0f);
+    }
+    assertEquals(q.getRow(1), m.columnMedians());
+
+    FloatMatrix t = m.transpose();
+    assertEquals(q.transpose(), t.rowQuantiles(0.1f, 0.5f, 0.9f));
+    assertEquals(kth.transpose(), t.rowSelect(17));
+    assertEquals(q.getRow(1).transpose(), t.rowMedians());
+    assertEquals(m.sort().get(4500), m.select(4500), 0.0f);
+  }
+
+  @Test
+  public void testTopK() {
+    FloatMatrix x = new FloatMatrix(new float[]{5.0f, 1.0f, 4.0f, 1.0f, 3.0f, 9.0f, 2.0f, 5.0f});
+    assertArrayEquals(new int[]{5, 0, 7}, x.topK(3));
+    assertArrayEquals(new int[]{1, 3, 6}, x.bottomK(3));
+    assertArrayEquals(new int[0], x.topK(0));
+    assertEquals(8, x.topK(20).length);
+
+    FloatMatrix m = FloatMatrix.rand(200, 5);
+    int[][] top = m.columnTopK(10);
+    int[][] bottom = m.columnBottomK(10);
+    int[][] perm = m.columnSortingPermutations();
+    for (int c = 0; c < m.columns; c++) {
+      for (int i = 0; i < 10; i++) {
+        assertEquals(perm[c][199 - i], top[c][i]);
+        assertEquals(perm[c][i], bottom[c][i]);
+      }
+    }
+    FloatMatrix t = m.transpose();
+    for (int r = 0; r < t.rows; r++) {
+      assertArrayEquals(top[r], t.rowTopK(10)[r]);
+      assertArrayEquals(bottom[r], t.rowBottomK(10)[r]);
+    }
+  }
+
+  @Test
+  public void testRowReductions() {
+    // more rows than one row block, with NaNs and ties
+    FloatMatrix x = FloatMatrix.rand(1300, 37);
+    for (int i = 0; i < x.length; i += 11) {
+      x.put(i, Float.NaN);
+    }
+    for (int i = 5; i < x.length; i += 13) {
+      x.put(i, 0.25f);
+    }
+    FloatMatrix mins = x.rowMins();
+    FloatMatrix maxs = x.rowMaxs();
+    int[] argmins = x.rowArgmins();
+    int[] argmaxs = x.rowArgmaxs();
+    FloatMatrix sums = x.rowSums();
+    for (int r = 0; r < x.rows; r++) {
+      FloatMatrix row = x.getRow(r);
+      assertEquals(row.min(), mins.get(r), 0.0f);
+      assertEquals(row.max(), maxs.get(r), 0.0f);
+      assertEquals(row.argmin(), argmins[r]);
+      assertEquals(row.argmax(), argmaxs[r]);
+      float s = 0.0f;
+      for (int c = 0; c < x.columns; c++) {
+        s += x.get(r, c);
+      }
+      assertEquals(s, sums.get(r), 1e-10);
+    }
+
+    FloatMatrix empty = new FloatMatrix(3, 0);
+    assertEquals(Float.POSITIVE_INFINITY, empty.rowMins().get(2), 0.0f);
+    assertEquals(-1, empty.rowArgmaxs()[0]);
+  }
+
+  @Test
+  public void testScans() {
+    FloatMatrix x = new FloatMatrix(2, 3, 1.0f, 2.0f, 3.0f, -1.0f, 0.5f, 4.0f);
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 3.0f, 6.0f, 5.0f, 5.5f, 9.5f), x.cumulativeSum());
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 2.0f, 6.0f, -6.0f, -3.0f, -12.0f), x.cumulative(FloatMatrix.Scan.PROD));
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 1.0f, 1.0f, -1.0f, -1.0f, -1.0f), x.cumulative(FloatMatrix.Scan.MIN));
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 3.0f, 3.0f, 2.0f, 0.5f, 4.5f), x.columnCumulative(FloatMatrix.Scan.SUM));
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 2.0f, 3.0f, 2.0f, 3.0f, 4.0f), x.rowCumulative(FloatMatrix.Scan.MAX));
+    assertEquals(new FloatMatrix(2, 3, 1.0f, 2.0f, 4.0f, 1.0f, 4.5f, 5.0f), x.rowCumulative(FloatMatrix.Scan.SUM));
+
+    FloatMatrix lse = x.columnCumulative(FloatMatrix.Scan.LOG_SUM_EXP);
+    assertEquals(Math.log(Math.exp(1.0f) + Math.exp(2.0f)), lse.get(1, 0), 1e-6);
+    assertEquals(Math.log(Math.exp(0.5f) + Math.exp(4.0f)), lse.get(1, 2), 1e-6);
+    assertEquals(1000.0f + Math.log(2.0f), new FloatMatrix(new float[]{1000.0f, 1000.0f}).cumulative(FloatMatrix.Scan.LOG_SUM_EXP).get(1), 1e-3);
+
+    // several scan blocks
+    FloatMatrix y = FloatMatrix.rand(100000, 2);
+    FloatMatrix cs = y.columnCumulative(FloatMatrix.Scan.SUM);
+    FloatMatrix cm = y.cumulative(FloatMatrix.Scan.MAX);
+    float s0 = 0.0f, s1 = 0.0f, m = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < y.rows; i++) {
+      s0 += y.get(i, 0);
+      s1 += y.get(i, 1);
+      m = Math.max(m, y.get(i, 0));
+      assertEquals(s0, cs.get(i, 0), 1e-3 * s0);
+      assertEquals(s1, cs.get(i, 1), 1e-3 * s1);
+      assertEquals(m, cm.get(i, 0), 0.0f);
+    }
+  }
+
+  @Test
+  public void testGroupedReductions() {
+    FloatMatrix x = new FloatMatrix(new float[][]{{1.0f, 2.0f}, {3.0f, 4.0f}, {5.0f, -6.0f}, {7.0f, 8.0f}});
+    int[] labels = {1, 0, 1, 1};
+    assertArrayEquals(new int[]{1, 3, 0}, FloatMatrix.groupCounts(labels, 3));
+    assertEquals(new FloatMatrix(new float[][]{{3.0f, 4.0f}, {13.0f, 4.0f}, {0.0f, 0.0f}}), x.rowGroupSums(labels, 3));
+    assertEquals(new FloatMatrix(new float[][]{{3.0f, 4.0f}, {13.0f / 3.0f, 4.0f / 3.0f}}), x.rowGroupMeans(labels, 2));
+    assertEquals(new FloatMatrix(new float[][]{{3.0f, 4.0f}, {7.0f, 8.0f}}), x.rowGroupMaxs(labels, 2));
+    assertEquals(new FloatMatrix(new float[][]{{3.0f, 4.0f}, {1.0f, -6.0f}}), x.rowGroupMins(labels, 2));
+    assertTrue(Float.isNaN(x.rowGroupMeans(labels, 3).get(2, 0)));
+
+    FloatMatrix t = x.transpose();
+    assertEquals(x.rowGroupSums(labels, 3).transpose(), t.columnGroupSums(labels, 3));
+    assertEquals(x.rowGroupMeans(labels, 2).transpose(), t.columnGroupMeans(labels, 2));
+    assertEquals(x.rowGroupMaxs(labels, 2).transpose(), t.columnGroupMaxs(labels, 2));
+    assertEquals(x.rowGroupMins(labels, 2).transpose(), t.columnGroupMins(labels, 2));
+
+    int[] ids = {0, 0, 2, 2};
+    assertEquals(new FloatMatrix(new float[][]{{4.0f, 6.0f}, {0.0f, 0.0f}, {12.0f, 2.0f}}), x.rowSegmentSums(ids));
+    assertEquals(new FloatMatrix(new float[][]{{2.0f, 3.0f}, {6.0f, 1.0f}}), x.rowSegmentMeans(new int[]{0, 0, 1, 1}));
+    assertEquals(new FloatMatrix(new float[][]{{3.0f, 4.0f}, {7.0f, 8.0f}}), x.rowSegmentMaxs(new int[]{0, 0, 1, 1}));
+    assertEquals(new FloatMatrix(new float[][]{{1.0f, 2.0f}, {5.0f, -6.0f}}), x.rowSegmentMins(new int[]{0, 0, 1, 1}));
+    assertEquals(x.rowSegmentSums(ids).transpose(), t.columnSegmentSums(ids));
+    assertEquals(x.rowSegmentMaxs(ids).getRow(2), t.columnSegmentMaxs(ids).getColumn(2).transpose());
+
+    // tall matrix with few columns, reduced in chunks
+    FloatMatrix y = FloatMatrix.rand(100000, 3);
+    int[] l = new int[y.rows];
+    for (int i = 0; i < l.length; i++) {
+      l[i] = (i * 7) % 5;
+    }
+    FloatMatrix sums = y.rowGroupSums(l, 5);
+    FloatMatrix maxs = y.rowGroupMaxs(l, 5);
+    FloatMatrix expected = new FloatMatrix(5, 3);
+    FloatMatrix expectedMax = new FloatMatrix(5, 3);
+    for (int i = 0; i < y.rows; i++) {
+      for (int c = 0; c < 3; c++) {
+        expected.put(l[i], c, expected.get(l[i], c) + y.get(i, c));
+        expectedMax.put(l[i], c, Math.max(expectedMax.get(l[i], c), y.get(i, c)));
+      }
+    }
+    assertTrue(expected.distance1(sums) < 1e-5 * expected.norm1());
+    assertEquals(expectedMax, maxs);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGroupLabelOutOfRange() {
+    new FloatMatrix(2, 2).rowGroupSums(new int[]{0, 2}, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsortedSegments() {
+    new FloatMatrix(3, 2).rowSegmentSums(new int[]{0, 1, 0});
+  }
+
+  @Test
+  public void testHistograms() {
+    FloatMatrix x = new FloatMatrix(3, 3, 0.0f, 0.5f, 1.0f, 1.5f, 2.0f, 3.0f, -1.0f, Float.NaN, 2.5f);
+    assertEquals(new FloatMatrix(3, 1, 2.0f, 2.0f, 3.0f), x.histogram(3, 0.0f, 3.0f));
+    assertEquals(new FloatMatrix(2, 1, 3.0f, 3.0f), x.histogram(new float[]{0.0f, 1.5f, 2.5f}));
+    FloatMatrix w = new FloatMatrix(3, 3, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
+    assertEquals(new FloatMatrix(3, 1, 3.0f, 7.0f, 20.0f), x.histogram(3, 0.0f, 3.0f, w));
+    assertEquals(new FloatMatrix(3, 3, 2.0f, 1.0f, 0.0f, 0.0f, 1.0f, 2.0f, 0.0f, 0.0f, 1.0f),
+        x.columnHistograms(3, 0.0f, 3.0f));
+
+    IntMatrix d = x.digitize(3, 0.0f, 3.0f);
+    assertArrayEquals(new int[]{0, 0, 1, 1, 2, 2, -1, -1, 2}, d.data);
+    assertArrayEquals(new int[]{0, 0, 0, 1, 1, -1, -1, -1, 1}, x.digitize(new float[]{0.0f, 1.5f, 2.5f}).data);
+    assertEquals(new FloatMatrix(4, 1, 2.0f, 2.0f, 3.0f, 0.0f), FloatMatrix.bincount(d, 4));
+    assertEquals(new FloatMatrix(3, 1, 3.0f, 7.0f, 20.0f), FloatMatrix.bincount(d, w, 0));
+
+    int n = 100000;
+    FloatMatrix y = new FloatMatrix(n);
+    for (int i = 0; i < n; i++) {
+      y.put(i, (float) ((i * 7919) % 1000) / 10.0f);
+    }
+    FloatMatrix h = y.histogram(10, 0.0f, 100.0f);
+    for (int b = 0; b < 10; b++) {
+      assertEquals(n / 10.0f, h.get(b), 0.0f);
+    }
+    assertEquals(h, FloatMatrix.bincount(y.digitize(10, 0.0f, 100.0f), 10));
+  }
+
+  @Test
+  public void testUnique() {
+    FloatMatrix x = new FloatMatrix(2, 4, 3.0f, -0.0f, 1.0f, Float.NaN, 3.0f, 0.0f, Float.NaN, 3.0f);
+    FloatMatrix u = x.unique();
+    assertEquals(4, u.length);
+    assertEquals(0.0f, u.get(0), 0.0f);
+    assertEquals(1.0f, u.get(1), 0.0f);
+    assertEquals(3.0f, u.get(2), 0.0f);
+    assertTrue(Float.isNaN(u.get(3)));
+    assertArrayEquals(new int[]{2, 1, 3, 2}, x.uniqueCounts());
+
+    int n = 200000;
+    FloatMatrix y = new FloatMatrix(n);
+    for (int i = 0; i < n; i++) {
+      y.put(i, (float) ((i * 7919) % 5000) - 2500.0f);
+    }
+    u = y.unique();
+    assertEquals(5000, u.length);
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i - 2500.0f, u.get(i), 0.0f);
+    }
+    for (int c : y.uniqueCounts()) {
+      assertEquals(n / 5000, c);
+    }
+    assertEquals(0, new FloatMatrix(0).unique().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHistogramEdgesNotIncreasing() {
+    new FloatMatrix(3).histogram(new float[]{0.0f, 1.0f, 1.0f});
+  }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestHalfMatrix extends AbstractTestJblas {
+
+  @Test
+  public void testHalfConversion() {
+    assertEquals((short) 0x3c00, HalfMatrix.floatToHalf(1.0f));
+    assertEquals((short) 0xc000, HalfMatrix.floatToHalf(-2.0f));
+    assertEquals((short) 0x7bff, HalfMatrix.floatToHalf(65504.0f));
+    assertEquals((short) 0x7c00, HalfMatrix.floatToHalf(65520.0f));
+    assertEquals((short) 0x0001, HalfMatrix.floatToHalf(5.9604645E-8f));
+    assertEquals((short) 0x0000, HalfMatrix.floatToHalf(2.0E-8f));
+    // ties round to even
+    assertEquals((short) 0x3c00, HalfMatrix.floatToHalf(1.0f + 1.0f / 2048));
+    assertEquals((short) 0x3c02, HalfMatrix.floatToHalf(1.0f + 3.0f / 2048));
+
+    assertEquals(1.0f, HalfMatrix.halfToFloat((short) 0x3c00), 0.0f);
+    assertEquals(65504.0f, HalfMatrix.halfToFloat((short) 0x7bff), 0.0f);
+    assertEquals(Float.NEGATIVE_INFINITY, HalfMatrix.halfToFloat((short) 0xfc00), 0.0f);
+    assertTrue(Float.isNaN(HalfMatrix.halfToFloat(HalfMatrix.floatToHalf(Float.NaN))));
+
+    // all finite half values survive a round trip
+    for (int i = 0; i < 0x10000; i++) {
+      short h = (short) i;
+      float f = HalfMatrix.halfToFloat(h);
+      if (!Float.isNaN(f)) {
+        assertEquals(h, HalfMatrix.floatToHalf(f));
+      }
+    }
+  }
+
+  @Test
+  public void testBfloat16Conversion() {
+    assertEquals((short) 0x3f80, HalfMatrix.floatToBfloat16(1.0f));
+    assertEquals(1.0f, HalfMatrix.bfloat16ToFloat((short) 0x3f80), 0.0f);
+    assertEquals(-3.0f, HalfMatrix.bfloat16ToFloat(HalfMatrix.floatToBfloat16(-3.0f)), 0.0f);
+    assertEquals(1.0f, HalfMatrix.bfloat16ToFloat(HalfMatrix.floatToBfloat16(1.0f + 1.0f / 256)), 0.0f);
+    assertEquals(1.0f + 1.0f / 64, HalfMatrix.bfloat16ToFloat(HalfMatrix.floatToBfloat16(1.0f + 3.0f / 256)), 0.0f);
+    assertTrue(Float.isNaN(HalfMatrix.bfloat16ToFloat(HalfMatrix.floatToBfloat16(Float.NaN))));
+    assertEquals(3.0e38f, HalfMatrix.bfloat16ToFloat(HalfMatrix.floatToBfloat16(3.0e38f)), 1.0e36f);
+  }
+
+  private static void checkKernels(HalfMatrix.Format format) {
+    FloatMatrix a = FloatMatrix.randn(300, 70);
+    HalfMatrix h = new HalfMatrix(a, format);
+    FloatMatrix d = h.toFloatMatrix();
+    float eps = format == HalfMatrix.Format.HALF ? 1e-3f : 1e-2f;
+    for (int i = 0; i < a.length; i++) {
+      assertEquals(a.data[i], d.data[i], eps * Math.abs(a.data[i]));
+      assertEquals(d.data[i], h.get(i), 0.0f);
+    }
+    assertEquals(h, new HalfMatrix(d, format));
+
+    FloatMatrix x = FloatMatrix.randn(70);
+    FloatMatrix y = FloatMatrix.randn(300);
+    FloatMatrix expected = new FloatMatrix(300);
+    for (int i = 0; i < 300; i++) {
+      float s = 0.0f;
+      for (int j = 0; j < 70; j++) {
+        s += d.get(i, j) * x.get(j);
+      }
+      expected.put(i, 2.0f * s + 0.5f * y.get(i));
+    }
+    FloatMatrix actual = h.gemv('N', 2.0f, x, 0.5f, y.dup());
+    DoubleMatrix actualDouble = h.gemv('N', 2.0, toDouble(x), 0.5, toDouble(y));
+    for (int i = 0; i < 300; i++) {
+      assertEquals(expected.get(i), actual.get(i), 1e-3f);
+      assertEquals(expected.get(i), actualDouble.get(i), 1e-3);
+    }
+
+    FloatMatrix z = FloatMatrix.randn(300);
+    FloatMatrix t = h.gemv('T', 1.0f, z, 0.0f, new FloatMatrix(70));
+    DoubleMatrix td = h.gemv('T', 1.0, toDouble(z), 0.0, new DoubleMatrix(70));
+    for (int j = 0; j < 70; j++) {
+      float s = 0.0f;
+      for (int i = 0; i < 300; i++) {
+        s += d.get(i, j) * z.get(i);
+      }
+      assertEquals(s, t.get(j), 1e-3f);
+      assertEquals(s, td.get(j), 1e-3);
+    }
+
+    FloatMatrix m = h.mmul(FloatMatrix.randn(70, 2).put(0, 0, x.get(0)));
+    assertEquals(300, m.rows);
+    assertEquals(2, m.columns);
+
+    FloatMatrix col = h.getColumns(new int[] {5, 2}).getColumn(1);
+    assertEquals(d.getColumn(2), col);
+    assertEquals(d.getColumn(5), h.getColumn(5));
+  }
+
+  private static DoubleMatrix toDouble(FloatMatrix x) {
+    DoubleMatrix result = new DoubleMatrix(x.rows, x.columns);
+    for (int i = 0; i < x.length; i++) {
+      result.data[i] = x.data[i];
+    }
+    return result;
+  }
+
+  @Test
+  public void testHalfKernels() {
+    checkKernels(HalfMatrix.Format.HALF);
+  }
+
+  @Test
+  public void testBfloat16Kernels() {
+    checkKernels(HalfMatrix.Format.BFLOAT16);
+  }
+
+  @Test
+  public void testDotAndAxpy() {
+    HalfMatrix h = new HalfMatrix(new FloatMatrix(new float[] {1.0f, 2.0f, 0.5f}), HalfMatrix.Format.HALF);
+    FloatMatrix x = new FloatMatrix(new float[] {2.0f, 1.0f, 4.0f});
+    assertEquals(6.0f, h.dot(x), 0.0f);
+    assertEquals(6.0, h.dot(new DoubleMatrix(new double[] {2.0, 1.0, 4.0})), 0.0);
+    assertEquals(new FloatMatrix(new float[] {4.0f, 5.0f, 5.0f}), h.axpy(2.0f, x));
+    assertEquals(new DoubleMatrix(new double[] {1.0, 2.0, 0.5}), h.axpy(1.0, new DoubleMatrix(3)));
+  }
+}
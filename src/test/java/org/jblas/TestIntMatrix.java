@@ -0,0 +1,133 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class TestIntMatrix extends AbstractTestJblas {
+
+  private final IntMatrix a = new IntMatrix(new int[][] {{1, 2, 3}, {4, 5, 6}});
+
+  @Test
+  public void testConstructionAndAccess() {
+    assertEquals(2, a.rows);
+    assertEquals(3, a.columns);
+    assertArrayEquals(new int[] {1, 4, 2, 5, 3, 6}, a.data);
+    assertEquals(6, a.get(1, 2));
+    assertEquals(new IntMatrix(1, 3, 4, 5, 6), a.getRow(1));
+    assertEquals(new IntMatrix(2, 1, 2, 5), a.getColumn(1));
+    assertEquals(new IntMatrix(3, 2, 1, 2, 3, 4, 5, 6), a.transpose());
+    assertEquals(new IntMatrix(new int[] {5, 1}), a.get(new int[] {3, 0}));
+    assertEquals(new IntMatrix(new int[] {0, 1, 2}), IntMatrix.range(0, 3));
+    assertEquals(new IntMatrix(2, 2, 1, 1, 1, 1), IntMatrix.ones(2, 2));
+  }
+
+  @Test
+  public void testArithmetic() {
+    assertEquals(new IntMatrix(2, 3, 2, 8, 4, 10, 6, 12), a.add(a));
+    assertEquals(IntMatrix.zeros(2, 3), a.sub(a));
+    assertEquals(new IntMatrix(2, 3, 3, 12, 6, 15, 9, 18), a.mul(3));
+    assertEquals(new IntMatrix(2, 3, 0, 2, 1, 2, 1, 3), a.div(2));
+    assertEquals(new IntMatrix(2, 3, 1, 0, 0, 1, 1, 0), a.rem(2));
+    assertEquals(a.mul(2), a.add(IntMatrix.scalar(0)).muli(IntMatrix.scalar(2)));
+    assertEquals(a, a.neg().abs());
+  }
+
+  @Test
+  public void testReductions() {
+    assertEquals(21, a.sum());
+    assertEquals(3.5, a.mean(), 0.0);
+    assertEquals(1, a.min());
+    assertEquals(6, a.max());
+    assertEquals(0, a.argmin());
+    assertEquals(5, a.argmax());
+    assertEquals(new IntMatrix(1, 3, 5, 7, 9), a.columnSums());
+    assertEquals(new IntMatrix(2, 1, 6, 15), a.rowSums());
+    assertEquals(new IntMatrix(1, 3, 1, 2, 3), a.columnMins());
+    assertEquals(new IntMatrix(1, 3, 4, 5, 6), a.columnMaxs());
+    assertEquals(new IntMatrix(2, 3, 1, 5, 7, 12, 15, 21), a.cumulativeSum());
+
+    IntMatrix big = new IntMatrix(new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE});
+    assertEquals(2L * Integer.MAX_VALUE, big.sum());
+  }
+
+  @Test
+  public void testSortingAndMasks() {
+    IntMatrix x = new IntMatrix(new int[] {3, 1, 2, 1, 0});
+    assertEquals(new IntMatrix(new int[] {0, 1, 1, 2, 3}), x.sort());
+    assertArrayEquals(new int[] {4, 1, 3, 2, 0}, x.sortingPermutation());
+    assertEquals(x.sort(), x.get(x.sortingPermutation()));
+
+    BooleanMatrix ones = x.eqMask(1);
+    assertArrayEquals(new int[] {1, 3}, ones.findIndices());
+    assertEquals(new IntMatrix(new int[] {3, 2}), x.get(x.gtMask(1)));
+    assertEquals(new IntMatrix(new int[] {3, 7, 2, 7, 0}), x.dup().put(ones, 7));
+  }
+
+  @Test
+  public void testConversion() {
+    DoubleMatrix d = new DoubleMatrix(new double[] {0.9, 2.1, -1.6});
+    IntMatrix i = d.toIntMatrix();
+    assertEquals(new IntMatrix(new int[] {1, 2, -2}), i);
+    assertEquals(new LongMatrix(new long[] {1, 2, -2}), d.toLongMatrix());
+    assertEquals(new DoubleMatrix(new double[] {1.0, 2.0, -2.0}), i.toDoubleMatrix());
+
+    DoubleMatrix v = new DoubleMatrix(new double[] {10.0, 20.0, 30.0});
+    assertEquals(new DoubleMatrix(new double[] {30.0, 10.0}), v.get(new IntMatrix(new int[] {2, 0})));
+    assertEquals(new DoubleMatrix(new double[] {10.0, 0.0, 0.0}), v.dup().put(new IntMatrix(new int[] {1, 2}), 0.0));
+  }
+
+  @Test
+  public void testSaveLoad() throws Exception {
+    File f = File.createTempFile("jblas", "int");
+    f.deleteOnExit();
+    a.save(f.getPath());
+    IntMatrix b = new IntMatrix();
+    b.load(f.getPath());
+    assertEquals(a, b);
+
+    LongMatrix l = new LongMatrix(new long[] {Long.MAX_VALUE, -3});
+    l.save(f.getPath());
+    LongMatrix m = new LongMatrix();
+    m.load(f.getPath());
+    assertEquals(l, m);
+  }
+}
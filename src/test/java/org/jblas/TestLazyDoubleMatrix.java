@@ -0,0 +1,134 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.SizeException;
+import org.junit.Test;
+
+import static org.jblas.TestSymmetricDoubleMatrix.assertClose;
+import static org.junit.Assert.*;
+
+public class TestLazyDoubleMatrix extends AbstractTestJblas {
+
+  private final DoubleMatrix a = DoubleMatrix.randn(123, 45);
+  private final DoubleMatrix b = DoubleMatrix.randn(123, 45);
+  private final DoubleMatrix c = DoubleMatrix.randn(123, 45);
+  private final DoubleMatrix d = DoubleMatrix.rand(123, 45);
+
+  @Test
+  public void testFusedChain() {
+    DoubleMatrix expected = new DoubleMatrix(123, 45);
+    for (int i = 0; i < expected.length; i++) {
+      expected.data[i] = Math.exp((a.data[i] * b.data[i] + c.data[i]) / (d.data[i] + 1.0));
+    }
+    DoubleMatrix actual = a.lazy().mul(b).add(c).div(d.lazy().add(1.0)).exp().evaluate();
+    assertClose(expected, actual, 1e-12);
+  }
+
+  @Test
+  public void testUnaryOperations() {
+    DoubleMatrix x = d.add(0.5);
+    DoubleMatrix r = x.lazy().log().neg().sqrt().abs().tanh().pow(2.0).logistic().evaluate();
+    for (int i = 0; i < r.length; i++) {
+      double v = Math.pow(Math.tanh(Math.sqrt(-Math.log(x.data[i]))), 2.0);
+      assertEquals(1.0 / (1.0 + Math.exp(-v)), r.data[i], 1e-12);
+    }
+    DoubleMatrix m = a.lazy().map(new DoubleFunction() {
+      public double compute(double v) {
+        return 3.0 * v;
+      }
+    }).rsub(1.0).evaluate();
+    for (int i = 0; i < m.length; i++) {
+      assertEquals(1.0 - 3.0 * a.data[i], m.data[i], 1e-12);
+    }
+  }
+
+  @Test
+  public void testBroadcasting() {
+    DoubleMatrix row = DoubleMatrix.randn(1, 45);
+    DoubleMatrix col = DoubleMatrix.randn(123, 1);
+    DoubleMatrix r = a.lazy().sub(row).div(col).max(0.0).evaluate();
+    for (int i = 0; i < 123; i++) {
+      for (int j = 0; j < 45; j++) {
+        assertEquals(Math.max(0.0, (a.get(i, j) - row.get(j)) / col.get(i)), r.get(i, j), 1e-12);
+      }
+    }
+
+    // outer sum of a column and a row vector, and a computed row vector
+    DoubleMatrix outer = col.lazy().add(row.lazy().mul(2.0)).evaluate();
+    assertEquals(123, outer.rows);
+    assertEquals(45, outer.columns);
+    for (int i = 0; i < 123; i++) {
+      for (int j = 0; j < 45; j++) {
+        assertEquals(col.get(i) + 2.0 * row.get(j), outer.get(i, j), 1e-12);
+      }
+    }
+  }
+
+  @Test(expected = SizeException.class)
+  public void testSizeMismatch() {
+    a.lazy().add(DoubleMatrix.randn(122, 45));
+  }
+
+  @Test
+  public void testSharedSubexpressionAndInPlace() {
+    LazyDoubleMatrix s = a.lazy().sub(b);
+    DoubleMatrix target = a.dup();
+    s.mul(s).min(s.lt(0.0)).evaluatei(target);
+    LazyDoubleMatrix t = target.lazy().add(a.lazy().gt(b));
+    target = t.evaluatei(target);
+    for (int i = 0; i < a.length; i++) {
+      double v = a.data[i] - b.data[i];
+      double expected = Math.min(v * v, v < 0.0 ? 1.0 : 0.0) + (a.data[i] > b.data[i] ? 1.0 : 0.0);
+      assertEquals(expected, target.data[i], 1e-12);
+    }
+  }
+
+  @Test
+  public void testReductions() {
+    LazyDoubleMatrix e = a.lazy().mul(b);
+    DoubleMatrix p = new DoubleMatrix(123, 45);
+    for (int i = 0; i < p.length; i++) {
+      p.data[i] = a.data[i] * b.data[i];
+    }
+    assertEquals(p.sum(), e.sum(), 1e-9);
+    assertEquals(p.mean(), e.mean(), 1e-12);
+    assertClose(p.columnSums(), e.columnSums(), 1e-10);
+    assertClose(p.rowSums(), e.rowSums(), 1e-10);
+    assertEquals(e.sum(), e.sum(), 0.0);
+  }
+}
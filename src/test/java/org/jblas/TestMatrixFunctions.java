@@ -0,0 +1,182 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestMatrixFunctions extends AbstractTestJblas {
+
+  // larger than MAP_GRAIN, so that the parallel code path is used
+  private final DoubleMatrix x = DoubleMatrix.rand(200, 150);
+
+  @Test
+  public void testElementwiseFunctions() {
+    DoubleMatrix e = MatrixFunctions.exp(x);
+    DoubleMatrix l = MatrixFunctions.log(x);
+    DoubleMatrix s = MatrixFunctions.sqrt(x);
+    DoubleMatrix p = MatrixFunctions.pow(x, 1.5);
+    DoubleMatrix q = MatrixFunctions.pow(2.0, x);
+    DoubleMatrix r = MatrixFunctions.pow(x, x);
+    for (int i = 0; i < x.length; i++) {
+      double v = x.get(i);
+      assertEquals(Math.exp(v), e.get(i), 0.0);
+      assertEquals(Math.log(v), l.get(i), 0.0);
+      assertEquals(Math.sqrt(v), s.get(i), 0.0);
+      assertEquals(Math.pow(v, 1.5), p.get(i), 0.0);
+      assertEquals(Math.pow(2.0, v), q.get(i), 0.0);
+      assertEquals(Math.pow(v, v), r.get(i), 0.0);
+    }
+    DoubleMatrix y = x.dup();
+    assertSame(y, MatrixFunctions.tanhi(y));
+    assertEquals(Math.tanh(x.get(17)), y.get(17), 0.0);
+  }
+
+  @Test
+  public void testFloatAndComplex() {
+    FloatMatrix f = MatrixFunctions.doubleToFloat(x);
+    FloatMatrix fe = MatrixFunctions.exp(f);
+    for (int i = 0; i < f.length; i++) {
+      assertEquals((float) x.get(i), f.get(i), 0.0f);
+      assertEquals((float) Math.exp(f.get(i)), fe.get(i), 0.0f);
+    }
+    DoubleMatrix d = MatrixFunctions.floatToDouble(f);
+    for (int i = 0; i < f.length; i++) {
+      assertEquals(f.get(i), d.get(i), 0.0);
+    }
+
+    ComplexDoubleMatrix c = new ComplexDoubleMatrix(x.rows, x.columns);
+    for (int i = 0; i < x.length; i++) {
+      c.put(i, -x.get(i), x.get(i));
+    }
+    ComplexDoubleMatrix a = MatrixFunctions.absi(c.dup());
+    for (int i = 0; i < c.length; i++) {
+      assertEquals(c.get(i).abs(), a.get(i).real(), 1e-15);
+    }
+  }
+
+  @Test
+  public void testMap() {
+    DoubleFunction square = new DoubleFunction() {
+      public double compute(double v) {
+        return v * v;
+      }
+    };
+    DoubleMatrix m = x.map(square);
+    for (int i = 0; i < x.length; i++) {
+      assertEquals(x.get(i) * x.get(i), m.get(i), 0.0);
+    }
+    DoubleMatrix y = x.dup();
+    assertSame(y, y.mapi(square));
+    assertEquals(m, y);
+
+    FloatMatrix f = new FloatMatrix(new float[] {1.0f, -2.0f}).map(new FloatFunction() {
+      public float compute(float v) {
+        return -v;
+      }
+    });
+    assertEquals(new FloatMatrix(new float[] {-1.0f, 2.0f}), f);
+  }
+
+  /** log(sum(exp(v))) computed naively, after subtracting the maximum. */
+  private static double naiveLogSumExp(double[] v) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (double d : v) {
+      max = Math.max(max, d);
+    }
+    double sum = 0;
+    for (double d : v) {
+      sum += Math.exp(d - max);
+    }
+    return max + Math.log(sum);
+  }
+
+  @Test
+  public void testSoftmax() {
+    // 300 rows are split into several blocks in the row-wise kernels
+    DoubleMatrix a = DoubleMatrix.randn(300, 70).muli(500.0);
+
+    DoubleMatrix cl = MatrixFunctions.columnLogSumExp(a);
+    DoubleMatrix cs = MatrixFunctions.columnSoftmax(a);
+    DoubleMatrix cls = MatrixFunctions.columnLogSoftmax(a);
+    assertEquals(1, cl.rows);
+    for (int j = 0; j < a.columns; j++) {
+      double l = naiveLogSumExp(a.getColumn(j).data);
+      assertEquals(l, cl.get(j), 1e-12 * Math.abs(l));
+      double sum = 0;
+      for (int i = 0; i < a.rows; i++) {
+        assertEquals(Math.exp(a.get(i, j) - l), cs.get(i, j), 1e-12);
+        assertEquals(a.get(i, j) - l, cls.get(i, j), 1e-12 * Math.abs(l));
+        sum += cs.get(i, j);
+      }
+      assertEquals(1.0, sum, 1e-12);
+    }
+
+    DoubleMatrix rl = MatrixFunctions.rowLogSumExp(a);
+    DoubleMatrix rs = MatrixFunctions.rowSoftmax(a);
+    DoubleMatrix rls = MatrixFunctions.rowLogSoftmax(a, MatrixFunctions.Accuracy.FAST);
+    assertEquals(1, rl.columns);
+    for (int i = 0; i < a.rows; i++) {
+      double l = naiveLogSumExp(a.getRow(i).data);
+      assertEquals(l, rl.get(i), 1e-12 * Math.abs(l));
+      for (int j = 0; j < a.columns; j++) {
+        assertEquals(Math.exp(a.get(i, j) - l), rs.get(i, j), 1e-12);
+        assertEquals(a.get(i, j) - l, rls.get(i, j), 1e-12 * Math.abs(l));
+      }
+    }
+
+    assertEquals(naiveLogSumExp(a.data), MatrixFunctions.logSumExp(a), 1e-12 * Math.abs(MatrixFunctions.logSumExp(a)));
+
+    FloatMatrix f = new FloatMatrix(2, 3, 1000f, -1000f, 1001f, -999f, 1002f, -998f);
+    FloatMatrix fs = MatrixFunctions.rowSoftmax(f);
+    assertEquals(0.6652410f, fs.get(0, 2), 1e-6f);
+    assertEquals(0.6652410f, fs.get(1, 2), 1e-6f);
+  }
+
+  @Test
+  public void testLogSumExpInfinite() {
+    double inf = Double.POSITIVE_INFINITY;
+    DoubleMatrix a = new DoubleMatrix(2, 2, -inf, inf, -inf, 1.0);
+    DoubleMatrix r = MatrixFunctions.rowLogSumExp(a);
+    assertEquals(-inf, r.get(0), 0.0);
+    assertEquals(inf, r.get(1), 0.0);
+    DoubleMatrix c = MatrixFunctions.columnLogSumExp(a);
+    assertEquals(inf, c.get(0), 0.0);
+    assertEquals(1.0, c.get(1), 0.0);
+  }
+}
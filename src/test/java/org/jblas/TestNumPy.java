@@ -0,0 +1,190 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestNumPy extends AbstractTestJblas {
+
+  private static Path tempFile(String suffix) throws IOException {
+    File f = File.createTempFile("jblas-test", suffix);
+    f.deleteOnExit();
+    return f.toPath();
+  }
+
+  /** Write a version 1.0 .npy file with the given header dictionary and elements. */
+  private static Path npy(String dict, ByteBuffer elements) throws IOException {
+    Path path = tempFile(".npy");
+    byte[] d = dict.getBytes("US-ASCII");
+    ByteBuffer b = ByteBuffer.allocate(10 + d.length + elements.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+    b.put((byte) 0x93).put("NUMPY".getBytes("US-ASCII")).put((byte) 1).put((byte) 0);
+    b.putShort((short) d.length).put(d);
+    elements.rewind();
+    b.put(elements);
+    FileOutputStream out = new FileOutputStream(path.toFile());
+    out.write(b.array());
+    out.close();
+    return path;
+  }
+
+  @Test
+  public void testSaveLoad() throws IOException {
+    DoubleMatrix a = new DoubleMatrix(2, 3, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0);
+    Path path = tempFile(".npy");
+    NumPy.save(path, a);
+    assertEquals(0, NumPy.readHeader(path).dataOffset % 64);
+    assertEquals(a, NumPy.loadDouble(path));
+    assertEquals(a.toFloat(), NumPy.loadFloat(path));
+
+    DoubleBuffer view = NumPy.mapDouble(path);
+    assertEquals(6, view.capacity());
+    assertEquals(4.0, view.get(3), 0.0);
+
+    FloatMatrix f = new FloatMatrix(3, 1, 0.5f, -1.5f, 2.5f);
+    NumPy.save(path, f);
+    assertEquals(f, NumPy.loadFloat(path));
+    assertEquals(3, NumPy.mapFloat(path).capacity());
+
+    ComplexDoubleMatrix c = new ComplexDoubleMatrix(2, 2, new double[]{1, 2, 3, 4, 5, 6, 7, 8});
+    NumPy.save(path, c);
+    assertEquals(c, NumPy.loadComplexDouble(path));
+  }
+
+  @Test
+  public void testCOrderAndByteOrder() throws IOException {
+    // numpy.arange(6, dtype='>i4').reshape(2, 3)
+    ByteBuffer ints = ByteBuffer.allocate(24).order(ByteOrder.BIG_ENDIAN);
+    for (int i = 0; i < 6; i++) {
+      ints.putInt(i);
+    }
+    Path path = npy("{'descr': '>i4', 'fortran_order': False, 'shape': (2, 3), }\n", ints);
+    NumPy.Header h = NumPy.readHeader(path);
+    assertEquals('i', h.kind);
+    assertEquals(ByteOrder.BIG_ENDIAN, h.order);
+    assertFalse(h.fortranOrder);
+    assertEquals(new DoubleMatrix(2, 3, 0.0, 3.0, 1.0, 4.0, 2.0, 5.0), NumPy.loadDouble(path));
+
+    // one-dimensional <c8 array
+    ByteBuffer complex = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+    complex.putFloat(1.0f).putFloat(-1.0f).putFloat(2.0f).putFloat(0.5f);
+    path = npy("{'descr': '<c8', 'fortran_order': False, 'shape': (2,), }\n", complex);
+    assertEquals(new ComplexDoubleMatrix(2, 1, new double[]{1.0, -1.0, 2.0, 0.5}), NumPy.loadComplexDouble(path));
+
+    // larger array in C order, converted in parallel
+    int rows = 301, columns = 257;
+    ByteBuffer longs = ByteBuffer.allocate(8 * rows * columns).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < rows * columns; i++) {
+      longs.putLong(i);
+    }
+    path = npy("{'descr': '<i8', 'fortran_order': False, 'shape': (" + rows + ", " + columns + "), }\n", longs);
+    DoubleMatrix m = NumPy.loadDouble(path);
+    for (int i = 0; i < rows; i += 7) {
+      for (int j = 0; j < columns; j += 5) {
+        assertEquals(i * columns + j, m.get(i, j), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    Path path = tempFile(".npy");
+    NumPy.save(path, new DoubleMatrix(5, 0));
+    DoubleMatrix m = NumPy.loadDouble(path);
+    assertEquals(5, m.rows);
+    assertEquals(0, m.columns);
+
+    path = npy("{'descr': '<f8', 'fortran_order': False, 'shape': (5, 0), }\n", ByteBuffer.allocate(0));
+    m = NumPy.loadDouble(path);
+    assertEquals(5, m.rows);
+    assertEquals(0, m.columns);
+
+    Map<String, Object> arrays = new LinkedHashMap<String, Object>();
+    arrays.put("empty", new FloatMatrix(0, 3));
+    Path archive = tempFile(".npz");
+    NumPy.saveArchive(archive, arrays, true);
+    FloatMatrix f = NumPy.loadFloatArchive(archive).get("empty");
+    assertEquals(0, f.rows);
+    assertEquals(3, f.columns);
+  }
+
+  @Test
+  public void testArchive() throws IOException {
+    Map<String, Object> arrays = new LinkedHashMap<String, Object>();
+    DoubleMatrix a = DoubleMatrix.linspace(0, 1, 11);
+    FloatMatrix b = new FloatMatrix(2, 2, 1.0f, 2.0f, 3.0f, 4.0f);
+    arrays.put("a", a);
+    arrays.put("b", b);
+    for (boolean compressed : new boolean[]{false, true}) {
+      Path path = tempFile(".npz");
+      NumPy.saveArchive(path, arrays, compressed);
+      Map<String, DoubleMatrix> doubles = NumPy.loadDoubleArchive(path);
+      assertArrayEquals(new String[]{"a", "b"}, doubles.keySet().toArray());
+      assertEquals(a, doubles.get("a"));
+      assertEquals(new DoubleMatrix(2, 2, 1.0, 2.0, 3.0, 4.0), doubles.get("b"));
+      assertEquals(b, NumPy.loadFloatArchive(path).get("b"));
+      ComplexDoubleMatrix c = NumPy.loadComplexDoubleArchive(path).get("a");
+      for (int i = 0; i < 11; i++) {
+        assertEquals(a.get(i), c.data[2 * i], 0.0);
+        assertEquals(0.0, c.data[2 * i + 1], 0.0);
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testComplexAsReal() throws IOException {
+    Path path = tempFile(".npy");
+    NumPy.save(path, new ComplexDoubleMatrix(2, 2));
+    NumPy.loadDouble(path);
+  }
+
+  @Test(expected = IOException.class)
+  public void testThreeDimensions() throws IOException {
+    NumPy.readHeader(npy("{'descr': '<f8', 'fortran_order': False, 'shape': (1, 1, 1), }\n", ByteBuffer.allocate(8)));
+  }
+}
@@ -0,0 +1,119 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.Parallel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestParallel extends AbstractTestJblas {
+
+  /** The chunks forRange hands to the loop body, in sorted order. */
+  private static List<Integer> chunks(int from, int to, int grain) {
+    final List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+    Parallel.forRange(from, to, grain, new Parallel.Loop() {
+      public void run(int from, int to) {
+        result.add(from);
+        result.add(to);
+      }
+    });
+    List<Integer> sorted = new ArrayList<Integer>(result);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  /** Number of indices covered by the chunks. */
+  private static int covered(List<Integer> chunks) {
+    int n = 0;
+    for (int i = 0; i < chunks.size(); i += 2) {
+      n += chunks.get(i + 1) - chunks.get(i);
+    }
+    return n;
+  }
+
+  @Test
+  public void testChunksIndependentOfThreads() {
+    int threads = Parallel.getThreads();
+    try {
+      Parallel.setThreads(1);
+      List<Integer> single = chunks(3, 10000, 100);
+      Parallel.setThreads(4);
+      List<Integer> parallel = chunks(3, 10000, 100);
+      assertEquals(single, parallel);
+      assertTrue(single.size() > 2);
+      assertEquals(3, (int) single.get(0));
+      assertEquals(10000 - 3, covered(single));
+      for (int i = 0; i < single.size(); i += 2) {
+        assertTrue(single.get(i + 1) - single.get(i) <= 100);
+      }
+    } finally {
+      Parallel.setThreads(threads);
+    }
+  }
+
+  @Test
+  public void testSetThreadsWhileLooping() throws InterruptedException {
+    int threads = Parallel.getThreads();
+    final Throwable[] error = new Throwable[1];
+    Thread worker = new Thread() {
+      public void run() {
+        try {
+          for (int i = 0; i < 200; i++) {
+            assertEquals(10000, covered(chunks(0, 10000, 10)));
+          }
+        } catch (Throwable t) {
+          error[0] = t;
+        }
+      }
+    };
+    try {
+      worker.start();
+      for (int i = 0; worker.isAlive(); i++) {
+        Parallel.setThreads(1 + i % 4);
+      }
+      worker.join();
+    } finally {
+      Parallel.setThreads(threads);
+    }
+    assertNull(error[0]);
+  }
+}
@@ -0,0 +1,110 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.Permutations;
+import org.junit.Test;
+
+import static org.jblas.TestSymmetricDoubleMatrix.naiveMmul;
+import static org.junit.Assert.*;
+
+public class TestPermutationMatrix extends AbstractTestJblas {
+
+  @Test
+  public void testFromPivotIndices() {
+    int[] ipiv = {3, 3, 4, 4};
+    PermutationMatrix p = PermutationMatrix.fromPivotIndices(5, ipiv);
+    // rows 1 <-> 3, 2 <-> 3, 3 <-> 4, 4 <-> 4 applied to the identity
+    DoubleMatrix expected = new DoubleMatrix(5, 5);
+    int[] indices = {0, 1, 2, 3, 4};
+    for (int i = 0; i < ipiv.length; i++) {
+      int t = indices[i];
+      indices[i] = indices[ipiv[i] - 1];
+      indices[ipiv[i] - 1] = t;
+    }
+    for (int i = 0; i < 5; i++) {
+      expected.put(indices[i], i, 1.0);
+    }
+    assertEquals(expected, p.toDoubleMatrix());
+    assertEquals(expected, Permutations.permutationDoubleMatrixFromPivotIndices(5, ipiv));
+    assertEquals(expected.get(2, 0), p.get(2, 0), 0.0);
+  }
+
+  @Test
+  public void testProducts() {
+    int n = 37;
+    PermutationMatrix p = new PermutationMatrix(Permutations.randomPermutation(n));
+    DoubleMatrix dense = p.toDoubleMatrix();
+    DoubleMatrix a = DoubleMatrix.randn(n, 5);
+    DoubleMatrix b = DoubleMatrix.randn(4, n);
+
+    assertEquals(naiveMmul(dense, a), p.mmul(a));
+    assertEquals(naiveMmul(b, dense), p.rmmul(b));
+    assertEquals(naiveMmul(dense, a), p.mmuli(a.dup()));
+    assertEquals(naiveMmul(b, dense), p.rmmuli(b.dup()));
+    assertEquals(a, p.inverse().mmul(p.mmul(a)));
+    assertEquals(dense.transpose(), p.transpose().toDoubleMatrix());
+
+    PermutationMatrix q = new PermutationMatrix(Permutations.randomPermutation(n));
+    assertEquals(naiveMmul(dense, q.toDoubleMatrix()), p.mmul(q).toDoubleMatrix());
+    assertEquals(PermutationMatrix.eye(n), p.mmul(p.inverse()));
+
+    FloatMatrix af = new FloatMatrix(a.rows, a.columns);
+    for (int i = 0; i < a.length; i++) {
+      af.data[i] = (float) a.data[i];
+    }
+    FloatMatrix pa = p.mmuli(af.dup());
+    assertEquals(p.mmul(af), pa);
+    for (int i = 0; i < a.length; i++) {
+      assertEquals((float) p.mmul(a).data[i], pa.data[i], 0.0f);
+    }
+    assertEquals(af, p.rmmuli(p.inverse().rmmul(af.transpose())).transpose());
+  }
+
+  @Test
+  public void testSign() {
+    assertEquals(1, PermutationMatrix.eye(4).sign());
+    assertEquals(-1, new PermutationMatrix(new int[] {1, 0, 2}).sign());
+    assertEquals(1, new PermutationMatrix(new int[] {1, 2, 0}).sign());
+    assertEquals(-1, new PermutationMatrix(new int[] {3, 2, 1, 0, 4}).sign() * new PermutationMatrix(new int[] {1, 0, 2, 3, 4}).sign());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidIndices() {
+    new PermutationMatrix(new int[] {0, 2, 2});
+  }
+}
@@ -0,0 +1,168 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestSparseDoubleMatrix extends AbstractTestJblas {
+
+  DoubleMatrix A, B;
+
+  @Before
+  public void setUp() {
+    A = new DoubleMatrix(new double[][] {{1.0, 0.0, 2.0}, {0.0, 0.0, 3.0}, {4.0, 5.0, 0.0}, {0.0, 0.0, 6.0}});
+    B = new DoubleMatrix(new double[][] {{0.0, 1.0, 0.0}, {2.0, 0.0, 0.0}, {0.0, 0.0, -3.0}, {7.0, 0.0, 1.0}});
+  }
+
+  /** Random matrix where roughly a fraction density of the entries are non-zero. */
+  private static DoubleMatrix randomSparse(int rows, int columns, double density) {
+    DoubleMatrix m = new DoubleMatrix(rows, columns);
+    for (int i = 0; i < m.length; i++) {
+      if (Random.nextDouble() < density) {
+        m.data[i] = Random.nextGaussian();
+      }
+    }
+    return m;
+  }
+
+  private static DoubleMatrix naiveMmul(DoubleMatrix a, DoubleMatrix b) {
+    DoubleMatrix c = new DoubleMatrix(a.rows, b.columns);
+    for (int i = 0; i < a.rows; i++) {
+      for (int j = 0; j < b.columns; j++) {
+        double s = 0.0;
+        for (int k = 0; k < a.columns; k++) {
+          s += a.get(i, k) * b.get(k, j);
+        }
+        c.put(i, j, s);
+      }
+    }
+    return c;
+  }
+
+  private static void assertSortedColumns(SparseDoubleMatrix s) {
+    for (int j = 0; j < s.columns; j++) {
+      for (int p = s.columnPointers[j] + 1; p < s.columnPointers[j + 1]; p++) {
+        assertTrue(s.rowIndices[p - 1] < s.rowIndices[p]);
+      }
+    }
+  }
+
+  @Test
+  public void testConversion() {
+    SparseDoubleMatrix S = new SparseDoubleMatrix(A);
+
+    assertEquals(6, S.nnz());
+    assertEquals(3.0, S.get(1, 2), 0.0);
+    assertEquals(0.0, S.get(1, 1), 0.0);
+    assertEquals(A, S.toDense());
+    assertEquals(0.5, S.density(), 1e-12);
+  }
+
+  @Test
+  public void testFromTriplets() {
+    SparseDoubleMatrix S = SparseDoubleMatrix.fromTriplets(3, 2,
+        new int[] {2, 0, 2, 1}, new int[] {1, 0, 1, 1}, new double[] {1.0, 2.0, 3.0, 4.0});
+
+    assertEquals(3, S.nnz());
+    assertSortedColumns(S);
+    assertEquals(new DoubleMatrix(3, 2, 2.0, 0.0, 0.0, 0.0, 4.0, 4.0), S.toDense());
+  }
+
+  @Test
+  public void testTranspose() {
+    SparseDoubleMatrix S = new SparseDoubleMatrix(A).transpose();
+
+    assertSortedColumns(S);
+    assertEquals(A.transpose(), S.toDense());
+  }
+
+  @Test
+  public void testElementwise() {
+    SparseDoubleMatrix SA = new SparseDoubleMatrix(A);
+    SparseDoubleMatrix SB = new SparseDoubleMatrix(B);
+
+    SparseDoubleMatrix sum = SA.add(SB);
+    SparseDoubleMatrix diff = SA.sub(SB);
+    SparseDoubleMatrix prod = SA.mul(SB);
+
+    for (int i = 0; i < A.length; i++) {
+      assertEquals(A.get(i) + B.get(i), sum.toDense().get(i), 0.0);
+      assertEquals(A.get(i) - B.get(i), diff.toDense().get(i), 0.0);
+      assertEquals(A.get(i) * B.get(i), prod.toDense().get(i), 0.0);
+    }
+    assertEquals(10, sum.nnz());
+    assertEquals(1, prod.nnz());
+    assertEquals(new DoubleMatrix(4, 3, 2.0, 0.0, 8.0, 0.0, 0.0, 0.0, 10.0, 0.0, 4.0, 6.0, 0.0, 12.0),
+        SA.mul(2.0).toDense());
+  }
+
+  @Test
+  public void testMmul() {
+    SparseDoubleMatrix SA = new SparseDoubleMatrix(A);
+    SparseDoubleMatrix SBt = new SparseDoubleMatrix(B).transpose();
+
+    SparseDoubleMatrix C = SA.mmul(SBt);
+    assertSortedColumns(C);
+    assertEquals(naiveMmul(A, B.transpose()), C.toDense());
+    assertEquals(naiveMmul(A, B.transpose()), SA.mmul(B.transpose()));
+  }
+
+  @Test
+  public void testMmulLarge() {
+    Random.seed(42);
+    DoubleMatrix X = randomSparse(300, 500, 0.02);
+    DoubleMatrix Y = randomSparse(500, 400, 0.02);
+
+    SparseDoubleMatrix C = new SparseDoubleMatrix(X).mmul(new SparseDoubleMatrix(Y));
+    DoubleMatrix expected = naiveMmul(X, Y);
+
+    assertSortedColumns(C);
+    assertArrayEquals(expected.data, C.toDense().data, 1e-10);
+  }
+
+  @Test
+  public void testAutoConvert() {
+    SparseDoubleMatrix S = new SparseDoubleMatrix(A);
+
+    assertTrue(S.autoConvert() instanceof DoubleMatrix);
+    assertTrue(new SparseDoubleMatrix(DoubleMatrix.eye(10)).autoConvert() instanceof SparseDoubleMatrix);
+  }
+}
@@ -0,0 +1,109 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.util.Summation;
+import org.jblas.util.Summation.Mode;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestSummation extends AbstractTestJblas {
+
+  @After
+  public void restoreMode() {
+    Summation.setMode(Mode.PAIRWISE);
+  }
+
+  @Test
+  public void testModes() {
+    // 1 + many tiny values: the exact sum is 1 + n * 1e-16
+    int n = 10000;
+    double[] x = new double[n + 1];
+    x[0] = 1.0;
+    for (int i = 1; i <= n; i++) {
+      x[i] = 1e-16;
+    }
+    double exact = 1.0 + n * 1e-16;
+    assertEquals(1.0, Summation.sum(x, 0, 1, x.length, Mode.NAIVE), 0.0);
+    assertEquals(exact, Summation.sum(x, 0, 1, x.length, Mode.KAHAN), 1e-15);
+    assertEquals(exact, Summation.sum(x, 0, 1, x.length, Mode.NEUMAIER), 1e-15);
+    assertEquals(exact, Summation.sum(x, 0, 1, x.length, Mode.PAIRWISE), 1e-13);
+
+    // large values cancelling out, which plain Kahan summation loses
+    double[] y = {1.0, 1e100, 1.0, -1e100};
+    assertEquals(2.0, Summation.sum(y, 0, 1, 4, Mode.NEUMAIER), 0.0);
+
+    for (Mode mode : Mode.values()) {
+      assertEquals(0.0, Summation.sum(new double[0], 0, 1, 0, mode), 0.0);
+      assertEquals(6.0, Summation.sum(new double[]{1.0, 9.0, 2.0, 9.0, 3.0}, 0, 2, 3, mode), 0.0);
+      assertEquals(14.0, Summation.dot(3, new double[]{1.0, 2.0, 3.0}, 0, 1, new double[]{1.0, 2.0, 3.0}, 0, 1, mode), 0.0);
+    }
+  }
+
+  @Test
+  public void testMatrix() {
+    DoubleMatrix x = DoubleMatrix.rand(123, 457);
+    for (Mode mode : Mode.values()) {
+      double naive = 0.0;
+      for (int i = 0; i < x.length; i++) {
+        naive += x.get(i);
+      }
+      assertEquals(naive, x.sum(mode), 1e-9);
+      assertEquals(naive / x.length, x.mean(mode), 1e-12);
+
+      DoubleMatrix cs = x.columnSums(mode);
+      for (int c = 0; c < x.columns; c++) {
+        assertEquals(x.getColumn(c).sum(Mode.NAIVE), cs.get(c), 1e-12);
+      }
+      DoubleMatrix rs = x.rowSums(mode);
+      for (int r = 0; r < x.rows; r++) {
+        assertEquals(x.getRow(r).sum(Mode.NAIVE), rs.get(r), 1e-11);
+      }
+    }
+
+    Summation.setMode(Mode.NEUMAIER);
+    assertEquals(x.sum(Mode.NEUMAIER), x.sum(), 0.0);
+    assertEquals(x.sum(Mode.NEUMAIER), SimpleBlas.dot(x, DoubleMatrix.ones(x.rows, x.columns)), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMode() {
+    Summation.setMode(null);
+  }
+}
@@ -0,0 +1,169 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackPositivityException;
+import org.jblas.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestSymmetricDoubleMatrix extends AbstractTestJblas {
+
+  static DoubleMatrix randomSymmetric(int n) {
+    DoubleMatrix a = new DoubleMatrix(n, n);
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i <= j; i++) {
+        double v = Random.nextGaussian();
+        a.put(i, j, v);
+        a.put(j, i, v);
+      }
+    }
+    return a;
+  }
+
+  /** Random positive definite matrix B' * B + n * I. */
+  static DoubleMatrix randomPositiveDefinite(int n) {
+    DoubleMatrix b = randomSymmetric(n);
+    DoubleMatrix a = naiveMmul(b.transpose(), b);
+    for (int i = 0; i < n; i++) {
+      a.put(i, i, a.get(i, i) + n);
+    }
+    return a;
+  }
+
+  static DoubleMatrix naiveMmul(DoubleMatrix a, DoubleMatrix b) {
+    DoubleMatrix c = new DoubleMatrix(a.rows, b.columns);
+    for (int i = 0; i < a.rows; i++) {
+      for (int j = 0; j < b.columns; j++) {
+        double s = 0.0;
+        for (int k = 0; k < a.columns; k++) {
+          s += a.get(i, k) * b.get(k, j);
+        }
+        c.put(i, j, s);
+      }
+    }
+    return c;
+  }
+
+  static void assertClose(DoubleMatrix expected, DoubleMatrix actual, double eps) {
+    assertEquals(expected.rows, actual.rows);
+    assertEquals(expected.columns, actual.columns);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected.get(i), actual.get(i), eps);
+    }
+  }
+
+  @Test
+  public void testPacking() {
+    DoubleMatrix a = new DoubleMatrix(new double[][] {{1.0, 2.0, 3.0}, {2.0, 4.0, 5.0}, {3.0, 5.0, 6.0}});
+    SymmetricDoubleMatrix u = new SymmetricDoubleMatrix('U', a);
+    SymmetricDoubleMatrix l = new SymmetricDoubleMatrix('L', a);
+
+    assertArrayEquals(new double[] {1.0, 2.0, 4.0, 3.0, 5.0, 6.0}, u.data, 0.0);
+    assertArrayEquals(new double[] {1.0, 2.0, 3.0, 4.0, 5.0, 6.0}, l.data, 0.0);
+    assertEquals(a, u.toDense());
+    assertEquals(a, l.toDense());
+    assertEquals(5.0, u.get(2, 1), 0.0);
+    assertEquals(5.0, l.get(1, 2), 0.0);
+    assertEquals(u, l);
+    assertEquals(u.hashCode(), l.hashCode());
+    assertEquals(l, u.repack('L'));
+
+    u.put(2, 0, 7.0);
+    assertEquals(7.0, u.get(0, 2), 0.0);
+    assertEquals(new DoubleMatrix(new double[] {1.0, 4.0, 6.0}), l.diag());
+  }
+
+  @Test
+  public void testMmul() {
+    DoubleMatrix a = randomSymmetric(37);
+    DoubleMatrix x = DoubleMatrix.randn(37, 5);
+    DoubleMatrix expected = naiveMmul(a, x);
+
+    assertClose(expected, new SymmetricDoubleMatrix('U', a).mmul(x), 1e-10);
+    assertClose(expected, new SymmetricDoubleMatrix('L', a).mmul(x), 1e-10);
+
+    DoubleMatrix v = x.getColumn(2);
+    assertClose(naiveMmul(a, v), new SymmetricDoubleMatrix('L', a).mmul(v), 1e-10);
+    assertEquals(naiveMmul(v.transpose(), naiveMmul(a, v)).get(0), new SymmetricDoubleMatrix(a).quadraticForm(v), 1e-9);
+  }
+
+  @Test
+  public void testAdd() {
+    DoubleMatrix a = randomSymmetric(6);
+    DoubleMatrix b = randomSymmetric(6);
+    SymmetricDoubleMatrix s = new SymmetricDoubleMatrix('U', a).add(new SymmetricDoubleMatrix('L', b));
+    DoubleMatrix expected = new DoubleMatrix(6, 6);
+    for (int i = 0; i < 36; i++) {
+      expected.data[i] = a.data[i] + b.data[i];
+    }
+    assertClose(expected, s.toDense(), 1e-12);
+    assertClose(s.toDense(), s.mul(2.0).sub(s).toDense(), 1e-12);
+  }
+
+  @Test
+  public void testCholesky() {
+    for (char uplo : new char[] {'U', 'L'}) {
+      for (int n : new int[] {1, 5, 300}) {
+        DoubleMatrix a = randomPositiveDefinite(n);
+        TriangularDoubleMatrix r = new SymmetricDoubleMatrix(uplo, a).cholesky();
+        assertEquals(uplo, r.uplo);
+        DoubleMatrix f = r.toDense();
+        DoubleMatrix reconstructed = uplo == 'U' ? naiveMmul(f.transpose(), f) : naiveMmul(f, f.transpose());
+        assertClose(a, reconstructed, 1e-8 * n);
+      }
+    }
+  }
+
+  @Test
+  public void testSolvePositive() {
+    DoubleMatrix a = randomPositiveDefinite(40);
+    DoubleMatrix b = DoubleMatrix.randn(40, 3);
+    for (char uplo : new char[] {'U', 'L'}) {
+      SymmetricDoubleMatrix s = new SymmetricDoubleMatrix(uplo, a);
+      assertClose(b, naiveMmul(a, s.solvePositive(b)), 1e-8);
+      assertClose(b, naiveMmul(a, s.solve(b)), 1e-8);
+    }
+  }
+
+  @Test(expected = LapackPositivityException.class)
+  public void testCholeskyIndefinite() {
+    DoubleMatrix a = new DoubleMatrix(new double[][] {{1.0, 2.0}, {2.0, 1.0}});
+    new SymmetricDoubleMatrix(a).cholesky();
+  }
+}
@@ -0,0 +1,115 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.util.Random;
+import org.junit.Test;
+
+import static org.jblas.TestSymmetricDoubleMatrix.assertClose;
+import static org.jblas.TestSymmetricDoubleMatrix.naiveMmul;
+import static org.junit.Assert.*;
+
+public class TestTriangularDoubleMatrix extends AbstractTestJblas {
+
+  /** Random well-conditioned triangular matrix. */
+  private static DoubleMatrix randomTriangular(char uplo, int n) {
+    DoubleMatrix a = new DoubleMatrix(n, n);
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i < n; i++) {
+        if (i == j) {
+          a.put(i, j, 2.0 + Random.nextDouble());
+        } else if (uplo == 'U' ? i < j : i > j) {
+          a.put(i, j, Random.nextGaussian() / n);
+        }
+      }
+    }
+    return a;
+  }
+
+  @Test
+  public void testConversion() {
+    DoubleMatrix a = randomTriangular('L', 5);
+    TriangularDoubleMatrix t = new TriangularDoubleMatrix('L', a);
+    assertEquals(a, t.toDense());
+    assertEquals(0.0, t.get(1, 3), 0.0);
+    assertTrue(t.toDense().isLowerTriangular());
+    assertFalse(t.toDense().isUpperTriangular());
+    assertEquals(a.transpose(), t.transpose().toDense());
+    assertTrue(t.transpose().isUpper());
+    assertTrue(t.transpose().toDense().isUpperTriangular());
+
+    double det = 1.0;
+    for (int i = 0; i < 5; i++) {
+      det *= a.get(i, i);
+    }
+    assertEquals(det, t.determinant(), 1e-12);
+  }
+
+  @Test
+  public void testMmulAndSolve() {
+    for (char uplo : new char[] {'U', 'L'}) {
+      DoubleMatrix a = randomTriangular(uplo, 33);
+      TriangularDoubleMatrix t = new TriangularDoubleMatrix(uplo, a);
+      DoubleMatrix x = DoubleMatrix.randn(33, 9);
+
+      assertClose(naiveMmul(a, x), t.mmul(x), 1e-10);
+      assertClose(naiveMmul(a.transpose(), x), t.mmuli('T', x.dup()), 1e-10);
+      assertClose(x, naiveMmul(a, t.solve(x)), 1e-10);
+      assertClose(x, naiveMmul(a.transpose(), t.solvei('T', x.dup())), 1e-10);
+    }
+  }
+
+  @Test
+  public void testUnitDiagonal() {
+    DoubleMatrix a = randomTriangular('U', 12);
+    TriangularDoubleMatrix t = new TriangularDoubleMatrix('U', a);
+    t.diag = 'U';
+    for (int i = 0; i < 12; i++) {
+      a.put(i, i, 1.0);
+    }
+    DoubleMatrix x = DoubleMatrix.randn(12);
+    assertEquals(a, t.toDense());
+    assertClose(naiveMmul(a, x), t.mmul(x), 1e-10);
+    assertClose(x, naiveMmul(a, t.solve(x)), 1e-10);
+  }
+
+  @Test(expected = LapackSingularityException.class)
+  public void testSingular() {
+    new TriangularDoubleMatrix('L', 3).solve(DoubleMatrix.ones(3));
+  }
+}
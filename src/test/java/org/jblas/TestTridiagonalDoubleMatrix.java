@@ -0,0 +1,127 @@
+// --- BEGIN LICENSE BLOCK ---
+/*
+ * Copyright (c) 2009, Mikio L. Braun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     * Redistributions in binary form must reproduce the above
+ *       copyright notice, this list of conditions and the following
+ *       disclaimer in the documentation and/or other materials provided
+ *       with the distribution.
+ *
+ *     * Neither the name of the Technische Universitaet Berlin nor the
+ *       names of its contributors may be used to endorse or promote
+ *       products derived from this software without specific prior
+ *       written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+// --- END LICENSE BLOCK ---
+
+package org.jblas;
+
+import org.jblas.exceptions.LapackPositivityException;
+import org.jblas.exceptions.LapackSingularityException;
+import org.jblas.util.Random;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.jblas.TestSymmetricDoubleMatrix.assertClose;
+import static org.jblas.TestSymmetricDoubleMatrix.naiveMmul;
+import static org.junit.Assert.*;
+
+public class TestTridiagonalDoubleMatrix extends AbstractTestJblas {
+
+  private static double[] randn(int n) {
+    double[] result = new double[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = Random.nextGaussian();
+    }
+    return result;
+  }
+
+  @Test
+  public void testConversion() {
+    TridiagonalDoubleMatrix t = new TridiagonalDoubleMatrix(new double[] {1.0, 2.0}, new double[] {3.0, 4.0, 5.0}, new double[] {6.0, 7.0});
+    DoubleMatrix a = new DoubleMatrix(new double[][] {{3.0, 6.0, 0.0}, {1.0, 4.0, 7.0}, {0.0, 2.0, 5.0}});
+    assertEquals(a, t.toDense());
+    assertEquals(t, new TridiagonalDoubleMatrix(a));
+    assertEquals(a, t.toBand().toDense());
+    assertEquals(a.transpose(), t.transpose().toDense());
+    assertFalse(t.isSymmetric());
+    assertTrue(TridiagonalDoubleMatrix.symmetric(new double[] {1.0, 2.0}, new double[] {3.0}).isSymmetric());
+  }
+
+  @Test
+  public void testMmulAndSolve() {
+    int n = 40;
+    TridiagonalDoubleMatrix t = new TridiagonalDoubleMatrix(randn(n - 1), randn(n), randn(n - 1));
+    DoubleMatrix a = t.toDense();
+    DoubleMatrix x = DoubleMatrix.randn(n, 20);
+    assertClose(naiveMmul(a, x), t.mmul(x), 1e-10);
+    assertClose(x, naiveMmul(a, t.solve(x)), 1e-8);
+    assertClose(x, naiveMmul(a, Solve.solve(t, x)), 1e-8);
+  }
+
+  @Test
+  public void testSolvePositive() {
+    int n = 100;
+    double[] d = new double[n];
+    double[] e = new double[n - 1];
+    for (int i = 0; i < n; i++) {
+      d[i] = 2.0 + Random.nextDouble();
+      if (i < n - 1) {
+        e[i] = -1.0;
+      }
+    }
+    TridiagonalDoubleMatrix t = TridiagonalDoubleMatrix.symmetric(d, e);
+    DoubleMatrix b = DoubleMatrix.randn(n, 3);
+    assertClose(b, naiveMmul(t.toDense(), t.solvePositive(b)), 1e-9);
+    assertClose(t.solve(b), Solve.solvePositive(t, b), 1e-9);
+  }
+
+  @Test
+  public void testLargeSystem() {
+    int n = 1000000;
+    double[] d = new double[n];
+    Arrays.fill(d, 4.0);
+    double[] e = new double[n - 1];
+    Arrays.fill(e, 1.0);
+    TridiagonalDoubleMatrix t = TridiagonalDoubleMatrix.symmetric(d, e);
+    DoubleMatrix x = DoubleMatrix.ones(n);
+    DoubleMatrix b = t.mmul(x);
+    DoubleMatrix y = t.solve(b);
+    DoubleMatrix z = t.solvePositive(b);
+    for (int i = 0; i < n; i++) {
+      assertEquals(1.0, y.get(i), 1e-10);
+      assertEquals(1.0, z.get(i), 1e-10);
+    }
+  }
+
+  @Test(expected = LapackSingularityException.class)
+  public void testSingular() {
+    new TridiagonalDoubleMatrix(3).solve(DoubleMatrix.ones(3));
+  }
+
+  @Test(expected = LapackPositivityException.class)
+  public void testIndefinite() {
+    TridiagonalDoubleMatrix.symmetric(new double[] {1.0, 1.0}, new double[] {2.0}).solvePositive(DoubleMatrix.ones(2));
+  }
+}